@@ -0,0 +1,19 @@
+-- Arbre des catégories (chemin matérialisé, colonne category.path).
+-- Idempotent : à exécuter une fois par base, après le démarrage de la version
+-- qui ajoute les colonnes parent_id et path (ddl-auto=update).
+-- CONCURRENTLY évite de bloquer les écritures pendant la construction ; ne pas
+-- lancer ce script dans une transaction.
+
+-- Catégories existantes : toutes racines (l'application fait de même au démarrage).
+UPDATE category SET path = '/' || id || '/' WHERE path IS NULL AND parent_id IS NULL;
+
+-- LIKE 'prefixe%' n'utilise un B-tree qu'avec text_pattern_ops (collation non C).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_category_path_pattern
+    ON category (path text_pattern_ops);
+
+-- Flashcards d'un sous-arbre : jointure par category_id.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_flashcard_category_id
+    ON flashcard (category_id);
+
+ANALYZE category;
+ANALYZE flashcard;
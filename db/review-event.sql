@@ -0,0 +1,15 @@
+-- Journal des révisions (table review_event, écrite en ajout seul par lots).
+-- Idempotent : à exécuter une fois par base, après le démarrage de la version
+-- qui crée la table (ddl-auto=update). Ne pas lancer dans une transaction.
+
+-- Les lignes arrivent dans l'ordre de reviewed_at : un index BRIN de quelques
+-- pages suffit aux lectures par période, sans ralentir les insertions comme
+-- le ferait un B-tree.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_review_event_reviewed_at
+    ON review_event USING brin (reviewed_at);
+
+-- Table en ajout seul : l'autovacuum n'a rien à nettoyer, seulement à
+-- geler les pages et à tenir les statistiques à jour.
+ALTER TABLE review_event SET (autovacuum_vacuum_insert_scale_factor = 0.05);
+
+ANALYZE review_event;
@@ -0,0 +1,18 @@
+-- Index trigrammes pour la recherche textuelle (flashcards.search.mode=postgres).
+-- Idempotent : à exécuter une fois par base, après création des tables.
+-- CONCURRENTLY évite de bloquer les écritures pendant la construction ; ne pas
+-- lancer ce script dans une transaction.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_flashcard_question_trgm
+    ON flashcard USING gin (question gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_flashcard_answer_trgm
+    ON flashcard USING gin (answer gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_category_name_trgm
+    ON category USING gin (name gin_trgm_ops);
+
+ANALYZE flashcard;
+ANALYZE category;
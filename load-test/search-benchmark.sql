@@ -0,0 +1,63 @@
+-- Comparaison LIKE séquentiel / index pg_trgm sur 10k, 100k et 1M flashcards.
+-- Usage : psql -d flashcards_bench -v n=100000 -f load-test/search-benchmark.sql
+-- À lancer sur une base jetable : le script recrée la table bench_flashcard.
+
+\set ON_ERROR_STOP on
+\if :{?n}
+\else
+  \set n 10000
+\endif
+\timing on
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DROP TABLE IF EXISTS bench_flashcard;
+CREATE TABLE bench_flashcard (
+    id       bigint PRIMARY KEY,
+    question varchar(255) NOT NULL,
+    answer   varchar(255) NOT NULL
+);
+
+INSERT INTO bench_flashcard (id, question, answer)
+SELECT g,
+       'Question ' || g || ' about ' || (ARRAY['git', 'docker', 'kubernetes', 'java', 'vagrant'])[1 + g % 5]
+           || ' ' || md5(g::text),
+       'Answer ' || md5((g * 31)::text)
+FROM generate_series(1, :n) AS g;
+ANALYZE bench_flashcard;
+
+\echo '--- Terme fréquent (20 % des lignes), sans index trigrammes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id FROM bench_flashcard
+WHERE question ILIKE '%kubern%' OR answer ILIKE '%kubern%'
+ORDER BY id LIMIT 20;
+
+\echo '--- Requête de l''application (mode postgres), terme sélectif, sans index'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_flashcard f
+WHERE f.question ILIKE '%' || left(md5('4242'), 8) || '%'
+   OR f.answer ILIKE '%' || left(md5('4242'), 8) || '%'
+ORDER BY greatest(word_similarity(left(md5('4242'), 8), f.question),
+                  word_similarity(left(md5('4242'), 8), f.answer) / 2) DESC, f.id
+LIMIT 20;
+
+CREATE INDEX bench_question_trgm ON bench_flashcard USING gin (question gin_trgm_ops);
+CREATE INDEX bench_answer_trgm ON bench_flashcard USING gin (answer gin_trgm_ops);
+ANALYZE bench_flashcard;
+
+\echo '--- Même requête avec index trigrammes'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT id FROM bench_flashcard
+WHERE question ILIKE '%kubern%' OR answer ILIKE '%kubern%'
+ORDER BY id LIMIT 20;
+
+\echo '--- Requête de l''application (mode postgres), terme sélectif, avec index'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_flashcard f
+WHERE f.question ILIKE '%' || left(md5('4242'), 8) || '%'
+   OR f.answer ILIKE '%' || left(md5('4242'), 8) || '%'
+ORDER BY greatest(word_similarity(left(md5('4242'), 8), f.question),
+                  word_similarity(left(md5('4242'), 8), f.answer) / 2) DESC, f.id
+LIMIT 20;
+
+DROP TABLE bench_flashcard;
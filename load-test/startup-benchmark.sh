@@ -0,0 +1,129 @@
+#!/bin/sh
+# Startup benchmark: time from launch to the first successful /actuator/health and
+# /api/categories responses, over several cold starts.
+#
+# Usage:
+#   load-test/startup-benchmark.sh jar             # target/flashcards-*.jar
+#   load-test/startup-benchmark.sh fast            # target/fast-startup (./mvnw -Pfast-startup package)
+#   load-test/startup-benchmark.sh docker IMAGE    # container started with docker run
+#
+# Environment:
+#   RUNS               number of starts (default 5)
+#   PORT               HTTP port (default 8080)
+#   STARTUP_BUDGET_MS  fails when the median time to /api/categories is above it (default 40000)
+#   STARTUP_TIMEOUT_S  gives up on a start after this many seconds (default 120)
+#   JAVA_OPTS          extra JVM options (jar and fast modes)
+#   DOCKER_ARGS        extra docker run options, e.g. "--network host -e DB_HOST=..."
+# The database settings are those of the application (DB_HOST, DB_USER, SPRING_PROFILES_ACTIVE...).
+set -eu
+
+MODE=${1:-jar}
+IMAGE=${2:-flashcards:latest}
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+STARTUP_BUDGET_MS=${STARTUP_BUDGET_MS:-40000}
+STARTUP_TIMEOUT_S=${STARTUP_TIMEOUT_S:-120}
+JAVA_OPTS=${JAVA_OPTS:-}
+DOCKER_ARGS=${DOCKER_ARGS:-}
+BASE_URL="http://localhost:${PORT}"
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "${WORK_DIR}"' EXIT
+
+now_ms() {
+  echo $(($(date +%s%N) / 1000000))
+}
+
+start_app() {
+  case "${MODE}" in
+    jar)
+      # shellcheck disable=SC2086
+      java ${JAVA_OPTS} -Dserver.port="${PORT}" -jar target/flashcards-*.jar \
+        > "${WORK_DIR}/app.log" 2>&1 &
+      ;;
+    fast)
+      # shellcheck disable=SC2086
+      SPRING_PROFILES_ACTIVE="${SPRING_PROFILES_ACTIVE:-prod},fast-startup" java \
+        -XX:SharedArchiveFile=target/fast-startup/application.jsa \
+        -Dspring.aot.enabled=true ${JAVA_OPTS} -Dserver.port="${PORT}" \
+        -jar target/fast-startup/flashcards-*.jar \
+        > "${WORK_DIR}/app.log" 2>&1 &
+      ;;
+    docker)
+      # shellcheck disable=SC2086
+      docker run --rm --name flashcards-startup-benchmark -p "${PORT}:${PORT}" -e PORT="${PORT}" \
+        ${DOCKER_ARGS} "${IMAGE}" > "${WORK_DIR}/app.log" 2>&1 &
+      ;;
+    *)
+      echo "Unknown mode: ${MODE} (jar, fast or docker)" >&2
+      exit 2
+      ;;
+  esac
+  APP_PID=$!
+}
+
+stop_app() {
+  if [ "${MODE}" = docker ]; then
+    docker stop flashcards-startup-benchmark > /dev/null 2>&1 || true
+  else
+    kill "${APP_PID}" 2> /dev/null || true
+  fi
+  wait "${APP_PID}" 2> /dev/null || true
+}
+
+# Polls URL until it answers 2xx, prints the elapsed milliseconds since START
+wait_for() {
+  while ! curl -fs -o /dev/null "${BASE_URL}$1"; do
+    if ! kill -0 "${APP_PID}" 2> /dev/null; then
+      echo "Application exited before answering $1:" >&2
+      tail -n 30 "${WORK_DIR}/app.log" >&2
+      exit 1
+    fi
+    if [ $(($(now_ms) - START)) -gt $((STARTUP_TIMEOUT_S * 1000)) ]; then
+      echo "No answer from $1 after ${STARTUP_TIMEOUT_S}s" >&2
+      stop_app
+      exit 1
+    fi
+    sleep 0.05
+  done
+  echo $(($(now_ms) - START))
+}
+
+# Prints "median min max" of the numbers in a file
+stats() {
+  sort -n "$1" | awk '{ v[NR] = $1 } END {
+    m = NR % 2 ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2)
+    print m, v[1], v[NR]
+  }'
+}
+
+echo "====================================="
+echo "Startup benchmark"
+echo "Mode   : ${MODE}"
+echo "Runs   : ${RUNS}"
+echo "Budget : ${STARTUP_BUDGET_MS} ms to /api/categories (median)"
+echo "====================================="
+
+i=1
+while [ "${i}" -le "${RUNS}" ]; do
+  START=$(now_ms)
+  start_app
+  HEALTH=$(wait_for /actuator/health)
+  CATEGORIES=$(wait_for /api/categories)
+  stop_app
+  echo "${HEALTH}" >> "${WORK_DIR}/health"
+  echo "${CATEGORIES}" >> "${WORK_DIR}/categories"
+  echo "Run ${i}: /actuator/health ${HEALTH} ms, /api/categories ${CATEGORIES} ms"
+  i=$((i + 1))
+done
+
+set -- $(stats "${WORK_DIR}/health")
+echo "/actuator/health : median $1 ms (min $2, max $3)"
+set -- $(stats "${WORK_DIR}/categories")
+echo "/api/categories  : median $1 ms (min $2, max $3)"
+
+if [ "$1" -gt "${STARTUP_BUDGET_MS}" ]; then
+  echo "Startup budget exceeded: $1 ms > ${STARTUP_BUDGET_MS} ms" >&2
+  exit 1
+fi
+echo "Startup within budget"
@@ -0,0 +1,170 @@
+package com.example.flashcards.benchmark;
+
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.service.DeckFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Export et import d'un paquet de flashcards sur disque : format binaire {@link DeckFormat}
+ * (compressé ou non) contre un tableau JSON écrit et relu avec Jackson. Les tailles des fichiers
+ * sont affichées à la préparation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeckFormatBenchmark {
+
+  /** Nombre de flashcards du paquet. */
+  @Param({"100000", "500000"})
+  private int size;
+
+  private ObjectMapper objectMapper;
+
+  private ObjectReader jsonReader;
+
+  private List<FlashcardDto> flashcards;
+
+  private Path dir;
+
+  private Path binaryFile;
+
+  private Path compressedFile;
+
+  private Path jsonFile;
+
+  /**
+   * Construit le paquet et écrit une fois chaque format pour les lectures.
+   *
+   * @throws IOException en cas d'erreur d'écriture
+   */
+  @Setup
+  public void setUp() throws IOException {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    jsonReader = objectMapper.readerFor(FlashcardDto[].class);
+    flashcards = new ArrayList<>(size);
+    for (long i = 1; i <= size; i++) {
+      flashcards.add(
+          new FlashcardDto(i, "Question numéro " + i + " ?", "Réponse numéro " + i + ".", 1L));
+    }
+    dir = Files.createTempDirectory("deck-benchmark");
+    binaryFile = dir.resolve("binary" + DeckFormat.EXTENSION);
+    compressedFile = dir.resolve("compressed" + DeckFormat.EXTENSION);
+    jsonFile = dir.resolve("deck.json");
+    writeBinary(binaryFile, false);
+    writeBinary(compressedFile, true);
+    writeJson(jsonFile);
+    System.out.printf(
+        "%n%d cards: binary %d bytes, compressed %d bytes, JSON %d bytes%n",
+        size, Files.size(binaryFile), Files.size(compressedFile), Files.size(jsonFile));
+  }
+
+  /**
+   * Supprime les fichiers du banc.
+   *
+   * @throws IOException en cas d'erreur de suppression
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    for (Path file : List.of(binaryFile, compressedFile, jsonFile, dir.resolve("out"))) {
+      Files.deleteIfExists(file);
+    }
+    Files.deleteIfExists(dir);
+  }
+
+  @Benchmark
+  public long writeBinary() throws IOException {
+    return writeBinary(dir.resolve("out"), false);
+  }
+
+  @Benchmark
+  public long writeBinaryCompressed() throws IOException {
+    return writeBinary(dir.resolve("out"), true);
+  }
+
+  @Benchmark
+  public long writeJson() throws IOException {
+    return writeJson(dir.resolve("out"));
+  }
+
+  @Benchmark
+  public long readBinary() throws IOException {
+    return readBinary(binaryFile);
+  }
+
+  @Benchmark
+  public long readBinaryCompressed() throws IOException {
+    return readBinary(compressedFile);
+  }
+
+  @Benchmark
+  public long readJson() throws IOException {
+    try (InputStream in = Files.newInputStream(jsonFile)) {
+      final FlashcardDto[] cards = jsonReader.readValue(in);
+      return cards.length;
+    }
+  }
+
+  private long writeBinary(final Path file, final boolean compress) throws IOException {
+    try (FileChannel channel =
+            FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        DeckFormat.Writer writer = DeckFormat.writer(channel, "Benchmark", compress)) {
+      for (FlashcardDto card : flashcards) {
+        writer.write(card.getQuestion(), card.getAnswer());
+      }
+      return writer.count();
+    }
+  }
+
+  private long writeJson(final Path file) throws IOException {
+    try (OutputStream out = Files.newOutputStream(file)) {
+      objectMapper.writeValue(out, flashcards);
+    }
+    return flashcards.size();
+  }
+
+  private static long readBinary(final Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      long chars = 0;
+      try (DeckFormat.Reader reader = DeckFormat.reader(mapped)) {
+        while (reader.hasNext()) {
+          chars += reader.next().question().length();
+        }
+      }
+      return chars;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.example.flashcards.benchmark;
+
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.entity.Category;
+import com.example.flashcards.entity.Flashcard;
+import com.example.flashcards.mapper.CategoryMapper;
+import com.example.flashcards.mapper.FlashcardMapper;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Conversions entité / DTO de {@link FlashcardMapper} et {@link CategoryMapper}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+  private Category category;
+
+  private Flashcard flashcard;
+
+  private FlashcardDto flashcardDto;
+
+  private CategoryDto categoryDto;
+
+  /** Prépare une entité et un DTO de chaque type. */
+  @Setup
+  public void setUp() {
+    category = new Category(7L, "Algorithmes", new ArrayList<>());
+    flashcard = new Flashcard(42L, "Complexité d'un tri fusion ?", "O(n log n)", category);
+    flashcardDto = new FlashcardDto(42L, "Complexité d'un tri fusion ?", "O(n log n)", 7L);
+    categoryDto = new CategoryDto(7L, "Algorithmes");
+  }
+
+  @Benchmark
+  public FlashcardDto flashcardToDto() {
+    return FlashcardMapper.toDto(flashcard);
+  }
+
+  @Benchmark
+  public Flashcard flashcardToEntity() {
+    return FlashcardMapper.toEntity(flashcardDto, category);
+  }
+
+  @Benchmark
+  public CategoryDto categoryToDto() {
+    return CategoryMapper.toDto(category);
+  }
+
+  @Benchmark
+  public Category categoryToEntity() {
+    return CategoryMapper.toEntity(categoryDto);
+  }
+}
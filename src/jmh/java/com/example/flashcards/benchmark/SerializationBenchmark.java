@@ -0,0 +1,61 @@
+package com.example.flashcards.benchmark;
+
+import com.example.flashcards.dto.FlashcardDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Sérialisation Jackson d'une {@code List<FlashcardDto>} de plusieurs tailles, avec un mapper
+ * configuré comme celui de Spring MVC.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+  /** Nombre de flashcards sérialisées. */
+  @Param({"10", "1000", "10000"})
+  private int size;
+
+  private ObjectMapper objectMapper;
+
+  private List<FlashcardDto> flashcards;
+
+  /** Construit le mapper et la liste à sérialiser. */
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    flashcards = new ArrayList<>(size);
+    for (long i = 1; i <= size; i++) {
+      flashcards.add(new FlashcardDto(i, "Question numéro " + i + " ?", "Réponse " + i, i % 20));
+    }
+  }
+
+  @Benchmark
+  public byte[] writeValueAsBytes() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(flashcards);
+  }
+
+  @Benchmark
+  public String writeValueAsString() throws JsonProcessingException {
+    return objectMapper.writeValueAsString(flashcards);
+  }
+}
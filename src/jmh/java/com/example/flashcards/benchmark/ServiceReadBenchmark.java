@@ -0,0 +1,140 @@
+package com.example.flashcards.benchmark;
+
+import com.example.flashcards.FlashcardsApplication;
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.dto.FlashcardPageDto;
+import com.example.flashcards.entity.Category;
+import com.example.flashcards.service.CategoryListSnapshot;
+import com.example.flashcards.service.CategoryService;
+import com.example.flashcards.service.FlashcardService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Chemins de lecture des services sur une base H2 embarquée, avec le contexte Spring complet
+ * (repositories, caches, index en mémoire).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceReadBenchmark {
+
+  private static final int CATEGORIES = 20;
+
+  /** Nombre de flashcards en base. */
+  @Param({"10000"})
+  private int flashcards;
+
+  private ConfigurableApplicationContext context;
+
+  private FlashcardService flashcardService;
+
+  private CategoryService categoryService;
+
+  private CategoryListSnapshot categoryListSnapshot;
+
+  private long firstId;
+
+  /** Démarre l'application sur H2 et insère le jeu de données. */
+  @Setup
+  public void setUp() {
+    context =
+        new SpringApplicationBuilder(FlashcardsApplication.class)
+            .web(WebApplicationType.NONE)
+            .profiles("benchmark")
+            .run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.sql.init.mode=never",
+                "--logging.level.root=WARN");
+    flashcardService = context.getBean(FlashcardService.class);
+    categoryService = context.getBean(CategoryService.class);
+    categoryListSnapshot = context.getBean(CategoryListSnapshot.class);
+
+    final List<Long> categoryIds = new ArrayList<>();
+    for (int i = 0; i < CATEGORIES; i++) {
+      final Category category = new Category(null, "Catégorie " + i, null);
+      categoryIds.add(categoryService.createCategory(category).getId());
+    }
+    final List<FlashcardDto> batch = new ArrayList<>();
+    for (int i = 0; i < flashcards; i++) {
+      batch.add(
+          new FlashcardDto(
+              null,
+              "Question " + i + " sur les index ?",
+              "Réponse " + i,
+              categoryIds.get(i % CATEGORIES)));
+      if (batch.size() == FlashcardService.MAX_BATCH_SIZE) {
+        flashcardService.importFlashcards(batch);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      flashcardService.importFlashcards(batch);
+    }
+    firstId = flashcardService.getFlashcardPage(null, 1).getItems().get(0).getId();
+  }
+
+  /** Arrête l'application. */
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<FlashcardDto> getAllFlashcards() {
+    return flashcardService.getAllFlashcards();
+  }
+
+  @Benchmark
+  public FlashcardPageDto getFirstPage() {
+    return flashcardService.getFlashcardPage(null, FlashcardService.DEFAULT_PAGE_SIZE);
+  }
+
+  @Benchmark
+  public Optional<FlashcardDto> getFlashcardById() {
+    return flashcardService.getFlashcardById(
+        firstId + ThreadLocalRandom.current().nextInt(flashcards));
+  }
+
+  @Benchmark
+  public List<FlashcardDto> searchByQuestion() {
+    return flashcardService.searchByQuestion("index", FlashcardService.DEFAULT_SEARCH_LIMIT);
+  }
+
+  @Benchmark
+  public List<CategoryDto> getAllCategories() {
+    return categoryService.getAllCategories();
+  }
+
+  @Benchmark
+  public CategoryListSnapshot.Snapshot getCategoryListSnapshot() {
+    return categoryListSnapshot.get();
+  }
+}
@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityFilterAutoConfiguration;
 import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Classe principale de l'application Flashcards.
@@ -17,6 +18,7 @@ import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServic
       SecurityFilterAutoConfiguration.class,
       UserDetailsServiceAutoConfiguration.class
     })
+@EnableScheduling
 public class FlashcardsApplication {
 
   /**
@@ -0,0 +1,39 @@
+package com.example.flashcards.config;
+
+import com.example.flashcards.dto.CategoryDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Caches applicatifs en mémoire. */
+@Configuration
+public class CacheConfig {
+
+  /** Nom du cache des catégories, repris dans les métriques {@code cache.*}. */
+  public static final String CATEGORY_LOOKUP_CACHE = "categoryLookup";
+
+  /**
+   * Cache des catégories consultées par identifiant, borné en taille et en durée de vie.
+   *
+   * <p>Les hits et misses sont publiés sous {@code cache.gets{cache="categoryLookup"}}.
+   *
+   * @param maximumSize nombre maximal de catégories conservées
+   * @param ttl durée de vie d'une entrée après écriture
+   * @param meterRegistry registre Micrometer
+   * @return le cache
+   */
+  @Bean
+  public Cache<Long, CategoryDto> categoryLookupCache(
+      @Value("${flashcards.category-cache.maximum-size:1000}") final long maximumSize,
+      @Value("${flashcards.category-cache.ttl:10m}") final Duration ttl,
+      final MeterRegistry meterRegistry) {
+    final Cache<Long, CategoryDto> cache =
+        Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+    return CaffeineCacheMetrics.monitor(meterRegistry, cache, CATEGORY_LOOKUP_CACHE);
+  }
+}
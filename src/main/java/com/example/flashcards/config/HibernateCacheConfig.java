@@ -0,0 +1,106 @@
+package com.example.flashcards.config;
+
+import com.example.flashcards.entity.Category;
+import com.example.flashcards.repository.CategoryRepository;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Cache de second niveau et cache de requêtes Hibernate, en JCache sur Caffeine.
+ *
+ * <p>Les régions sont créées ici, bornées en taille et en durée de vie ({@code
+ * flashcards.hibernate-cache.*}, réglables par profil) : une région non déclarée fait échouer le
+ * démarrage ({@code missing_cache_strategy=fail}). Seule la région des horodatages de mise à jour
+ * n'est pas bornée, car une entrée évincée trop tôt rendrait le cache de requêtes incohérent ; elle
+ * ne contient qu'une entrée par table.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+  /**
+   * Gestionnaire JCache propre au contexte Spring (URI unique) : deux contextes, par exemple de
+   * test, ne partagent pas leurs entrées.
+   *
+   * @param entityMaximumSize nombre maximal d'entités par région d'entité
+   * @param entityTtl durée de vie d'une entité en cache
+   * @param queryMaximumSize nombre maximal de résultats par région de requêtes
+   * @param queryTtl durée de vie d'un résultat de requête en cache
+   * @return le gestionnaire, fermé avec le contexte
+   */
+  @Bean(destroyMethod = "close")
+  public CacheManager hibernateCacheManager(
+      @Value("${flashcards.hibernate-cache.entity.maximum-size:10000}")
+          final long entityMaximumSize,
+      @Value("${flashcards.hibernate-cache.entity.ttl:1h}") final Duration entityTtl,
+      @Value("${flashcards.hibernate-cache.query.maximum-size:1000}") final long queryMaximumSize,
+      @Value("${flashcards.hibernate-cache.query.ttl:10m}") final Duration queryTtl) {
+    final CachingProvider provider =
+        Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+    final CacheManager manager =
+        provider.getCacheManager(
+            URI.create("flashcards-hibernate-" + UUID.randomUUID()),
+            HibernateCacheConfig.class.getClassLoader());
+    manager.createCache(Category.CACHE_REGION, region(entityMaximumSize, entityTtl));
+    manager.createCache(CategoryRepository.SEARCH_CACHE_REGION, region(queryMaximumSize, queryTtl));
+    manager.createCache(
+        RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+        region(queryMaximumSize, queryTtl));
+    manager.createCache(
+        RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(null, null));
+    return manager;
+  }
+
+  /**
+   * Transmet le gestionnaire JCache à Hibernate.
+   *
+   * @param hibernateCacheManager gestionnaire des régions
+   * @return la personnalisation des propriétés Hibernate
+   */
+  @Bean
+  public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(
+      final CacheManager hibernateCacheManager) {
+    return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+  }
+
+  /**
+   * Statistiques des caches Hibernate publiées dans Micrometer ({@code /actuator/metrics}).
+   *
+   * @param entityManagerFactory fabrique JPA (Hibernate)
+   * @return le binder des métriques
+   */
+  @Bean
+  @Lazy(false)
+  public MeterBinder hibernateCacheMetrics(final EntityManagerFactory entityManagerFactory) {
+    return new HibernateCacheMetrics(entityManagerFactory.unwrap(SessionFactory.class));
+  }
+
+  private static CaffeineConfiguration<Object, Object> region(
+      final Long maximumSize, final Duration ttl) {
+    final CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+    if (maximumSize != null) {
+      config.setMaximumSize(OptionalLong.of(maximumSize));
+    }
+    if (ttl != null) {
+      config.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+    }
+    config.setStatisticsEnabled(true);
+    return config;
+  }
+}
@@ -0,0 +1,98 @@
+package com.example.flashcards.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.ToDoubleFunction;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Métriques des caches Hibernate, lues dans ses statistiques ({@code
+ * hibernate.generate_statistics=true}).
+ *
+ * <ul>
+ *   <li>{@code hibernate.cache.requests} : lectures par région (tags {@code region} et {@code
+ *       result}, {@code hit} ou {@code miss}) ;
+ *   <li>{@code hibernate.cache.puts} : écritures par région ;
+ *   <li>{@code hibernate.cache.size} : entrées en mémoire par région ;
+ *   <li>{@code hibernate.query.cache.requests} : lectures du cache de requêtes (tag {@code result})
+ *       ;
+ *   <li>{@code hibernate.statements} : instructions JDBC préparées, pour mesurer les requêtes
+ *       évitées.
+ * </ul>
+ */
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "The session factory is a long-lived singleton")
+public class HibernateCacheMetrics implements MeterBinder {
+
+  /** Fabrique de sessions dont les statistiques sont publiées. */
+  private final SessionFactory sessionFactory;
+
+  /**
+   * Constructeur.
+   *
+   * @param sessionFactory fabrique de sessions Hibernate
+   */
+  public HibernateCacheMetrics(final SessionFactory sessionFactory) {
+    this.sessionFactory = sessionFactory;
+  }
+
+  @Override
+  public void bindTo(final MeterRegistry registry) {
+    final Statistics stats = sessionFactory.getStatistics();
+    for (String region : stats.getSecondLevelCacheRegionNames()) {
+      regionCounter(
+          registry, stats, "hibernate.cache.requests", region, "hit", r -> r.getHitCount());
+      regionCounter(
+          registry, stats, "hibernate.cache.requests", region, "miss", r -> r.getMissCount());
+      regionCounter(registry, stats, "hibernate.cache.puts", region, null, r -> r.getPutCount());
+      Gauge.builder(
+              "hibernate.cache.size",
+              stats,
+              s -> {
+                final CacheRegionStatistics r = s.getCacheRegionStatistics(region);
+                return r != null ? Math.max(0, r.getElementCountInMemory()) : 0;
+              })
+          .tag("region", region)
+          .register(registry);
+    }
+    FunctionCounter.builder(
+            "hibernate.query.cache.requests", stats, Statistics::getQueryCacheHitCount)
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder(
+            "hibernate.query.cache.requests", stats, Statistics::getQueryCacheMissCount)
+        .tag("result", "miss")
+        .register(registry);
+    FunctionCounter.builder("hibernate.statements", stats, Statistics::getPrepareStatementCount)
+        .tag("status", "prepared")
+        .register(registry);
+  }
+
+  private static void regionCounter(
+      final MeterRegistry registry,
+      final Statistics stats,
+      final String name,
+      final String region,
+      final String result,
+      final ToDoubleFunction<CacheRegionStatistics> value) {
+    final FunctionCounter.Builder<Statistics> builder =
+        FunctionCounter.builder(
+                name,
+                stats,
+                s -> {
+                  final CacheRegionStatistics r = s.getCacheRegionStatistics(region);
+                  return r != null ? value.applyAsDouble(r) : 0;
+                })
+            .tag("region", region);
+    if (result != null) {
+      builder.tag("result", result);
+    }
+    builder.register(registry);
+  }
+}
@@ -0,0 +1,53 @@
+package com.example.flashcards.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Instrumentation Micrometer des services et des repositories.
+ *
+ * <ul>
+ *   <li>{@code flashcards.service} : timer de chaque méthode publique des services annotés
+ *       {@code @Timed} (tags {@code class}, nom qualifié, et {@code method}) ;
+ *   <li>{@code spring.data.repository.invocations} : timer de chaque appel de repository, publié
+ *       par Spring Boot (tags {@code repository} et {@code method}) ;
+ *   <li>{@code flashcards.rows} : nombre de lignes renvoyées par les requêtes de liste et par la
+ *       recherche en mémoire (tags {@code source} et {@code method}).
+ * </ul>
+ *
+ * <p>Histogrammes de percentiles et paliers de SLO se règlent par métrique avec {@code
+ * management.metrics.distribution.*}.
+ */
+@Configuration
+public class MetricsConfig {
+
+  /** Nom du timer des méthodes de service. */
+  public static final String SERVICE_TIMER = "flashcards.service";
+
+  /** Nom du compteur de lignes renvoyées. */
+  public static final String ROWS_COUNTER = "flashcards.rows";
+
+  /**
+   * Aspect qui chronomètre les méthodes annotées {@code @Timed}.
+   *
+   * @param meterRegistry registre Micrometer
+   * @return l'aspect
+   */
+  @Bean
+  public TimedAspect timedAspect(final MeterRegistry meterRegistry) {
+    return new TimedAspect(meterRegistry);
+  }
+
+  /**
+   * Aspect qui compte les lignes renvoyées par les requêtes de liste.
+   *
+   * @param meterRegistry registre Micrometer
+   * @return l'aspect
+   */
+  @Bean
+  public RowCountAspect rowCountAspect(final MeterRegistry meterRegistry) {
+    return new RowCountAspect(meterRegistry);
+  }
+}
@@ -0,0 +1,111 @@
+package com.example.flashcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Réplica de lecture, actif seulement si {@code flashcards.datasource.replica.url} est renseigné.
+ *
+ * <p>Deux pools Hikari sont créés : le primaire, configuré comme d'habitude par {@code
+ * spring.datasource.*}, et le réplica ({@code flashcards.datasource.replica.*}, identifiants du
+ * primaire par défaut). La source de données exposée à JPA et à JDBC envoie les transactions
+ * {@code @Transactional(readOnly = true)} au réplica tant que {@link ReplicaLagMonitor} le juge à
+ * jour, et tout le reste au primaire. Les lectures servies sous la version d'une collection
+ * (ETag de {@code DataVersions}) restent sur le primaire. Sans URL de réplica, la configuration
+ * automatique de Spring Boot s'applique inchangée.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "flashcards.datasource.replica", name = "url")
+public class ReadReplicaConfig {
+
+  /**
+   * Pool du primaire.
+   *
+   * @param properties propriétés {@code spring.datasource.*}
+   * @return le pool, réglé par {@code spring.datasource.hikari.*}
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(final DataSourceProperties properties) {
+    final HikariDataSource dataSource =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("primary");
+    return dataSource;
+  }
+
+  /**
+   * Pool du réplica.
+   *
+   * @param properties propriétés du primaire (pilote et identifiants par défaut)
+   * @param url URL JDBC du réplica
+   * @param username utilisateur du réplica
+   * @param password mot de passe du réplica
+   * @return le pool, réglé par {@code flashcards.datasource.replica.hikari.*}
+   */
+  @Bean
+  @ConfigurationProperties("flashcards.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(
+      final DataSourceProperties properties,
+      @Value("${flashcards.datasource.replica.url}") final String url,
+      @Value("${flashcards.datasource.replica.username:${spring.datasource.username:}}")
+          final String username,
+      @Value("${flashcards.datasource.replica.password:${spring.datasource.password:}}")
+          final String password) {
+    final HikariDataSource dataSource =
+        DataSourceBuilder.create(properties.getClassLoader())
+            .type(HikariDataSource.class)
+            .driverClassName(properties.determineDriverClassName())
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+    dataSource.setPoolName("replica");
+    return dataSource;
+  }
+
+  /**
+   * Surveillance du retard du réplica.
+   *
+   * @param replicaDataSource pool du réplica
+   * @param lagQuery requête renvoyant le retard en secondes (vide : test de connexion seul)
+   * @param maxLag retard au-delà duquel les lectures retournent au primaire
+   * @return le moniteur, exécuté périodiquement
+   */
+  @Bean
+  @Lazy(false)
+  public ReplicaLagMonitor replicaLagMonitor(
+      final HikariDataSource replicaDataSource,
+      @Value("${flashcards.datasource.replica.lag-query:}") final String lagQuery,
+      @Value("${flashcards.datasource.replica.max-lag:PT5S}") final Duration maxLag) {
+    return new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLag);
+  }
+
+  /**
+   * Source de données de l'application, routée selon l'attribut {@code readOnly} de la transaction.
+   *
+   * @param primaryDataSource pool du primaire
+   * @param replicaDataSource pool du réplica
+   * @param replicaLagMonitor disponibilité du réplica
+   * @return la source de données routée, à connexion paresseuse
+   */
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      final HikariDataSource primaryDataSource,
+      final HikariDataSource replicaDataSource,
+      final ReplicaLagMonitor replicaLagMonitor) {
+    return new LazyConnectionDataSourceProxy(
+        new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor));
+  }
+}
@@ -0,0 +1,77 @@
+package com.example.flashcards.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Source de données qui envoie les transactions en lecture seule au réplica et tout le reste au
+ * primaire.
+ *
+ * <p>Le choix se fait à l'ouverture de la connexion physique : cette source doit donc être
+ * enveloppée dans un {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * pour que la connexion ne soit ouverte qu'à la première requête, une fois la transaction (et son
+ * attribut {@code readOnly}) déclarée. Si le réplica est en retard ou ne fournit pas de connexion,
+ * la lecture se fait sur le primaire.
+ */
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "The pools are Spring-managed singletons shared on purpose")
+public class ReadReplicaRoutingDataSource extends AbstractDataSource {
+
+  /** Pool du primaire, pour les écritures et les lectures hors transaction. */
+  private final DataSource primary;
+
+  /** Pool du réplica, pour les transactions en lecture seule. */
+  private final DataSource replica;
+
+  /** Disponibilité du réplica. */
+  private final ReplicaLagMonitor monitor;
+
+  /**
+   * Constructeur.
+   *
+   * @param primary pool du primaire
+   * @param replica pool du réplica
+   * @param monitor disponibilité du réplica
+   */
+  public ReadReplicaRoutingDataSource(
+      final DataSource primary, final DataSource replica, final ReplicaLagMonitor monitor) {
+    this.primary = primary;
+    this.replica = replica;
+    this.monitor = monitor;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (routesToReplica()) {
+      try {
+        return replica.getConnection();
+      } catch (SQLException e) {
+        monitor.markDown(e);
+      }
+    }
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(final String username, final String password)
+      throws SQLException {
+    if (routesToReplica()) {
+      try {
+        return replica.getConnection(username, password);
+      } catch (SQLException e) {
+        monitor.markDown(e);
+      }
+    }
+    return primary.getConnection(username, password);
+  }
+
+  private boolean routesToReplica() {
+    return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        && monitor.isAvailable();
+  }
+}
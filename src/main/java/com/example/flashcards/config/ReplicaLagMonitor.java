@@ -0,0 +1,120 @@
+package com.example.flashcards.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Surveille le réplica de lecture : il n'est utilisé que s'il répond et que son retard sur le
+ * primaire reste sous {@code flashcards.datasource.replica.max-lag}.
+ *
+ * <p>Le retard est mesuré à intervalle régulier ({@code
+ * flashcards.datasource.replica.check-interval}) par une requête configurable renvoyant un nombre
+ * de secondes. Tant que la première mesure n'a pas eu lieu, ou après un échec de connexion signalé
+ * par {@link ReadReplicaRoutingDataSource}, les lectures retournent au primaire.
+ *
+ * <p>Métriques : {@code flashcards.datasource.replica.lag} (secondes) et {@code
+ * flashcards.datasource.replica.available} (0 ou 1).
+ */
+@Slf4j
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "The replica pool is a Spring-managed singleton shared on purpose")
+public class ReplicaLagMonitor implements MeterBinder {
+
+  /** Pool du réplica. */
+  private final DataSource replica;
+
+  /** Requête renvoyant le retard du réplica en secondes (vide : seule la connexion est testée). */
+  private final String lagQuery;
+
+  /** Retard au-delà duquel le réplica n'est plus utilisé. */
+  private final Duration maxLag;
+
+  /** Dernier retard mesuré, en secondes ({@code NaN} si le réplica ne répond pas). */
+  private volatile double lagSeconds = Double.NaN;
+
+  /** Indique si les lectures peuvent être envoyées au réplica. */
+  private volatile boolean available;
+
+  /**
+   * Constructeur.
+   *
+   * @param replica pool du réplica
+   * @param lagQuery requête renvoyant le retard en secondes, ou chaîne vide
+   * @param maxLag retard maximal toléré
+   */
+  public ReplicaLagMonitor(final DataSource replica, final String lagQuery, final Duration maxLag) {
+    this.replica = replica;
+    this.lagQuery = lagQuery == null ? "" : lagQuery.trim();
+    this.maxLag = maxLag;
+  }
+
+  /**
+   * Indique si les transactions en lecture seule peuvent être servies par le réplica.
+   *
+   * @return {@code true} si le réplica répond et que son retard est acceptable
+   */
+  public boolean isAvailable() {
+    return available;
+  }
+
+  /** Mesure le retard du réplica et met à jour sa disponibilité. */
+  @Scheduled(fixedDelayString = "${flashcards.datasource.replica.check-interval:PT5S}")
+  public void check() {
+    try (Connection connection = replica.getConnection()) {
+      lagSeconds = lagQuery.isEmpty() ? 0 : queryLag(connection);
+    } catch (SQLException e) {
+      markDown(e);
+      return;
+    }
+    final boolean upToDate = lagSeconds * 1000 <= maxLag.toMillis();
+    if (upToDate != available) {
+      log.info("Read replica {} (lag {} s)", upToDate ? "in use" : "lagging", lagSeconds);
+    }
+    available = upToDate;
+  }
+
+  /**
+   * Retire le réplica jusqu'à la prochaine mesure réussie.
+   *
+   * @param cause erreur constatée
+   */
+  public void markDown(final SQLException cause) {
+    if (available) {
+      log.warn("Read replica unavailable, reads fall back to primary: {}", cause.getMessage());
+    }
+    available = false;
+    lagSeconds = Double.NaN;
+  }
+
+  @Override
+  public void bindTo(final MeterRegistry registry) {
+    Gauge.builder("flashcards.datasource.replica.lag", this, m -> m.lagSeconds)
+        .description("Replication lag of the read replica")
+        .baseUnit("seconds")
+        .register(registry);
+    Gauge.builder("flashcards.datasource.replica.available", this, m -> m.available ? 1 : 0)
+        .description("Whether read-only transactions are routed to the replica")
+        .register(registry);
+  }
+
+  @SuppressFBWarnings(
+      value = "SQL_NONCONSTANT_STRING_PASSED_TO_EXECUTE",
+      justification = "The lag query comes from the application configuration, not from users")
+  private double queryLag(final Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery(lagQuery)) {
+      return rs.next() ? rs.getDouble(1) : 0;
+    }
+  }
+}
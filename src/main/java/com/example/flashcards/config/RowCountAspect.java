@@ -0,0 +1,83 @@
+package com.example.flashcards.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+
+/**
+ * Compte, dans {@link MetricsConfig#ROWS_COUNTER}, les éléments des listes renvoyées par les
+ * méthodes des repositories de l'application et par la recherche en mémoire.
+ *
+ * <p>Un compteur par méthode, créé au premier appel puis réutilisé. Les méthodes héritées de Spring
+ * Data ({@code findAll}…) ne sont pas comptées.
+ */
+@Aspect
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects the shared meter registry bean safely")
+public class RowCountAspect {
+
+  private static final String APP_PACKAGE = "com.example.flashcards.";
+
+  /** Registre Micrometer. */
+  private final MeterRegistry meterRegistry;
+
+  /** Compteur de chaque méthode instrumentée. */
+  private final Map<Method, Counter> counters = new ConcurrentHashMap<>();
+
+  /**
+   * Constructeur.
+   *
+   * @param meterRegistry registre Micrometer
+   */
+  public RowCountAspect(final MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Exécute la requête puis ajoute la taille du résultat au compteur de la méthode.
+   *
+   * @param joinPoint appel intercepté
+   * @return résultat de l'appel, inchangé
+   * @throws Throwable exception levée par l'appel
+   */
+  @Around(
+      "execution(java.util.List com.example.flashcards.repository..*.*(..))"
+          + " || execution(java.util.List"
+          + " com.example.flashcards.service.FlashcardSearchIndex.search(..))")
+  public Object countRows(final ProceedingJoinPoint joinPoint) throws Throwable {
+    final Object result = joinPoint.proceed();
+    if (result instanceof List<?> rows
+        && joinPoint.getSignature() instanceof MethodSignature signature) {
+      final Counter counter = counterOf(signature.getMethod());
+      if (counter != null) {
+        counter.increment(rows.size());
+      }
+    }
+    return result;
+  }
+
+  private Counter counterOf(final Method method) {
+    final Class<?> source = method.getDeclaringClass();
+    if (!source.getName().startsWith(APP_PACKAGE)) {
+      return null;
+    }
+    return counters.computeIfAbsent(
+        method,
+        m ->
+            Counter.builder(MetricsConfig.ROWS_COUNTER)
+                .description("Rows returned by list queries")
+                .baseUnit("rows")
+                .tag("source", source.getSimpleName())
+                .tag("method", m.getName())
+                .register(meterRegistry));
+  }
+}
@@ -1,43 +1,105 @@
 package com.example.flashcards.controller;
 
+import com.example.flashcards.dto.CategoryDeletionDto;
 import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.CategoryTreeDto;
+import com.example.flashcards.dto.DeckImportDto;
+import com.example.flashcards.dto.LearningStatsDto;
 import com.example.flashcards.entity.Category;
 import com.example.flashcards.mapper.CategoryMapper;
+import com.example.flashcards.service.CategoryDeletionJobs;
+import com.example.flashcards.service.CategoryListSnapshot;
 import com.example.flashcards.service.CategoryService;
+import com.example.flashcards.service.DeckFormat;
+import com.example.flashcards.service.DeckService;
+import com.example.flashcards.service.ReviewService;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 /** Contrôleur REST pour la gestion des catégories de flashcards. */
 @RestController
 @RequestMapping("/api/categories")
 public class CategoryController {
 
+  /** Suffixe d'ETag de la représentation compressée en gzip. */
+  private static final String GZIP_VARIANT = "-gz";
+
   /** Service gérant la logique métier liée aux catégories. */
   private final CategoryService categoryService;
 
+  /** Requêtes conditionnelles (ETag, Cache-Control) des lectures. */
+  private final HttpCaching httpCaching;
+
+  /** Liste des catégories déjà sérialisée. */
+  private final CategoryListSnapshot categoryListSnapshot;
+
+  /** Suppressions asynchrones des grandes catégories. */
+  private final CategoryDeletionJobs categoryDeletionJobs;
+
+  /** Service de révision (statistiques). */
+  private final ReviewService reviewService;
+
+  /** Export et import des paquets binaires. */
+  private final DeckService deckService;
+
   /**
    * Constructeur avec injection du service.
    *
    * @param categoryService service de gestion des catégories
+   * @param httpCaching gestion des requêtes conditionnelles
+   * @param categoryListSnapshot liste des catégories déjà sérialisée
+   * @param categoryDeletionJobs suppressions asynchrones
+   * @param reviewService service de révision
+   * @param deckService export et import des paquets binaires
    */
   // CHECKSTYLE:OFF: ParameterAssignment
   @SuppressFBWarnings(
       value = "EI_EXPOSE_REP2",
       justification = "Spring injects immutable service beans safely")
   @Autowired
-  public CategoryController(final CategoryService categoryService) {
+  public CategoryController(
+      final CategoryService categoryService,
+      final HttpCaching httpCaching,
+      final CategoryListSnapshot categoryListSnapshot,
+      final CategoryDeletionJobs categoryDeletionJobs,
+      final ReviewService reviewService,
+      final DeckService deckService) {
     this.categoryService = categoryService;
+    this.httpCaching = httpCaching;
+    this.categoryListSnapshot = categoryListSnapshot;
+    this.categoryDeletionJobs = categoryDeletionJobs;
+    this.reviewService = reviewService;
+    this.deckService = deckService;
   }
 
   // CHECKSTYLE:ON: ParameterAssignment
@@ -45,53 +107,190 @@ public class CategoryController {
   /**
    * Récupère toutes les catégories.
    *
-   * @return liste des catégories
+   * <p>Le corps est l'instantané JSON déjà sérialisé de {@link CategoryListSnapshot}, compressé en
+   * gzip si le client l'accepte.
+   *
+   * @param request requête courante (ETag, Accept-Encoding)
+   * @return liste des catégories en JSON, ou {@code null} si le client est à jour (304)
    */
-  @GetMapping
-  public List<CategoryDto> getAll() {
-    return categoryService.getAllCategories().stream().map(CategoryMapper::toDto).toList();
+  @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<byte[]> getAll(final ServletWebRequest request) {
+    final boolean gzip =
+        categoryListSnapshot.isGzipEnabled()
+            && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    if (httpCaching.categoriesNotModified(request, gzip ? GZIP_VARIANT : "")) {
+      return null;
+    }
+    final CategoryListSnapshot.Snapshot snapshot = categoryListSnapshot.get();
+    final ResponseEntity.BodyBuilder response =
+        ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+    }
+    return response.body(snapshot.json());
   }
 
   /**
-   * Récupère une catégorie par son identifiant.
+   * Récupère une catégorie par son identifiant, avec l'ETag de sa version (à renvoyer dans {@code
+   * If-Match} pour la renommer).
    *
    * @param id identifiant de la catégorie
-   * @return la catégorie correspondante
+   * @param request requête courante (ETag)
+   * @return la catégorie correspondante, ou {@code null} si le client est à jour (304)
    */
   @GetMapping("/{id}")
-  public ResponseEntity<CategoryDto> getById(@PathVariable final Long id) {
+  public ResponseEntity<CategoryDto> getById(
+      @PathVariable final Long id, final ServletWebRequest request) {
+    final Optional<CategoryDto> dto = categoryService.getCategoryDto(id);
+    if (dto.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    if (httpCaching.resourceNotModified(request, HttpCaching.etag(dto.get()))) {
+      return null;
+    }
+    return ResponseEntity.ok(dto.get());
+  }
+
+  /**
+   * Recherche une catégorie par son nom, résultats triés par pertinence.
+   *
+   * @param name nom de la catégorie
+   * @param limit nombre maximal de résultats (borné côté service)
+   * @param request requête courante (ETag)
+   * @return liste des catégories correspondantes, ou {@code null} si le client est à jour (304)
+   */
+  @GetMapping("/search")
+  public ResponseEntity<List<CategoryDto>> searchByName(
+      @RequestParam("name") final String name,
+      @RequestParam(name = "limit", defaultValue = "" + CategoryService.DEFAULT_SEARCH_LIMIT)
+          final int limit,
+      final ServletWebRequest request) {
+    if (httpCaching.categoriesNotModified(request)) {
+      return null;
+    }
+    return ResponseEntity.ok(categoryService.searchByName(name, limit));
+  }
+
+  /**
+   * Récupère une catégorie et toutes ses sous-catégories, imbriquées.
+   *
+   * @param id identifiant de la racine du sous-arbre
+   * @param request requête courante (ETag)
+   * @return arbre des catégories, ou {@code null} si le client est à jour (304)
+   */
+  @GetMapping("/{id}/subtree")
+  public ResponseEntity<CategoryTreeDto> getSubtree(
+      @PathVariable final Long id, final ServletWebRequest request) {
+    if (httpCaching.categoriesNotModified(request)) {
+      return null;
+    }
     return categoryService
-        .getCategoryById(id)
-        .map(CategoryMapper::toDto)
+        .getSubtree(id)
         .map(ResponseEntity::ok)
         .orElse(ResponseEntity.notFound().build());
   }
 
   /**
-   * Recherche une catégorie par son nom.
+   * Donne les statistiques de révision des flashcards d'une catégorie (sans ses sous-catégories) :
+   * nombre de révisions, taux de réussite, temps de réponse moyen et nombre d'oublis.
    *
-   * @param name nom de la catégorie
-   * @return liste des catégories correspondantes
+   * @param id identifiant de la catégorie
+   * @return les statistiques, 404 si la catégorie n'existe pas, 503 pendant leur chargement
    */
-  @GetMapping("/search")
-  public ResponseEntity<List<CategoryDto>> searchByName(@RequestParam("name") final String name) {
-    return ResponseEntity.ok(categoryService.searchByName(name));
+  @GetMapping("/{id}/stats")
+  public ResponseEntity<LearningStatsDto> stats(@PathVariable final Long id) {
+    try {
+      return reviewService
+          .categoryStats(id)
+          .map(ResponseEntity::ok)
+          .orElse(ResponseEntity.notFound().build());
+    } catch (IllegalStateException e) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+    }
   }
 
   /**
-   * Crée une catégorie par son nom.
+   * Exporte une catégorie et ses flashcards (sans ses sous-catégories) au format binaire {@link
+   * DeckFormat}. Le paquet est écrit dans un fichier temporaire, dont la taille donne {@code
+   * Content-Length}, puis servi comme ressource : un en-tête {@code Range} reçoit la portion
+   * demandée (206). Le fichier est supprimé à la fin de la requête, qu'elle aboutisse, que le
+   * client l'interrompe ou qu'elle n'ait pas de corps ({@code HEAD}).
    *
-   * @param dto nom de la catégorie
+   * @param id identifiant de la catégorie
+   * @param compress {@code true} pour compresser le corps du paquet
+   * @return le paquet, ou 404 si la catégorie n'existe pas
+   */
+  @GetMapping(value = "/{id}/deck", produces = DeckFormat.MEDIA_TYPE)
+  public ResponseEntity<Resource> exportDeck(
+      @PathVariable final Long id, @RequestParam(defaultValue = "false") final boolean compress) {
+    final Path file = deckService.exportDeck(id, compress).orElse(null);
+    if (file == null) {
+      return ResponseEntity.notFound().build();
+    }
+    RequestContextHolder.currentRequestAttributes()
+        .registerDestructionCallback(
+            file.toString(), () -> deckService.delete(file), RequestAttributes.SCOPE_REQUEST);
+    final long size;
+    try {
+      size = Files.size(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(DeckFormat.MEDIA_TYPE))
+        .contentLength(size)
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"category-" + id + DeckFormat.EXTENSION + "\"")
+        .body(new FileSystemResource(file));
+  }
+
+  /**
+   * Importe un paquet binaire {@link DeckFormat} dans une nouvelle catégorie, en une transaction.
+   *
+   * @param body contenu du paquet
+   * @param parentId catégorie parente de la catégorie créée, à la racine par défaut
+   * @return la catégorie créée et le bilan de l'import (201), ou 400 si le paquet est invalide
+   */
+  @PostMapping(
+      value = "/deck",
+      consumes = {DeckFormat.MEDIA_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+  public ResponseEntity<DeckImportDto> importDeck(
+      final InputStream body, @RequestParam(required = false) final Long parentId) {
+    try {
+      final Path file = deckService.receive(body);
+      try {
+        final DeckImportDto result = deckService.importDeck(file, parentId);
+        return ResponseEntity.created(URI.create("/api/categories/" + result.getCategoryId()))
+            .body(result);
+      } finally {
+        deckService.delete(file);
+      }
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Crée une catégorie, à la racine ou sous la catégorie {@code parentId}.
+   *
+   * @param dto nom et parent éventuel de la catégorie
    * @return catégorie créée
    */
   @PostMapping
   public CategoryDto create(@RequestBody final CategoryDto dto) {
-    Category saved = categoryService.createCategory(CategoryMapper.toEntity(dto));
-    return CategoryMapper.toDto(saved);
+    try {
+      Category saved = categoryService.createCategory(CategoryMapper.toEntity(dto));
+      return CategoryMapper.toDto(saved);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    }
   }
 
   /**
-   * Met à jour une catégorie.
+   * Met à jour une catégorie. Changer {@code parentId} déplace la catégorie et son sous-arbre.
    *
    * @param id identifiant de la catégorie
    * @param dto données mises à jour
@@ -99,12 +298,45 @@ public class CategoryController {
    */
   @PutMapping("/{id}")
   public CategoryDto update(@PathVariable final Long id, @RequestBody final CategoryDto dto) {
-    Category updated = categoryService.updateCategory(id, CategoryMapper.toEntity(dto));
-    return CategoryMapper.toDto(updated);
+    try {
+      Category updated = categoryService.updateCategory(id, CategoryMapper.toEntity(dto));
+      return CategoryMapper.toDto(updated);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Renomme une catégorie en une instruction. Le déplacement dans l'arbre passe par {@code PUT}.
+   *
+   * @param id identifiant de la catégorie
+   * @param dto champs à modifier ({@code name})
+   * @param ifMatch ETag de la catégorie lue ({@code "3.12"}), ou {@code null} pour ne pas vérifier
+   *     sa version
+   * @return 204 avec l'ETag de la catégorie renommée, 404 si la catégorie n'existe pas, 412 si la
+   *     version ne correspond plus
+   */
+  @PatchMapping("/{id}")
+  public ResponseEntity<Void> patch(
+      @PathVariable final Long id,
+      @RequestBody final CategoryDto dto,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
+    final Long expectedVersion = HttpCaching.expectedVersion(ifMatch);
+    try {
+      return categoryService
+          .patchCategory(id, dto, expectedVersion)
+          .map(patched -> HttpCaching.patched(HttpCaching.etag(patched)))
+          .orElse(ResponseEntity.notFound().build());
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    } catch (OptimisticLockingFailureException e) {
+      throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage(), e);
+    }
   }
 
   /**
-   * Supprime une catégorie par son identifiant.
+   * Supprime une catégorie par son identifiant, avec ses sous-catégories, leurs flashcards et leurs
+   * états de révision.
    *
    * @param id identifiant de la catégorie
    */
@@ -112,4 +344,58 @@ public class CategoryController {
   public void delete(@PathVariable final Long id) {
     categoryService.deleteCategory(id);
   }
+
+  /**
+   * Lance la suppression asynchrone d'une grande catégorie et de ses sous-catégories : leurs
+   * flashcards sont supprimées par lots, une transaction par lot.
+   *
+   * @param id identifiant de la catégorie
+   * @return 202 avec l'avancement et son adresse ({@code Location}), 404 si la catégorie n'existe
+   *     pas
+   */
+  @DeleteMapping(value = "/{id}", params = "async=true")
+  public ResponseEntity<CategoryDeletionDto> deleteAsync(@PathVariable final Long id) {
+    return categoryDeletionJobs
+        .start(id)
+        .map(
+            job ->
+                ResponseEntity.accepted()
+                    .location(URI.create("/api/categories/deletions/" + job.getId()))
+                    .body(job))
+        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
+  }
+
+  /**
+   * Donne l'avancement d'une suppression asynchrone.
+   *
+   * @param jobId identifiant de la suppression
+   * @return l'avancement, 404 si la suppression est inconnue ou expirée
+   */
+  @GetMapping("/deletions/{jobId}")
+  public ResponseEntity<CategoryDeletionDto> getDeletion(@PathVariable final String jobId) {
+    return categoryDeletionJobs
+        .get(jobId)
+        .map(ResponseEntity::ok)
+        .orElse(ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Indique si l'en-tête {@code Accept-Encoding} autorise gzip.
+   *
+   * @param acceptEncoding valeur de l'en-tête, éventuellement {@code null}
+   * @return {@code true} si gzip est accepté (et non exclu par {@code q=0})
+   */
+  static boolean acceptsGzip(final String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      final String[] parts = coding.trim().split(";");
+      final String name = parts[0].trim();
+      if ("gzip".equalsIgnoreCase(name) || "*".equals(name)) {
+        return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
 }
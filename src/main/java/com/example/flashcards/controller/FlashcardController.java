@@ -1,43 +1,75 @@
 package com.example.flashcards.controller;
 
+import com.example.flashcards.dto.FlashcardBatchResultDto;
 import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.dto.FlashcardPageDto;
+import com.example.flashcards.dto.LearningStatsDto;
 import com.example.flashcards.entity.Category;
 import com.example.flashcards.entity.Flashcard;
 import com.example.flashcards.mapper.FlashcardMapper;
 import com.example.flashcards.service.CategoryService;
 import com.example.flashcards.service.FlashcardService;
+import com.example.flashcards.service.ReviewService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /** Contrôleur REST pour la gestion des flashcards. */
 @RestController
 @RequestMapping("/api/flashcards")
 public class FlashcardController {
 
+  /** Type de contenu NDJSON (JSON délimité par des retours à la ligne). */
+  public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
   /** Service pour la gestion des flashcards. */
   private final FlashcardService flashcardService;
 
   /** Service pour la gestion des catégories. */
   private final CategoryService categoryService;
 
+  /** Writer JSON utilisé pour l'export NDJSON, un enregistrement par ligne. */
+  private final ObjectWriter ndjsonWriter;
+
+  /** Requêtes conditionnelles (ETag, Cache-Control) des lectures. */
+  private final HttpCaching httpCaching;
+
+  /** Service de révision (statistiques). */
+  private final ReviewService reviewService;
+
   /**
    * Constructeur avec injection de dépendances.
    *
    * @param flashcardService service gérant les flashcards
    * @param categoryService service gérant les catégories
+   * @param objectMapper mapper JSON configuré par Spring
+   * @param httpCaching gestion des requêtes conditionnelles
+   * @param reviewService service de révision
    */
   // CHECKSTYLE:OFF: ParameterAssignment
   @SuppressFBWarnings(
@@ -45,48 +77,183 @@ public class FlashcardController {
       justification = "Spring injects immutable service beans safely")
   @Autowired
   public FlashcardController(
-      final FlashcardService flashcardService, final CategoryService categoryService) {
+      final FlashcardService flashcardService,
+      final CategoryService categoryService,
+      final ObjectMapper objectMapper,
+      final HttpCaching httpCaching,
+      final ReviewService reviewService) {
     this.flashcardService = flashcardService;
     this.categoryService = categoryService;
+    this.ndjsonWriter = objectMapper.writerFor(FlashcardDto.class).withRootValueSeparator("\n");
+    this.httpCaching = httpCaching;
+    this.reviewService = reviewService;
   }
 
   // CHECKSTYLE:ON: ParameterAssignment
 
   /**
-   * Récupère toutes les flashcards.
+   * Récupère une page de flashcards (pagination par curseur sur l'identifiant).
    *
-   * @return liste des flashcards
+   * @param cursor curseur opaque renvoyé dans le champ {@code next} de la page précédente
+   * @param size nombre de flashcards par page (borné côté service)
+   * @param underCategory si renseigné, ne garde que les flashcards de cette catégorie et de ses
+   *     sous-catégories
+   * @param request requête courante (ETag)
+   * @return la page de flashcards et le curseur de la page suivante, ou {@code null} si le client
+   *     est à jour (304)
    */
   @GetMapping
-  public List<FlashcardDto> getAll() {
-    return flashcardService.getAllFlashcards().stream().map(FlashcardMapper::toDto).toList();
+  public FlashcardPageDto getPage(
+      @RequestParam(name = "cursor", required = false) final String cursor,
+      @RequestParam(name = "size", defaultValue = "" + FlashcardService.DEFAULT_PAGE_SIZE)
+          final int size,
+      @RequestParam(name = "underCategory", required = false) final Long underCategory,
+      final ServletWebRequest request) {
+    if (httpCaching.flashcardsNotModified(request)) {
+      return null;
+    }
+    try {
+      if (underCategory != null) {
+        return flashcardService
+            .getFlashcardPageInSubtree(underCategory, cursor, size)
+            .orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found"));
+      }
+      return flashcardService.getFlashcardPage(cursor, size);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    }
   }
 
   /**
-   * Récupère une flashcard par son identifiant.
+   * Récupère toutes les flashcards en une seule réponse.
+   *
+   * <p>Accessible uniquement sur demande explicite ({@code ?all=true}) : la liste complète est
+   * chargée en mémoire avant d'être sérialisée.
+   *
+   * @param request requête courante (ETag)
+   * @return liste des flashcards, ou {@code null} si le client est à jour (304)
+   */
+  @GetMapping(params = "all=true")
+  public List<FlashcardDto> getAll(final ServletWebRequest request) {
+    if (httpCaching.flashcardsNotModified(request)) {
+      return null;
+    }
+    return flashcardService.getAllFlashcards();
+  }
+
+  /**
+   * Exporte toutes les flashcards au format NDJSON, en flux.
+   *
+   * <p>Chaque flashcard est écrite dans la réponse dès sa lecture en base : la mémoire utilisée ne
+   * dépend pas du nombre de flashcards.
+   *
+   * @return corps de réponse écrit en flux
+   */
+  @GetMapping(value = "/export", produces = APPLICATION_NDJSON)
+  public ResponseEntity<StreamingResponseBody> export() {
+    StreamingResponseBody body =
+        out -> {
+          try (JsonGenerator gen = ndjsonWriter.createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            long written =
+                flashcardService.forEachFlashcard(
+                    dto -> {
+                      try {
+                        ndjsonWriter.writeValue(gen, dto);
+                      } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                      }
+                    });
+            if (written > 0) {
+              gen.writeRaw('\n');
+            }
+          }
+        };
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(APPLICATION_NDJSON))
+        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"flashcards.ndjson\"")
+        .body(body);
+  }
+
+  /**
+   * Récupère une flashcard par son identifiant, avec l'ETag de sa version (à renvoyer dans {@code
+   * If-Match} pour la modifier).
    *
    * @param id identifiant de la flashcard
-   * @return la flashcard correspondante
+   * @param request requête courante (ETag)
+   * @return la flashcard correspondante, ou {@code null} si le client est à jour (304)
    */
   @GetMapping("/{id}")
-  public ResponseEntity<FlashcardDto> getById(@PathVariable final Long id) {
-    return flashcardService
-        .getFlashcardById(id)
-        .map(FlashcardMapper::toDto)
-        .map(ResponseEntity::ok)
-        .orElse(ResponseEntity.notFound().build());
+  public ResponseEntity<FlashcardDto> getById(
+      @PathVariable final Long id, final ServletWebRequest request) {
+    final Optional<FlashcardDto> dto = flashcardService.getFlashcardById(id);
+    if (dto.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    if (httpCaching.resourceNotModified(request, HttpCaching.etag(dto.get()))) {
+      return null;
+    }
+    return ResponseEntity.ok(dto.get());
   }
 
   /**
-   * Recherche des flashcards par leur question.
+   * Recherche des flashcards par leur question ou leur réponse, triées par pertinence.
    *
-   * @param question texte de la question à rechercher
-   * @return liste des flashcards correspondantes
+   * @param question texte à rechercher
+   * @param limit nombre maximal de résultats (borné côté service)
+   * @param request requête courante (ETag)
+   * @return liste des flashcards correspondantes, ou {@code null} si le client est à jour (304)
    */
   @GetMapping("/search")
   public ResponseEntity<List<FlashcardDto>> searchByQuestion(
-      @RequestParam("question") final String question) {
-    return ResponseEntity.ok(flashcardService.searchByQuestion(question));
+      @RequestParam("question") final String question,
+      @RequestParam(name = "limit", defaultValue = "" + FlashcardService.DEFAULT_SEARCH_LIMIT)
+          final int limit,
+      final ServletWebRequest request) {
+    if (httpCaching.flashcardsNotModified(request)) {
+      return null;
+    }
+    return ResponseEntity.ok(flashcardService.searchByQuestion(question, limit));
+  }
+
+  /**
+   * Donne les statistiques de révision d'une flashcard : nombre de révisions, taux de réussite,
+   * temps de réponse moyen et nombre d'oublis.
+   *
+   * @param id identifiant de la flashcard
+   * @return les statistiques, 404 si la flashcard n'existe pas, 503 pendant leur chargement
+   */
+  @GetMapping("/{id}/stats")
+  public ResponseEntity<LearningStatsDto> stats(@PathVariable final Long id) {
+    try {
+      return reviewService
+          .flashcardStats(id)
+          .map(ResponseEntity::ok)
+          .orElse(ResponseEntity.notFound().build());
+    } catch (IllegalStateException e) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Tire des flashcards au hasard, sans doublon, pour composer un quiz.
+   *
+   * @param categoryId catégorie à interroger (sans ses sous-catégories), ou tout le paquet si
+   *     absent
+   * @param n nombre de flashcards voulues (borné côté service)
+   * @return les flashcards tirées, dans un ordre aléatoire
+   */
+  @GetMapping("/random")
+  public List<FlashcardDto> random(
+      @RequestParam(name = "categoryId", required = false) final Long categoryId,
+      @RequestParam(name = "n", defaultValue = "" + FlashcardService.DEFAULT_RANDOM_SIZE)
+          final int n) {
+    try {
+      return flashcardService.randomFlashcards(categoryId, n);
+    } catch (IllegalStateException e) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+    }
   }
 
   /**
@@ -106,6 +273,25 @@ public class FlashcardController {
     return FlashcardMapper.toDto(saved);
   }
 
+  /**
+   * Crée un lot de flashcards en une seule requête.
+   *
+   * <p>Les éléments invalides (champ manquant, catégorie inconnue) sont rejetés individuellement ;
+   * le résultat indique le sort de chaque élément. Une erreur de la base annule tout le lot : la
+   * requête échoue et aucune flashcard n'est créée.
+   *
+   * @param dtos flashcards à créer
+   * @return bilan de l'import, élément par élément
+   */
+  @PostMapping("/batch")
+  public FlashcardBatchResultDto createBatch(@RequestBody final List<FlashcardDto> dtos) {
+    try {
+      return flashcardService.importFlashcards(dtos);
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    }
+  }
+
   /**
    * Met à jour une flashcard existante.
    *
@@ -125,6 +311,40 @@ public class FlashcardController {
     return FlashcardMapper.toDto(updated);
   }
 
+  /**
+   * Met à jour les seuls champs fournis d'une flashcard, en une instruction.
+   *
+   * @param id identifiant de la flashcard
+   * @param dto champs à modifier ({@code question}, {@code answer}, {@code categoryId}) ; les
+   *     champs absents restent inchangés
+   * @param ifMatch ETag de la flashcard lue ({@code "3"}), ou {@code null} pour ne pas vérifier sa
+   *     version
+   * @return 204 (avec l'ETag de la nouvelle version si {@code If-Match} est fourni), 404 si la
+   *     flashcard ou la catégorie n'existe pas, 412 si la version ne correspond plus
+   */
+  @PatchMapping("/{id}")
+  public ResponseEntity<Void> patch(
+      @PathVariable final Long id,
+      @RequestBody final FlashcardDto dto,
+      @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
+    if (dto.getCategoryId() != null
+        && categoryService.getCategoryById(dto.getCategoryId()).isEmpty()) {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Category not found");
+    }
+    final Long expectedVersion = HttpCaching.expectedVersion(ifMatch);
+    try {
+      if (!flashcardService.patchFlashcard(id, dto, expectedVersion)) {
+        return ResponseEntity.notFound().build();
+      }
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    } catch (OptimisticLockingFailureException e) {
+      throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage(), e);
+    }
+    return HttpCaching.patched(
+        expectedVersion != null ? HttpCaching.etag(expectedVersion + 1) : null);
+  }
+
   /**
    * Supprime une flashcard par son identifiant.
    *
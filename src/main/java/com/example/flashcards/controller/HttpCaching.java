@@ -0,0 +1,194 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.service.DataVersions;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Requêtes conditionnelles sur les lectures, avec l'en-tête {@code Cache-Control} et {@code
+ * stale-while-revalidate}.
+ *
+ * <p>Les collections (listes, recherches) ont un ETag fort issu de {@link DataVersions}, vérifié
+ * avant tout accès à la base : une requête {@code If-None-Match} à jour reçoit un 304 sans autre
+ * travail.
+ *
+ * <p>Les lectures unitaires ont un ETag propre à la ressource, construit à partir de la version de
+ * sa ligne : {@code "3"} pour une flashcard, {@code "3.12"} (version, puis nombre de flashcards,
+ * qui évolue sans changer la version) pour une catégorie. Ce même ETag, renvoyé dans {@code
+ * If-Match}, conditionne les mises à jour partielles ({@code PATCH}), dont la réponse porte l'ETag
+ * de la nouvelle version.
+ */
+@Component
+public class HttpCaching {
+
+  /**
+   * ETag d'une lecture unitaire dans {@code If-Match} : version, suivie pour une catégorie du
+   * nombre de flashcards, entre guillemets ou non. Un ETag faible ({@code W/}) n'y correspond pas.
+   */
+  private static final Pattern RESOURCE_ETAG =
+      Pattern.compile("\"(\\d+)(?:\\.\\d+)?\"|(\\d+)(?:\\.\\d+)?");
+
+  /** Versions des collections. */
+  private final DataVersions versions;
+
+  /** Valeur de l'en-tête {@code Cache-Control} des lectures. */
+  private final String cacheControl;
+
+  /**
+   * Constructeur avec injection des versions et de la politique de cache.
+   *
+   * @param versions versions des collections
+   * @param maxAge durée pendant laquelle une réponse est fraîche
+   * @param staleWhileRevalidate durée pendant laquelle une réponse périmée peut être servie pendant
+   *     sa revalidation
+   */
+  @SuppressFBWarnings(
+      value = "EI_EXPOSE_REP2",
+      justification = "Spring injects singleton beans safely")
+  @Autowired
+  public HttpCaching(
+      final DataVersions versions,
+      @Value("${flashcards.http.max-age:0s}") final Duration maxAge,
+      @Value("${flashcards.http.stale-while-revalidate:30s}") final Duration staleWhileRevalidate) {
+    this.versions = versions;
+    this.cacheControl =
+        CacheControl.maxAge(maxAge).staleWhileRevalidate(staleWhileRevalidate).getHeaderValue();
+  }
+
+  /**
+   * Prépare une lecture de catégories.
+   *
+   * @param request requête courante
+   * @return {@code true} si le client est à jour (réponse 304 déjà préparée)
+   */
+  public boolean categoriesNotModified(final ServletWebRequest request) {
+    return categoriesNotModified(request, "");
+  }
+
+  /**
+   * Prépare une lecture de catégories servie sous une variante de représentation (encodage de
+   * contenu) : chaque variante a son propre ETag fort.
+   *
+   * @param request requête courante
+   * @param variant suffixe de la variante (vide pour la représentation de base)
+   * @return {@code true} si le client est à jour (réponse 304 déjà préparée)
+   */
+  public boolean categoriesNotModified(final ServletWebRequest request, final String variant) {
+    return notModified(request, versions.categoriesEtag() + variant);
+  }
+
+  /**
+   * Prépare une lecture de flashcards.
+   *
+   * @param request requête courante
+   * @return {@code true} si le client est à jour (réponse 304 déjà préparée)
+   */
+  public boolean flashcardsNotModified(final ServletWebRequest request) {
+    return notModified(request, versions.flashcardsEtag());
+  }
+
+  /**
+   * Prépare une lecture unitaire, après le chargement de la ressource.
+   *
+   * @param request requête courante
+   * @param etag ETag de la ressource ({@link #etag(FlashcardDto)}, {@link #etag(CategoryDto)})
+   * @return {@code true} si le client est à jour (réponse 304 déjà préparée)
+   */
+  public boolean resourceNotModified(final ServletWebRequest request, final String etag) {
+    return notModified(request, etag);
+  }
+
+  private boolean notModified(final ServletWebRequest request, final String etag) {
+    final HttpServletResponse response = request.getResponse();
+    if (response != null) {
+      response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+    }
+    return request.checkNotModified(etag);
+  }
+
+  /**
+   * ETag d'une flashcard : sa version.
+   *
+   * @param version version de la flashcard
+   * @return ETag fort, par exemple {@code "3"}
+   */
+  static String etag(final long version) {
+    return "\"" + version + "\"";
+  }
+
+  /**
+   * ETag d'une flashcard lue.
+   *
+   * @param dto flashcard
+   * @return ETag fort, par exemple {@code "3"}
+   */
+  static String etag(final FlashcardDto dto) {
+    return etag(dto.getVersion());
+  }
+
+  /**
+   * ETag d'une catégorie lue : sa version, puis son nombre de flashcards, mis à jour sans changer
+   * la version.
+   *
+   * @param dto catégorie
+   * @return ETag fort, par exemple {@code "3.12"}
+   */
+  static String etag(final CategoryDto dto) {
+    return "\"" + dto.getVersion() + "." + dto.getFlashcardCount() + "\"";
+  }
+
+  /**
+   * Lit la version attendue dans un en-tête {@code If-Match} : ETag d'une lecture unitaire ({@code
+   * "3"}, {@code "3.12"}), éventuellement sans guillemets. Seule la version est vérifiée : le
+   * nombre de flashcards d'une catégorie n'est pas modifiable par le client.
+   *
+   * <p>{@code If-Match} se compare de façon forte (RFC 9110, section 13.1.1) : un ETag faible
+   * ({@code W/"3"}) ne correspond à aucune version et la mise à jour échoue en 412. La comparaison
+   * faible reste réservée à {@code If-None-Match}.
+   *
+   * @param ifMatch valeur de l'en-tête, ou {@code null}
+   * @return la version, {@code null} si l'en-tête est absent ou vaut {@code *}, et {@code -1} (qui
+   *     ne correspond à aucune version) s'il n'est pas l'ETag fort d'une version unique
+   */
+  static Long expectedVersion(final String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+      return null;
+    }
+    final Matcher tag = RESOURCE_ETAG.matcher(ifMatch.trim());
+    if (!tag.matches()) {
+      return -1L;
+    }
+    try {
+      return Long.parseLong(tag.group(1) != null ? tag.group(1) : tag.group(2));
+    } catch (NumberFormatException e) {
+      return -1L;
+    }
+  }
+
+  /**
+   * Réponse d'une mise à jour partielle réussie : 204, avec l'ETag de la ressource mise à jour
+   * quand il est connu.
+   *
+   * @param etag ETag de la nouvelle version, ou {@code null}
+   * @return réponse sans corps
+   */
+  static ResponseEntity<Void> patched(final String etag) {
+    final ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+    if (etag != null) {
+      response.eTag(etag);
+    }
+    return response.build();
+  }
+}
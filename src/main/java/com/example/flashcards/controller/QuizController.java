@@ -0,0 +1,58 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.dto.QuizQuestionDto;
+import com.example.flashcards.service.QuizService;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/** Contrôleur REST des quiz à choix multiples. */
+@RestController
+@RequestMapping("/api/quiz")
+public class QuizController {
+
+  /** Service de génération des quiz. */
+  private final QuizService quizService;
+
+  /**
+   * Constructeur avec injection du service.
+   *
+   * @param quizService service de génération des quiz
+   */
+  // CHECKSTYLE:OFF: ParameterAssignment
+  @SuppressFBWarnings(
+      value = "EI_EXPOSE_REP2",
+      justification = "Spring injects immutable service beans safely")
+  @Autowired
+  public QuizController(final QuizService quizService) {
+    this.quizService = quizService;
+  }
+
+  // CHECKSTYLE:ON: ParameterAssignment
+
+  /**
+   * Compose un quiz à choix multiples.
+   *
+   * @param categoryId catégorie interrogée (tout le paquet si absent)
+   * @param n nombre de questions (borné côté service)
+   * @param k nombre d'options par question (borné côté service)
+   * @return les questions, avec leurs options mélangées
+   */
+  @GetMapping
+  public List<QuizQuestionDto> quiz(
+      @RequestParam(name = "categoryId", required = false) final Long categoryId,
+      @RequestParam(name = "n", defaultValue = "" + QuizService.DEFAULT_QUESTIONS) final int n,
+      @RequestParam(name = "k", defaultValue = "" + QuizService.DEFAULT_OPTIONS) final int k) {
+    try {
+      return quizService.quiz(categoryId, n, k);
+    } catch (IllegalStateException e) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+    }
+  }
+}
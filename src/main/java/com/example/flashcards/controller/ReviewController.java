@@ -0,0 +1,82 @@
+package com.example.flashcards.controller;
+
+import com.example.flashcards.dto.ReviewCardDto;
+import com.example.flashcards.dto.ReviewGradeDto;
+import com.example.flashcards.service.ReviewService;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/** Contrôleur REST du mode révision (répétition espacée). */
+@RestController
+@RequestMapping("/api/review")
+public class ReviewController {
+
+  /** Service de révision. */
+  private final ReviewService reviewService;
+
+  /**
+   * Constructeur avec injection du service.
+   *
+   * @param reviewService service de révision
+   */
+  // CHECKSTYLE:OFF: ParameterAssignment
+  @SuppressFBWarnings(
+      value = "EI_EXPOSE_REP2",
+      justification = "Spring injects immutable service beans safely")
+  @Autowired
+  public ReviewController(final ReviewService reviewService) {
+    this.reviewService = reviewService;
+  }
+
+  // CHECKSTYLE:ON: ParameterAssignment
+
+  /**
+   * Donne la prochaine flashcard à réviser.
+   *
+   * @param categoryId catégorie à réviser (toutes si absent)
+   * @return la flashcard due la plus ancienne, ou 204 si aucune n'est due
+   */
+  @GetMapping("/next")
+  public ResponseEntity<ReviewCardDto> next(
+      @RequestParam(name = "categoryId", required = false) final Long categoryId) {
+    try {
+      return reviewService
+          .nextCard(categoryId)
+          .map(ResponseEntity::ok)
+          .orElse(ResponseEntity.noContent().build());
+    } catch (IllegalStateException e) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Note la révision d'une flashcard et la replanifie.
+   *
+   * @param id identifiant de la flashcard
+   * @param dto note de la révision
+   * @return la flashcard et sa nouvelle échéance, ou 503 si le journal des révisions est plein
+   */
+  @PostMapping("/{id}")
+  public ReviewCardDto grade(@PathVariable final Long id, @RequestBody final ReviewGradeDto dto) {
+    try {
+      return reviewService
+          .grade(id, dto.getGrade(), dto.getResponseTimeMs())
+          .orElseThrow(
+              () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Flashcard not found"));
+    } catch (IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    } catch (IllegalStateException e) {
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.example.flashcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO représentant l'avancement d'une suppression asynchrone de catégorie.
+ *
+ * <p>Les flashcards sont supprimées par lots : {@code deleted} progresse jusqu'à {@code total}
+ * (nombre lu au lancement), puis la catégorie elle-même est supprimée et l'état passe à {@code
+ * DONE}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+// CHECKSTYLE:OFF: AbbreviationAsWordInName
+public class CategoryDeletionDto {
+  // CHECKSTYLE:ON: AbbreviationAsWordInName
+
+  /** État d'une suppression. */
+  public enum Status {
+    /** Suppression en cours. */
+    RUNNING,
+    /** Catégorie et flashcards supprimées. */
+    DONE,
+    /** Suppression interrompue par une erreur ; les lots déjà validés restent supprimés. */
+    FAILED
+  }
+
+  /** Identifiant de la suppression. */
+  private String id;
+
+  /** Identifiant de la catégorie supprimée. */
+  private Long categoryId;
+
+  /** État de la suppression. */
+  private Status status;
+
+  /** Nombre de flashcards de la catégorie au lancement. */
+  private long total;
+
+  /** Nombre de flashcards déjà supprimées. */
+  private long deleted;
+
+  /** Message d'erreur si la suppression a échoué. */
+  private String error;
+}
@@ -1,5 +1,6 @@
 package com.example.flashcards.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -22,4 +23,51 @@ public class CategoryDto {
 
   /** Nom de la catégorie. */
   private String name;
+
+  /** Identifiant de la catégorie parente, ou {@code null} pour une catégorie racine. */
+  private Long parentId;
+
+  /** Nombre de flashcards rattachées directement à la catégorie (ignoré en écriture). */
+  private Long flashcardCount;
+
+  /**
+   * Version de la catégorie, à renvoyer dans {@code If-Match} lors d'une mise à jour partielle.
+   * Absente des listes.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long version;
+
+  /**
+   * Constructeur d'une catégorie racine.
+   *
+   * @param id identifiant de la catégorie
+   * @param name nom de la catégorie
+   */
+  public CategoryDto(final Long id, final String name) {
+    this(id, name, null, null, null);
+  }
+
+  /**
+   * Constructeur sans nombre de flashcards.
+   *
+   * @param id identifiant de la catégorie
+   * @param name nom de la catégorie
+   * @param parentId identifiant de la catégorie parente, ou {@code null}
+   */
+  public CategoryDto(final Long id, final String name, final Long parentId) {
+    this(id, name, parentId, null, null);
+  }
+
+  /**
+   * Constructeur sans version.
+   *
+   * @param id identifiant de la catégorie
+   * @param name nom de la catégorie
+   * @param parentId identifiant de la catégorie parente, ou {@code null}
+   * @param flashcardCount nombre de flashcards rattachées directement
+   */
+  public CategoryDto(
+      final Long id, final String name, final Long parentId, final Long flashcardCount) {
+    this(id, name, parentId, flashcardCount, null);
+  }
 }
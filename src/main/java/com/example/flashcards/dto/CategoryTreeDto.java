@@ -0,0 +1,68 @@
+package com.example.flashcards.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** DTO représentant une catégorie et, récursivement, ses sous-catégories. */
+@Getter
+@Setter
+@NoArgsConstructor
+// CHECKSTYLE:OFF: AbbreviationAsWordInName
+public class CategoryTreeDto {
+  // CHECKSTYLE:ON: AbbreviationAsWordInName
+
+  /** Identifiant de la catégorie. */
+  private Long id;
+
+  /** Nom de la catégorie. */
+  private String name;
+
+  /** Nombre de flashcards rattachées directement à la catégorie. */
+  private Long flashcardCount;
+
+  /** Sous-catégories directes. */
+  private List<CategoryTreeDto> children = new ArrayList<>();
+
+  /**
+   * Constructeur d'un nœud sans enfant.
+   *
+   * @param id identifiant de la catégorie
+   * @param name nom de la catégorie
+   */
+  public CategoryTreeDto(final Long id, final String name) {
+    this(id, name, null);
+  }
+
+  /**
+   * Constructeur d'un nœud sans enfant, avec son nombre de flashcards.
+   *
+   * @param id identifiant de la catégorie
+   * @param name nom de la catégorie
+   * @param flashcardCount nombre de flashcards rattachées directement
+   */
+  public CategoryTreeDto(final Long id, final String name, final Long flashcardCount) {
+    this.id = id;
+    this.name = name;
+    this.flashcardCount = flashcardCount;
+  }
+
+  public List<CategoryTreeDto> getChildren() {
+    return new ArrayList<>(children);
+  }
+
+  public void setChildren(final List<CategoryTreeDto> children) {
+    this.children = (children != null) ? new ArrayList<>(children) : new ArrayList<>();
+  }
+
+  /**
+   * Ajoute une sous-catégorie directe.
+   *
+   * @param child sous-catégorie
+   */
+  public void addChild(final CategoryTreeDto child) {
+    children.add(child);
+  }
+}
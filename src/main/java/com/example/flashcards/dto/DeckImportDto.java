@@ -0,0 +1,26 @@
+package com.example.flashcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO représentant le bilan de l'import d'un paquet binaire dans une nouvelle catégorie. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+// CHECKSTYLE:OFF: AbbreviationAsWordInName
+public class DeckImportDto {
+  // CHECKSTYLE:ON: AbbreviationAsWordInName
+
+  /** Identifiant de la catégorie créée. */
+  private Long categoryId;
+
+  /** Nom de la catégorie créée. */
+  private String name;
+
+  /** Nombre de flashcards créées. */
+  private long created;
+
+  /** Nombre de flashcards rejetées (question ou réponse vide). */
+  private long failed;
+}
@@ -0,0 +1,30 @@
+package com.example.flashcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO représentant le résultat de l'import d'une flashcard au sein d'un lot.
+ *
+ * <p>L'index correspond à la position de la flashcard dans la requête d'origine.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+// CHECKSTYLE:OFF: AbbreviationAsWordInName
+public class FlashcardBatchItemDto {
+  // CHECKSTYLE:ON: AbbreviationAsWordInName
+
+  /** Position de la flashcard dans le lot reçu. */
+  private int index;
+
+  /** Identifiant attribué à la flashcard créée, ou {@code null} en cas d'échec. */
+  private Long id;
+
+  /** Indique si la flashcard a été créée. */
+  private boolean success;
+
+  /** Motif de l'échec, ou {@code null} en cas de succès. */
+  private String error;
+}
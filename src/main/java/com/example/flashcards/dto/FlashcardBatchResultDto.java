@@ -0,0 +1,53 @@
+package com.example.flashcards.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO représentant le bilan d'un import de flashcards par lot.
+ *
+ * <p>Chaque élément du lot reçu a un résultat dans {@code items}, dans le même ordre.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+// CHECKSTYLE:OFF: AbbreviationAsWordInName
+public class FlashcardBatchResultDto {
+  // CHECKSTYLE:ON: AbbreviationAsWordInName
+
+  /** Nombre de flashcards créées. */
+  private int created;
+
+  /** Nombre de flashcards rejetées. */
+  private int failed;
+
+  /** Résultat de chaque flashcard du lot, dans l'ordre de la requête. */
+  private List<FlashcardBatchItemDto> items = new ArrayList<>();
+
+  /**
+   * Constructeur calculant les compteurs à partir des résultats unitaires.
+   *
+   * @param items résultats unitaires (une copie défensive est créée)
+   */
+  public FlashcardBatchResultDto(final List<FlashcardBatchItemDto> items) {
+    setItems(items);
+  }
+
+  public List<FlashcardBatchItemDto> getItems() {
+    return new ArrayList<>(items);
+  }
+
+  /**
+   * Remplace les résultats unitaires et recalcule les compteurs.
+   *
+   * @param items résultats unitaires (une copie défensive est créée)
+   */
+  public void setItems(final List<FlashcardBatchItemDto> items) {
+    this.items = (items != null) ? new ArrayList<>(items) : new ArrayList<>();
+    this.created = (int) this.items.stream().filter(FlashcardBatchItemDto::isSuccess).count();
+    this.failed = this.items.size() - this.created;
+  }
+}
@@ -1,5 +1,6 @@
 package com.example.flashcards.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -28,4 +29,24 @@ public class FlashcardDto {
 
   /** Identifiant de la catégorie à laquelle appartient la flashcard. */
   private Long categoryId;
+
+  /**
+   * Version de la flashcard, à renvoyer dans {@code If-Match} lors d'une mise à jour partielle.
+   * Absente des listes.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private Long version;
+
+  /**
+   * Constructeur sans version.
+   *
+   * @param id identifiant de la flashcard
+   * @param question question de la flashcard
+   * @param answer réponse de la flashcard
+   * @param categoryId identifiant de la catégorie
+   */
+  public FlashcardDto(
+      final Long id, final String question, final String answer, final Long categoryId) {
+    this(id, question, answer, categoryId, null);
+  }
 }
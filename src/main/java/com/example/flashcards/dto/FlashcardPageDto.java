@@ -0,0 +1,46 @@
+package com.example.flashcards.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO représentant une page de flashcards obtenue par pagination par curseur (keyset).
+ *
+ * <p>Le champ {@code next} contient un curseur opaque à renvoyer tel quel pour obtenir la page
+ * suivante ; il vaut {@code null} lorsque la dernière page est atteinte.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+// CHECKSTYLE:OFF: AbbreviationAsWordInName
+public class FlashcardPageDto {
+  // CHECKSTYLE:ON: AbbreviationAsWordInName
+
+  /** Flashcards de la page courante, triées par identifiant croissant. */
+  private List<FlashcardDto> items = new ArrayList<>();
+
+  /** Curseur opaque de la page suivante, ou {@code null} s'il n'y en a pas. */
+  private String next;
+
+  /**
+   * Constructeur avec copie défensive de la liste.
+   *
+   * @param items flashcards de la page
+   * @param next curseur de la page suivante
+   */
+  public FlashcardPageDto(final List<FlashcardDto> items, final String next) {
+    this.items = (items != null) ? new ArrayList<>(items) : new ArrayList<>();
+    this.next = next;
+  }
+
+  public List<FlashcardDto> getItems() {
+    return new ArrayList<>(items);
+  }
+
+  public void setItems(final List<FlashcardDto> items) {
+    this.items = (items != null) ? new ArrayList<>(items) : new ArrayList<>();
+  }
+}
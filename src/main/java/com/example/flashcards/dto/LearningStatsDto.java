@@ -0,0 +1,34 @@
+package com.example.flashcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO des statistiques de révision d'une flashcard ou d'une catégorie.
+ *
+ * <p>Les taux et moyennes valent {@code null} tant qu'il n'y a pas de révision (ou pas de temps de
+ * réponse) à moyenner.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+// CHECKSTYLE:OFF: AbbreviationAsWordInName
+public class LearningStatsDto {
+  // CHECKSTYLE:ON: AbbreviationAsWordInName
+
+  /** Identifiant de la flashcard ou de la catégorie. */
+  private Long id;
+
+  /** Nombre de révisions. */
+  private long reviews;
+
+  /** Part des révisions réussies (note d'au moins 3), entre 0 et 1. */
+  private Double successRate;
+
+  /** Temps de réponse moyen, en millisecondes, sur les révisions qui l'ont fourni. */
+  private Double averageResponseMs;
+
+  /** Nombre d'oublis : échecs d'une flashcard qui avait déjà été réussie. */
+  private long lapses;
+}
@@ -0,0 +1,60 @@
+package com.example.flashcards.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * DTO représentant une question de quiz à choix multiples.
+ *
+ * <p>La bonne réponse figure parmi {@code options}, à la position {@code answerIndex} ; les autres
+ * options sont des réponses d'autres flashcards de la même catégorie.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+// CHECKSTYLE:OFF: AbbreviationAsWordInName
+public class QuizQuestionDto {
+  // CHECKSTYLE:ON: AbbreviationAsWordInName
+
+  /** Identifiant de la flashcard interrogée. */
+  private Long flashcardId;
+
+  /** Question de la flashcard. */
+  private String question;
+
+  /** Options proposées, dans un ordre aléatoire. */
+  private List<String> options = new ArrayList<>();
+
+  /** Position de la bonne réponse dans {@code options}. */
+  private int answerIndex;
+
+  /**
+   * Constructeur avec copie défensive des options.
+   *
+   * @param flashcardId identifiant de la flashcard
+   * @param question question de la flashcard
+   * @param options options proposées
+   * @param answerIndex position de la bonne réponse
+   */
+  public QuizQuestionDto(
+      final Long flashcardId,
+      final String question,
+      final List<String> options,
+      final int answerIndex) {
+    this.flashcardId = flashcardId;
+    this.question = question;
+    this.options = (options != null) ? new ArrayList<>(options) : new ArrayList<>();
+    this.answerIndex = answerIndex;
+  }
+
+  public List<String> getOptions() {
+    return new ArrayList<>(options);
+  }
+
+  public void setOptions(final List<String> options) {
+    this.options = (options != null) ? new ArrayList<>(options) : new ArrayList<>();
+  }
+}
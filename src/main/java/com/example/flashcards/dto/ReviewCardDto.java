@@ -0,0 +1,43 @@
+package com.example.flashcards.dto;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO représentant une flashcard à réviser et son état de répétition espacée.
+ *
+ * <p>Les champs de planification valent {@code null} tant que la flashcard n'a jamais été révisée.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+// CHECKSTYLE:OFF: AbbreviationAsWordInName
+public class ReviewCardDto {
+  // CHECKSTYLE:ON: AbbreviationAsWordInName
+
+  /** Identifiant de la flashcard. */
+  private Long id;
+
+  /** Question de la flashcard. */
+  private String question;
+
+  /** Réponse associée à la question. */
+  private String answer;
+
+  /** Identifiant de la catégorie de la flashcard. */
+  private Long categoryId;
+
+  /** Nombre de révisions réussies consécutives. */
+  private Integer repetitions;
+
+  /** Intervalle courant entre deux révisions, en jours. */
+  private Integer intervalDays;
+
+  /** Facteur de facilité. */
+  private Double ease;
+
+  /** Prochaine échéance de révision. */
+  private Instant dueAt;
+}
@@ -0,0 +1,26 @@
+package com.example.flashcards.dto;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de projection utilisé pour charger la file de révision : flashcard, catégorie et échéance.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+// CHECKSTYLE:OFF: AbbreviationAsWordInName
+public class ReviewDueDto {
+  // CHECKSTYLE:ON: AbbreviationAsWordInName
+
+  /** Identifiant de la flashcard. */
+  private Long flashcardId;
+
+  /** Identifiant de la catégorie de la flashcard. */
+  private Long categoryId;
+
+  /** Échéance de révision, {@code null} pour une flashcard jamais révisée. */
+  private Instant dueAt;
+}
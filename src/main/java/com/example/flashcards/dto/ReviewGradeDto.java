@@ -0,0 +1,26 @@
+package com.example.flashcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO portant la note attribuée lors de la révision d'une flashcard.
+ *
+ * <p>Échelle SM-2 : de {@code 0} (oubli total) à {@code 5} (réponse parfaite) ; une note inférieure
+ * à {@code 3} remet la flashcard en apprentissage. Le temps de réponse, facultatif, alimente les
+ * statistiques de révision.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+// CHECKSTYLE:OFF: AbbreviationAsWordInName
+public class ReviewGradeDto {
+  // CHECKSTYLE:ON: AbbreviationAsWordInName
+
+  /** Note de la révision, entre 0 et 5. */
+  private Integer grade;
+
+  /** Temps mis à répondre, en millisecondes (facultatif). */
+  private Integer responseTimeMs;
+}
@@ -1,21 +1,30 @@
 package com.example.flashcards.entity;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 @SuppressFBWarnings(
     value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
@@ -26,23 +35,58 @@ import lombok.Setter;
  * {@link Flashcard}.
  */
 @Entity
+@Table(indexes = @Index(name = "idx_category_path", columnList = "path"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Category.CACHE_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
 public class Category {
 
+  /** Région du cache de second niveau Hibernate des catégories. */
+  public static final String CACHE_REGION = "category";
+
   /** Identifiant unique de la catégorie. */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq")
+  @SequenceGenerator(name = "category_seq", sequenceName = "category_seq", allocationSize = 50)
   private Long id;
 
   /** Nom de la catégorie. */
   private String name;
 
+  /** Catégorie parente, ou {@code null} pour une catégorie racine. */
   @ManyToOne(fetch = FetchType.LAZY)
-  @JoinColumn(name = "category_id")
+  @JoinColumn(name = "parent_id")
   private Category parentCategory;
 
+  /**
+   * Chemin matérialisé : identifiants des ancêtres puis de la catégorie, séparés et entourés de
+   * {@code /} (par exemple {@code /1/5/12/}). Toutes les catégories d'un sous-arbre partagent le
+   * préfixe du chemin de sa racine.
+   */
+  @Column(name = "path", length = 1024)
+  private String path;
+
+  /**
+   * Nombre de flashcards rattachées directement à la catégorie, dénormalisé. Il n'est jamais écrit
+   * par la sauvegarde de l'entité ({@code updatable = false}) : seules des mises à jour relatives
+   * ({@code + n}) dans la transaction des écritures de flashcards, et le rapprochement périodique,
+   * le modifient.
+   */
+  @ColumnDefault("0")
+  @Column(name = "flashcard_count", nullable = false, updatable = false)
+  private long flashcardCount;
+
+  /**
+   * Version de la ligne, incrémentée à chaque mise à jour du nom ou du parent (verrouillage
+   * optimiste). Les mises à jour relatives du nombre de flashcards ne la modifient pas.
+   */
+  @Version
+  @ColumnDefault("0")
+  @Column(nullable = false)
+  private long version;
+
   public Category getParentCategory() {
     return parentCategory;
   }
@@ -1,17 +1,22 @@
 package com.example.flashcards.entity;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
-import lombok.AllArgsConstructor;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 @SuppressFBWarnings(
     value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
@@ -19,14 +24,15 @@ import lombok.Setter;
 
 /** Représente une carte mémoire (flashcard). Chaque flashcard appartient à une {@link Category}. */
 @Entity
+@Table(indexes = @Index(name = "idx_flashcard_category_id", columnList = "category_id"))
 @Getter
 @Setter
 @NoArgsConstructor
-@AllArgsConstructor
 public class Flashcard {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flashcard_seq")
+  @SequenceGenerator(name = "flashcard_seq", sequenceName = "flashcard_seq", allocationSize = 50)
   private Long id;
 
   private String question;
@@ -36,4 +42,26 @@ public class Flashcard {
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "category_id")
   private Category category;
+
+  /** Version de la ligne, incrémentée à chaque mise à jour (verrouillage optimiste). */
+  @Version
+  @ColumnDefault("0")
+  @Column(nullable = false)
+  private long version;
+
+  /**
+   * Constructeur d'une flashcard.
+   *
+   * @param id identifiant de la flashcard
+   * @param question question posée
+   * @param answer réponse attendue
+   * @param category catégorie de la flashcard
+   */
+  public Flashcard(
+      final Long id, final String question, final String answer, final Category category) {
+    this.id = id;
+    this.question = question;
+    this.answer = answer;
+    this.category = category;
+  }
 }
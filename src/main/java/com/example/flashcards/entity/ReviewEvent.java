@@ -0,0 +1,73 @@
+package com.example.flashcards.entity;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+    justification = "JPA entity - mutable by design for Hibernate")
+
+/**
+ * Révision enregistrée dans le journal des révisions, en ajout seul.
+ *
+ * <p>Les lignes sont écrites par lots par {@code ReviewEventLog} (JDBC, hors Hibernate) ; l'entité
+ * ne sert qu'à la génération du schéma et aux lectures. Pas de clé étrangère : le journal garde
+ * l'historique des flashcards et catégories supprimées, et une suppression ne le parcourt pas.
+ * Seule la clé primaire est indexée ; voir {@code db/review-event.sql} pour l'index BRIN sur la
+ * date.
+ */
+@Entity
+@Table(name = "review_event")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReviewEvent {
+
+  /** Identifiant, attribué par la base dans l'ordre d'insertion. */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /** Identifiant de la flashcard révisée. */
+  @Column(name = "flashcard_id", nullable = false)
+  private long flashcardId;
+
+  /** Identifiant de la catégorie de la flashcard au moment de la révision. */
+  @Column(name = "category_id")
+  private Long categoryId;
+
+  /** Note de la révision, entre 0 et 5. */
+  @Column(nullable = false)
+  private short grade;
+
+  /** Indique un oubli : échec d'une flashcard qui avait déjà été réussie. */
+  @ColumnDefault("false")
+  @Column(nullable = false)
+  private boolean lapse;
+
+  /** Temps de réponse en millisecondes, {@code null} s'il n'a pas été fourni. */
+  @Column(name = "response_ms")
+  private Integer responseMs;
+
+  /** Intervalle planifié après la révision, en jours. */
+  @Column(name = "interval_days", nullable = false)
+  private int intervalDays;
+
+  /** Facteur de facilité après la révision. */
+  @Column(nullable = false)
+  private double ease;
+
+  /** Date de la révision. */
+  @Column(name = "reviewed_at", nullable = false)
+  private Instant reviewedAt;
+}
@@ -0,0 +1,67 @@
+package com.example.flashcards.entity;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+    justification = "JPA entity - mutable by design for Hibernate")
+
+/**
+ * État de révision (répétition espacée) d'une {@link Flashcard}.
+ *
+ * <p>Une ligne n'existe qu'à partir de la première révision ; une flashcard sans état est nouvelle
+ * et due immédiatement. La date d'échéance est indexée.
+ */
+@Entity
+@Table(
+    name = "review_state",
+    indexes = @Index(name = "idx_review_state_due_at", columnList = "due_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReviewState {
+
+  /** Facteur de facilité initial (algorithme SM-2). */
+  public static final double INITIAL_EASE = 2.5;
+
+  /** Identifiant de la flashcard révisée. */
+  @Id private Long flashcardId;
+
+  /** Flashcard révisée ; l'état est supprimé avec elle. */
+  @MapsId
+  @OneToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(name = "flashcard_id")
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  private Flashcard flashcard;
+
+  /** Nombre de révisions réussies consécutives. */
+  private int repetitions;
+
+  /** Intervalle courant entre deux révisions, en jours. */
+  private int intervalDays;
+
+  /** Facteur de facilité. */
+  private double ease = INITIAL_EASE;
+
+  /** Date à partir de laquelle la flashcard doit être révisée. */
+  @Column(name = "due_at", nullable = false)
+  private Instant dueAt;
+
+  /** Date de la dernière révision. */
+  private Instant lastReviewedAt;
+}
@@ -0,0 +1,80 @@
+package com.example.flashcards.entity;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+    justification = "JPA entity - mutable by design for Hibernate")
+
+/**
+ * Statistiques de révision cumulées d'une flashcard ou d'une catégorie.
+ *
+ * <p>Les lignes sont des points de reprise des agrégats tenus en mémoire par {@code LearningStats},
+ * qui les incrémente périodiquement en JDBC (hors Hibernate) ; l'entité ne sert qu'à la génération
+ * du schéma. Les compteurs sont additifs : plusieurs instances peuvent y reporter leurs révisions.
+ */
+@Entity
+@Table(name = "review_stats")
+@IdClass(ReviewStats.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReviewStats {
+
+  /** Portée d'une ligne : flashcard. */
+  public static final short SCOPE_FLASHCARD = 0;
+
+  /** Portée d'une ligne : catégorie. */
+  public static final short SCOPE_CATEGORY = 1;
+
+  /** Portée de la ligne, {@link #SCOPE_FLASHCARD} ou {@link #SCOPE_CATEGORY}. */
+  @Id private short scope;
+
+  /** Identifiant de la flashcard ou de la catégorie. */
+  @Id
+  @Column(name = "target_id")
+  private long targetId;
+
+  /** Nombre de révisions. */
+  private long reviews;
+
+  /** Nombre de révisions réussies (note d'au moins 3). */
+  private long passed;
+
+  /** Nombre d'oublis : échecs d'une flashcard qui avait déjà été réussie. */
+  private long lapses;
+
+  /** Nombre de révisions dont le temps de réponse est connu. */
+  @Column(name = "timed_reviews")
+  private long timedReviews;
+
+  /** Somme des temps de réponse connus, en millisecondes. */
+  @Column(name = "response_ms")
+  private long responseMs;
+
+  /** Clé composée (portée, identifiant). */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Portée de la ligne. */
+    private short scope;
+
+    /** Identifiant de la flashcard ou de la catégorie. */
+    private long targetId;
+  }
+}
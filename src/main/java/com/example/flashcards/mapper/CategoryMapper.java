@@ -33,11 +33,16 @@ public final class CategoryMapper {
     final CategoryDto dto = new CategoryDto();
     dto.setId(category.getId());
     dto.setName(category.getName());
+    final Category parent = category.getParentCategory();
+    dto.setParentId(parent != null ? parent.getId() : null);
+    dto.setFlashcardCount(category.getFlashcardCount());
+    dto.setVersion(category.getVersion());
     return dto;
   }
 
   /**
-   * Convertit un objet {@link CategoryDto} en entité {@link Category}.
+   * Convertit un objet {@link CategoryDto} en entité {@link Category}. La catégorie parente n'est
+   * renseignée que par son identifiant.
    *
    * @param dto objet {@link CategoryDto} à convertir
    * @return une entité {@link Category} correspondante, ou {@code null} si l'entrée est {@code
@@ -51,6 +56,11 @@ public final class CategoryMapper {
     final Category category = new Category();
     category.setId(dto.getId());
     category.setName(dto.getName());
+    if (dto.getParentId() != null) {
+      final Category parent = new Category();
+      parent.setId(dto.getParentId());
+      category.setParentCategory(parent);
+    }
     return category;
   }
 }
@@ -36,6 +36,7 @@ public final class FlashcardMapper {
     dto.setQuestion(flashcard.getQuestion());
     dto.setAnswer(flashcard.getAnswer());
     dto.setCategoryId(flashcard.getCategory() != null ? flashcard.getCategory().getId() : null);
+    dto.setVersion(flashcard.getVersion());
     return dto;
   }
 
@@ -1,8 +1,19 @@
 package com.example.flashcards.repository;
 
+import com.example.flashcards.dto.CategoryDto;
 import com.example.flashcards.entity.Category;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -15,10 +26,278 @@ import org.springframework.stereotype.Repository;
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
   /**
-   * Recherche les catégories dont le nom contient une chaîne donnée, sans tenir compte de la casse.
+   * Région du cache de requêtes Hibernate des recherches de catégories. Toute écriture sur la table
+   * des catégories invalide ses résultats ; les mises à jour du nombre de flashcards la vident
+   * explicitement.
+   */
+  String SEARCH_CACHE_REGION = "category-search";
+
+  /**
+   * Espace de synchronisation des mises à jour natives du nombre de flashcards. Aucune entité ni
+   * requête ne le lit : Hibernate n'invalide rien d'autre à leur exécution, et l'appelant retire du
+   * cache les seules catégories modifiées ({@code CategoryCaches}).
+   */
+  String FLASHCARD_COUNT_SPACE = "category_flashcard_count";
+
+  /**
+   * Recherche portable (H2, PostgreSQL) des catégories dont le nom contient un motif, classées par
+   * pertinence : nom égal, puis nom commençant par le terme, puis nom contenant le terme.
+   *
+   * @param term terme en minuscules
+   * @param pattern motif {@code %term%} échappé
+   * @param prefix motif {@code term%} échappé
+   * @param limit nombre maximal de résultats
+   * @return catégories correspondantes, les plus pertinentes d'abord
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SEARCH_CACHE_REGION)
+  })
+  @Query(
+      """
+                select new com.example.flashcards.dto.CategoryDto(c.id, c.name, c.parentCategory.id, c.flashcardCount)
+                from Category c
+                where lower(c.name) like :pattern escape '\\'
+                order by
+                  case
+                    when lower(c.name) = :term then 0
+                    when lower(c.name) like :prefix escape '\\' then 1
+                    else 2
+                  end,
+                  c.id
+            """)
+  List<CategoryDto> searchRanked(
+      @Param("term") String term,
+      @Param("pattern") String pattern,
+      @Param("prefix") String prefix,
+      Limit limit);
+
+  /**
+   * Recherche PostgreSQL s'appuyant sur l'index GIN {@code pg_trgm} du nom ({@code
+   * db/search-index.sql}), classée par similarité de mot.
+   *
+   * @param term terme en minuscules
+   * @param pattern motif {@code %term%} échappé
+   * @param limit nombre maximal de résultats
+   * @return catégories correspondantes, les plus pertinentes d'abord
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+    @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SEARCH_CACHE_REGION)
+  })
+  @Query(
+      """
+                select new com.example.flashcards.dto.CategoryDto(c.id, c.name, c.parentCategory.id, c.flashcardCount)
+                from Category c
+                where c.name ilike :pattern escape '\\'
+                order by function('word_similarity', :term, c.name) desc, c.id
+            """)
+  List<CategoryDto> searchTrigram(
+      @Param("term") String term, @Param("pattern") String pattern, Limit limit);
+
+  /**
+   * Liste toutes les catégories par identifiant croissant, projetées directement en {@link
+   * CategoryDto} (aucune entité gérée).
+   *
+   * @return catégories sous forme de DTO
+   */
+  @Query(
+      """
+                select new com.example.flashcards.dto.CategoryDto(c.id, c.name, c.parentCategory.id, c.flashcardCount)
+                from Category c
+                order by c.id
+            """)
+  List<CategoryDto> findAllAsDto();
+
+  /**
+   * Chemin matérialisé d'une catégorie.
+   *
+   * @param id identifiant de la catégorie
+   * @return chemin de la catégorie, vide si elle n'existe pas
+   */
+  @Query("select c.path from Category c where c.id = :id")
+  Optional<String> findPathById(@Param("id") Long id);
+
+  /**
+   * Catégories d'un sous-arbre, en une requête servie par l'index du chemin ({@code
+   * idx_category_path}). Le tri par chemin place chaque catégorie avant ses descendants.
+   *
+   * @param pattern motif {@code chemin%} de la racine du sous-arbre
+   * @return racine puis descendants, triés par chemin
+   */
+  @Query(
+      """
+                select new com.example.flashcards.dto.CategoryDto(c.id, c.name, c.parentCategory.id, c.flashcardCount)
+                from Category c
+                where c.path like :pattern
+                order by c.path
+            """)
+  List<CategoryDto> findSubtree(@Param("pattern") String pattern);
+
+  /**
+   * Identifiants des catégories d'un sous-arbre, racine comprise.
+   *
+   * @param pattern motif {@code chemin%} de la racine du sous-arbre
+   * @return identifiants, triés par chemin
+   */
+  @Query("select c.id from Category c where c.path like :pattern order by c.path")
+  List<Long> findIdsInSubtree(@Param("pattern") String pattern);
+
+  /**
+   * Déplace un sous-arbre : remplace le préfixe de chemin de la racine et de tous ses descendants,
+   * en une seule instruction.
+   *
+   * @param pattern motif {@code ancienChemin%} du sous-arbre
+   * @param newPath nouveau chemin de la racine
+   * @param from position (à partir de 1) du reste du chemin après l'ancien préfixe
+   * @return nombre de catégories déplacées
+   */
+  @Modifying
+  @Query(
+      """
+                update Category c
+                set c.path = concat(:newPath, substring(c.path, :from))
+                where c.path like :pattern
+            """)
+  int movePaths(
+      @Param("pattern") String pattern, @Param("newPath") String newPath, @Param("from") int from);
+
+  /**
+   * Renseigne le chemin des catégories racines créées avant l'introduction des chemins.
+   *
+   * @return nombre de catégories mises à jour
+   */
+  @Modifying
+  @Query(
+      """
+                update Category c
+                set c.path = concat('/', cast(c.id as String), '/')
+                where c.path is null and c.parentCategory is null
+            """)
+  int fillRootPaths();
+
+  /**
+   * Lit une catégorie projetée en {@link CategoryDto}, nombre de flashcards et version compris.
+   *
+   * @param id identifiant de la catégorie
+   * @return la catégorie, vide si elle n'existe pas
+   */
+  @Query(
+      """
+                select new com.example.flashcards.dto.CategoryDto(
+                  c.id, c.name, c.parentCategory.id, c.flashcardCount, c.version)
+                from Category c
+                where c.id = :id
+            """)
+  Optional<CategoryDto> findDtoById(@Param("id") Long id);
+
+  /**
+   * Ajoute {@code delta} (positif ou négatif) au nombre de flashcards d'une catégorie, par une mise
+   * à jour relative : les écritures concurrentes s'additionnent sans se perdre.
+   *
+   * <p>Requête native synchronisée sur {@link #FLASHCARD_COUNT_SPACE} : une mise à jour en masse
+   * JPQL viderait toute la région des catégories et le cache de requêtes à chaque écriture de
+   * flashcard.
+   *
+   * @param id identifiant de la catégorie
+   * @param delta variation du nombre de flashcards
+   * @return nombre de catégories mises à jour (0 ou 1)
+   */
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = FLASHCARD_COUNT_SPACE))
+  @Query(
+      value = "update category set flashcard_count = flashcard_count + :delta where id = :id",
+      nativeQuery = true)
+  int addToFlashcardCount(@Param("id") Long id, @Param("delta") long delta);
+
+  /**
+   * Catégories dont le nombre de flashcards diffère du nombre réel. La lecture ne pose aucun
+   * verrou : chaque catégorie trouvée est ensuite corrigée sous verrou par {@link
+   * #reconcileFlashcardCount(Long)}.
+   *
+   * @return identifiants des catégories en écart, par identifiant croissant
+   */
+  @Query(
+      value =
+          """
+                select c.id from category c
+                where c.flashcard_count <> (select count(*) from flashcard f where f.category_id = c.id)
+                order by c.id
+            """,
+      nativeQuery = true)
+  List<Long> findIdsWithDriftedFlashcardCount();
+
+  /**
+   * Verrouille la ligne d'une catégorie ({@code select ... for update}), sans charger l'entité.
+   * Les écritures de flashcards qui mettent à jour son compteur attendent la fin de la transaction
+   * courante, et la transaction courante attend celles déjà engagées.
+   *
+   * @param id identifiant de la catégorie
+   * @return l'identifiant, vide si la catégorie n'existe pas
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select c.id from Category c where c.id = :id")
+  Optional<Long> lockById(@Param("id") Long id);
+
+  /**
+   * Recalcule le nombre de flashcards d'une catégorie s'il a dérivé, en une instruction native
+   * synchronisée sur {@link #FLASHCARD_COUNT_SPACE}. À appeler après {@link #lockById(Long)} dans
+   * la même transaction : en {@code READ COMMITTED}, le recomptage voit alors toutes les flashcards
+   * dont l'écriture a déjà mis à jour le compteur, et aucune autre ne peut le modifier avant la
+   * fin de la transaction.
+   *
+   * @param id identifiant de la catégorie
+   * @return nombre de catégories corrigées (0 ou 1)
+   */
+  @Modifying
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = FLASHCARD_COUNT_SPACE))
+  @Query(
+      value =
+          """
+                update category
+                set flashcard_count = (select count(*) from flashcard f where f.category_id = :id)
+                where id = :id
+                  and flashcard_count <> (select count(*) from flashcard f where f.category_id = :id)
+            """,
+      nativeQuery = true)
+  int reconcileFlashcardCount(@Param("id") Long id);
+
+  /**
+   * Renomme une catégorie en une seule instruction, en incrémentant sa version.
+   *
+   * @param id identifiant de la catégorie
+   * @param name nouveau nom
+   * @param version version attendue, ou {@code null} pour ne pas la vérifier
+   * @return nombre de catégories mises à jour (0 si absente ou si la version diffère)
+   */
+  @Modifying
+  @Query(
+      """
+                update Category c
+                set c.name = :name, c.version = c.version + 1
+                where c.id = :id and (:version is null or c.version = :version)
+            """)
+  int patch(@Param("id") Long id, @Param("name") String name, @Param("version") Long version);
+
+  /**
+   * Détache les catégories d'un sous-arbre de leur parent, avant leur suppression : la clé
+   * étrangère vers le parent n'impose alors plus d'ordre de suppression entre les lignes.
+   *
+   * @param pattern motif {@code chemin%} de la racine du sous-arbre
+   * @return nombre de catégories détachées
+   */
+  @Modifying
+  @Query("update Category c set c.parentCategory = null where c.path like :pattern")
+  int detachSubtree(@Param("pattern") String pattern);
+
+  /**
+   * Supprime les lignes d'un sous-arbre en une instruction, sans charger ni parcourir leurs
+   * collections de flashcards (qui doivent être vides).
    *
-   * @param name partie du nom à rechercher
-   * @return liste des catégories correspondant au critère
+   * @param pattern motif {@code chemin%} de la racine du sous-arbre
+   * @return nombre de catégories supprimées
    */
-  List<Category> findByNameContainingIgnoreCase(String name);
+  @Modifying
+  @Query("delete from Category c where c.path like :pattern")
+  int deleteSubtree(@Param("pattern") String pattern);
 }
@@ -1,9 +1,21 @@
 package com.example.flashcards.repository;
 
+import com.example.flashcards.dto.FlashcardDto;
 import com.example.flashcards.entity.Flashcard;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -15,19 +27,277 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface FlashcardRepository extends JpaRepository<Flashcard, Long> {
   /**
-   * Recherche les flashcards dont la question contient une chaîne donnée sans tenir compte de la
-   * casse.
+   * Recherche portable (H2, PostgreSQL) des flashcards dont la question ou la réponse contient un
+   * motif, classées par pertinence : question égale, puis question commençant par le terme, puis
+   * question contenant le terme, puis réponse seule.
    *
-   * @param question partie de la question à rechercher
-   * @return liste des flashcards correspondant au critère
+   * @param term terme en minuscules
+   * @param pattern motif {@code %term%} échappé
+   * @param prefix motif {@code term%} échappé
+   * @param limit nombre maximal de résultats
+   * @return flashcards correspondantes, les plus pertinentes d'abord
    */
-  List<Flashcard> findByQuestionContainingIgnoreCase(String question);
+  @Query(
+      """
+                select new com.example.flashcards.dto.FlashcardDto(f.id, f.question, f.answer, c.id)
+                from Flashcard f
+                left join f.category c
+                where lower(f.question) like :pattern escape '\\'
+                   or lower(f.answer) like :pattern escape '\\'
+                order by
+                  case
+                    when lower(f.question) = :term then 0
+                    when lower(f.question) like :prefix escape '\\' then 1
+                    when lower(f.question) like :pattern escape '\\' then 2
+                    else 3
+                  end,
+                  f.id
+            """)
+  List<FlashcardDto> searchRanked(
+      @Param("term") String term,
+      @Param("pattern") String pattern,
+      @Param("prefix") String prefix,
+      Limit limit);
+
+  /**
+   * Recherche PostgreSQL s'appuyant sur les index GIN {@code pg_trgm} de la question et de la
+   * réponse ({@code db/search-index.sql}), classée par similarité de mot.
+   *
+   * @param term terme en minuscules
+   * @param pattern motif {@code %term%} échappé
+   * @param limit nombre maximal de résultats
+   * @return flashcards correspondantes, les plus pertinentes d'abord
+   */
+  @Query(
+      """
+                select new com.example.flashcards.dto.FlashcardDto(f.id, f.question, f.answer, c.id)
+                from Flashcard f
+                left join f.category c
+                where f.question ilike :pattern escape '\\'
+                   or f.answer ilike :pattern escape '\\'
+                order by greatest(
+                           cast(function('word_similarity', :term, f.question) as Double),
+                           cast(function('word_similarity', :term, f.answer) as Double) / 2) desc,
+                         f.id
+            """)
+  List<FlashcardDto> searchTrigram(
+      @Param("term") String term, @Param("pattern") String pattern, Limit limit);
+
+  /**
+   * Liste toutes les flashcards, avec ou sans catégorie, projetées directement en {@link
+   * FlashcardDto} (aucune entité gérée). Même jointure externe que {@link #findPageAfter} et {@link
+   * #streamAllAsDto()}, pour que les trois parcours renvoient les mêmes flashcards.
+   *
+   * @return flashcards sous forme de DTO, par identifiant croissant
+   */
+  @Query(
+      """
+                select new com.example.flashcards.dto.FlashcardDto(f.id, f.question, f.answer, c.id)
+                from Flashcard f
+                left join f.category c
+                order by f.id
+            """)
+  List<FlashcardDto> findAllAsDto();
+
+  /**
+   * Récupère une flashcard projetée en {@link FlashcardDto}, version comprise.
+   *
+   * @param id identifiant de la flashcard
+   * @return la flashcard si elle existe
+   */
+  @Query(
+      """
+                select new com.example.flashcards.dto.FlashcardDto(
+                  f.id, f.question, f.answer, c.id, f.version)
+                from Flashcard f
+                left join f.category c
+                where f.id = :id
+            """)
+  Optional<FlashcardDto> findDtoById(@Param("id") Long id);
+
+  /**
+   * Récupère des flashcards par identifiant en une seule requête {@code IN}, projetées en {@link
+   * FlashcardDto}. Les identifiants inconnus sont ignorés ; l'ordre n'est pas garanti.
+   *
+   * @param ids identifiants des flashcards
+   * @return les flashcards trouvées
+   */
+  @Query(
+      """
+                select new com.example.flashcards.dto.FlashcardDto(f.id, f.question, f.answer, c.id)
+                from Flashcard f
+                left join f.category c
+                where f.id in :ids
+            """)
+  List<FlashcardDto> findAllDtoByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Récupère une page de flashcards dont l'identifiant est strictement supérieur à {@code afterId},
+   * triées par identifiant croissant (pagination keyset), projetées en {@link FlashcardDto}, avec
+   * ou sans catégorie.
+   *
+   * @param afterId identifiant de la dernière flashcard de la page précédente ({@code 0} pour la
+   *     première page)
+   * @param limit nombre maximal de lignes à lire
+   * @return liste des flashcards de la page
+   */
+  @Query(
+      """
+                select new com.example.flashcards.dto.FlashcardDto(f.id, f.question, f.answer, c.id)
+                from Flashcard f
+                left join f.category c
+                where f.id > :afterId
+                order by f.id
+            """)
+  List<FlashcardDto> findPageAfter(@Param("afterId") long afterId, Limit limit);
+
+  /**
+   * Lit une page de flashcards appartenant à un sous-arbre de catégories, par identifiant
+   * croissant, en une requête : la jointure filtre les catégories par préfixe de chemin.
+   *
+   * @param pattern motif {@code chemin%} de la racine du sous-arbre
+   * @param afterId identifiant de la dernière flashcard de la page précédente
+   * @param limit nombre maximal de lignes à lire
+   * @return liste des flashcards de la page
+   */
+  @Query(
+      """
+                select new com.example.flashcards.dto.FlashcardDto(f.id, f.question, f.answer, c.id)
+                from Flashcard f
+                join f.category c
+                where c.path like :pattern
+                  and f.id > :afterId
+                order by f.id
+            """)
+  List<FlashcardDto> findPageAfterInSubtree(
+      @Param("pattern") String pattern, @Param("afterId") long afterId, Limit limit);
 
+  /**
+   * Parcourt toutes les flashcards sous forme de {@link FlashcardDto}, par ordre d'identifiant, via
+   * un curseur JDBC en lecture seule.
+   *
+   * <p>Les lignes sont projetées directement en DTO (aucune entité gérée) et lues par lots de
+   * {@code fetchSize} : la mémoire reste constante quelle que soit la taille de la table. Le flux
+   * doit être consommé puis fermé dans une transaction.
+   *
+   * @return flux des flashcards à fermer après usage
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
   @Query(
       """
-                select f
+                select new com.example.flashcards.dto.FlashcardDto(f.id, f.question, f.answer, c.id)
                 from Flashcard f
-                join fetch f.category
+                left join f.category c
+                order by f.id
             """)
-  List<Flashcard> findAllWithCategory();
+  Stream<FlashcardDto> streamAllAsDto();
+
+  /**
+   * Parcourt les flashcards d'une catégorie (sans ses sous-catégories) par ordre d'identifiant, via
+   * un curseur JDBC en lecture seule, comme {@link #streamAllAsDto()}.
+   *
+   * @param categoryId identifiant de la catégorie
+   * @return flux des flashcards à fermer après usage
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query(
+      """
+                select new com.example.flashcards.dto.FlashcardDto(f.id, f.question, f.answer, c.id)
+                from Flashcard f
+                join f.category c
+                where c.id = :categoryId
+                order by f.id
+            """)
+  Stream<FlashcardDto> streamDtoByCategoryId(@Param("categoryId") Long categoryId);
+
+  /**
+   * Lit la catégorie d'une flashcard en verrouillant sa ligne ({@code select ... for update}), sans
+   * charger l'entité : une autre transaction ne peut plus la changer de catégorie avant la fin de
+   * la transaction courante.
+   *
+   * @param id identifiant de la flashcard
+   * @return identifiant de la catégorie, vide si la flashcard n'existe pas ou n'a pas de catégorie
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select f.category.id from Flashcard f where f.id = :id")
+  Optional<Long> findCategoryIdForUpdate(@Param("id") Long id);
+
+  /**
+   * Met à jour les champs renseignés d'une flashcard en une seule instruction, en incrémentant sa
+   * version ; un champ {@code null} est laissé inchangé.
+   *
+   * @param id identifiant de la flashcard
+   * @param question nouvelle question, ou {@code null}
+   * @param answer nouvelle réponse, ou {@code null}
+   * @param categoryId nouvelle catégorie, ou {@code null}
+   * @param version version attendue, ou {@code null} pour ne pas la vérifier
+   * @return nombre de flashcards mises à jour (0 si absente ou si la version diffère)
+   */
+  @Modifying
+  @Query(
+      """
+                update Flashcard f
+                set f.question = coalesce(:question, f.question),
+                    f.answer = coalesce(:answer, f.answer),
+                    f.category.id = coalesce(:categoryId, f.category.id),
+                    f.version = f.version + 1
+                where f.id = :id and (:version is null or f.version = :version)
+            """)
+  int patch(
+      @Param("id") Long id,
+      @Param("question") String question,
+      @Param("answer") String answer,
+      @Param("categoryId") Long categoryId,
+      @Param("version") Long version);
+
+  /**
+   * Compte les flashcards rattachées directement à une catégorie.
+   *
+   * @param categoryId identifiant de la catégorie
+   * @return nombre de flashcards
+   */
+  long countByCategoryId(Long categoryId);
+
+  /**
+   * Lit un lot d'identifiants de flashcards d'une catégorie, par identifiant croissant.
+   *
+   * @param categoryId identifiant de la catégorie
+   * @param limit taille du lot
+   * @return identifiants des flashcards du lot
+   */
+  @Query("select f.id from Flashcard f where f.category.id = :categoryId order by f.id")
+  List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId, Limit limit);
+
+  /**
+   * Identifiants des flashcards d'un sous-arbre de catégories.
+   *
+   * @param pattern motif {@code chemin%} de la catégorie racine
+   * @return identifiants des flashcards
+   */
+  @Query("select f.id from Flashcard f where f.category.path like :pattern")
+  List<Long> findIdsInSubtree(@Param("pattern") String pattern);
+
+  /**
+   * Supprime toutes les flashcards d'un sous-arbre de catégories en une instruction.
+   *
+   * @param pattern motif {@code chemin%} de la catégorie racine
+   * @return nombre de flashcards supprimées
+   */
+  @Modifying
+  @Query(
+      """
+                delete from Flashcard f
+                where f.category.id in (select c.id from Category c where c.path like :pattern)
+            """)
+  int deleteAllInSubtree(@Param("pattern") String pattern);
+
+  /**
+   * Supprime un lot de flashcards en une instruction.
+   *
+   * @param ids identifiants des flashcards
+   * @return nombre de flashcards supprimées
+   */
+  @Modifying
+  @Query("delete from Flashcard f where f.id in :ids")
+  int deleteByIds(@Param("ids") Collection<Long> ids);
 }
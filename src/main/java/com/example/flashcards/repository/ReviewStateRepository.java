@@ -0,0 +1,80 @@
+package com.example.flashcards.repository;
+
+import com.example.flashcards.dto.ReviewCardDto;
+import com.example.flashcards.dto.ReviewDueDto;
+import com.example.flashcards.entity.ReviewState;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/** Repository Spring Data JPA pour l'entité {@link ReviewState}. */
+@Repository
+public interface ReviewStateRepository extends JpaRepository<ReviewState, Long> {
+
+  /**
+   * Récupère une flashcard et son état de révision (éventuellement absent) en une requête par clé
+   * primaire.
+   *
+   * @param id identifiant de la flashcard
+   * @return la flashcard à réviser si elle existe
+   */
+  @Query(
+      """
+                select new com.example.flashcards.dto.ReviewCardDto(
+                  f.id, f.question, f.answer, c.id, r.repetitions, r.intervalDays, r.ease, r.dueAt)
+                from Flashcard f
+                join f.category c
+                left join ReviewState r on r.flashcard = f
+                where f.id = :id
+            """)
+  Optional<ReviewCardDto> findCard(@Param("id") Long id);
+
+  /**
+   * Parcourt toutes les flashcards avec leur catégorie et leur échéance, pour construire la file de
+   * révision. Le flux doit être consommé puis fermé dans une transaction.
+   *
+   * @return flux des échéances à fermer après usage
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query(
+      """
+                select new com.example.flashcards.dto.ReviewDueDto(f.id, c.id, r.dueAt)
+                from Flashcard f
+                join f.category c
+                left join ReviewState r on r.flashcard = f
+            """)
+  Stream<ReviewDueDto> streamDueDates();
+
+  /**
+   * Supprime les états de révision des flashcards d'un sous-arbre de catégories en une instruction.
+   *
+   * @param pattern motif {@code chemin%} de la catégorie racine
+   * @return nombre d'états supprimés
+   */
+  @Modifying
+  @Query(
+      """
+                delete from ReviewState r
+                where r.flashcardId in
+                  (select f.id from Flashcard f where f.category.path like :pattern)
+            """)
+  int deleteAllInSubtree(@Param("pattern") String pattern);
+
+  /**
+   * Supprime les états de révision d'un lot de flashcards en une instruction.
+   *
+   * @param flashcardIds identifiants des flashcards
+   * @return nombre d'états supprimés
+   */
+  @Modifying
+  @Query("delete from ReviewState r where r.flashcardId in :flashcardIds")
+  int deleteByFlashcardIds(@Param("flashcardIds") Collection<Long> flashcardIds);
+}
@@ -0,0 +1,41 @@
+package com.example.flashcards.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Report d'une action après la validation de la transaction courante.
+ *
+ * <p>Utilisé pour les structures en mémoire (index, compteurs, caches) qui ne doivent refléter que
+ * les écritures validées.
+ */
+final class AfterCommit {
+
+  /**
+   * Constructeur privé pour empêcher l'instanciation. Nécessaire pour respecter la règle Checkstyle
+   * "HideUtilityClassConstructorCheck".
+   */
+  private AfterCommit() {
+    // Constructeur vide intentionnellement.
+  }
+
+  /**
+   * Exécute une action après la validation de la transaction courante, ou immédiatement s'il n'y a
+   * pas de transaction active.
+   *
+   * @param action action à exécuter
+   */
+  static void run(final Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              action.run();
+            }
+          });
+    } else {
+      action.run();
+    }
+  }
+}
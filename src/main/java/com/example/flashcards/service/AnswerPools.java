@@ -0,0 +1,411 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.repository.FlashcardRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Réponses distinctes de chaque catégorie, en mémoire, où puiser les mauvaises options des quiz à
+ * choix multiples.
+ *
+ * <p>Deux réponses qui ne diffèrent que par la casse, les accents ou la ponctuation ne forment
+ * qu'une entrée, comptée autant de fois que de flashcards la portent. Une entrée disparaît avec sa
+ * dernière flashcard. Un tirage de distracteurs coûte O(k) et écarte les réponses quasi identiques
+ * à la bonne réponse ou entre elles (distance d'édition faible).
+ *
+ * <p>Les réserves sont construites au démarrage puis tenues à jour par {@link FlashcardService} et
+ * {@link CategoryService}. Une reconstruction remplit de nouvelles réserves à part et les substitue
+ * d'un bloc aux anciennes, après y avoir rejoué les mises à jour reçues entre temps ({@link
+ * RebuildBuffer}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects immutable repository beans safely")
+public class AnswerPools {
+
+  /** Nombre de candidats examinés par distracteur demandé, avant d'abandonner. */
+  private static final int CANDIDATES_PER_DISTRACTOR = 4;
+
+  /** Repository utilisé pour la construction initiale. */
+  private final FlashcardRepository flashcardRepository;
+
+  /** Verrou protégeant les structures ci-dessous ; les tirages ne prennent que la lecture. */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** Mises à jour reçues pendant une reconstruction. */
+  private final RebuildBuffer<Pools> rebuilds = new RebuildBuffer<>();
+
+  /** Réserves en service. */
+  private Pools pools = new Pools();
+
+  /** Indique si la construction initiale est terminée. */
+  private volatile boolean ready;
+
+  /**
+   * Emplacement d'une flashcard dans les réserves.
+   *
+   * @param categoryId catégorie de la flashcard
+   * @param key réponse normalisée
+   * @param text réponse telle que saisie
+   */
+  private record Placement(long categoryId, String key, String text) {}
+
+  /**
+   * Construit les réserves à partir de la base. Au démarrage, {@link CatalogSnapshot} appelle cette
+   * méthode ou {@link #rebuild(Iterator)} avec le contenu de l'instantané local. La table est lue
+   * sur le primaire : une réponse encore absente d'un réplica en retard manquerait aux quiz jusqu'à
+   * la reconstruction suivante.
+   */
+  @Transactional
+  public synchronized void rebuild() {
+    // Les mises à jour sont conservées dès avant la requête : celles validées après sa lecture
+    // seront rejouées
+    startRebuild();
+    try (Stream<FlashcardDto> rows = flashcardRepository.streamAllAsDto()) {
+      load(rows.iterator());
+    } finally {
+      endRebuild();
+    }
+  }
+
+  /**
+   * Reconstruit les réserves à partir des flashcards données.
+   *
+   * @param rows toutes les flashcards, lues en base ou dans l'instantané local
+   */
+  public synchronized void rebuild(final Iterator<FlashcardDto> rows) {
+    startRebuild();
+    try {
+      load(rows);
+    } finally {
+      endRebuild();
+    }
+  }
+
+  private void load(final Iterator<FlashcardDto> rows) {
+    final long start = System.nanoTime();
+    final Pools rebuilt = new Pools();
+    long count = 0;
+    while (rows.hasNext()) {
+      final FlashcardDto dto = rows.next();
+      if (dto != null && dto.getId() != null) {
+        rebuilt.put(dto.getId(), dto.getCategoryId(), dto.getAnswer());
+      }
+      count++;
+    }
+    lock.writeLock().lock();
+    try {
+      rebuilds.replay(rebuilt);
+      pools = rebuilt;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    ready = true;
+    log.info(
+        "Answer pools built: {} cards in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Indique si les distracteurs peuvent être servis.
+   *
+   * @return {@code true} une fois la construction initiale terminée
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Ajoute ou met à jour la réponse d'une flashcard. Une réponse ou une catégorie {@code null}
+   * (modification partielle) reprend la valeur connue.
+   *
+   * @param dto flashcard créée ou modifiée
+   */
+  public void put(final FlashcardDto dto) {
+    if (dto == null || dto.getId() == null) {
+      return;
+    }
+    final Long id = dto.getId();
+    final Long categoryId = dto.getCategoryId();
+    final String answer = dto.getAnswer();
+    update(p -> p.put(id, categoryId, answer));
+  }
+
+  /**
+   * Ajoute des flashcards après la validation de la transaction courante, ou immédiatement s'il n'y
+   * en a pas.
+   *
+   * @param dtos flashcards créées
+   */
+  public void putAfterCommit(final Collection<FlashcardDto> dtos) {
+    final List<FlashcardDto> copy = List.copyOf(dtos);
+    AfterCommit.run(() -> copy.forEach(this::put));
+  }
+
+  /**
+   * Retire la réponse d'une flashcard.
+   *
+   * @param id identifiant de la flashcard
+   */
+  public void remove(final Long id) {
+    if (id == null) {
+      return;
+    }
+    update(p -> p.remove(id));
+  }
+
+  /**
+   * Retire les réserves de catégories supprimées, en un seul parcours des placements.
+   *
+   * @param categoryIds identifiants des catégories
+   */
+  public void removeCategories(final Collection<Long> categoryIds) {
+    final Set<Long> removed = Set.copyOf(categoryIds);
+    update(p -> p.removeCategories(removed));
+  }
+
+  /**
+   * Tire des réponses d'une catégorie qui ne ressemblent ni à la bonne réponse ni entre elles.
+   *
+   * @param categoryId catégorie de la flashcard
+   * @param answer bonne réponse
+   * @param count nombre de distracteurs voulus
+   * @param random générateur
+   * @return au plus {@code count} réponses, moins si la catégorie n'en a pas assez de distinctes
+   */
+  public List<String> distractors(
+      final Long categoryId, final String answer, final int count, final Random random) {
+    final List<String> chosen = new ArrayList<>(Math.max(count, 0));
+    lock.readLock().lock();
+    try {
+      final Pool pool = categoryId == null ? null : pools.byCategory.get(categoryId);
+      if (pool == null || count <= 0) {
+        return chosen;
+      }
+      final List<String> keys = new ArrayList<>(count + 1);
+      keys.add(key(answer));
+      for (int position :
+          FlashcardSampler.distinctPositions(
+              pool.keys.size(), count * CANDIDATES_PER_DISTRACTOR, random)) {
+        final String candidate = pool.keys.get(position);
+        if (keys.stream().noneMatch(k -> nearlyIdentical(k, candidate))) {
+          keys.add(candidate);
+          chosen.add(pool.texts.get(position));
+          if (chosen.size() == count) {
+            break;
+          }
+        }
+      }
+      return chosen;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Vide toutes les réserves. */
+  public void clear() {
+    update(Pools::clear);
+  }
+
+  /**
+   * Forme normalisée d'une réponse : minuscules, sans accents, mots séparés par une espace.
+   *
+   * @param answer réponse d'origine
+   * @return réponse normalisée, vide si elle ne contient ni lettre ni chiffre
+   */
+  static String key(final String answer) {
+    return String.join(" ", FlashcardSearchIndex.tokens(FlashcardSearchIndex.normalize(answer)));
+  }
+
+  /**
+   * Indique si deux réponses normalisées sont quasi identiques : égales, ou à une distance
+   * d'édition d'au plus un caractère sur quatre au-delà des deux premiers ("mitochondrie" et
+   * "mitochondries" se ressemblent, "4" et "5" non).
+   *
+   * @param a première réponse normalisée
+   * @param b seconde réponse normalisée
+   * @return {@code true} si l'une ne doit pas servir de distracteur à l'autre
+   */
+  static boolean nearlyIdentical(final String a, final String b) {
+    final int tolerance = Math.max(0, (Math.min(a.length(), b.length()) - 2) / 4);
+    if (Math.abs(a.length() - b.length()) > tolerance) {
+      return false;
+    }
+    return tolerance == 0 ? a.equals(b) : editDistance(a, b, tolerance) <= tolerance;
+  }
+
+  /** Distance de Levenshtein, interrompue dès qu'elle dépasse {@code limit}. */
+  private static int editDistance(final String a, final String b, final int limit) {
+    int[] previous = new int[b.length() + 1];
+    int[] current = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      current[0] = i;
+      int rowMin = i;
+      for (int j = 1; j <= b.length(); j++) {
+        final int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+        current[j] =
+            Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+        rowMin = Math.min(rowMin, current[j]);
+      }
+      if (rowMin > limit) {
+        return rowMin;
+      }
+      final int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return previous[b.length()];
+  }
+
+  private void update(final Consumer<Pools> change) {
+    lock.writeLock().lock();
+    try {
+      rebuilds.apply(pools, change);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void startRebuild() {
+    lock.writeLock().lock();
+    try {
+      rebuilds.start();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void endRebuild() {
+    lock.writeLock().lock();
+    try {
+      rebuilds.abort();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Réserves de toutes les catégories et emplacement de chaque flashcard. */
+  private static final class Pools {
+
+    /** Réponses distinctes de chaque catégorie. */
+    private final Map<Long, Pool> byCategory = new HashMap<>();
+
+    /** Catégorie et réponse de chaque flashcard. */
+    private final Map<Long, Placement> placements = new HashMap<>();
+
+    void put(final Long id, final Long categoryId, final String answer) {
+      final Placement previous = placements.get(id);
+      final Long category =
+          categoryId != null ? categoryId : previous != null ? previous.categoryId() : null;
+      final String text = answer != null ? answer : previous != null ? previous.text() : null;
+      final String key = key(text);
+      if (category == null || key.isEmpty()) {
+        unlink(placements.remove(id));
+        return;
+      }
+      final Placement placement = new Placement(category, key, text);
+      if (placement.equals(previous)) {
+        return;
+      }
+      unlink(previous);
+      byCategory.computeIfAbsent(category, k -> new Pool()).add(key, text);
+      placements.put(id, placement);
+    }
+
+    void remove(final Long id) {
+      unlink(placements.remove(id));
+    }
+
+    void removeCategories(final Set<Long> categoryIds) {
+      if (byCategory.keySet().removeAll(categoryIds)) {
+        placements.values().removeIf(p -> categoryIds.contains(p.categoryId()));
+      }
+    }
+
+    void clear() {
+      byCategory.clear();
+      placements.clear();
+    }
+
+    private void unlink(final Placement placement) {
+      if (placement == null) {
+        return;
+      }
+      final Pool pool = byCategory.get(placement.categoryId());
+      if (pool != null) {
+        pool.release(placement.key());
+        if (pool.keys.isEmpty()) {
+          byCategory.remove(placement.categoryId());
+        }
+      }
+    }
+  }
+
+  /** Réponses distinctes d'une catégorie, en tableaux denses pour un tirage en O(1). */
+  private static final class Pool {
+
+    private final List<String> keys = new ArrayList<>();
+
+    private final List<String> texts = new ArrayList<>();
+
+    private final List<Integer> cards = new ArrayList<>();
+
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    void add(final String key, final String text) {
+      final Integer position = positions.get(key);
+      if (position != null) {
+        cards.set(position, cards.get(position) + 1);
+        return;
+      }
+      positions.put(key, keys.size());
+      keys.add(key);
+      texts.add(text);
+      cards.add(1);
+    }
+
+    void release(final String key) {
+      final Integer position = positions.get(key);
+      if (position == null) {
+        return;
+      }
+      final int remaining = cards.get(position) - 1;
+      if (remaining > 0) {
+        cards.set(position, remaining);
+        return;
+      }
+      positions.remove(key);
+      final int last = keys.size() - 1;
+      if (position != last) {
+        keys.set(position, keys.get(last));
+        texts.set(position, texts.get(last));
+        cards.set(position, cards.get(last));
+        positions.put(keys.get(position), position);
+      }
+      keys.remove(last);
+      texts.remove(last);
+      cards.remove(last);
+    }
+  }
+}
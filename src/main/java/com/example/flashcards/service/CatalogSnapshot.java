@@ -0,0 +1,799 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.FlashcardDto;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Instantané local du catalogue des flashcards (identifiant, version, catégorie, question, réponse)
+ * d'où {@link FlashcardSearchIndex}, {@link FlashcardSampler} et {@link AnswerPools} sont
+ * reconstruits au démarrage, sans relire toute la table.
+ *
+ * <p>Le fichier ({@code flashcards.snapshot.path}) est réécrit toutes les {@code
+ * flashcards.snapshot.interval} : le nouveau contenu est écrit dans un fichier voisin, synchronisé
+ * sur disque puis renommé d'un bloc, si bien qu'un lecteur voit toujours un instantané complet. Une
+ * réécriture lit d'abord en base un seul agrégat, le repère {@link Watermark} : s'il est égal à
+ * celui de l'en-tête, le fichier est à jour et n'est pas réécrit. Sinon, elle relit la liste des
+ * {@code (id, version)}. Les flashcards dont la version n'a pas changé sont recopiées depuis
+ * l'ancien fichier, seules les flashcards créées ou modifiées depuis sont lues en base et les
+ * flashcards supprimées disparaissent. Sans fichier valide, ou si plus d'un quart du catalogue a
+ * changé, toute la table est relue.
+ *
+ * <p>Au démarrage, le fichier est ainsi mis à jour, puis projeté en mémoire ({@link
+ * FileChannel#map}) et parcouru par chacune des structures en mémoire. Les flashcards écrites
+ * pendant cette reconstruction sont ensuite rattrapées : le repère est relu et, seulement s'il a
+ * bougé, une nouvelle liste des versions est comparée au fichier chargé. Sans {@code
+ * flashcards.snapshot.path}, elles sont reconstruites depuis la base comme auparavant, et ne
+ * suivent plus ensuite que les écritures de cette instance.
+ *
+ * <p>À chaque réécriture périodique, les flashcards créées, modifiées ou supprimées depuis le
+ * précédent fichier, y compris par une autre instance, sont aussi appliquées aux structures en
+ * mémoire, et la version des flashcards ({@link DataVersions}) est incrémentée. Une écriture locale
+ * validée entre la lecture en base et cette application pourrait être écrasée par une ligne plus
+ * ancienne : les versions des flashcards appliquées sont donc relues, et celles qui ont changé
+ * entre temps sont relues et appliquées de nouveau.
+ *
+ * <p>Le format est propre à l'application et versionné : un en-tête de {@value #HEADER_SIZE} octets
+ * (signature "FCSN", version, nombre de flashcards, CRC-32 du corps, plus grand identifiant, somme
+ * des versions), puis les flashcards par identifiant croissant. Un fichier d'une autre version ou
+ * dont le CRC ne correspond pas est ignoré.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects singleton beans safely")
+public class CatalogSnapshot {
+
+  /** Signature d'un instantané : "FCSN". */
+  static final int MAGIC = 0x4643534E;
+
+  /** Version du format. */
+  static final byte VERSION = 2;
+
+  /** Taille de l'en-tête, en octets. */
+  static final int HEADER_SIZE = 36;
+
+  /** Repère de la table, comparé à celui de l'en-tête avant toute liste des versions. */
+  static final String WATERMARK =
+      "select count(*), coalesce(max(id), 0), coalesce(sum(version), 0) from flashcard";
+
+  /** Liste des versions, point de contrôle de l'instantané. */
+  static final String LIST = "select id, version from flashcard order by id";
+
+  /** Lecture des flashcards. */
+  static final String SELECT = "select id, question, answer, category_id, version from flashcard";
+
+  /** Versions d'une liste de flashcards. */
+  static final String VERSIONS = "select id, version from flashcard where id in (:ids)";
+
+  /** Au-delà d'un quart de flashcards modifiées, toute la table est relue. */
+  private static final int FULL_SCAN_RATIO = 4;
+
+  /** Taille des lots de lecture (curseur et listes d'identifiants). */
+  private static final int BATCH_SIZE = 1000;
+
+  /** Taille du tampon d'écriture. */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** Relectures au plus des flashcards modifiées pendant leur application en mémoire. */
+  private static final int MAX_ROUNDS = 3;
+
+  /**
+   * Bilan d'une réécriture de l'instantané.
+   *
+   * @param cards flashcards écrites
+   * @param fetched flashcards lues en base
+   * @param removed flashcards de l'ancien instantané supprimées depuis
+   * @param full {@code true} si toute la table a été relue
+   */
+  public record Refresh(long cards, long fetched, long removed, boolean full) {}
+
+  /**
+   * Repère d'un ensemble de flashcards, calculé en base par un seul agrégat.
+   *
+   * <p>Les identifiants viennent d'une séquence et les versions ne font que croître : une création
+   * augmente le plus grand identifiant, une suppression sans création diminue le nombre, une
+   * modification augmente la somme des versions. Deux repères égaux désignent donc les mêmes
+   * {@code (id, version)}. Le plus grand numéro de version ne suffirait pas : il ne bouge pas
+   * quand une flashcard moins modifiée que les autres change.
+   *
+   * @param count nombre de flashcards
+   * @param maxId plus grand identifiant, 0 sans flashcard
+   * @param versionSum somme des versions
+   */
+  record Watermark(long count, long maxId, long versionSum) {}
+
+  /** Accès JDBC. */
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Accès JDBC avec paramètres nommés (listes d'identifiants). */
+  private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+  /**
+   * Transaction des lectures par curseur, sur le primaire : elle n'est pas en lecture seule, pour
+   * que la liste des versions, les lignes relues et les versions vérifiées d'une même passe viennent
+   * de la même source. Sur un réplica en retard, la liste ferait prendre les flashcards récentes
+   * pour supprimées.
+   */
+  private final TransactionTemplate primary;
+
+  /** Index de recherche. */
+  private final FlashcardSearchIndex searchIndex;
+
+  /** Tirages aléatoires. */
+  private final FlashcardSampler sampler;
+
+  /** Réponses des quiz. */
+  private final AnswerPools answerPools;
+
+  /** Versions des collections, incrémentées quand une réécriture trouve des modifications. */
+  private final DataVersions dataVersions;
+
+  /** Fichier de l'instantané, {@code null} s'il est désactivé. */
+  private final Path path;
+
+  /**
+   * Constructeur avec injection des accès à la base, des structures en mémoire et de la
+   * configuration.
+   *
+   * @param jdbcTemplate accès JDBC
+   * @param transactionManager gestionnaire de transactions
+   * @param searchIndex index de recherche
+   * @param sampler tirages aléatoires
+   * @param answerPools réponses des quiz
+   * @param dataVersions versions des collections
+   * @param path fichier de l'instantané, vide pour le désactiver
+   */
+  @Autowired
+  public CatalogSnapshot(
+      final JdbcTemplate jdbcTemplate,
+      final PlatformTransactionManager transactionManager,
+      final FlashcardSearchIndex searchIndex,
+      final FlashcardSampler sampler,
+      final AnswerPools answerPools,
+      final DataVersions dataVersions,
+      @Value("${flashcards.snapshot.path:}") final String path) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    this.primary = new TransactionTemplate(transactionManager);
+    this.searchIndex = searchIndex;
+    this.sampler = sampler;
+    this.answerPools = answerPools;
+    this.dataVersions = dataVersions;
+    this.path = path == null || path.isBlank() ? null : Path.of(path).toAbsolutePath();
+  }
+
+  /**
+   * Indique si l'instantané est activé.
+   *
+   * @return {@code true} si {@code flashcards.snapshot.path} est renseigné
+   */
+  public boolean isEnabled() {
+    return path != null;
+  }
+
+  /**
+   * Construit les structures en mémoire une fois l'application démarrée : depuis l'instantané mis à
+   * jour s'il est activé, sinon (ou s'il est illisible) depuis la base.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void load() {
+    if (path != null) {
+      try {
+        refresh();
+        final long start = System.nanoTime();
+        final Contents contents = open(path);
+        rebuild(contents);
+        log.info(
+            "Catalog loaded from snapshot: {} cards in {} ms ({} caught up)",
+            contents.count(),
+            (System.nanoTime() - start) / 1_000_000,
+            catchUp(contents));
+        return;
+      } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+        log.warn("Catalog snapshot {} unusable, loading from the database", path, e);
+      }
+    }
+    searchIndex.rebuild();
+    sampler.rebuild();
+    answerPools.rebuild();
+  }
+
+  /** Réécrit l'instantané à intervalle régulier et y aligne les structures en mémoire. */
+  @Scheduled(
+      fixedDelayString = "${flashcards.snapshot.interval:PT10M}",
+      initialDelayString = "${flashcards.snapshot.interval:PT10M}")
+  public void scheduledRefresh() {
+    if (path == null) {
+      return;
+    }
+    try {
+      update();
+    } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+      log.warn("Catalog snapshot {} not written", path, e);
+    }
+  }
+
+  /**
+   * Met l'instantané à jour, puis y aligne les structures en mémoire : les flashcards créées,
+   * modifiées ou supprimées depuis le précédent instantané y sont reportées. Sans précédent
+   * instantané valide, elles sont reconstruites depuis le nouveau.
+   *
+   * @return bilan de la réécriture
+   * @throws IOException en cas d'erreur d'écriture ou de lecture
+   * @throws IllegalStateException si l'instantané est désactivé
+   */
+  public synchronized Refresh update() throws IOException {
+    final Changes changes = new Changes();
+    final Refresh result = rewrite(changes);
+    final Contents contents = open(path);
+    if (changes.known) {
+      apply(contents, changes);
+    } else {
+      rebuild(contents);
+      catchUp(contents);
+    }
+    if (!changes.known || !changes.changed.isEmpty() || !changes.removed.isEmpty()) {
+      dataVersions.flashcardsChanged();
+    }
+    return result;
+  }
+
+  /**
+   * Met l'instantané à jour : seules les flashcards créées ou modifiées depuis le précédent sont
+   * lues en base. Les structures en mémoire ne sont pas modifiées.
+   *
+   * @return bilan de la réécriture
+   * @throws IOException en cas d'erreur d'écriture
+   * @throws IllegalStateException si l'instantané est désactivé
+   */
+  public synchronized Refresh refresh() throws IOException {
+    return rewrite(new Changes());
+  }
+
+  private Refresh rewrite(final Changes changes) throws IOException {
+    if (path == null) {
+      throw new IllegalStateException("Catalog snapshot disabled");
+    }
+    final long start = System.nanoTime();
+    final Contents previous = openPrevious();
+    if (previous != null && previous.watermark().equals(watermark())) {
+      changes.known = true;
+      log.info("Catalog snapshot up to date: {} cards", previous.count());
+      return new Refresh(previous.count(), 0, 0, false);
+    }
+    final Path parent = Objects.requireNonNull(path.getParent());
+    Files.createDirectories(parent);
+    final Path tmp = Files.createTempFile(parent, String.valueOf(path.getFileName()), ".tmp");
+    final Refresh result;
+    try {
+      try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+        try (Writer writer = new Writer(channel)) {
+          result = Objects.requireNonNull(primary.execute(s -> write(previous, writer, changes)));
+        }
+        channel.force(true);
+      }
+      Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+    log.info(
+        "Catalog snapshot written: {} cards ({} read from the database, {} removed{}) in {} ms",
+        result.cards(),
+        result.fetched(),
+        result.removed(),
+        result.full() ? ", full scan" : "",
+        (System.nanoTime() - start) / 1_000_000);
+    return result;
+  }
+
+  private Refresh write(final Contents previous, final Writer writer, final Changes changes) {
+    try {
+      if (previous == null) {
+        return writeAll(writer, 0);
+      }
+      final Listing listing = list();
+      diff(previous, listing, changes);
+      final long removed = changes.removed.size();
+      if ((long) changes.changed.size() * FULL_SCAN_RATIO > listing.size) {
+        return writeAll(writer, removed);
+      }
+      final Map<Long, FlashcardDto> fetched = fetch(changes.changed);
+      final Iterator<FlashcardDto> old = previous.iterator();
+      FlashcardDto current = old.hasNext() ? old.next() : null;
+      for (int i = 0; i < listing.size; i++) {
+        final long id = listing.ids[i];
+        final FlashcardDto fresh = fetched.get(id);
+        if (fresh != null) {
+          writer.write(fresh);
+          continue;
+        }
+        while (current != null && current.getId() < id) {
+          current = old.hasNext() ? old.next() : null;
+        }
+        // Sans ligne relue ni ligne à jour dans l'ancien fichier, la flashcard a été supprimée
+        // entre la liste et la lecture
+        if (current != null
+            && current.getId() == id
+            && current.getVersion() == listing.versions[i]) {
+          writer.write(current);
+        }
+      }
+      return new Refresh(writer.count, fetched.size(), removed, false);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Refresh writeAll(final Writer writer, final long removed) throws IOException {
+    jdbcTemplate.query(
+        SELECT + " order by id",
+        ps -> ps.setFetchSize(BATCH_SIZE),
+        (RowCallbackHandler)
+            rs -> {
+              try {
+                writer.write(row(rs));
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+    return new Refresh(writer.count, writer.count, removed, true);
+  }
+
+  private Watermark watermark() {
+    return Objects.requireNonNull(
+        primary.execute(
+            s ->
+                jdbcTemplate.queryForObject(
+                    WATERMARK,
+                    (rs, i) -> new Watermark(rs.getLong(1), rs.getLong(2), rs.getLong(3)))));
+  }
+
+  private Listing list() {
+    final Listing listing = new Listing();
+    jdbcTemplate.query(
+        LIST,
+        ps -> ps.setFetchSize(BATCH_SIZE),
+        (RowCallbackHandler) rs -> listing.add(rs.getLong(1), rs.getLong(2)));
+    return listing;
+  }
+
+  /**
+   * Compare l'ancien instantané à la liste des versions en base.
+   *
+   * @param previous ancien instantané, par identifiant croissant
+   * @param listing versions en base, par identifiant croissant
+   * @param changes reçoit, par identifiant croissant, les flashcards créées ou modifiées depuis et
+   *     celles supprimées depuis
+   */
+  private static void diff(final Contents previous, final Listing listing, final Changes changes) {
+    final Iterator<FlashcardDto> old = previous.iterator();
+    FlashcardDto current = old.hasNext() ? old.next() : null;
+    for (int i = 0; i < listing.size; i++) {
+      final long id = listing.ids[i];
+      while (current != null && current.getId() < id) {
+        changes.removed.add(current.getId());
+        current = old.hasNext() ? old.next() : null;
+      }
+      if (current != null && current.getId() == id) {
+        if (current.getVersion() != listing.versions[i]) {
+          changes.changed.add(id);
+        }
+        current = old.hasNext() ? old.next() : null;
+      } else {
+        changes.changed.add(id);
+      }
+    }
+    while (current != null) {
+      changes.removed.add(current.getId());
+      current = old.hasNext() ? old.next() : null;
+    }
+    changes.known = true;
+  }
+
+  private void rebuild(final Contents contents) {
+    searchIndex.rebuild(contents.iterator());
+    sampler.rebuild(contents.iterator());
+    answerPools.rebuild(contents.iterator());
+  }
+
+  /**
+   * Rattrape les écritures validées depuis la liste des versions de l'instantané qui vient d'être
+   * chargé en mémoire, y compris celles dont la mise à jour en mémoire a été effacée par la
+   * reconstruction. Si le repère en base n'a pas bougé, la liste n'est pas relue.
+   *
+   * @param contents instantané chargé
+   * @return nombre de flashcards créées, modifiées ou supprimées depuis l'instantané
+   */
+  private int catchUp(final Contents contents) {
+    return Objects.requireNonNull(primary.execute(s -> catchUpInTransaction(contents)));
+  }
+
+  private int catchUpInTransaction(final Contents contents) {
+    if (contents.watermark().equals(watermark())) {
+      return 0;
+    }
+    final Changes changes = new Changes();
+    diff(contents, list(), changes);
+    changes.removed.forEach(this::remove);
+    final Map<Long, FlashcardDto> rows = fetch(changes.changed);
+    final Map<Long, Long> applied = new HashMap<>();
+    for (Long id : changes.changed) {
+      final FlashcardDto dto = rows.get(id);
+      if (dto == null) {
+        remove(id);
+      } else {
+        put(dto);
+        applied.put(id, dto.getVersion());
+      }
+    }
+    converge(applied);
+    return changes.changed.size() + changes.removed.size();
+  }
+
+  /**
+   * Reporte dans les structures en mémoire l'écart entre l'ancien instantané et le nouveau, relu
+   * dans le nouveau fichier.
+   *
+   * @param contents nouvel instantané
+   * @param changes écart avec l'ancien, par identifiant croissant
+   */
+  private void apply(final Contents contents, final Changes changes) {
+    changes.removed.forEach(this::remove);
+    final Map<Long, Long> applied = new HashMap<>();
+    final Iterator<FlashcardDto> rows = contents.iterator();
+    int next = 0;
+    while (next < changes.changed.size() && rows.hasNext()) {
+      final FlashcardDto dto = rows.next();
+      // Absente du nouveau fichier, la flashcard a été supprimée entre la liste et la lecture
+      while (next < changes.changed.size() && changes.changed.get(next) < dto.getId()) {
+        remove(changes.changed.get(next++));
+      }
+      if (next < changes.changed.size() && changes.changed.get(next).equals(dto.getId())) {
+        put(dto);
+        applied.put(dto.getId(), dto.getVersion());
+        next++;
+      }
+    }
+    changes.changed.subList(next, changes.changed.size()).forEach(this::remove);
+    converge(applied);
+  }
+
+  /**
+   * Relit les versions des flashcards appliquées en mémoire et applique de nouveau celles modifiées
+   * entre temps : une écriture locale validée pendant l'application n'est pas écrasée par une ligne
+   * plus ancienne. Au-delà de {@value #MAX_ROUNDS} relectures, la réécriture suivante s'en charge.
+   *
+   * @param applied version appliquée de chaque flashcard
+   */
+  private void converge(final Map<Long, Long> applied) {
+    Map<Long, Long> pending = applied;
+    for (int round = 0; round < MAX_ROUNDS && !pending.isEmpty(); round++) {
+      final Map<Long, Long> current = versions(List.copyOf(pending.keySet()));
+      final List<Long> stale = new ArrayList<>();
+      pending.forEach(
+          (id, version) -> {
+            if (!version.equals(current.get(id))) {
+              stale.add(id);
+            }
+          });
+      final Map<Long, FlashcardDto> rows = fetch(stale);
+      pending = new HashMap<>();
+      for (Long id : stale) {
+        final FlashcardDto dto = rows.get(id);
+        if (dto == null) {
+          remove(id);
+        } else {
+          put(dto);
+          pending.put(id, dto.getVersion());
+        }
+      }
+    }
+  }
+
+  /**
+   * Ajoute ou remplace une flashcard lue en base ou dans l'instantané. Une catégorie ou une réponse
+   * {@code null} y est une vraie valeur, pas un champ omis : la flashcard est d'abord retirée des
+   * tirages et des réponses, qui garderaient sinon l'ancienne.
+   */
+  private void put(final FlashcardDto dto) {
+    if (dto.getCategoryId() == null || dto.getAnswer() == null) {
+      sampler.remove(dto.getId());
+      answerPools.remove(dto.getId());
+    }
+    searchIndex.put(dto);
+    sampler.put(dto);
+    answerPools.put(dto);
+  }
+
+  private void remove(final Long id) {
+    searchIndex.remove(id);
+    sampler.remove(id);
+    answerPools.remove(id);
+  }
+
+  private Map<Long, Long> versions(final List<Long> ids) {
+    final Map<Long, Long> versions = new HashMap<>();
+    for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+      namedJdbcTemplate.query(
+          VERSIONS,
+          Map.of("ids", ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()))),
+          (RowCallbackHandler) rs -> versions.put(rs.getLong(1), rs.getLong(2)));
+    }
+    return versions;
+  }
+
+  private Map<Long, FlashcardDto> fetch(final List<Long> ids) {
+    final Map<Long, FlashcardDto> rows = new HashMap<>();
+    for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+      namedJdbcTemplate.query(
+          SELECT + " where id in (:ids)",
+          Map.of("ids", ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()))),
+          (RowCallbackHandler)
+              rs -> {
+                final FlashcardDto dto = row(rs);
+                rows.put(dto.getId(), dto);
+              });
+    }
+    return rows;
+  }
+
+  private static FlashcardDto row(final ResultSet rs) throws SQLException {
+    final long categoryId = rs.getLong(4);
+    final boolean noCategory = rs.wasNull();
+    return new FlashcardDto(
+        rs.getLong(1),
+        rs.getString(2),
+        rs.getString(3),
+        noCategory ? null : categoryId,
+        rs.getLong(5));
+  }
+
+  private Contents openPrevious() {
+    try {
+      return open(path);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | IllegalArgumentException e) {
+      log.warn("Catalog snapshot {} ignored: {}", path, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Projette un instantané en mémoire et vérifie son en-tête et son CRC.
+   *
+   * @param file fichier de l'instantané
+   * @return le contenu, lu à la demande
+   * @throws IOException en cas d'erreur de lecture
+   * @throws IllegalArgumentException si le fichier n'est pas un instantané valide
+   */
+  static Contents open(final Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      // La projection reste valide après la fermeture du canal
+      return new Contents(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /** Écart entre un instantané et la base. */
+  private static final class Changes {
+
+    /** Flashcards créées ou modifiées, par identifiant croissant. */
+    private final List<Long> changed = new ArrayList<>();
+
+    /** Flashcards supprimées, par identifiant croissant. */
+    private final List<Long> removed = new ArrayList<>();
+
+    /** {@code false} sans instantané précédent auquel comparer la base. */
+    private boolean known;
+  }
+
+  /** Identifiants et versions en base, par identifiant croissant. */
+  private static final class Listing {
+
+    private long[] ids = new long[BATCH_SIZE];
+
+    private long[] versions = new long[BATCH_SIZE];
+
+    private int size;
+
+    void add(final long id, final long version) {
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+        versions = Arrays.copyOf(versions, size * 2);
+      }
+      ids[size] = id;
+      versions[size++] = version;
+    }
+  }
+
+  /** Contenu d'un instantané projeté en mémoire, décodé à la demande. */
+  static final class Contents {
+
+    private final ByteBuffer body;
+
+    private final long count;
+
+    private final Watermark watermark;
+
+    private Contents(final ByteBuffer buffer) {
+      if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+        throw new IllegalArgumentException("Not a catalog snapshot");
+      }
+      if (buffer.get(4) != VERSION) {
+        throw new IllegalArgumentException("Unsupported snapshot version " + buffer.get(4));
+      }
+      this.count = buffer.getLong(8);
+      this.watermark = new Watermark(count, buffer.getLong(20), buffer.getLong(28));
+      this.body = buffer.slice(HEADER_SIZE, buffer.limit() - HEADER_SIZE);
+      final CRC32 crc = new CRC32();
+      crc.update(body.duplicate());
+      if (count < 0 || crc.getValue() != Integer.toUnsignedLong(buffer.getInt(16))) {
+        throw new IllegalArgumentException("Invalid catalog snapshot: checksum mismatch");
+      }
+    }
+
+    /**
+     * Nombre de flashcards de l'instantané.
+     *
+     * @return nombre de flashcards
+     */
+    long count() {
+      return count;
+    }
+
+    /**
+     * Repère des flashcards de l'instantané, lu dans l'en-tête.
+     *
+     * @return repère à comparer à celui de la base
+     */
+    Watermark watermark() {
+      return watermark;
+    }
+
+    /**
+     * Parcourt les flashcards par identifiant croissant ; chaque appel repart du début.
+     *
+     * @return itérateur sur les flashcards, version comprise
+     */
+    Iterator<FlashcardDto> iterator() {
+      final ByteBuffer in = body.duplicate();
+      return new Iterator<>() {
+        private long read;
+
+        @Override
+        public boolean hasNext() {
+          return read < count;
+        }
+
+        @Override
+        public FlashcardDto next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          try {
+            final long id = in.getLong();
+            final long version = in.getLong();
+            final long categoryId = in.getLong();
+            final String question = string(in);
+            final String answer = string(in);
+            read++;
+            return new FlashcardDto(
+                id, question, answer, categoryId < 0 ? null : categoryId, version);
+          } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Invalid catalog snapshot: truncated", e);
+          }
+        }
+      };
+    }
+
+    private static String string(final ByteBuffer in) {
+      final int length = in.getInt();
+      if (length < 0) {
+        return null;
+      }
+      final byte[] bytes = new byte[length];
+      in.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+
+  /** Écriture d'un instantané, en un seul passage ; l'en-tête est écrit à la fermeture. */
+  private static final class Writer implements AutoCloseable {
+
+    private final FileChannel channel;
+
+    private final CRC32 crc = new CRC32();
+
+    private final DataOutputStream out;
+
+    private long count;
+
+    private long maxId;
+
+    private long versionSum;
+
+    Writer(final FileChannel channel) throws IOException {
+      this.channel = channel;
+      channel.position(HEADER_SIZE);
+      // Le flux du canal n'est jamais fermé : cela fermerait le canal de l'appelant
+      this.out =
+          new DataOutputStream(
+              new BufferedOutputStream(
+                  new CheckedOutputStream(Channels.newOutputStream(channel), crc), BUFFER_SIZE));
+    }
+
+    void write(final FlashcardDto dto) throws IOException {
+      final long version = dto.getVersion() != null ? dto.getVersion() : 0;
+      out.writeLong(dto.getId());
+      out.writeLong(version);
+      out.writeLong(dto.getCategoryId() != null ? dto.getCategoryId() : -1);
+      writeString(dto.getQuestion());
+      writeString(dto.getAnswer());
+      count++;
+      maxId = dto.getId();
+      versionSum += version;
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.flush();
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC).put(VERSION).put((byte) 0).putShort((short) 0);
+      header.putLong(count).putInt((int) crc.getValue()).putLong(maxId).putLong(versionSum).flip();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+    }
+
+    private void writeString(final String value) throws IOException {
+      if (value == null) {
+        out.writeInt(-1);
+        return;
+      }
+      final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.entity.Category;
+import com.example.flashcards.repository.CategoryRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Collection;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalidation ciblée des caches Hibernate des catégories après une mise à jour du nombre de
+ * flashcards.
+ *
+ * <p>Ces mises à jour sont des requêtes natives synchronisées sur leur propre espace ({@link
+ * CategoryRepository#FLASHCARD_COUNT_SPACE}) : Hibernate ne vide donc ni la région des catégories
+ * ni le cache de requêtes, comme il le ferait pour une mise à jour en masse JPQL. Seules les
+ * catégories modifiées sont retirées de la région, ainsi que les résultats de recherche, qui
+ * portent le nombre de flashcards. Le retrait a lieu dans la transaction, puis de nouveau après sa
+ * validation pour écarter une lecture concurrente de l'ancienne valeur.
+ */
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects the shared EntityManagerFactory proxy safely")
+public class CategoryCaches {
+
+  /** Fabrique de sessions, pour accéder au cache de second niveau. */
+  private final EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Signale la mise à jour du nombre de flashcards de quelques catégories.
+   *
+   * @param categoryIds catégories modifiées
+   */
+  public void countsChanged(final Collection<Long> categoryIds) {
+    final List<Long> ids = List.copyOf(categoryIds);
+    evict(ids);
+    AfterCommit.run(() -> evict(ids));
+  }
+
+  private void evict(final List<Long> ids) {
+    final Cache cache = cache();
+    ids.forEach(id -> cache.evictEntityData(Category.class, id));
+    cache.evictQueryRegion(CategoryRepository.SEARCH_CACHE_REGION);
+  }
+
+  private Cache cache() {
+    return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.repository.CategoryRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rapprochement du nombre de flashcards dénormalisé sur chaque catégorie avec le nombre réel.
+ *
+ * <p>Les compteurs sont tenus à jour dans la transaction de chaque écriture de flashcard ; ce
+ * rapprochement corrige la dérive laissée par les écritures faites hors application (scripts SQL,
+ * suppression en cascade) ou par une montée de version. Il s'exécute au démarrage puis à intervalle
+ * régulier ({@code flashcards.category-counts.reconcile-interval}).
+ *
+ * <p>Les catégories en écart sont d'abord repérées sans verrou, puis chacune est corrigée dans sa
+ * propre transaction courte : sa ligne est verrouillée avant le recomptage. Un recomptage fait
+ * sans ce verrou pourrait écrire un nombre périmé, qui effacerait l'incrément d'une écriture de
+ * flashcard validée entre temps.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects immutable repository beans safely")
+public class CategoryCountReconciler {
+
+  /** Repository des catégories. */
+  private final CategoryRepository categoryRepository;
+
+  /** Versions des collections, incrémentées si des compteurs ont été corrigés. */
+  private final DataVersions dataVersions;
+
+  /** Caches Hibernate des catégories, dont les compteurs corrigés sont retirés. */
+  private final CategoryCaches categoryCaches;
+
+  /** Une transaction par catégorie corrigée. */
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Constructeur avec injection des repositories et du gestionnaire de transactions.
+   *
+   * @param categoryRepository repository des catégories
+   * @param dataVersions versions des collections
+   * @param categoryCaches caches Hibernate des catégories
+   * @param transactionManager gestionnaire de transactions
+   */
+  @Autowired
+  public CategoryCountReconciler(
+      final CategoryRepository categoryRepository,
+      final DataVersions dataVersions,
+      final CategoryCaches categoryCaches,
+      final PlatformTransactionManager transactionManager) {
+    this.categoryRepository = categoryRepository;
+    this.dataVersions = dataVersions;
+    this.categoryCaches = categoryCaches;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /** Corrige les compteurs en écart, au démarrage puis périodiquement. */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      fixedDelayString = "${flashcards.category-counts.reconcile-interval:PT1H}",
+      initialDelayString = "${flashcards.category-counts.reconcile-interval:PT1H}")
+  public void reconcile() {
+    final List<Long> fixed = new ArrayList<>();
+    for (Long id : categoryRepository.findIdsWithDriftedFlashcardCount()) {
+      if (Boolean.TRUE.equals(transactionTemplate.execute(s -> reconcile(id)))) {
+        fixed.add(id);
+      }
+    }
+    if (!fixed.isEmpty()) {
+      log.warn("Flashcard counts reconciled for {} categories", fixed.size());
+      dataVersions.categoriesChanged();
+    }
+  }
+
+  private boolean reconcile(final Long id) {
+    if (categoryRepository.lockById(id).isEmpty()
+        || categoryRepository.reconcileFlashcardCount(id) == 0) {
+      return false;
+    }
+    categoryCaches.countsChanged(List.of(id));
+    return true;
+  }
+}
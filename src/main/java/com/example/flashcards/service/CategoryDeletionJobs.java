@@ -0,0 +1,190 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.CategoryDeletionDto;
+import com.example.flashcards.dto.CategoryDeletionDto.Status;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Suppressions asynchrones de catégories, pour les catégories trop grandes pour une seule
+ * transaction.
+ *
+ * <p>Les flashcards de la catégorie et de chacune de ses sous-catégories sont supprimées par lots de
+ * {@code flashcards.category-delete.chunk-size}, une transaction par lot ({@link
+ * CategoryService#deleteFlashcardChunk(Long, int)}), puis le sous-arbre est supprimé avec ce qui
+ * reste ({@link CategoryService#deleteCategory(Long)}). Les suppressions s'exécutent l'une après l'autre sur un thread
+ * dédié ; leur avancement reste consultable pendant {@code flashcards.category-delete.retention}
+ * après la fin.
+ */
+@Slf4j
+@Component
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects singleton beans safely")
+public class CategoryDeletionJobs {
+
+  /** Suppression suivie : avancement mis à jour par le thread des suppressions. */
+  private static final class Job {
+
+    /** Identifiant de la suppression. */
+    private final String id = UUID.randomUUID().toString();
+
+    /** Catégorie supprimée. */
+    private final Long categoryId;
+
+    /** Catégorie supprimée et ses sous-catégories, au lancement. */
+    private final List<Long> subtree;
+
+    /** Nombre de flashcards au lancement. */
+    private final long total;
+
+    /** Nombre de flashcards supprimées. */
+    private final AtomicLong deleted = new AtomicLong();
+
+    /** État courant. */
+    private volatile Status status = Status.RUNNING;
+
+    /** Message d'erreur en cas d'échec. */
+    private volatile String error;
+
+    /** Fin de la suppression, {@code null} tant qu'elle est en cours. */
+    private volatile Instant finishedAt;
+
+    Job(final Long categoryId, final List<Long> subtree, final long total) {
+      this.categoryId = categoryId;
+      this.subtree = List.copyOf(subtree);
+      this.total = total;
+    }
+
+    CategoryDeletionDto toDto() {
+      return new CategoryDeletionDto(id, categoryId, status, total, deleted.get(), error);
+    }
+  }
+
+  /** Service des catégories (transactions par lot). */
+  private final CategoryService categoryService;
+
+  /** Nombre de flashcards supprimées par transaction. */
+  private final int chunkSize;
+
+  /** Durée de conservation de l'avancement d'une suppression terminée. */
+  private final Duration retention;
+
+  /** Suppressions en cours ou récentes, par identifiant. */
+  private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+  /** Thread unique des suppressions. */
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          r -> {
+            final Thread thread = new Thread(r, "category-deletion");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /**
+   * Constructeur avec injection du service et de la configuration.
+   *
+   * @param categoryService service des catégories
+   * @param chunkSize nombre de flashcards supprimées par transaction
+   * @param retention durée de conservation de l'avancement d'une suppression terminée
+   */
+  @Autowired
+  public CategoryDeletionJobs(
+      final CategoryService categoryService,
+      @Value("${flashcards.category-delete.chunk-size:1000}") final int chunkSize,
+      @Value("${flashcards.category-delete.retention:PT1H}") final Duration retention) {
+    this.categoryService = categoryService;
+    this.chunkSize = Math.max(1, chunkSize);
+    this.retention = retention;
+  }
+
+  /**
+   * Lance la suppression d'une catégorie, ou renvoie celle déjà en cours pour cette catégorie.
+   *
+   * @param categoryId identifiant de la catégorie
+   * @return l'avancement de la suppression, vide si la catégorie n'existe pas
+   */
+  public synchronized Optional<CategoryDeletionDto> start(final Long categoryId) {
+    purgeFinished();
+    final Optional<Job> running =
+        jobs.values().stream()
+            .filter(j -> j.categoryId.equals(categoryId) && j.status == Status.RUNNING)
+            .findFirst();
+    if (running.isPresent()) {
+      return running.map(Job::toDto);
+    }
+    final List<Long> subtree = categoryService.getSubtreeIds(categoryId);
+    if (subtree.isEmpty()) {
+      return Optional.empty();
+    }
+    long total = 0;
+    for (Long id : subtree) {
+      total += categoryService.countFlashcards(id);
+    }
+    final Job job = new Job(categoryId, subtree, total);
+    jobs.put(job.id, job);
+    executor.execute(() -> run(job));
+    return Optional.of(job.toDto());
+  }
+
+  /**
+   * Donne l'avancement d'une suppression.
+   *
+   * @param id identifiant de la suppression
+   * @return l'avancement, vide si la suppression est inconnue ou expirée
+   */
+  public Optional<CategoryDeletionDto> get(final String id) {
+    return Optional.ofNullable(jobs.get(id)).map(Job::toDto);
+  }
+
+  /** Arrête le thread des suppressions ; un lot en cours est annulé avec sa transaction. */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void run(final Job job) {
+    final long start = System.nanoTime();
+    try {
+      for (Long id : job.subtree) {
+        int deleted;
+        while ((deleted = categoryService.deleteFlashcardChunk(id, chunkSize)) > 0) {
+          job.deleted.addAndGet(deleted);
+        }
+      }
+      categoryService.deleteCategory(job.categoryId);
+      job.status = Status.DONE;
+      log.info(
+          "Category {} deleted: {} flashcards in {} ms",
+          job.categoryId,
+          job.deleted.get(),
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (RuntimeException e) {
+      log.warn("Deletion of category {} failed", job.categoryId, e);
+      job.error = e.getMessage();
+      job.status = Status.FAILED;
+    } finally {
+      job.finishedAt = Instant.now();
+    }
+  }
+
+  private void purgeFinished() {
+    final Instant limit = Instant.now().minus(retention);
+    jobs.values().removeIf(j -> j.finishedAt != null && j.finishedAt.isBefore(limit));
+  }
+}
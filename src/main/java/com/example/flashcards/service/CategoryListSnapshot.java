@@ -0,0 +1,110 @@
+package com.example.flashcards.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Liste des catégories déjà sérialisée en JSON (et compressée en gzip), servie telle quelle par
+ * {@code GET /api/categories}.
+ *
+ * <p>L'instantané est associé à la version des catégories ({@link DataVersions}) : la première
+ * lecture qui suit une écriture le reconstruit, sous verrou, puis le publie d'un bloc ; toutes les
+ * autres lectures renvoient les mêmes tableaux d'octets, sans requête, ni mapping, ni
+ * sérialisation.
+ */
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(
+    value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
+    justification =
+        "Snapshot bytes are shared read-only on purpose to avoid a copy per request;"
+            + " Spring injects singleton beans safely")
+public class CategoryListSnapshot {
+
+  /**
+   * Instantané publié.
+   *
+   * @param version version des catégories au moment de la construction
+   * @param json liste sérialisée en JSON (à ne pas modifier)
+   * @param gzip même contenu compressé en gzip, ou {@code null} si la compression est désactivée
+   */
+  public record Snapshot(String version, byte[] json, byte[] gzip) {}
+
+  /** Service des catégories, interrogé uniquement à la reconstruction. */
+  private final CategoryService categoryService;
+
+  /** Versions des collections. */
+  private final DataVersions dataVersions;
+
+  /** Mapper JSON configuré par Spring. */
+  private final ObjectMapper objectMapper;
+
+  /** Verrou de reconstruction : une seule requête reconstruit l'instantané. */
+  private final Object rebuildLock = new Object();
+
+  /** Conserve aussi une version compressée en gzip. */
+  @Value("${flashcards.category-snapshot.gzip:true}")
+  private boolean gzipEnabled = true;
+
+  /** Instantané courant. */
+  private volatile Snapshot current;
+
+  /**
+   * Indique si une version gzip est disponible.
+   *
+   * @return {@code true} si la compression est activée
+   */
+  public boolean isGzipEnabled() {
+    return gzipEnabled;
+  }
+
+  /**
+   * Renvoie l'instantané à jour, en le reconstruisant si les catégories ont changé.
+   *
+   * @return instantané de la liste des catégories
+   */
+  public Snapshot get() {
+    final String version = dataVersions.categoriesEtag();
+    final Snapshot snapshot = current;
+    if (snapshot != null && snapshot.version().equals(version)) {
+      return snapshot;
+    }
+    synchronized (rebuildLock) {
+      final Snapshot latest = current;
+      if (latest != null && latest.version().equals(version)) {
+        return latest;
+      }
+      final Snapshot rebuilt = build(version);
+      current = rebuilt;
+      return rebuilt;
+    }
+  }
+
+  private Snapshot build(final String version) {
+    final byte[] json;
+    try {
+      json = objectMapper.writeValueAsBytes(categoryService.getAllCategories());
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize categories", e);
+    }
+    return new Snapshot(version, json, gzipEnabled ? gzip(json) : null);
+  }
+
+  private static byte[] gzip(final byte[] bytes) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 32);
+    try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+      gz.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.repository.CategoryRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Renseigne au démarrage le chemin matérialisé des catégories créées avant son introduction, ou
+ * insérées par script sans chemin : ce sont toutes des catégories racines. Une seule instruction,
+ * sans effet une fois les chemins renseignés.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects immutable repository beans safely")
+public class CategoryPathInitializer {
+
+  /** Repository des catégories. */
+  private final CategoryRepository categoryRepository;
+
+  /** Renseigne les chemins manquants une fois l'application démarrée. */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void fillMissingPaths() {
+    final int filled = categoryRepository.fillRootPaths();
+    if (filled > 0) {
+      log.info("Category paths filled for {} root categories", filled);
+    }
+  }
+}
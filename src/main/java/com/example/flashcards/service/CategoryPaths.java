@@ -0,0 +1,42 @@
+package com.example.flashcards.service;
+
+/**
+ * Construction des chemins matérialisés des catégories ({@code /1/5/12/}).
+ *
+ * <p>Un chemin ne contient que des chiffres et des {@code /} : il peut servir tel quel de préfixe
+ * {@code LIKE}, sans échappement.
+ */
+final class CategoryPaths {
+
+  /** Séparateur des identifiants dans un chemin. */
+  static final String SEPARATOR = "/";
+
+  /**
+   * Constructeur privé pour empêcher l'instanciation. Nécessaire pour respecter la règle Checkstyle
+   * "HideUtilityClassConstructorCheck".
+   */
+  private CategoryPaths() {
+    // Constructeur vide intentionnellement.
+  }
+
+  /**
+   * Chemin d'une catégorie à partir de celui de son parent.
+   *
+   * @param parentPath chemin du parent, ou {@code null} pour une catégorie racine
+   * @param id identifiant de la catégorie
+   * @return chemin de la catégorie
+   */
+  static String child(final String parentPath, final long id) {
+    return (parentPath != null ? parentPath : SEPARATOR) + id + SEPARATOR;
+  }
+
+  /**
+   * Motif {@code LIKE} qui sélectionne une catégorie et tous ses descendants.
+   *
+   * @param path chemin de la racine du sous-arbre
+   * @return motif {@code path%}
+   */
+  static String subtree(final String path) {
+    return path + "%";
+  }
+}
@@ -1,88 +1,417 @@
 package com.example.flashcards.service;
 
+import com.example.flashcards.config.MetricsConfig;
 import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.CategoryTreeDto;
 import com.example.flashcards.entity.Category;
 import com.example.flashcards.mapper.CategoryMapper;
 import com.example.flashcards.repository.CategoryRepository;
+import com.example.flashcards.repository.FlashcardRepository;
+import com.example.flashcards.repository.ReviewStateRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.annotation.Timed;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-/** Service gérant la logique métier liée aux catégories de flashcards. */
+/**
+ * Service gérant la logique métier liée aux catégories de flashcards.
+ *
+ * <p>Les lectures par identifiant passent par un cache borné (taille et durée de vie), invalidé à
+ * chaque modification ou suppression : la vérification de catégorie faite à chaque écriture de
+ * flashcard n'interroge la base qu'en cas de miss.
+ *
+ * <p>Les catégories forment un arbre. Chacune porte son chemin matérialisé ({@code /1/5/12/}) : un
+ * sous-arbre se lit en une requête indexée sur le préfixe du chemin, sans parcourir les parents un
+ * par un.
+ */
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects singleton beans safely")
 public class CategoryService {
 
+  /** Nombre de résultats de recherche renvoyés par défaut. */
+  public static final int DEFAULT_SEARCH_LIMIT = 20;
+
+  /** Nombre maximal de résultats de recherche. */
+  public static final int MAX_SEARCH_LIMIT = 100;
+
   /** Repository permettant d'accéder aux données des catégories. */
   private final CategoryRepository categoryRepository;
 
+  /** Index de recherche des flashcards, purgé lors de la suppression d'une catégorie. */
+  private final FlashcardSearchIndex searchIndex;
+
   /**
-   * Récupère toutes les catégories disponibles.
+   * Cache des catégories par identifiant (copies détachées). Ajouts et invalidations n'ont lieu
+   * qu'après la validation de la transaction : un rollback ne laisse pas de catégorie fantôme, et
+   * un chargement concurrent de l'ancienne ligne, bloquant pour l'invalidation, est retiré avec
+   * elle.
+   */
+  private final Cache<Long, CategoryDto> categoryLookupCache;
+
+  /** Files de révision, dont celle de la catégorie est retirée à sa suppression. */
+  private final ReviewQueue reviewQueue;
+
+  /** Versions des collections (ETag), incrémentées à chaque écriture. */
+  private final DataVersions dataVersions;
+
+  /** Repository des flashcards, supprimées par lots avec leur catégorie. */
+  private final FlashcardRepository flashcardRepository;
+
+  /** Repository des états de révision, supprimés avec leurs flashcards. */
+  private final ReviewStateRepository reviewStateRepository;
+
+  /** Identifiants des flashcards pour les tirages aléatoires, purgés avec leur catégorie. */
+  private final FlashcardSampler sampler;
+
+  /** Réponses des flashcards pour les quiz, purgées avec leur catégorie. */
+  private final AnswerPools answerPools;
+
+  /** Caches Hibernate des catégories, dont le nombre de flashcards change par lots. */
+  private final CategoryCaches categoryCaches;
+
+  /** Statistiques de révision, purgées avec les flashcards et catégories supprimées. */
+  private final LearningStats learningStats;
+
+  /** Mode de recherche textuelle, choisi par profil. */
+  @Value("${flashcards.search.mode:memory}")
+  private SearchMode searchMode = SearchMode.MEMORY;
+
+  /**
+   * Récupère toutes les catégories disponibles, projetées en DTO.
+   *
+   * <p>La transaction n'est pas en lecture seule, pour lire le primaire : la liste est servie sous
+   * la version des catégories ({@link DataVersions}) et remplit {@link CategoryListSnapshot}.
    *
    * @return liste de toutes les catégories
    */
-  public List<Category> getAllCategories() {
-    return categoryRepository.findAll();
+  @Transactional
+  public List<CategoryDto> getAllCategories() {
+    return categoryRepository.findAllAsDto();
   }
 
   /**
-   * Recherche les catégories dont le nom contient une chaîne donnée (sans sensibilité à la casse).
+   * Recherche les catégories dont le nom contient une chaîne donnée (sans sensibilité à la casse),
+   * triées par pertinence.
+   *
+   * <p>En mode {@code postgres}, la recherche s'appuie sur l'index {@code pg_trgm} ; sinon sur une
+   * requête LIKE classée, portable. Comme la liste, la réponse porte la version des catégories :
+   * elle est lue sur le primaire.
    *
    * @param name partie du nom à rechercher
+   * @param limit nombre maximal de résultats, borné à [1, {@link #MAX_SEARCH_LIMIT}]
    * @return liste de {@link CategoryDto} correspondant à la recherche
    */
-  public List<CategoryDto> searchByName(final String name) {
-    return categoryRepository.findByNameContainingIgnoreCase(name).stream()
-        .map(CategoryMapper::toDto)
-        .toList();
+  @Transactional
+  public List<CategoryDto> searchByName(final String name, final int limit) {
+    final int max = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+    final String term = LikePatterns.term(name);
+    if (term.isEmpty()) {
+      return List.of();
+    }
+    return searchMode == SearchMode.POSTGRES
+        ? categoryRepository.searchTrigram(term, LikePatterns.contains(term), Limit.of(max))
+        : categoryRepository.searchRanked(
+            term, LikePatterns.contains(term), LikePatterns.startsWith(term), Limit.of(max));
   }
 
   /**
-   * Récupère une catégorie par son identifiant.
+   * Récupère une catégorie par son identifiant, depuis le cache si possible.
+   *
+   * <p>La catégorie renvoyée est une copie détachée (identifiant et nom) : elle suffit pour
+   * rattacher une flashcard mais ne doit pas servir à naviguer dans ses relations. Les identifiants
+   * inconnus ne sont pas mis en cache.
+   *
+   * <p>C'est la vérification des écritures de flashcards : en cas d'absence du cache, la catégorie
+   * est lue par une requête déclarée, sans transaction en lecture seule, donc sur le primaire. Un
+   * réplica en retard refuserait sinon une flashcard dans une catégorie tout juste créée par une
+   * autre instance.
    *
    * @param id identifiant de la catégorie
    * @return un {@link Optional} contenant la catégorie si elle existe
    */
   public Optional<Category> getCategoryById(final Long id) {
-    return categoryRepository.findById(id);
+    if (id == null) {
+      return Optional.empty();
+    }
+    final CategoryDto cached =
+        categoryLookupCache.get(
+            id, key -> categoryRepository.findDtoById(key).orElse(null));
+    return Optional.ofNullable(cached).map(CategoryMapper::toEntity);
+  }
+
+  /**
+   * Lit une catégorie, nombre de flashcards compris, directement en base (sans le cache des
+   * vérifications d'écriture, dont le nombre de flashcards peut être ancien).
+   *
+   * @param id identifiant de la catégorie
+   * @return la catégorie, vide si elle n'existe pas
+   */
+  @Transactional(readOnly = true)
+  public Optional<CategoryDto> getCategoryDto(final Long id) {
+    return id == null ? Optional.empty() : categoryRepository.findDtoById(id);
   }
 
   /**
-   * Crée une nouvelle catégorie.
+   * Crée une nouvelle catégorie, éventuellement sous une catégorie parente.
    *
-   * @param category catégorie à créer
+   * @param category catégorie à créer (le parent n'est lu que par son identifiant)
    * @return la catégorie enregistrée
+   * @throws IllegalArgumentException si la catégorie parente n'existe pas
    */
+  @Transactional
   public Category createCategory(final Category category) {
-    return categoryRepository.save(category);
+    final Category parent = resolveParent(category.getParentCategory());
+    category.setParentCategory(parent);
+    final Category saved = categoryRepository.save(category);
+    if (saved.getId() != null) {
+      saved.setPath(CategoryPaths.child(parent != null ? pathOf(parent) : null, saved.getId()));
+      final CategoryDto cached = CategoryMapper.toDto(saved);
+      AfterCommit.run(() -> categoryLookupCache.put(cached.getId(), cached));
+    }
+    dataVersions.categoriesChanged();
+    return saved;
   }
 
   /**
-   * Met à jour une catégorie existante.
+   * Met à jour une catégorie existante. Un changement de parent déplace tout son sous-arbre : les
+   * chemins de la catégorie et de ses descendants sont réécrits en une seule instruction.
    *
    * @param id identifiant de la catégorie à mettre à jour
    * @param category nouvelles informations de la catégorie
    * @return la catégorie mise à jour
+   * @throws IllegalArgumentException si le parent n'existe pas ou appartient au sous-arbre
    * @throws RuntimeException si la catégorie n'existe pas
    */
+  @Transactional
   public Category updateCategory(final Long id, final Category category) {
     return categoryRepository
         .findById(id)
         .map(
             c -> {
               c.setName(category.getName());
-              return categoryRepository.save(c);
+              final Long parentId = idOf(category.getParentCategory());
+              if (!Objects.equals(parentId, idOf(c.getParentCategory()))) {
+                move(c, resolveParent(category.getParentCategory()));
+              }
+              final Category saved = categoryRepository.save(c);
+              AfterCommit.run(() -> categoryLookupCache.invalidate(id));
+              dataVersions.categoriesChanged();
+              return saved;
             })
         .orElseThrow(() -> new RuntimeException("Category not found"));
   }
 
   /**
-   * Supprime une catégorie selon son identifiant.
+   * Récupère une catégorie et toutes ses descendantes, en une requête sur le chemin matérialisé.
+   * Lu sur le primaire, l'arbre étant servi sous la version des catégories.
    *
-   * @param id identifiant de la catégorie à supprimer
+   * @param id identifiant de la racine du sous-arbre
+   * @return arbre des catégories, vide si la catégorie n'existe pas
+   */
+  @Transactional
+  public Optional<CategoryTreeDto> getSubtree(final Long id) {
+    final Optional<String> path = categoryRepository.findPathById(id);
+    if (path.isEmpty()) {
+      return Optional.empty();
+    }
+    final Map<Long, CategoryTreeDto> nodes = new HashMap<>();
+    CategoryTreeDto root = null;
+    for (CategoryDto row : categoryRepository.findSubtree(CategoryPaths.subtree(path.get()))) {
+      final CategoryTreeDto node =
+          new CategoryTreeDto(row.getId(), row.getName(), row.getFlashcardCount());
+      nodes.put(row.getId(), node);
+      if (row.getId().equals(id)) {
+        root = node;
+      } else {
+        final CategoryTreeDto parent = nodes.get(row.getParentId());
+        if (parent != null) {
+          parent.addChild(node);
+        }
+      }
+    }
+    return Optional.ofNullable(root);
+  }
+
+  /**
+   * Renomme une catégorie par une seule instruction {@code UPDATE ... WHERE id = ? [AND version =
+   * ?]}, sans charger l'entité.
+   *
+   * <p>Le déplacement dans l'arbre réécrit les chemins du sous-arbre et passe par {@link
+   * #updateCategory(Long, Category)}.
+   *
+   * <p>La catégorie renommée est relue dans la transaction d'écriture, donc sur le primaire et
+   * sous le verrou de la ligne : sa version est celle posée par cette mise à jour, même si un
+   * réplica n'a pas encore reçu la modification.
+   *
+   * @param id identifiant de la catégorie
+   * @param changes champs à modifier ; seul le nom est accepté
+   * @param expectedVersion version attendue ({@code If-Match}), ou {@code null} pour ne pas la
+   *     vérifier
+   * @return la catégorie renommée, version et nombre de flashcards compris, ou vide si elle
+   *     n'existe pas
+   * @throws IllegalArgumentException si le nom est absent ou vide, ou si un parent est fourni
+   * @throws OptimisticLockingFailureException si la catégorie a changé de version
    */
+  @Transactional
+  public Optional<CategoryDto> patchCategory(
+      final Long id, final CategoryDto changes, final Long expectedVersion) {
+    if (changes == null || changes.getName() == null || changes.getName().isBlank()) {
+      throw new IllegalArgumentException("Name must not be blank");
+    }
+    if (changes.getParentId() != null) {
+      throw new IllegalArgumentException("Moving a category requires PUT");
+    }
+    if (categoryRepository.patch(id, changes.getName(), expectedVersion) == 0) {
+      if (!categoryRepository.existsById(id)) {
+        return Optional.empty();
+      }
+      throw new OptimisticLockingFailureException("Category " + id + " has a newer version");
+    }
+    AfterCommit.run(() -> categoryLookupCache.invalidate(id));
+    dataVersions.categoriesChanged();
+    return categoryRepository.findDtoById(id);
+  }
+
+  /**
+   * Supprime une catégorie selon son identifiant, avec toutes ses sous-catégories, leurs
+   * flashcards, leurs états de révision et leurs statistiques, en une transaction.
+   *
+   * <p>Chaque table est purgée par une instruction portant sur le chemin du sous-arbre ({@code
+   * ... WHERE path LIKE '/1/5/%'}) : ni l'arbre ni les collections de flashcards ne sont chargés,
+   * et les lignes ne sont pas supprimées une à une. Seuls les identifiants sont lus, pour purger
+   * les structures en mémoire après la validation, chacune en un seul passage pour tout le
+   * sous-arbre.
+   *
+   * @param id identifiant de la catégorie racine à supprimer
+   */
+  @Transactional
   public void deleteCategory(final Long id) {
-    categoryRepository.deleteById(id);
+    final Optional<String> path = categoryRepository.findPathById(id);
+    if (path.isEmpty()) {
+      return;
+    }
+    final String subtree = CategoryPaths.subtree(path.get());
+    final List<Long> categoryIds = categoryRepository.findIdsInSubtree(subtree);
+    learningStats.deleteSubtree(
+        subtree, categoryIds, flashcardRepository.findIdsInSubtree(subtree));
+    reviewStateRepository.deleteAllInSubtree(subtree);
+    flashcardRepository.deleteAllInSubtree(subtree);
+    categoryRepository.detachSubtree(subtree);
+    categoryRepository.deleteSubtree(subtree);
+    AfterCommit.run(
+        () -> {
+          categoryIds.forEach(categoryLookupCache::invalidate);
+          searchIndex.removeCategories(categoryIds);
+          reviewQueue.removeCategories(categoryIds);
+          sampler.removeCategories(categoryIds);
+          answerPools.removeCategories(categoryIds);
+        });
+    dataVersions.categoriesChanged();
+    dataVersions.flashcardsChanged();
+  }
+
+  /**
+   * Supprime un lot de flashcards d'une catégorie et leurs états de révision, dans sa propre
+   * transaction, et décrémente d'autant le nombre de flashcards de la catégorie. Utilisé par la
+   * suppression asynchrone des grandes catégories ({@link CategoryDeletionJobs}).
+   *
+   * @param categoryId identifiant de la catégorie
+   * @param chunkSize nombre maximal de flashcards supprimées
+   * @return nombre de flashcards supprimées, 0 quand la catégorie n'en a plus
+   */
+  @Transactional
+  public int deleteFlashcardChunk(final Long categoryId, final int chunkSize) {
+    final List<Long> ids = flashcardRepository.findIdsByCategoryId(categoryId, Limit.of(chunkSize));
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    learningStats.deleteFlashcards(ids);
+    reviewStateRepository.deleteByFlashcardIds(ids);
+    final int deleted = flashcardRepository.deleteByIds(ids);
+    categoryRepository.addToFlashcardCount(categoryId, -deleted);
+    categoryCaches.countsChanged(List.of(categoryId));
+    AfterCommit.run(
+        () ->
+            ids.forEach(
+                flashcardId -> {
+                  searchIndex.remove(flashcardId);
+                  reviewQueue.remove(flashcardId);
+                  sampler.remove(flashcardId);
+                  answerPools.remove(flashcardId);
+                }));
+    dataVersions.categoriesChanged();
+    dataVersions.flashcardsChanged();
+    return deleted;
+  }
+
+  /**
+   * Compte les flashcards rattachées directement à une catégorie.
+   *
+   * <p>Comme {@link #getSubtreeIds(Long)}, la lecture n'est pas déclarée en lecture seule : elle
+   * prépare une suppression et doit donc voir le primaire, pas un réplica en retard.
+   *
+   * @param categoryId identifiant de la catégorie
+   * @return nombre de flashcards
+   */
+  public long countFlashcards(final Long categoryId) {
+    return flashcardRepository.countByCategoryId(categoryId);
+  }
+
+  /**
+   * Identifiants d'une catégorie et de toutes ses sous-catégories.
+   *
+   * @param id identifiant de la catégorie racine
+   * @return la racine puis ses descendants, vide si la catégorie n'existe pas
+   */
+  public List<Long> getSubtreeIds(final Long id) {
+    return categoryRepository
+        .findPathById(id)
+        .map(path -> categoryRepository.findIdsInSubtree(CategoryPaths.subtree(path)))
+        .orElse(List.of());
+  }
+
+  private Category resolveParent(final Category parent) {
+    final Long parentId = idOf(parent);
+    if (parentId == null) {
+      return null;
+    }
+    return categoryRepository
+        .findById(parentId)
+        .orElseThrow(() -> new IllegalArgumentException("Parent category not found"));
+  }
+
+  private void move(final Category category, final Category parent) {
+    final String oldPath = pathOf(category);
+    final String parentPath = parent != null ? pathOf(parent) : null;
+    if (parentPath != null && parentPath.startsWith(oldPath)) {
+      throw new IllegalArgumentException("Category cannot be moved under its own subtree");
+    }
+    final String newPath = CategoryPaths.child(parentPath, category.getId());
+    categoryRepository.movePaths(CategoryPaths.subtree(oldPath), newPath, oldPath.length() + 1);
+    category.setParentCategory(parent);
+    category.setPath(newPath);
+  }
+
+  private static String pathOf(final Category category) {
+    final String path = category.getPath();
+    return path != null ? path : CategoryPaths.child(null, category.getId());
+  }
+
+  private static Long idOf(final Category category) {
+    return category != null ? category.getId() : null;
   }
 }
@@ -0,0 +1,64 @@
+package com.example.flashcards.service;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Détection des écritures de catégories faites par une autre instance de l'application.
+ *
+ * <p>{@link DataVersions} n'est incrémenté que par les écritures de cette instance : sans cette
+ * vérification, une autre instance qui modifie une catégorie laisserait ici l'ETag de la collection
+ * et {@link CategoryListSnapshot} inchangés. À intervalle régulier ({@code
+ * flashcards.category-versions.check-interval}), une empreinte de la table (nombre de lignes, plus
+ * grand identifiant, somme des versions et des nombres de flashcards) est relue ; si elle a changé,
+ * la version des catégories est incrémentée. La table des catégories reste petite : la requête ne
+ * coûte qu'un parcours de quelques pages.
+ */
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects immutable JdbcTemplate and singleton beans safely")
+public class CategoryVersionWatcher {
+
+  /** Empreinte de la table des catégories. */
+  static final String FINGERPRINT =
+      """
+      select count(*), coalesce(max(id), 0), coalesce(sum(version), 0), \
+      coalesce(sum(flashcard_count), 0) from category\
+      """;
+
+  /** Accès JDBC. */
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Versions des collections. */
+  private final DataVersions dataVersions;
+
+  /** Dernière empreinte relue, {@code null} avant la première vérification. */
+  private List<Long> last;
+
+  /** Relit l'empreinte et incrémente la version des catégories si elle a changé. */
+  @Scheduled(
+      fixedDelayString = "${flashcards.category-versions.check-interval:PT30S}",
+      initialDelayString = "${flashcards.category-versions.check-interval:PT30S}")
+  public synchronized void check() {
+    final List<Long> fingerprint =
+        jdbcTemplate
+            .query(
+                FINGERPRINT,
+                (rs, i) -> List.of(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)))
+            .get(0);
+    // Sans empreinte précédente, une écriture d'une autre instance depuis le démarrage passerait
+    // inaperçue
+    if (!fingerprint.equals(last)) {
+      dataVersions.categoriesChanged();
+    }
+    last = fingerprint;
+  }
+}
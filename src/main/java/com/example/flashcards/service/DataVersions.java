@@ -0,0 +1,63 @@
+package com.example.flashcards.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compteurs de version des collections de catégories et de flashcards, servant d'ETag.
+ *
+ * <p>Chaque écriture incrémente le compteur de la collection concernée après la validation de sa
+ * transaction : une réponse lue avant l'incrément porte l'ancienne version et sera donc rechargée,
+ * jamais servie à tort. Le préfixe tiré au démarrage évite qu'une version d'avant un redémarrage
+ * (ou d'une autre instance) corresponde par hasard.
+ *
+ * <p>Une réponse servie sous l'une de ces versions (listes, pages, recherches, sous-arbres, {@link
+ * CategoryListSnapshot}) doit donc être lue sur le primaire, dans une transaction qui n'est pas en
+ * lecture seule : lue sur un réplica en retard, elle fixerait l'état d'avant l'écriture sous la
+ * version d'après, et les 304 la resserviraient jusqu'à l'écriture suivante.
+ *
+ * <p>Les compteurs sont propres à l'instance : les écritures d'une autre instance ne sont vues
+ * qu'avec retard, par {@link CategoryVersionWatcher} pour les catégories et par les réécritures de
+ * {@link CatalogSnapshot} pour les flashcards.
+ */
+@Component
+public class DataVersions {
+
+  /** Préfixe propre à cette instance de l'application. */
+  private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+
+  /** Version de la collection des catégories. */
+  private final AtomicLong categories = new AtomicLong();
+
+  /** Version de la collection des flashcards. */
+  private final AtomicLong flashcards = new AtomicLong();
+
+  /**
+   * ETag courant de la collection des catégories.
+   *
+   * @return ETag (sans guillemets)
+   */
+  public String categoriesEtag() {
+    return epoch + "-c" + categories.get();
+  }
+
+  /**
+   * ETag courant de la collection des flashcards.
+   *
+   * @return ETag (sans guillemets)
+   */
+  public String flashcardsEtag() {
+    return epoch + "-f" + flashcards.get();
+  }
+
+  /** Signale une modification des catégories (après validation de la transaction courante). */
+  public void categoriesChanged() {
+    AfterCommit.run(categories::incrementAndGet);
+  }
+
+  /** Signale une modification des flashcards (après validation de la transaction courante). */
+  public void flashcardsChanged() {
+    AfterCommit.run(flashcards::incrementAndGet);
+  }
+}
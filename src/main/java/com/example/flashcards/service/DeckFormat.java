@@ -0,0 +1,374 @@
+package com.example.flashcards.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Format binaire d'un paquet de flashcards (une catégorie et ses flashcards), pour les transferts
+ * entre environnements.
+ *
+ * <p>Un fichier commence par un en-tête fixe de {@value #HEADER_SIZE} octets, jamais compressé :
+ *
+ * <pre>
+ * magic    4 octets   "FCDK"
+ * version  1 octet    {@value #VERSION}
+ * flags    1 octet    bit 0 : corps compressé (deflate)
+ * réservé  2 octets
+ * count    8 octets   nombre de flashcards
+ * crc      4 octets   CRC-32 du corps non compressé
+ * </pre>
+ *
+ * <p>Le corps, compressé ou non, contient le nom de la catégorie puis, pour chaque flashcard, la
+ * question et la réponse. Chaque chaîne est précédée de sa longueur en octets UTF-8 ({@code int},
+ * {@code -1} pour {@code null}). Les entiers sont gros-boutistes. Le nombre de flashcards et le CRC
+ * sont écrits à la fin de l'export, à leur place dans l'en-tête : un fichier s'écrit donc en un
+ * seul passage, sans connaître le nombre de flashcards à l'avance.
+ */
+public final class DeckFormat {
+
+  /** Type de contenu d'un paquet. */
+  public static final String MEDIA_TYPE = "application/vnd.flashcards.deck";
+
+  /** Extension de fichier d'un paquet. */
+  public static final String EXTENSION = ".fcdeck";
+
+  /** Signature d'un paquet : "FCDK". */
+  static final int MAGIC = 0x4643444B;
+
+  /** Version du format. */
+  static final byte VERSION = 1;
+
+  /** Drapeau : corps compressé. */
+  static final byte FLAG_DEFLATE = 1;
+
+  /** Taille de l'en-tête, en octets. */
+  static final int HEADER_SIZE = 20;
+
+  /** Longueur maximale d'une chaîne, en octets (protège la lecture d'un fichier corrompu). */
+  static final int MAX_STRING_BYTES = 1 << 24;
+
+  /** Taille des tampons de lecture et d'écriture. */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Constructeur privé pour empêcher l'instanciation. Nécessaire pour respecter la règle Checkstyle
+   * "HideUtilityClassConstructorCheck".
+   */
+  private DeckFormat() {
+    // Constructeur vide intentionnellement.
+  }
+
+  /**
+   * Ouvre l'écriture d'un paquet dans un fichier vide.
+   *
+   * @param channel fichier ouvert en écriture ; il reste ouvert après {@link Writer#close()}
+   * @param categoryName nom de la catégorie
+   * @param compress {@code true} pour compresser le corps
+   * @return l'écrivain, à fermer pour compléter l'en-tête
+   * @throws IOException en cas d'erreur d'écriture
+   */
+  public static Writer writer(
+      final FileChannel channel, final String categoryName, final boolean compress)
+      throws IOException {
+    return new Writer(channel, categoryName, compress);
+  }
+
+  /**
+   * Ouvre la lecture d'un paquet, typiquement depuis un fichier projeté en mémoire.
+   *
+   * @param buffer contenu du fichier, de la position 0 à la limite
+   * @return le lecteur, à fermer après usage
+   * @throws IllegalArgumentException si l'en-tête est invalide
+   */
+  public static Reader reader(final ByteBuffer buffer) {
+    return new Reader(buffer);
+  }
+
+  /** Écriture d'un paquet, en un seul passage. */
+  public static final class Writer implements Closeable {
+
+    private final FileChannel channel;
+
+    private final byte flags;
+
+    private final CRC32 crc = new CRC32();
+
+    private final Deflater deflater;
+
+    private final DeflaterOutputStream deflate;
+
+    private final DataOutputStream out;
+
+    private long count;
+
+    private Writer(final FileChannel channel, final String categoryName, final boolean compress)
+        throws IOException {
+      this.channel = channel;
+      this.flags = compress ? FLAG_DEFLATE : 0;
+      channel.position(HEADER_SIZE);
+      // Le flux du canal n'est jamais fermé : cela fermerait le canal de l'appelant
+      final OutputStream file = Channels.newOutputStream(channel);
+      this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+      this.deflate = compress ? new DeflaterOutputStream(file, deflater, BUFFER_SIZE) : null;
+      this.out =
+          new DataOutputStream(
+              new BufferedOutputStream(
+                  new CheckedOutputStream(compress ? deflate : file, crc), BUFFER_SIZE));
+      writeString(categoryName);
+    }
+
+    /**
+     * Ajoute une flashcard.
+     *
+     * @param question question
+     * @param answer réponse
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void write(final String question, final String answer) throws IOException {
+      writeString(question);
+      writeString(answer);
+      count++;
+    }
+
+    /**
+     * Nombre de flashcards écrites.
+     *
+     * @return nombre de flashcards
+     */
+    public long count() {
+      return count;
+    }
+
+    /** Termine le corps puis écrit l'en-tête ; le canal reste ouvert. */
+    @Override
+    public void close() throws IOException {
+      try {
+        out.flush();
+        if (deflate != null) {
+          deflate.finish();
+        }
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).put(VERSION).put(flags).putShort((short) 0);
+        header.putLong(count).putInt((int) crc.getValue()).flip();
+        while (header.hasRemaining()) {
+          channel.write(header, header.position());
+        }
+      } finally {
+        if (deflater != null) {
+          deflater.end();
+        }
+      }
+    }
+
+    private void writeString(final String value) throws IOException {
+      if (value == null) {
+        out.writeInt(-1);
+        return;
+      }
+      final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  /**
+   * Flashcard lue dans un paquet.
+   *
+   * @param question question
+   * @param answer réponse
+   */
+  public record Card(String question, String answer) {}
+
+  /**
+   * Lecture d'un paquet. Les erreurs de format sont signalées par {@link IllegalArgumentException}.
+   */
+  public static final class Reader implements Closeable {
+
+    private final long count;
+
+    private final long expectedCrc;
+
+    private final CRC32 crc = new CRC32();
+
+    private final Inflater inflater;
+
+    private final InputStream body;
+
+    private final DataInputStream in;
+
+    private final String categoryName;
+
+    private long read;
+
+    private Reader(final ByteBuffer buffer) {
+      if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+        throw new IllegalArgumentException("Not a deck file");
+      }
+      if (buffer.get(4) != VERSION) {
+        throw new IllegalArgumentException("Unsupported deck version " + buffer.get(4));
+      }
+      final boolean compressed = (buffer.get(5) & FLAG_DEFLATE) != 0;
+      this.count = buffer.getLong(8);
+      this.expectedCrc = Integer.toUnsignedLong(buffer.getInt(16));
+      if (count < 0) {
+        throw new IllegalArgumentException("Invalid deck file: negative card count");
+      }
+      this.body =
+          new ByteBufferInputStream(buffer.slice(HEADER_SIZE, buffer.limit() - HEADER_SIZE));
+      this.inflater = compressed ? new Inflater() : null;
+      this.in =
+          new DataInputStream(
+              new BufferedInputStream(
+                  new CheckedInputStream(
+                      compressed ? new InflaterInputStream(body, inflater, BUFFER_SIZE) : body,
+                      crc),
+                  BUFFER_SIZE));
+      this.categoryName = readString();
+      if (count == 0) {
+        checkEnd();
+      }
+    }
+
+    /**
+     * Nom de la catégorie.
+     *
+     * @return nom de la catégorie
+     */
+    public String categoryName() {
+      return categoryName;
+    }
+
+    /**
+     * Nombre de flashcards annoncé par l'en-tête.
+     *
+     * @return nombre de flashcards
+     */
+    public long count() {
+      return count;
+    }
+
+    /**
+     * Indique s'il reste des flashcards à lire.
+     *
+     * @return {@code true} tant que les {@link #count()} flashcards n'ont pas toutes été lues
+     */
+    public boolean hasNext() {
+      return read < count;
+    }
+
+    /**
+     * Lit la flashcard suivante ; après la dernière, vérifie que le corps est terminé et son CRC.
+     *
+     * @return la flashcard
+     * @throws IllegalArgumentException si le fichier est tronqué ou corrompu
+     */
+    public Card next() {
+      if (!hasNext()) {
+        throw new IllegalStateException("No more cards");
+      }
+      final Card card = new Card(readString(), readString());
+      if (++read == count) {
+        checkEnd();
+      }
+      return card;
+    }
+
+    @Override
+    public void close() {
+      if (inflater != null) {
+        inflater.end();
+      }
+    }
+
+    private void checkEnd() {
+      try {
+        // Pour un corps compressé, la fin du flux n'est atteinte qu'après la somme de contrôle
+        // zlib
+        final boolean trailing =
+            in.read() != -1
+                || body.available() > 0
+                || (inflater != null && inflater.getRemaining() > 0);
+        if (trailing) {
+          throw new IllegalArgumentException("Invalid deck file: trailing data");
+        }
+      } catch (IOException e) {
+        throw new IllegalArgumentException("Invalid deck file: truncated", e);
+      }
+      if (crc.getValue() != expectedCrc) {
+        throw new IllegalArgumentException("Invalid deck file: checksum mismatch");
+      }
+    }
+
+    private String readString() {
+      try {
+        final int length = in.readInt();
+        if (length == -1) {
+          return null;
+        }
+        if (length < 0 || length > MAX_STRING_BYTES) {
+          throw new IllegalArgumentException("Invalid deck file: string of " + length + " bytes");
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+      } catch (EOFException e) {
+        throw new IllegalArgumentException("Invalid deck file: truncated", e);
+      } catch (IOException e) {
+        // Seul l'inflater lève une IOException sur un tampon en mémoire : données compressées
+        // invalides
+        throw new IllegalArgumentException("Invalid deck file: " + e.getMessage(), e);
+      }
+    }
+  }
+
+  /** Flux d'entrée sur un {@link ByteBuffer}, sans copie préalable du contenu. */
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      final int n = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,231 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.config.MetricsConfig;
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.DeckImportDto;
+import com.example.flashcards.dto.FlashcardBatchResultDto;
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.entity.Category;
+import com.example.flashcards.mapper.CategoryMapper;
+import com.example.flashcards.repository.CategoryRepository;
+import com.example.flashcards.repository.FlashcardRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.annotation.Timed;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Export et import d'une catégorie et de ses flashcards au format binaire {@link DeckFormat}.
+ *
+ * <p>L'export lit les flashcards par un curseur et les écrit au fil de l'eau dans un fichier
+ * temporaire, que le contrôleur sert comme ressource puis supprime en fin de requête. L'import
+ * reçoit le fichier sur disque, le projette en mémoire ({@link FileChannel#map}) et crée les
+ * flashcards par lots de {@link FlashcardService#MAX_BATCH_SIZE} avec {@link
+ * FlashcardService#importFlashcards(List)}, dans une seule transaction.
+ */
+@Slf4j
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects singleton beans safely")
+public class DeckService {
+
+  /** Service des catégories (création de la catégorie importée). */
+  private final CategoryService categoryService;
+
+  /** Service des flashcards (insertions groupées). */
+  private final FlashcardService flashcardService;
+
+  /** Repository des catégories. */
+  private final CategoryRepository categoryRepository;
+
+  /** Repository des flashcards (curseur d'export). */
+  private final FlashcardRepository flashcardRepository;
+
+  /** Répertoire des fichiers temporaires. */
+  private final Path workDir;
+
+  /** Taille maximale d'un paquet reçu. */
+  private final long maxSize;
+
+  /**
+   * Constructeur avec injection des services et de la configuration.
+   *
+   * @param categoryService service des catégories
+   * @param flashcardService service des flashcards
+   * @param categoryRepository repository des catégories
+   * @param flashcardRepository repository des flashcards
+   * @param workDir répertoire des fichiers temporaires
+   * @param maxSize taille maximale d'un paquet reçu
+   */
+  @Autowired
+  public DeckService(
+      final CategoryService categoryService,
+      final FlashcardService flashcardService,
+      final CategoryRepository categoryRepository,
+      final FlashcardRepository flashcardRepository,
+      @Value("${flashcards.deck.work-dir:${java.io.tmpdir}}") final Path workDir,
+      @Value("${flashcards.deck.max-size:512MB}") final DataSize maxSize) {
+    this.categoryService = categoryService;
+    this.flashcardService = flashcardService;
+    this.categoryRepository = categoryRepository;
+    this.flashcardRepository = flashcardRepository;
+    this.workDir = workDir;
+    this.maxSize = maxSize.toBytes();
+  }
+
+  /**
+   * Écrit une catégorie et ses flashcards (sans ses sous-catégories) dans un fichier temporaire.
+   *
+   * @param categoryId identifiant de la catégorie
+   * @param compress {@code true} pour compresser le corps du paquet
+   * @return le fichier, à supprimer après envoi, ou vide si la catégorie n'existe pas
+   * @throws UncheckedIOException en cas d'erreur d'écriture
+   */
+  @Transactional(readOnly = true)
+  public Optional<Path> exportDeck(final Long categoryId, final boolean compress) {
+    final Optional<Category> category = categoryRepository.findById(categoryId);
+    if (category.isEmpty()) {
+      return Optional.empty();
+    }
+    final long start = System.nanoTime();
+    final Path file = createTempFile();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        DeckFormat.Writer writer = DeckFormat.writer(channel, category.get().getName(), compress);
+        Stream<FlashcardDto> rows = flashcardRepository.streamDtoByCategoryId(categoryId)) {
+      final var it = rows.iterator();
+      while (it.hasNext()) {
+        final FlashcardDto card = it.next();
+        writer.write(card.getQuestion(), card.getAnswer());
+      }
+      log.info(
+          "Deck of category {} exported: {} cards in {} ms",
+          categoryId,
+          writer.count(),
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (IOException e) {
+      delete(file);
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      delete(file);
+      throw e;
+    }
+    return Optional.of(file);
+  }
+
+  /**
+   * Copie un paquet reçu dans un fichier temporaire.
+   *
+   * @param body corps de la requête
+   * @return le fichier, à supprimer après import
+   * @throws IllegalArgumentException si le paquet dépasse {@code flashcards.deck.max-size}
+   * @throws UncheckedIOException en cas d'erreur de lecture ou d'écriture
+   */
+  public Path receive(final InputStream body) {
+    final Path file = createTempFile();
+    try (OutputStream out = Files.newOutputStream(file)) {
+      final byte[] buffer = new byte[1 << 16];
+      long total = 0;
+      for (int n; (n = body.read(buffer)) > 0; ) {
+        total += n;
+        if (total > maxSize) {
+          throw new IllegalArgumentException("Deck larger than " + maxSize + " bytes");
+        }
+        out.write(buffer, 0, n);
+      }
+    } catch (IOException e) {
+      delete(file);
+      throw new UncheckedIOException(e);
+    } catch (RuntimeException e) {
+      delete(file);
+      throw e;
+    }
+    return file;
+  }
+
+  /**
+   * Importe un paquet dans une nouvelle catégorie, en une transaction.
+   *
+   * @param file paquet reçu
+   * @param parentId catégorie parente de la catégorie créée, ou {@code null} pour une racine
+   * @return la catégorie créée et le nombre de flashcards créées et rejetées
+   * @throws IllegalArgumentException si le paquet est invalide ou si le parent n'existe pas ; rien
+   *     n'est alors importé
+   * @throws UncheckedIOException en cas d'erreur de lecture
+   */
+  @Transactional
+  public DeckImportDto importDeck(final Path file, final Long parentId) {
+    final long start = System.nanoTime();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      try (DeckFormat.Reader reader = DeckFormat.reader(mapped)) {
+        if (reader.categoryName() == null || reader.categoryName().isBlank()) {
+          throw new IllegalArgumentException("Invalid deck file: blank category name");
+        }
+        final Category category =
+            categoryService.createCategory(
+                CategoryMapper.toEntity(new CategoryDto(null, reader.categoryName(), parentId)));
+        final List<FlashcardDto> chunk = new ArrayList<>();
+        long created = 0;
+        long failed = 0;
+        while (reader.hasNext()) {
+          final DeckFormat.Card card = reader.next();
+          chunk.add(new FlashcardDto(null, card.question(), card.answer(), category.getId()));
+          if (chunk.size() == FlashcardService.MAX_BATCH_SIZE || !reader.hasNext()) {
+            final FlashcardBatchResultDto result = flashcardService.importFlashcards(chunk);
+            created += result.getCreated();
+            failed += result.getFailed();
+            chunk.clear();
+          }
+        }
+        log.info(
+            "Deck imported into category {}: {} cards in {} ms",
+            category.getId(),
+            created,
+            (System.nanoTime() - start) / 1_000_000);
+        return new DeckImportDto(category.getId(), category.getName(), created, failed);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Supprime un fichier temporaire, sans erreur s'il n'existe plus.
+   *
+   * @param file fichier à supprimer
+   */
+  public void delete(final Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      log.warn("Temporary deck file {} not deleted", file, e);
+    }
+  }
+
+  private Path createTempFile() {
+    try {
+      return Files.createTempFile(workDir, "deck-", DeckFormat.EXTENSION);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
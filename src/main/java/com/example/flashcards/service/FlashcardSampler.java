@@ -0,0 +1,369 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.repository.FlashcardRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Identifiants des flashcards en mémoire, dans un tableau dense par catégorie (et un pour toutes),
+ * pour tirer des flashcards au hasard sans {@code ORDER BY random()}.
+ *
+ * <p>Ajouter ou retirer une flashcard coûte O(1) : un retrait déplace le dernier identifiant du
+ * tableau à la place libérée. Un tirage de {@code n} flashcards sans remise (algorithme de Floyd)
+ * coûte O(n), quelle que soit la taille du paquet.
+ *
+ * <p>Les tableaux sont construits au démarrage puis tenus à jour par {@link FlashcardService} et
+ * {@link CategoryService}. Une reconstruction remplit de nouveaux tableaux à part et les substitue
+ * d'un bloc aux anciens, après y avoir rejoué les mises à jour reçues entre temps ({@link
+ * RebuildBuffer}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects immutable repository beans safely")
+public class FlashcardSampler {
+
+  /** Repository utilisé pour la construction initiale. */
+  private final FlashcardRepository flashcardRepository;
+
+  /** Verrou protégeant les structures ci-dessous ; les tirages ne prennent que la lecture. */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** Mises à jour reçues pendant une reconstruction. */
+  private final RebuildBuffer<Bags> rebuilds = new RebuildBuffer<>();
+
+  /** Tableaux en service. */
+  private Bags bags = new Bags();
+
+  /** Indique si la construction initiale est terminée. */
+  private volatile boolean ready;
+
+  /**
+   * Construit les tableaux à partir de la base. Au démarrage, {@link CatalogSnapshot} appelle cette
+   * méthode ou {@link #rebuild(Iterator)} avec le contenu de l'instantané local. La table est lue
+   * sur le primaire, pour ne pas perdre les flashcards pas encore répliquées.
+   */
+  @Transactional
+  public synchronized void rebuild() {
+    // Les mises à jour sont conservées dès avant la requête : celles validées après sa lecture
+    // seront rejouées
+    startRebuild();
+    try (Stream<FlashcardDto> rows = flashcardRepository.streamAllAsDto()) {
+      load(rows.iterator());
+    } finally {
+      endRebuild();
+    }
+  }
+
+  /**
+   * Reconstruit les tableaux à partir des flashcards données.
+   *
+   * @param rows toutes les flashcards, lues en base ou dans l'instantané local
+   */
+  public synchronized void rebuild(final Iterator<FlashcardDto> rows) {
+    startRebuild();
+    try {
+      load(rows);
+    } finally {
+      endRebuild();
+    }
+  }
+
+  private void load(final Iterator<FlashcardDto> rows) {
+    final long start = System.nanoTime();
+    final Bags rebuilt = new Bags();
+    long count = 0;
+    while (rows.hasNext()) {
+      final FlashcardDto dto = rows.next();
+      if (dto != null && dto.getId() != null) {
+        rebuilt.put(dto.getId(), dto.getCategoryId());
+      }
+      count++;
+    }
+    lock.writeLock().lock();
+    try {
+      rebuilds.replay(rebuilt);
+      bags = rebuilt;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    ready = true;
+    log.info(
+        "Flashcard sampler built: {} cards in {} ms",
+        count,
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Indique si les tirages peuvent être servis.
+   *
+   * @return {@code true} une fois la construction initiale terminée
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Ajoute une flashcard, ou la déplace si sa catégorie a changé. Une catégorie {@code null}
+   * (modification partielle) laisse la flashcard où elle est.
+   *
+   * @param dto flashcard créée ou modifiée
+   */
+  public void put(final FlashcardDto dto) {
+    if (dto == null || dto.getId() == null) {
+      return;
+    }
+    final Long id = dto.getId();
+    final Long categoryId = dto.getCategoryId();
+    update(b -> b.put(id, categoryId));
+  }
+
+  /**
+   * Ajoute des flashcards après la validation de la transaction courante, ou immédiatement s'il n'y
+   * en a pas.
+   *
+   * @param dtos flashcards créées
+   */
+  public void putAfterCommit(final Collection<FlashcardDto> dtos) {
+    final List<FlashcardDto> copy = List.copyOf(dtos);
+    AfterCommit.run(() -> copy.forEach(this::put));
+  }
+
+  /**
+   * Retire une flashcard.
+   *
+   * @param id identifiant de la flashcard
+   */
+  public void remove(final Long id) {
+    if (id == null) {
+      return;
+    }
+    update(b -> b.remove(id));
+  }
+
+  /**
+   * Retire les flashcards de catégories supprimées, sous une seule prise du verrou.
+   *
+   * @param categoryIds identifiants des catégories
+   */
+  public void removeCategories(final Collection<Long> categoryIds) {
+    final List<Long> removed = List.copyOf(categoryIds);
+    update(b -> removed.forEach(b::removeCategory));
+  }
+
+  /**
+   * Tire au hasard, sans remise, des identifiants de flashcards.
+   *
+   * @param categoryId catégorie (sans ses sous-catégories), ou {@code null} pour tout le paquet
+   * @param n nombre d'identifiants voulus
+   * @return au plus {@code n} identifiants distincts, dans un ordre aléatoire
+   */
+  public List<Long> sample(final Long categoryId, final int n) {
+    lock.readLock().lock();
+    try {
+      final IdBag bag = categoryId == null ? bags.all : bags.byCategory.get(categoryId);
+      return bag == null ? List.of() : bag.sample(n, ThreadLocalRandom.current());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Nombre de flashcards connues.
+   *
+   * @return nombre de flashcards
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return bags.all.size;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Vide tous les tableaux. */
+  public void clear() {
+    update(Bags::clear);
+  }
+
+  /**
+   * Tire sans remise des positions dans {@code [0, size)} (algorithme de Floyd) : {@code n}
+   * positions coûtent {@code n} tirages, quelle que soit {@code size}.
+   *
+   * @param size nombre de positions possibles
+   * @param n nombre de positions voulues
+   * @param random générateur
+   * @return au plus {@code n} positions distinctes, dans un ordre aléatoire
+   */
+  static List<Integer> distinctPositions(final int size, final int n, final Random random) {
+    final int count = Math.min(Math.max(n, 0), size);
+    final Set<Integer> picked = new HashSet<>(count * 2);
+    final List<Integer> result = new ArrayList<>(count);
+    for (int j = size - count; j < size; j++) {
+      final int t = random.nextInt(j + 1);
+      final int position = picked.add(t) ? t : j;
+      picked.add(position);
+      result.add(position);
+    }
+    Collections.shuffle(result, random);
+    return result;
+  }
+
+  private void update(final Consumer<Bags> change) {
+    lock.writeLock().lock();
+    try {
+      rebuilds.apply(bags, change);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void startRebuild() {
+    lock.writeLock().lock();
+    try {
+      rebuilds.start();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void endRebuild() {
+    lock.writeLock().lock();
+    try {
+      rebuilds.abort();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Tableau de toutes les flashcards et tableaux par catégorie. */
+  private static final class Bags {
+
+    /** Toutes les flashcards. */
+    private final IdBag all = new IdBag();
+
+    /** Flashcards de chaque catégorie. */
+    private final Map<Long, IdBag> byCategory = new HashMap<>();
+
+    /** Catégorie de chaque flashcard rangée dans {@link #byCategory}. */
+    private final Map<Long, Long> categoryOf = new HashMap<>();
+
+    void put(final Long id, final Long categoryId) {
+      all.add(id);
+      if (categoryId == null) {
+        return;
+      }
+      final Long previous = categoryOf.put(id, categoryId);
+      if (categoryId.equals(previous)) {
+        return;
+      }
+      unlink(id, previous);
+      byCategory.computeIfAbsent(categoryId, k -> new IdBag()).add(id);
+    }
+
+    void remove(final Long id) {
+      all.remove(id);
+      unlink(id, categoryOf.remove(id));
+    }
+
+    void removeCategory(final Long categoryId) {
+      final IdBag bag = byCategory.remove(categoryId);
+      if (bag != null) {
+        for (int i = 0; i < bag.size; i++) {
+          all.remove(bag.ids[i]);
+          categoryOf.remove(bag.ids[i]);
+        }
+      }
+    }
+
+    void clear() {
+      all.clear();
+      byCategory.clear();
+      categoryOf.clear();
+    }
+
+    private void unlink(final Long id, final Long categoryId) {
+      if (categoryId == null) {
+        return;
+      }
+      final IdBag bag = byCategory.get(categoryId);
+      if (bag != null) {
+        bag.remove(id);
+        if (bag.size == 0) {
+          byCategory.remove(categoryId);
+        }
+      }
+    }
+  }
+
+  /** Tableau dense d'identifiants, avec la position de chacun pour le retirer en O(1). */
+  private static final class IdBag {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+
+    private int size;
+
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    void add(final long id) {
+      if (positions.putIfAbsent(id, size) != null) {
+        return;
+      }
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size * 2);
+      }
+      ids[size++] = id;
+    }
+
+    void remove(final long id) {
+      final Integer position = positions.remove(id);
+      if (position == null) {
+        return;
+      }
+      final long last = ids[--size];
+      if (position != size) {
+        ids[position] = last;
+        positions.put(last, position);
+      }
+    }
+
+    void clear() {
+      ids = new long[INITIAL_CAPACITY];
+      size = 0;
+      positions.clear();
+    }
+
+    List<Long> sample(final int n, final Random random) {
+      final List<Long> result = new ArrayList<>();
+      for (int position : distinctPositions(size, n, random)) {
+        result.add(ids[position]);
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,555 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.repository.FlashcardRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Index inversé en mémoire sur la question et la réponse des flashcards.
+ *
+ * <p>Chaque mot est découpé en trigrammes ; une recherche intersecte les listes de trigrammes des
+ * termes demandés, puis vérifie la sous-chaîne sur le texte normalisé. Les termes de moins de trois
+ * caractères sont cherchés comme préfixes de mots. Le coût d'une recherche dépend du nombre de
+ * candidats et non de la taille de la table.
+ *
+ * <p>L'index est construit au démarrage puis tenu à jour par {@link FlashcardService}. Une
+ * reconstruction remplit un nouvel index à part, puis le substitue d'un bloc à l'ancien après y
+ * avoir rejoué les mises à jour reçues entre temps ({@link RebuildBuffer}) : les recherches restent
+ * servies pendant la reconstruction.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects immutable repository beans safely")
+public class FlashcardSearchIndex {
+
+  /** Longueur des n-grammes indexés. */
+  private static final int GRAM = 3;
+
+  /** Poids d'un terme trouvé comme mot entier dans la question. */
+  private static final int SCORE_QUESTION_WORD = 8;
+
+  /** Poids d'un terme trouvé en début de mot dans la question. */
+  private static final int SCORE_QUESTION_PREFIX = 6;
+
+  /** Poids d'un terme trouvé à l'intérieur d'un mot de la question. */
+  private static final int SCORE_QUESTION_INFIX = 4;
+
+  /** Poids d'un terme trouvé uniquement dans la réponse. */
+  private static final int SCORE_ANSWER = 1;
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  /** Repository utilisé pour la construction initiale de l'index. */
+  private final FlashcardRepository flashcardRepository;
+
+  /** Verrou protégeant l'index en service et les mises à jour à rejouer. */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** Mises à jour reçues pendant une reconstruction. */
+  private final RebuildBuffer<Index> rebuilds = new RebuildBuffer<>();
+
+  /** Index en service. */
+  private Index index = new Index();
+
+  /** Mode de recherche : l'index n'est alimenté qu'en mode {@code memory}. */
+  @Value("${flashcards.search.mode:memory}")
+  private SearchMode searchMode = SearchMode.MEMORY;
+
+  /** Indique si la construction initiale est terminée. */
+  private volatile boolean ready;
+
+  /**
+   * Flashcard indexée : valeurs d'origine et textes normalisés.
+   *
+   * @param dto données renvoyées telles quelles dans les résultats
+   * @param question question normalisée
+   * @param answer réponse normalisée
+   */
+  private record Doc(FlashcardDto dto, String question, String answer) {}
+
+  /**
+   * Résultat intermédiaire de recherche.
+   *
+   * @param doc document trouvé
+   * @param score pertinence cumulée
+   */
+  private record Hit(Doc doc, int score) {}
+
+  /** Ordre des résultats : score décroissant, puis identifiant croissant. */
+  private static final Comparator<Hit> RANKING =
+      Comparator.comparingInt(Hit::score)
+          .reversed()
+          .thenComparing(h -> h.doc().dto().getId(), Comparator.naturalOrder());
+
+  /**
+   * Construit l'index à partir de la base. Au démarrage, {@link CatalogSnapshot} appelle cette
+   * méthode ou {@link #rebuild(Iterator)} avec le contenu de l'instantané local.
+   *
+   * <p>La table est lue sur le primaire (transaction qui n'est pas en lecture seule) : les
+   * recherches sont servies sous la version des flashcards ({@link DataVersions}), et une flashcard
+   * pas encore répliquée en serait absente jusqu'à la reconstruction suivante.
+   */
+  @Transactional
+  public synchronized void rebuild() {
+    if (!isEnabled()) {
+      return;
+    }
+    // Les mises à jour sont conservées dès avant la requête : celles validées après sa lecture
+    // seront rejouées
+    startRebuild();
+    try (Stream<FlashcardDto> rows = flashcardRepository.streamAllAsDto()) {
+      load(rows.iterator());
+    } finally {
+      endRebuild();
+    }
+  }
+
+  /**
+   * Reconstruit l'index à partir des flashcards données.
+   *
+   * @param rows toutes les flashcards, lues en base ou dans l'instantané local
+   */
+  public synchronized void rebuild(final Iterator<FlashcardDto> rows) {
+    if (!isEnabled()) {
+      return;
+    }
+    startRebuild();
+    try {
+      load(rows);
+    } finally {
+      endRebuild();
+    }
+  }
+
+  private void load(final Iterator<FlashcardDto> rows) {
+    final long start = System.nanoTime();
+    final Index rebuilt = new Index();
+    long count = 0;
+    while (rows.hasNext()) {
+      final Doc doc = doc(rows.next());
+      if (doc != null) {
+        rebuilt.put(doc);
+      }
+      count++;
+    }
+    lock.writeLock().lock();
+    try {
+      rebuilds.replay(rebuilt);
+      index = rebuilt;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    ready = true;
+    log.info(
+        "Flashcard search index built: {} cards in {} ms",
+        count,
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Indique si l'index est utilisé ; hors mode {@code memory}, il reste vide et les mises à jour
+   * sont ignorées.
+   *
+   * @return {@code true} en mode {@code memory}
+   */
+  public boolean isEnabled() {
+    return searchMode == SearchMode.MEMORY;
+  }
+
+  /**
+   * Indique si l'index peut servir les recherches.
+   *
+   * @return {@code true} une fois la construction initiale terminée
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Ajoute ou remplace une flashcard dans l'index.
+   *
+   * @param dto flashcard à indexer (identifiant obligatoire)
+   */
+  public void put(final FlashcardDto dto) {
+    if (!isEnabled()) {
+      return;
+    }
+    final Doc doc = doc(dto);
+    if (doc != null) {
+      update(i -> i.put(doc));
+    }
+  }
+
+  /**
+   * Applique une mise à jour partielle : les champs {@code null} de {@code changes} gardent leur
+   * valeur indexée. Sans effet si la flashcard n'est pas indexée.
+   *
+   * @param changes identifiant et champs modifiés de la flashcard
+   */
+  public void patch(final FlashcardDto changes) {
+    if (!isEnabled() || changes == null || changes.getId() == null) {
+      return;
+    }
+    final FlashcardDto copy =
+        new FlashcardDto(
+            changes.getId(), changes.getQuestion(), changes.getAnswer(), changes.getCategoryId());
+    update(i -> i.patch(copy));
+  }
+
+  /**
+   * Retire une flashcard de l'index.
+   *
+   * @param id identifiant de la flashcard
+   */
+  public void remove(final Long id) {
+    update(i -> i.remove(id));
+  }
+
+  /**
+   * Retire toutes les flashcards d'un ensemble de catégories (suppression d'un sous-arbre), en un
+   * seul parcours de l'index.
+   *
+   * @param categoryIds identifiants des catégories
+   */
+  public void removeCategories(final Collection<Long> categoryIds) {
+    final Set<Long> removed = Set.copyOf(categoryIds);
+    update(i -> i.removeCategories(removed));
+  }
+
+  /**
+   * Applique des ajouts à l'index après la validation de la transaction courante, ou immédiatement
+   * s'il n'y en a pas.
+   *
+   * @param dtos flashcards à indexer
+   */
+  public void putAfterCommit(final Collection<FlashcardDto> dtos) {
+    final List<FlashcardDto> copy = List.copyOf(dtos);
+    AfterCommit.run(() -> copy.forEach(this::put));
+  }
+
+  /** Vide l'index. */
+  public void clear() {
+    update(Index::clear);
+  }
+
+  /**
+   * Nombre de flashcards indexées.
+   *
+   * @return taille de l'index
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return index.docs.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Recherche les flashcards dont la question ou la réponse contient tous les termes demandés.
+   *
+   * @param text texte recherché (insensible à la casse et aux accents)
+   * @param limit nombre maximal de résultats
+   * @return flashcards triées par pertinence décroissante
+   */
+  public List<FlashcardDto> search(final String text, final int limit) {
+    final List<String> terms = tokens(normalize(text)).stream().distinct().toList();
+    if (terms.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+
+    lock.readLock().lock();
+    try {
+      Set<Long> candidates = null;
+      for (String term : terms) {
+        candidates = intersect(candidates, index.candidatesFor(term));
+        if (candidates.isEmpty()) {
+          return List.of();
+        }
+      }
+
+      final PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+      for (Long id : candidates) {
+        final Doc doc = index.docs.get(id);
+        final int score = score(doc, terms);
+        if (score > 0) {
+          top.add(new Hit(doc, score));
+          if (top.size() > limit) {
+            top.poll();
+          }
+        }
+      }
+
+      final List<Hit> hits = new ArrayList<>(top);
+      hits.sort(RANKING);
+      return hits.stream()
+          .map(h -> h.doc().dto())
+          .map(d -> new FlashcardDto(d.getId(), d.getQuestion(), d.getAnswer(), d.getCategoryId()))
+          .toList();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Normalise un texte : minuscules, sans accents.
+   *
+   * @param text texte d'origine, éventuellement {@code null}
+   * @return texte normalisé (vide si {@code null})
+   */
+  static String normalize(final String text) {
+    if (text == null) {
+      return "";
+    }
+    final String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+    return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Découpe un texte normalisé en mots.
+   *
+   * @param normalized texte normalisé
+   * @return mots non vides, dans l'ordre
+   */
+  static List<String> tokens(final String normalized) {
+    final List<String> out = new ArrayList<>();
+    for (String token : SEPARATORS.split(normalized)) {
+      if (!token.isEmpty()) {
+        out.add(token);
+      }
+    }
+    return out;
+  }
+
+  private static Set<Long> intersect(final Set<Long> acc, final Set<Long> other) {
+    if (acc == null) {
+      return new HashSet<>(other);
+    }
+    acc.retainAll(other);
+    return acc;
+  }
+
+  private static int score(final Doc doc, final List<String> terms) {
+    int total = 0;
+    for (String term : terms) {
+      final int inQuestion = matchScore(doc.question(), term);
+      if (inQuestion > 0) {
+        total += inQuestion;
+      } else if (doc.answer().contains(term)) {
+        total += SCORE_ANSWER;
+      } else {
+        return 0;
+      }
+    }
+    return total;
+  }
+
+  private static int matchScore(final String text, final String term) {
+    int best = 0;
+    int from = text.indexOf(term);
+    while (from >= 0 && best < SCORE_QUESTION_WORD) {
+      final boolean start = from == 0 || !isWordChar(text.charAt(from - 1));
+      final int end = from + term.length();
+      final boolean whole = start && (end == text.length() || !isWordChar(text.charAt(end)));
+      final int score =
+          whole ? SCORE_QUESTION_WORD : start ? SCORE_QUESTION_PREFIX : SCORE_QUESTION_INFIX;
+      best = Math.max(best, score);
+      from = text.indexOf(term, from + 1);
+    }
+    return best;
+  }
+
+  private static boolean isWordChar(final char c) {
+    return Character.isLetterOrDigit(c);
+  }
+
+  private static Set<String> gramsOf(final String word) {
+    final Set<String> out = new HashSet<>();
+    for (int i = 0; i + GRAM <= word.length(); i++) {
+      out.add(word.substring(i, i + GRAM));
+    }
+    return out;
+  }
+
+  private static Set<String> wordsOf(final Doc doc) {
+    final Set<String> out = new HashSet<>(tokens(doc.question()));
+    out.addAll(tokens(doc.answer()));
+    return out;
+  }
+
+  private static Doc doc(final FlashcardDto dto) {
+    if (dto == null || dto.getId() == null) {
+      return null;
+    }
+    return new Doc(
+        new FlashcardDto(dto.getId(), dto.getQuestion(), dto.getAnswer(), dto.getCategoryId()),
+        normalize(dto.getQuestion()),
+        normalize(dto.getAnswer()));
+  }
+
+  private void update(final Consumer<Index> change) {
+    lock.writeLock().lock();
+    try {
+      rebuilds.apply(index, change);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void startRebuild() {
+    lock.writeLock().lock();
+    try {
+      rebuilds.start();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void endRebuild() {
+    lock.writeLock().lock();
+    try {
+      rebuilds.abort();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Documents et listes de trigrammes et de mots d'un index. */
+  private static final class Index {
+
+    /** Documents indexés par identifiant de flashcard. */
+    private final Map<Long, Doc> docs = new HashMap<>();
+
+    /** Trigramme vers identifiants des flashcards qui le contiennent. */
+    private final Map<String, Set<Long>> grams = new HashMap<>();
+
+    /**
+     * Mot vers identifiants des flashcards qui le contiennent, trié pour les recherches préfixe.
+     */
+    private final TreeMap<String, Set<Long>> words = new TreeMap<>();
+
+    void put(final Doc doc) {
+      final Doc previous = docs.put(doc.dto().getId(), doc);
+      if (previous != null) {
+        unlink(previous);
+      }
+      link(doc);
+    }
+
+    void patch(final FlashcardDto changes) {
+      final Doc doc = docs.get(changes.getId());
+      if (doc == null) {
+        return;
+      }
+      final FlashcardDto current = doc.dto();
+      put(
+          doc(
+              new FlashcardDto(
+                  current.getId(),
+                  changes.getQuestion() != null ? changes.getQuestion() : current.getQuestion(),
+                  changes.getAnswer() != null ? changes.getAnswer() : current.getAnswer(),
+                  changes.getCategoryId() != null
+                      ? changes.getCategoryId()
+                      : current.getCategoryId())));
+    }
+
+    void remove(final Long id) {
+      final Doc previous = docs.remove(id);
+      if (previous != null) {
+        unlink(previous);
+      }
+    }
+
+    void removeCategories(final Set<Long> categoryIds) {
+      final List<Long> ids =
+          docs.values().stream()
+              .filter(d -> d.dto().getCategoryId() != null)
+              .filter(d -> categoryIds.contains(d.dto().getCategoryId()))
+              .map(d -> d.dto().getId())
+              .toList();
+      ids.forEach(id -> unlink(docs.remove(id)));
+    }
+
+    void clear() {
+      docs.clear();
+      grams.clear();
+      words.clear();
+    }
+
+    Set<Long> candidatesFor(final String term) {
+      if (term.length() < GRAM) {
+        final Set<Long> ids = new HashSet<>();
+        words.subMap(term, true, term + Character.MAX_VALUE, false).values().forEach(ids::addAll);
+        return ids;
+      }
+      Set<Long> ids = null;
+      for (String gram : gramsOf(term)) {
+        final Set<Long> posting = grams.get(gram);
+        if (posting == null) {
+          return Set.of();
+        }
+        ids = intersect(ids, posting);
+      }
+      return ids;
+    }
+
+    private void link(final Doc doc) {
+      final Long id = doc.dto().getId();
+      for (String word : wordsOf(doc)) {
+        words.computeIfAbsent(word, k -> new HashSet<>()).add(id);
+        for (String gram : gramsOf(word)) {
+          grams.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+        }
+      }
+    }
+
+    private void unlink(final Doc doc) {
+      final Long id = doc.dto().getId();
+      for (String word : wordsOf(doc)) {
+        detach(words, word, id);
+        for (String gram : gramsOf(word)) {
+          detach(grams, gram, id);
+        }
+      }
+    }
+
+    private static void detach(final Map<String, Set<Long>> postings, final String key, Long id) {
+      final Set<Long> ids = postings.get(key);
+      if (ids != null) {
+        ids.remove(id);
+        if (ids.isEmpty()) {
+          postings.remove(key);
+        }
+      }
+    }
+  }
+}
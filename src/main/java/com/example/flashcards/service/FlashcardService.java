@@ -1,90 +1,599 @@
 package com.example.flashcards.service;
 
+import com.example.flashcards.config.MetricsConfig;
+import com.example.flashcards.dto.FlashcardBatchItemDto;
+import com.example.flashcards.dto.FlashcardBatchResultDto;
 import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.dto.FlashcardPageDto;
+import com.example.flashcards.entity.Category;
 import com.example.flashcards.entity.Flashcard;
 import com.example.flashcards.mapper.FlashcardMapper;
+import com.example.flashcards.repository.CategoryRepository;
 import com.example.flashcards.repository.FlashcardRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /** Service gérant la logique métier liée aux flashcards. */
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects the shared EntityManager proxy and singleton beans safely")
 public class FlashcardService {
 
+  /** Taille de page appliquée lorsque le client n'en précise pas. */
+  public static final int DEFAULT_PAGE_SIZE = 50;
+
+  /** Taille de page maximale acceptée, quelle que soit la demande du client. */
+  public static final int MAX_PAGE_SIZE = 500;
+
+  /** Nombre de résultats de recherche renvoyés par défaut. */
+  public static final int DEFAULT_SEARCH_LIMIT = 20;
+
+  /** Nombre maximal de résultats de recherche. */
+  public static final int MAX_SEARCH_LIMIT = 100;
+
+  /** Nombre de flashcards tirées au hasard par défaut. */
+  public static final int DEFAULT_RANDOM_SIZE = 10;
+
+  /** Nombre maximal de flashcards tirées au hasard en une demande. */
+  public static final int MAX_RANDOM_SIZE = 100;
+
+  /** Nombre maximal de flashcards acceptées dans un import par lot. */
+  public static final int MAX_BATCH_SIZE = 10_000;
+
+  /** Nombre d'insertions entre deux flush, aligné sur {@code hibernate.jdbc.batch_size}. */
+  static final int BATCH_FLUSH_SIZE = 50;
+
   /** Repository permettant d'accéder aux données des flashcards. */
   private final FlashcardRepository flashcardRepository;
 
+  /** Repository permettant de résoudre les catégories d'un import par lot. */
+  private final CategoryRepository categoryRepository;
+
+  /** Contexte de persistance, vidé régulièrement pendant les imports par lot. */
+  private final EntityManager entityManager;
+
+  /** Index de recherche en mémoire, tenu à jour à chaque écriture. */
+  private final FlashcardSearchIndex searchIndex;
+
+  /** Files de révision, tenues à jour à chaque écriture. */
+  private final ReviewQueue reviewQueue;
+
+  /** Identifiants par catégorie pour les tirages aléatoires, tenus à jour à chaque écriture. */
+  private final FlashcardSampler sampler;
+
+  /** Réponses par catégorie pour les quiz à choix multiples, tenues à jour à chaque écriture. */
+  private final AnswerPools answerPools;
+
+  /** Versions des collections (ETag), incrémentées à chaque écriture. */
+  private final DataVersions dataVersions;
+
+  /** Caches Hibernate des catégories, dont le nombre de flashcards change à chaque écriture. */
+  private final CategoryCaches categoryCaches;
+
+  /** Mode de recherche textuelle, choisi par profil. */
+  @Value("${flashcards.search.mode:memory}")
+  private SearchMode searchMode = SearchMode.MEMORY;
+
   /**
-   * Récupère toutes les flashcards disponibles.
+   * Récupère toutes les flashcards disponibles, projetées en DTO.
+   *
+   * <p>Comme les pages et la recherche, la liste est servie sous la version des flashcards ({@link
+   * DataVersions}) : elle est lue sur le primaire, dans une transaction qui n'est pas en lecture
+   * seule.
    *
    * @return liste de toutes les flashcards
    */
-  public List<Flashcard> getAllFlashcards() {
-    return flashcardRepository.findAllWithCategory();
+  @Transactional
+  public List<FlashcardDto> getAllFlashcards() {
+    return flashcardRepository.findAllAsDto();
+  }
+
+  /**
+   * Récupère une page de flashcards par pagination keyset sur l'identifiant.
+   *
+   * <p>Seules {@code size + 1} lignes sont lues : la ligne supplémentaire indique s'il existe une
+   * page suivante sans requête de comptage.
+   *
+   * @param cursor curseur opaque renvoyé par la page précédente, ou {@code null} pour la première
+   * @param size taille de page demandée, bornée à [1, {@link #MAX_PAGE_SIZE}]
+   * @return la page de flashcards et le curseur de la page suivante
+   * @throws IllegalArgumentException si le curseur est invalide
+   */
+  @Transactional
+  public FlashcardPageDto getFlashcardPage(final String cursor, final int size) {
+    return page(cursor, size, flashcardRepository::findPageAfter);
   }
 
   /**
-   * Récupère une flashcard selon son identifiant.
+   * Récupère une page des flashcards d'une catégorie et de toutes ses sous-catégories, avec la même
+   * pagination keyset que {@link #getFlashcardPage(String, int)}.
+   *
+   * @param categoryId identifiant de la racine du sous-arbre
+   * @param cursor curseur opaque renvoyé par la page précédente, ou {@code null} pour la première
+   * @param size taille de page demandée, bornée à [1, {@link #MAX_PAGE_SIZE}]
+   * @return la page de flashcards, vide si la catégorie n'existe pas
+   * @throws IllegalArgumentException si le curseur est invalide
+   */
+  @Transactional
+  public Optional<FlashcardPageDto> getFlashcardPageInSubtree(
+      final Long categoryId, final String cursor, final int size) {
+    return categoryRepository
+        .findPathById(categoryId)
+        .map(CategoryPaths::subtree)
+        .map(
+            pattern ->
+                page(
+                    cursor,
+                    size,
+                    (after, limit) ->
+                        flashcardRepository.findPageAfterInSubtree(pattern, after, limit)));
+  }
+
+  private FlashcardPageDto page(
+      final String cursor,
+      final int size,
+      final BiFunction<Long, Limit, List<FlashcardDto>> query) {
+    final int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    final long afterId = decodeCursor(cursor);
+
+    final List<FlashcardDto> rows = query.apply(afterId, Limit.of(pageSize + 1));
+
+    final boolean hasNext = rows.size() > pageSize;
+    final List<FlashcardDto> items = hasNext ? rows.subList(0, pageSize) : rows;
+    final String next = hasNext ? encodeCursor(items.get(items.size() - 1).getId()) : null;
+    return new FlashcardPageDto(items, next);
+  }
+
+  /**
+   * Parcourt toutes les flashcards une par une, sans les charger en mémoire.
+   *
+   * <p>La lecture se fait dans une transaction en lecture seule qui ne vit que le temps du parcours
+   * : la connexion est rendue au pool dès le dernier enregistrement transmis.
+   *
+   * @param consumer traitement appliqué à chaque flashcard, dans l'ordre des identifiants
+   * @return nombre de flashcards parcourues
+   */
+  @Transactional(readOnly = true)
+  public long forEachFlashcard(final Consumer<FlashcardDto> consumer) {
+    long count = 0;
+    try (Stream<FlashcardDto> rows = flashcardRepository.streamAllAsDto()) {
+      final var it = rows.iterator();
+      while (it.hasNext()) {
+        consumer.accept(it.next());
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Récupère une flashcard selon son identifiant, projetée en DTO.
    *
    * @param id identifiant de la flashcard
    * @return un {@link Optional} contenant la flashcard si elle existe
    */
-  public Optional<Flashcard> getFlashcardById(final Long id) {
-    return flashcardRepository.findById(id);
+  @Transactional(readOnly = true)
+  public Optional<FlashcardDto> getFlashcardById(final Long id) {
+    return flashcardRepository.findDtoById(id);
   }
 
   /**
-   * Recherche les flashcards dont la question contient une chaîne donnée (insensible à la casse).
+   * Recherche les flashcards dont la question ou la réponse contient le texte donné (insensible à
+   * la casse), triées par pertinence.
+   *
+   * <p>Selon {@code flashcards.search.mode} : index en mémoire ({@code memory}, avec repli sur la
+   * requête LIKE tant qu'il n'est pas construit), index {@code pg_trgm} ({@code postgres}) ou
+   * requête LIKE classée ({@code like}).
+   *
+   * <p>Sans transaction en lecture seule, les requêtes vont au primaire : les résultats sont servis
+   * sous la version des flashcards, comme la liste.
    *
-   * @param question partie de la question à rechercher
+   * @param question texte à rechercher
+   * @param limit nombre maximal de résultats, borné à [1, {@link #MAX_SEARCH_LIMIT}]
    * @return liste de {@link FlashcardDto} correspondant au critère
    */
-  public List<FlashcardDto> searchByQuestion(final String question) {
-    return flashcardRepository.findByQuestionContainingIgnoreCase(question).stream()
-        .map(FlashcardMapper::toDto)
-        .toList();
+  public List<FlashcardDto> searchByQuestion(final String question, final int limit) {
+    final int max = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+    final String term = LikePatterns.term(question);
+    if (term.isEmpty()) {
+      return List.of();
+    }
+    if (searchMode == SearchMode.MEMORY && searchIndex.isReady()) {
+      return searchIndex.search(question, max);
+    }
+    if (searchMode == SearchMode.POSTGRES) {
+      return flashcardRepository.searchTrigram(term, LikePatterns.contains(term), Limit.of(max));
+    }
+    return flashcardRepository.searchRanked(
+        term, LikePatterns.contains(term), LikePatterns.startsWith(term), Limit.of(max));
+  }
+
+  /**
+   * Tire des flashcards au hasard, sans remise, par exemple pour composer un quiz.
+   *
+   * <p>Les identifiants sont tirés dans {@link FlashcardSampler} en O(n), puis lus en une seule
+   * requête {@code IN} : le coût dépend du nombre de flashcards demandées, pas de la taille du
+   * paquet. Une flashcard supprimée entre le tirage et la lecture est simplement omise.
+   *
+   * @param categoryId catégorie (sans ses sous-catégories), ou {@code null} pour tout le paquet
+   * @param n nombre de flashcards voulues, borné à [1, {@link #MAX_RANDOM_SIZE}]
+   * @return au plus {@code n} flashcards distinctes, dans l'ordre du tirage ; vide si la catégorie
+   *     n'a pas de flashcard ou n'existe pas
+   * @throws IllegalStateException si les identifiants sont en cours de chargement
+   */
+  @Transactional(readOnly = true)
+  public List<FlashcardDto> randomFlashcards(final Long categoryId, final int n) {
+    if (!sampler.isReady()) {
+      throw new IllegalStateException("Flashcard sampler is not ready");
+    }
+    final List<Long> ids = sampler.sample(categoryId, Math.max(1, Math.min(n, MAX_RANDOM_SIZE)));
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    final Map<Long, FlashcardDto> byId =
+        flashcardRepository.findAllDtoByIdIn(ids).stream()
+            .collect(Collectors.toMap(FlashcardDto::getId, Function.identity()));
+    return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
   }
 
   /**
-   * Crée une nouvelle flashcard.
+   * Crée une nouvelle flashcard et incrémente le nombre de flashcards de sa catégorie, dans la même
+   * transaction.
    *
    * @param flashcard flashcard à enregistrer
    * @return la flashcard créée
    */
+  @Transactional
   public Flashcard createFlashcard(final Flashcard flashcard) {
-    return flashcardRepository.save(flashcard);
+    final Flashcard saved = flashcardRepository.save(flashcard);
+    final FlashcardDto dto = FlashcardMapper.toDto(saved);
+    addToFlashcardCounts(Collections.singletonMap(dto.getCategoryId(), 1L));
+    AfterCommit.run(
+        () -> {
+          searchIndex.put(dto);
+          reviewQueue.put(dto);
+          sampler.put(dto);
+          answerPools.put(dto);
+        });
+    dataVersions.flashcardsChanged();
+    return saved;
   }
 
   /**
-   * Met à jour une flashcard existante.
+   * Crée un lot de flashcards avec des insertions JDBC groupées.
+   *
+   * <p>Les catégories référencées sont résolues en une seule requête. Les identifiants proviennent
+   * d'une séquence (pooled optimizer) : Hibernate peut donc regrouper les {@code INSERT}. Les
+   * insertions sont envoyées tous les {@link #BATCH_FLUSH_SIZE} éléments, puis les flashcards
+   * envoyées sont détachées pour garder une mémoire constante ; les autres entités du contexte de
+   * persistance (celles de l'appelant, par exemple la catégorie créée par {@link
+   * DeckService#importDeck}) restent attachées.
+   *
+   * <p>Les éléments invalides (champ manquant, catégorie inconnue) sont rejetés individuellement
+   * sans bloquer le lot. Une erreur de la base, en revanche, annule tout le lot : l'exception est
+   * propagée et aucune flashcard n'est créée.
+   *
+   * @param dtos flashcards à créer
+   * @return le résultat de chaque élément, dans l'ordre reçu
+   * @throws IllegalArgumentException si le lot dépasse {@link #MAX_BATCH_SIZE} éléments
+   * @throws org.springframework.dao.DataAccessException si la base refuse une insertion, le lot
+   *     entier étant alors annulé
+   */
+  @Transactional
+  public FlashcardBatchResultDto importFlashcards(final List<FlashcardDto> dtos) {
+    if (dtos == null || dtos.isEmpty()) {
+      return new FlashcardBatchResultDto(List.of());
+    }
+    if (dtos.size() > MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException("Batch too large (max " + MAX_BATCH_SIZE + " items)");
+    }
+
+    final Set<Long> categoryIds =
+        dtos.stream()
+            .filter(Objects::nonNull)
+            .map(FlashcardDto::getCategoryId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+    final Map<Long, Category> categories =
+        categoryRepository.findAllById(categoryIds).stream()
+            .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+    final List<FlashcardBatchItemDto> results = new ArrayList<>(dtos.size());
+    final List<FlashcardDto> created = new ArrayList<>(dtos.size());
+    final List<Flashcard> pending = new ArrayList<>(BATCH_FLUSH_SIZE);
+    for (int i = 0; i < dtos.size(); i++) {
+      final FlashcardDto dto = dtos.get(i);
+      final String error = validateBatchItem(dto, categories);
+      if (error != null) {
+        results.add(new FlashcardBatchItemDto(i, null, false, error));
+        continue;
+      }
+
+      final Flashcard flashcard =
+          new Flashcard(
+              null, dto.getQuestion(), dto.getAnswer(), categories.get(dto.getCategoryId()));
+      entityManager.persist(flashcard);
+      results.add(new FlashcardBatchItemDto(i, flashcard.getId(), true, null));
+      created.add(
+          new FlashcardDto(
+              flashcard.getId(), dto.getQuestion(), dto.getAnswer(), dto.getCategoryId()));
+
+      pending.add(flashcard);
+      if (pending.size() == BATCH_FLUSH_SIZE) {
+        flushAndDetach(pending);
+      }
+    }
+    flushAndDetach(pending);
+    addToFlashcardCounts(
+        created.stream()
+            .collect(Collectors.groupingBy(FlashcardDto::getCategoryId, Collectors.counting())));
+    searchIndex.putAfterCommit(created);
+    reviewQueue.putAfterCommit(created);
+    sampler.putAfterCommit(created);
+    answerPools.putAfterCommit(created);
+    dataVersions.flashcardsChanged();
+    return new FlashcardBatchResultDto(results);
+  }
+
+  /**
+   * Envoie les insertions en attente puis détache les flashcards envoyées, sans toucher aux autres
+   * entités du contexte de persistance.
+   *
+   * @param flashcards flashcards persistées depuis le dernier envoi, vidée au retour
+   */
+  private void flushAndDetach(final List<Flashcard> flashcards) {
+    entityManager.flush();
+    flashcards.forEach(entityManager::detach);
+    flashcards.clear();
+  }
+
+  /**
+   * Met à jour une flashcard existante. Si elle change de catégorie, les nombres de flashcards des
+   * deux catégories sont ajustés dans la même transaction.
    *
    * @param id identifiant de la flashcard à mettre à jour
    * @param flashcard nouvelles informations à appliquer
    * @return la flashcard mise à jour
    * @throws RuntimeException si la flashcard n'existe pas
    */
+  @Transactional
   public Flashcard updateFlashcard(final Long id, final Flashcard flashcard) {
     return flashcardRepository
         .findById(id)
         .map(
             f -> {
+              final Long previousCategoryId = categoryIdOf(f);
               f.setQuestion(flashcard.getQuestion());
               f.setAnswer(flashcard.getAnswer());
               f.setCategory(flashcard.getCategory());
-              return flashcardRepository.save(f);
+              final Flashcard saved = flashcardRepository.save(f);
+              final FlashcardDto dto = FlashcardMapper.toDto(saved);
+              if (!Objects.equals(previousCategoryId, dto.getCategoryId())) {
+                final Map<Long, Long> deltas = new HashMap<>();
+                deltas.merge(previousCategoryId, -1L, Long::sum);
+                deltas.merge(dto.getCategoryId(), 1L, Long::sum);
+                addToFlashcardCounts(deltas);
+              }
+              AfterCommit.run(
+                  () -> {
+                    searchIndex.put(dto);
+                    reviewQueue.put(dto);
+                    sampler.put(dto);
+                    answerPools.put(dto);
+                  });
+              dataVersions.flashcardsChanged();
+              return saved;
             })
         .orElseThrow(() -> new RuntimeException("Flashcard not found"));
   }
 
   /**
-   * Supprime une flashcard selon son identifiant.
+   * Met à jour partiellement une flashcard par une seule instruction {@code UPDATE ... WHERE id = ?
+   * [AND version = ?]}, sans charger l'entité : seuls les champs renseignés de {@code changes} sont
+   * modifiés.
+   *
+   * <p>Un changement de catégorie lit d'abord la catégorie actuelle en verrouillant la ligne
+   * (projection sur une colonne, {@code for update}), pour reporter le nombre de flashcards des
+   * deux catégories : deux mises à jour concurrentes se succèdent et la seconde voit la catégorie
+   * posée par la première.
+   *
+   * @param id identifiant de la flashcard
+   * @param changes champs à modifier, {@code null} pour ceux qui restent inchangés
+   * @param expectedVersion version attendue ({@code If-Match}), ou {@code null} pour ne pas la
+   *     vérifier
+   * @return {@code false} si la flashcard n'existe pas
+   * @throws IllegalArgumentException si aucun champ n'est renseigné ou si un texte est vide
+   * @throws OptimisticLockingFailureException si la flashcard a changé de version
+   */
+  @Transactional
+  public boolean patchFlashcard(
+      final Long id, final FlashcardDto changes, final Long expectedVersion) {
+    if (changes == null
+        || changes.getQuestion() == null
+            && changes.getAnswer() == null
+            && changes.getCategoryId() == null) {
+      throw new IllegalArgumentException("Nothing to update");
+    }
+    if (isBlankIfPresent(changes.getQuestion()) || isBlankIfPresent(changes.getAnswer())) {
+      throw new IllegalArgumentException("Question and answer must not be blank");
+    }
+    final Long categoryId = changes.getCategoryId();
+    final Long previousCategoryId =
+        categoryId != null ? flashcardRepository.findCategoryIdForUpdate(id).orElse(null) : null;
+    final int updated =
+        flashcardRepository.patch(
+            id, changes.getQuestion(), changes.getAnswer(), categoryId, expectedVersion);
+    if (updated == 0) {
+      if (!flashcardRepository.existsById(id)) {
+        return false;
+      }
+      throw new OptimisticLockingFailureException("Flashcard " + id + " has a newer version");
+    }
+    if (categoryId != null && !Objects.equals(previousCategoryId, categoryId)) {
+      final Map<Long, Long> deltas = new HashMap<>();
+      deltas.merge(previousCategoryId, -1L, Long::sum);
+      deltas.merge(categoryId, 1L, Long::sum);
+      addToFlashcardCounts(deltas);
+    }
+    final FlashcardDto patch =
+        new FlashcardDto(id, changes.getQuestion(), changes.getAnswer(), categoryId);
+    AfterCommit.run(
+        () -> {
+          searchIndex.patch(patch);
+          reviewQueue.put(patch);
+          sampler.put(patch);
+          answerPools.put(patch);
+        });
+    dataVersions.flashcardsChanged();
+    return true;
+  }
+
+  /**
+   * Supprime une flashcard selon son identifiant et décrémente le nombre de flashcards de sa
+   * catégorie, dans la même transaction. Sans effet, version de la collection comprise, si la
+   * flashcard n'existe pas.
    *
    * @param id identifiant de la flashcard à supprimer
    */
+  @Transactional
   public void deleteFlashcard(final Long id) {
-    flashcardRepository.deleteById(id);
+    final Optional<Flashcard> existing = flashcardRepository.findById(id);
+    if (existing.isEmpty()) {
+      return;
+    }
+    final Long categoryId = categoryIdOf(existing.get());
+    flashcardRepository.delete(existing.get());
+    addToFlashcardCounts(Collections.singletonMap(categoryId, -1L));
+    AfterCommit.run(
+        () -> {
+          searchIndex.remove(id);
+          reviewQueue.remove(id);
+          sampler.remove(id);
+          answerPools.remove(id);
+        });
+    dataVersions.flashcardsChanged();
+  }
+
+  /**
+   * Applique des variations du nombre de flashcards par catégorie, par ordre d'identifiant pour que
+   * deux transactions concurrentes verrouillent les lignes dans le même ordre. Seules les
+   * catégories modifiées sont retirées du cache de second niveau ; les versions des catégories
+   * (ETag, instantané de la liste) sont incrémentées après validation.
+   *
+   * @param deltas variation par identifiant de catégorie ; clés {@code null} et variations nulles
+   *     ignorées
+   */
+  private void addToFlashcardCounts(final Map<Long, Long> deltas) {
+    final Map<Long, Long> ordered = new TreeMap<>();
+    deltas.forEach(
+        (categoryId, delta) -> {
+          if (categoryId != null && delta != null && delta != 0) {
+            ordered.put(categoryId, delta);
+          }
+        });
+    if (ordered.isEmpty()) {
+      return;
+    }
+    ordered.forEach(categoryRepository::addToFlashcardCount);
+    categoryCaches.countsChanged(ordered.keySet());
+    dataVersions.categoriesChanged();
+  }
+
+  private static Long categoryIdOf(final Flashcard flashcard) {
+    final Category category = flashcard.getCategory();
+    return category != null ? category.getId() : null;
+  }
+
+  /**
+   * Encode l'identifiant de la dernière flashcard lue en curseur opaque.
+   *
+   * @param lastId identifiant de la dernière flashcard de la page
+   * @return curseur encodé en Base64 URL
+   */
+  static String encodeCursor(final long lastId) {
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /**
+   * Décode un curseur opaque en identifiant de départ.
+   *
+   * @param cursor curseur reçu du client, ou {@code null}
+   * @return identifiant après lequel reprendre la lecture ({@code 0} pour la première page)
+   * @throws IllegalArgumentException si le curseur est mal formé
+   */
+  static long decodeCursor(final String cursor) {
+    if (cursor == null || cursor.isBlank()) {
+      return 0L;
+    }
+    try {
+      final String decoded =
+          new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+      final long afterId = Long.parseLong(decoded);
+      if (afterId < 0) {
+        throw new IllegalArgumentException("Invalid cursor");
+      }
+      return afterId;
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor", e);
+    }
+  }
+
+  /**
+   * Vérifie qu'un élément d'import par lot peut être inséré.
+   *
+   * @param dto élément à vérifier
+   * @param categories catégories existantes indexées par identifiant
+   * @return le motif de rejet, ou {@code null} si l'élément est valide
+   */
+  private static String validateBatchItem(
+      final FlashcardDto dto, final Map<Long, Category> categories) {
+    if (dto == null) {
+      return "Flashcard is required";
+    }
+    if (dto.getQuestion() == null || dto.getQuestion().isBlank()) {
+      return "Question is required";
+    }
+    if (dto.getAnswer() == null || dto.getAnswer().isBlank()) {
+      return "Answer is required";
+    }
+    if (dto.getCategoryId() == null) {
+      return "Category is required";
+    }
+    if (!categories.containsKey(dto.getCategoryId())) {
+      return "Category not found";
+    }
+    return null;
+  }
+
+  private static boolean isBlankIfPresent(final String value) {
+    return value != null && value.isBlank();
   }
 }
@@ -0,0 +1,90 @@
+package com.example.flashcards.service;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aligne au démarrage les séquences d'identifiants {@code category_seq} et {@code flashcard_seq}
+ * sur le plus grand identifiant existant (PostgreSQL uniquement).
+ *
+ * <p>{@code ddl-auto=update} crée les séquences à partir de 1 : sur une base déjà remplie, les
+ * premiers identifiants alloués entreraient en collision avec les lignes existantes. La séquence
+ * n'est avancée que si elle peut encore rendre un identifiant déjà utilisé ; une séquence saine
+ * n'est jamais modifiée, ce qui rend l'opération idempotente et sans effet sur les autres
+ * instances.
+ *
+ * <p>Exécuté à l'initialisation du contexte, après la mise à jour du schéma par Hibernate et avant
+ * l'ouverture du port HTTP, y compris avec l'initialisation paresseuse des beans. Désactivé par
+ * {@code flashcards.id-sequences.align=false} (démarrage d'entraînement AppCDS, sans base).
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@DependsOn("entityManagerFactory")
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects immutable JdbcTemplate bean safely")
+public class IdSequenceInitializer {
+
+  /** Tables dont l'identifiant vient d'une séquence {@code <table>_seq}. */
+  static final List<String> TABLES = List.of("category", "flashcard");
+
+  /**
+   * Avance la séquence au plus grand identifiant de la table, seulement si le prochain bloc alloué
+   * par l'optimiseur pooled (incrément 50) pourrait contenir un identifiant existant. Une séquence
+   * jamais appelée rend d'abord {@code last_value} lui-même, d'où le seuil abaissé d'un incrément.
+   */
+  private static final String ALIGN =
+      """
+      select setval('%1$s_seq', t.max_id) \
+      from (select max(id) as max_id from %1$s) t, %1$s_seq s \
+      where t.max_id > case when s.is_called then s.last_value else s.last_value - 50 end\
+      """;
+
+  /** Accès JDBC. */
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Alignement activé. */
+  private final boolean enabled;
+
+  /**
+   * Constructeur.
+   *
+   * @param jdbcTemplate accès JDBC
+   * @param enabled {@code false} pour ne pas toucher aux séquences
+   */
+  public IdSequenceInitializer(
+      final JdbcTemplate jdbcTemplate,
+      @Value("${flashcards.id-sequences.align:true}") final boolean enabled) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.enabled = enabled;
+  }
+
+  /** Aligne les séquences si la base est PostgreSQL. */
+  @PostConstruct
+  public void alignSequences() {
+    if (!enabled) {
+      return;
+    }
+    final String product =
+        jdbcTemplate.execute(
+            (ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+    if (!"PostgreSQL".equals(product)) {
+      return;
+    }
+    for (String table : TABLES) {
+      final List<Long> aligned = jdbcTemplate.queryForList(ALIGN.formatted(table), Long.class);
+      if (!aligned.isEmpty()) {
+        log.warn("Sequence {}_seq moved to {}, past the existing ids", table, aligned.get(0));
+      }
+    }
+  }
+}
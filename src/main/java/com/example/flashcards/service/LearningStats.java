@@ -0,0 +1,618 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.LearningStatsDto;
+import com.example.flashcards.entity.ReviewStats;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Statistiques de révision cumulées par flashcard et par catégorie : nombre de révisions, taux de
+ * réussite, temps de réponse moyen et nombre d'oublis.
+ *
+ * <p>Les compteurs sont tenus en mémoire dans des tables à clé {@code long} (adressage ouvert,
+ * compteurs dans des tableaux {@code long[]}), incrémentés en O(1) à chaque révision validée et lus
+ * en O(1), sans {@code GROUP BY} sur le journal des révisions.
+ *
+ * <p>Au démarrage, les compteurs sont chargés depuis la table {@code review_stats}. Toutes les
+ * {@code flashcards.learning-stats.checkpoint-interval}, et à l'arrêt, les révisions reçues depuis
+ * le point de reprise précédent y sont ajoutées ({@code UPDATE ... SET reviews = reviews + ?}, puis
+ * {@code INSERT} des lignes manquantes) en une transaction ; en cas d'échec elles restent en
+ * attente pour le point suivant. Les compteurs des catégories sont ensuite relus, ce qui y fait
+ * apparaître les révisions des autres instances ; ceux des flashcards ne sont relus qu'au
+ * démarrage.
+ *
+ * <p>La suppression d'une catégorie ou de flashcards purge leurs lignes dans la transaction qui
+ * les supprime, puis leurs compteurs en mémoire après sa validation.
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects singleton beans safely")
+public class LearningStats {
+
+  /** Ajout des révisions d'un point de reprise à une ligne existante. */
+  static final String UPDATE =
+      "update review_stats set reviews = reviews + ?, passed = passed + ?, lapses = lapses + ?,"
+          + " timed_reviews = timed_reviews + ?, response_ms = response_ms + ?"
+          + " where scope = ? and target_id = ?";
+
+  /** Création d'une ligne. */
+  static final String INSERT =
+      "insert into review_stats (reviews, passed, lapses, timed_reviews, response_ms, scope,"
+          + " target_id) values (?, ?, ?, ?, ?, ?, ?)";
+
+  /** Lecture des compteurs. */
+  static final String SELECT =
+      "select scope, target_id, reviews, passed, lapses, timed_reviews, response_ms"
+          + " from review_stats";
+
+  /** Suppression des lignes des flashcards et des catégories d'un sous-arbre de catégories. */
+  static final String DELETE_SUBTREE =
+      "delete from review_stats where (scope = ? and target_id in (select f.id from flashcard f"
+          + " join category c on c.id = f.category_id where c.path like ?))"
+          + " or (scope = ? and target_id in (select id from category where path like ?))";
+
+  /** Suppression de la ligne d'une flashcard. */
+  static final String DELETE_FLASHCARD =
+      "delete from review_stats where scope = ? and target_id = ?";
+
+  /** Nombre de lignes lues ou écrites par aller-retour. */
+  private static final int BATCH_SIZE = 1000;
+
+  /** Accès JDBC pour le chargement et les points de reprise. */
+  private final JdbcTemplate jdbcTemplate;
+
+  /** Une transaction par point de reprise. */
+  private final TransactionTemplate transactionTemplate;
+
+  /** Verrou protégeant les compteurs ; les lectures ne prennent que la lecture. */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** Compteurs par flashcard. */
+  private final Counters cards = new Counters();
+
+  /** Compteurs par catégorie. */
+  private final Counters categories = new Counters();
+
+  /** Indique si le chargement initial est terminé. */
+  private volatile boolean ready;
+
+  /**
+   * Révisions d'une flashcard ou d'une catégorie à reporter en base.
+   *
+   * @param scope portée de la ligne
+   * @param id identifiant de la flashcard ou de la catégorie
+   * @param values compteurs à ajouter
+   */
+  private record Delta(short scope, long id, long[] values) {}
+
+  /**
+   * Constructeur avec injection des accès à la base.
+   *
+   * @param jdbcTemplate accès JDBC
+   * @param transactionManager gestionnaire de transactions
+   */
+  @Autowired
+  public LearningStats(
+      final JdbcTemplate jdbcTemplate, final PlatformTransactionManager transactionManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Charge les compteurs depuis la base une fois l'application démarrée. Les révisions reçues
+   * pendant le chargement s'y ajoutent.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void load() {
+    final long start = System.nanoTime();
+    final long[] count = new long[1];
+    transactionTemplate.executeWithoutResult(
+        s ->
+            jdbcTemplate.query(
+                SELECT,
+                ps -> ps.setFetchSize(BATCH_SIZE),
+                (RowCallbackHandler)
+                    rs -> {
+                      final short scope = rs.getShort(1);
+                      final long id = rs.getLong(2);
+                      final long[] values = values(rs);
+                      lock.writeLock().lock();
+                      try {
+                        counters(scope).add(id, values, false);
+                      } finally {
+                        lock.writeLock().unlock();
+                      }
+                      count[0]++;
+                    }));
+    ready = true;
+    log.info(
+        "Learning stats loaded: {} rows in {} ms",
+        count[0],
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Indique si les statistiques peuvent être servies.
+   *
+   * @return {@code true} une fois le chargement initial terminé
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Compte une révision pour sa flashcard et sa catégorie.
+   *
+   * @param event révision validée
+   */
+  public void record(final ReviewEventLog.Event event) {
+    final boolean timed = event.responseMs() != null;
+    final long[] delta = {
+      1,
+      event.grade() >= ReviewService.PASSING_GRADE ? 1 : 0,
+      event.lapse() ? 1 : 0,
+      timed ? 1 : 0,
+      timed ? event.responseMs() : 0
+    };
+    lock.writeLock().lock();
+    try {
+      cards.add(event.flashcardId(), delta, true);
+      if (event.categoryId() != null) {
+        categories.add(event.categoryId(), delta, true);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Compte une révision après la validation de la transaction courante, ou immédiatement s'il n'y
+   * en a pas.
+   *
+   * @param event révision enregistrée
+   */
+  public void recordAfterCommit(final ReviewEventLog.Event event) {
+    AfterCommit.run(() -> record(event));
+  }
+
+  /**
+   * Supprime, dans la transaction courante, les statistiques d'un sous-arbre de catégories et de
+   * leurs flashcards, à appeler avant la suppression de ces lignes. Les compteurs en mémoire sont
+   * retirés après la validation.
+   *
+   * @param pattern motif {@code chemin%} de la catégorie racine
+   * @param categoryIds catégories du sous-arbre
+   * @param flashcardIds flashcards de ces catégories
+   */
+  public void deleteSubtree(
+      final String pattern,
+      final Collection<Long> categoryIds,
+      final Collection<Long> flashcardIds) {
+    jdbcTemplate.update(
+        DELETE_SUBTREE,
+        ReviewStats.SCOPE_FLASHCARD,
+        pattern,
+        ReviewStats.SCOPE_CATEGORY,
+        pattern);
+    final List<Long> categories = List.copyOf(categoryIds);
+    final List<Long> flashcards = List.copyOf(flashcardIds);
+    AfterCommit.run(() -> forget(categories, flashcards));
+  }
+
+  /**
+   * Supprime, dans la transaction courante, les statistiques de flashcards supprimées. Les
+   * compteurs en mémoire sont retirés après la validation.
+   *
+   * @param flashcardIds identifiants des flashcards
+   */
+  public void deleteFlashcards(final Collection<Long> flashcardIds) {
+    final List<Long> flashcards = List.copyOf(flashcardIds);
+    jdbcTemplate.batchUpdate(
+        DELETE_FLASHCARD,
+        flashcards,
+        BATCH_SIZE,
+        (ps, id) -> {
+          ps.setShort(1, ReviewStats.SCOPE_FLASHCARD);
+          ps.setLong(2, id);
+        });
+    AfterCommit.run(() -> forget(List.of(), flashcards));
+  }
+
+  /**
+   * Donne les statistiques d'une flashcard.
+   *
+   * @param flashcardId identifiant de la flashcard
+   * @return les statistiques, à zéro si elle n'a jamais été révisée
+   */
+  public LearningStatsDto flashcard(final long flashcardId) {
+    return get(cards, flashcardId);
+  }
+
+  /**
+   * Donne les statistiques d'une catégorie, sans ses sous-catégories.
+   *
+   * @param categoryId identifiant de la catégorie
+   * @return les statistiques, à zéro si aucune de ses flashcards n'a été révisée
+   */
+  public LearningStatsDto category(final long categoryId) {
+    return get(categories, categoryId);
+  }
+
+  /**
+   * Reporte en base les révisions reçues depuis le point de reprise précédent, puis relit les
+   * compteurs des catégories.
+   */
+  @Scheduled(
+      fixedDelayString = "${flashcards.learning-stats.checkpoint-interval:PT1M}",
+      initialDelayString = "${flashcards.learning-stats.checkpoint-interval:PT1M}")
+  @PreDestroy
+  public synchronized void checkpoint() {
+    if (!ready) {
+      return;
+    }
+    final List<Delta> deltas = new ArrayList<>();
+    lock.writeLock().lock();
+    try {
+      cards.drainPending(ReviewStats.SCOPE_FLASHCARD, deltas);
+      categories.drainPending(ReviewStats.SCOPE_CATEGORY, deltas);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    try {
+      if (!deltas.isEmpty()) {
+        transactionTemplate.executeWithoutResult(s -> write(deltas));
+      }
+    } catch (DataAccessException | TransactionException e) {
+      lock.writeLock().lock();
+      try {
+        deltas.forEach(d -> counters(d.scope()).restore(d.id(), d.values()));
+      } finally {
+        lock.writeLock().unlock();
+      }
+      log.warn("Learning stats checkpoint failed, {} rows kept for the next one", deltas.size(), e);
+      return;
+    }
+    try {
+      refreshCategories();
+    } catch (DataAccessException e) {
+      log.warn("Learning stats of categories not refreshed", e);
+    }
+  }
+
+  private void write(final List<Delta> deltas) {
+    final int[][] updated =
+        jdbcTemplate.batchUpdate(UPDATE, deltas, BATCH_SIZE, LearningStats::bind);
+    final List<Delta> missing = new ArrayList<>();
+    int i = 0;
+    for (int[] chunk : updated) {
+      for (int rows : chunk) {
+        if (rows == 0) {
+          missing.add(deltas.get(i));
+        }
+        i++;
+      }
+    }
+    if (!missing.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT, missing, BATCH_SIZE, LearningStats::bind);
+    }
+  }
+
+  private void refreshCategories() {
+    final Map<Long, long[]> rows = new HashMap<>();
+    jdbcTemplate.query(
+        SELECT + " where scope = ?",
+        (RowCallbackHandler) rs -> rows.put(rs.getLong(2), values(rs)),
+        ReviewStats.SCOPE_CATEGORY);
+    lock.writeLock().lock();
+    try {
+      categories.reset(rows);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void forget(final Collection<Long> categoryIds, final Collection<Long> flashcardIds) {
+    lock.writeLock().lock();
+    try {
+      categories.remove(categoryIds);
+      cards.remove(flashcardIds);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private LearningStatsDto get(final Counters counters, final long id) {
+    final long[] v;
+    lock.readLock().lock();
+    try {
+      v = counters.get(id);
+    } finally {
+      lock.readLock().unlock();
+    }
+    return new LearningStatsDto(
+        id,
+        v[Counters.REVIEWS],
+        v[Counters.REVIEWS] == 0 ? null : (double) v[Counters.PASSED] / v[Counters.REVIEWS],
+        v[Counters.TIMED] == 0 ? null : (double) v[Counters.RESPONSE_MS] / v[Counters.TIMED],
+        v[Counters.LAPSES]);
+  }
+
+  private Counters counters(final short scope) {
+    return scope == ReviewStats.SCOPE_CATEGORY ? categories : cards;
+  }
+
+  private static long[] values(final ResultSet rs) throws SQLException {
+    final long[] values = new long[Counters.FIELDS];
+    for (int f = 0; f < Counters.FIELDS; f++) {
+      values[f] = rs.getLong(3 + f);
+    }
+    return values;
+  }
+
+  private static void bind(final PreparedStatement ps, final Delta delta) throws SQLException {
+    for (int f = 0; f < Counters.FIELDS; f++) {
+      ps.setLong(1 + f, delta.values()[f]);
+    }
+    ps.setShort(Counters.FIELDS + 1, delta.scope());
+    ps.setLong(Counters.FIELDS + 2, delta.id());
+  }
+
+  /**
+   * Compteurs indexés par identifiant : table de hachage à adressage ouvert de {@code long} vers un
+   * rang, et compteurs rangés par rang dans des tableaux {@code long[]} (totaux, et part non encore
+   * reportée en base). Un identifiant n'est retiré qu'à la suppression de sa flashcard ou de sa
+   * catégorie, par un compactage de toute la table.
+   */
+  static final class Counters {
+
+    /** Rang du nombre de révisions dans les compteurs d'un identifiant. */
+    static final int REVIEWS = 0;
+
+    /** Rang du nombre de révisions réussies. */
+    static final int PASSED = 1;
+
+    /** Rang du nombre d'oublis. */
+    static final int LAPSES = 2;
+
+    /** Rang du nombre de révisions chronométrées. */
+    static final int TIMED = 3;
+
+    /** Rang de la somme des temps de réponse. */
+    static final int RESPONSE_MS = 4;
+
+    /** Nombre de compteurs par identifiant. */
+    static final int FIELDS = 5;
+
+    /** Identifiants, par case de la table de hachage. */
+    private long[] keys = new long[16];
+
+    /** Rang + 1 de l'identifiant de chaque case, 0 si la case est vide. */
+    private int[] ranks = new int[16];
+
+    /** Identifiant de chaque rang. */
+    private long[] ids = new long[8];
+
+    /** Totaux, {@link #FIELDS} par rang. */
+    private long[] totals = new long[8 * FIELDS];
+
+    /** Part des totaux non encore reportée en base, {@link #FIELDS} par rang. */
+    private long[] pending = new long[8 * FIELDS];
+
+    /** Rangs ayant une part non reportée. */
+    private int[] dirty = new int[8];
+
+    /** Indique pour chaque rang s'il figure dans {@link #dirty}. */
+    private boolean[] isDirty = new boolean[8];
+
+    /** Nombre de rangs dans {@link #dirty}. */
+    private int dirtyCount;
+
+    /** Nombre d'identifiants. */
+    private int size;
+
+    /**
+     * Ajoute des compteurs à un identifiant.
+     *
+     * @param id identifiant
+     * @param delta compteurs à ajouter
+     * @param unsaved {@code true} s'ils restent à reporter en base
+     */
+    void add(final long id, final long[] delta, final boolean unsaved) {
+      final int base = rankOrCreate(id) * FIELDS;
+      for (int f = 0; f < FIELDS; f++) {
+        totals[base + f] += delta[f];
+      }
+      if (unsaved) {
+        restore(id, delta);
+      }
+    }
+
+    /**
+     * Remet en attente des compteurs déjà comptés dans les totaux (report en base échoué).
+     *
+     * @param id identifiant
+     * @param delta compteurs à reporter
+     */
+    void restore(final long id, final long[] delta) {
+      final int rank = rankOrCreate(id);
+      final int base = rank * FIELDS;
+      for (int f = 0; f < FIELDS; f++) {
+        pending[base + f] += delta[f];
+      }
+      if (!isDirty[rank]) {
+        isDirty[rank] = true;
+        dirty[dirtyCount++] = rank;
+      }
+    }
+
+    /**
+     * Donne les totaux d'un identifiant.
+     *
+     * @param id identifiant
+     * @return copie des totaux, à zéro si l'identifiant est inconnu
+     */
+    long[] get(final long id) {
+      final int rank = rank(id);
+      return rank < 0
+          ? new long[FIELDS]
+          : Arrays.copyOfRange(totals, rank * FIELDS, (rank + 1) * FIELDS);
+    }
+
+    /**
+     * Retire les parts non reportées.
+     *
+     * @param scope portée des lignes
+     * @param out liste complétée des parts retirées
+     */
+    void drainPending(final short scope, final List<Delta> out) {
+      for (int i = 0; i < dirtyCount; i++) {
+        final int rank = dirty[i];
+        final int base = rank * FIELDS;
+        out.add(new Delta(scope, ids[rank], Arrays.copyOfRange(pending, base, base + FIELDS)));
+        Arrays.fill(pending, base, base + FIELDS, 0);
+        isDirty[rank] = false;
+      }
+      dirtyCount = 0;
+    }
+
+    /**
+     * Remplace les totaux par les valeurs en base plus les parts non encore reportées.
+     *
+     * @param saved compteurs en base, par identifiant
+     */
+    void reset(final Map<Long, long[]> saved) {
+      System.arraycopy(pending, 0, totals, 0, size * FIELDS);
+      saved.forEach((id, values) -> add(id, values, false));
+    }
+
+    /**
+     * Retire des identifiants, leurs totaux et leur part non reportée, puis reconstruit la table.
+     *
+     * @param removed identifiants à retirer
+     */
+    void remove(final Collection<Long> removed) {
+      if (removed.isEmpty()) {
+        return;
+      }
+      final Set<Long> gone = new HashSet<>(removed);
+      int kept = 0;
+      for (int rank = 0; rank < size; rank++) {
+        if (gone.contains(ids[rank])) {
+          continue;
+        }
+        if (kept != rank) {
+          ids[kept] = ids[rank];
+          System.arraycopy(totals, rank * FIELDS, totals, kept * FIELDS, FIELDS);
+          System.arraycopy(pending, rank * FIELDS, pending, kept * FIELDS, FIELDS);
+        }
+        kept++;
+      }
+      Arrays.fill(totals, kept * FIELDS, size * FIELDS, 0);
+      Arrays.fill(pending, kept * FIELDS, size * FIELDS, 0);
+      size = kept;
+      Arrays.fill(isDirty, false);
+      dirtyCount = 0;
+      for (int rank = 0; rank < size; rank++) {
+        for (int f = 0; f < FIELDS; f++) {
+          if (pending[rank * FIELDS + f] != 0) {
+            isDirty[rank] = true;
+            dirty[dirtyCount++] = rank;
+            break;
+          }
+        }
+      }
+      rehash(keys.length);
+    }
+
+    /**
+     * Nombre d'identifiants connus.
+     *
+     * @return taille de la table
+     */
+    int size() {
+      return size;
+    }
+
+    private int rank(final long id) {
+      final int mask = keys.length - 1;
+      for (int slot = hash(id) & mask; ranks[slot] != 0; slot = (slot + 1) & mask) {
+        if (keys[slot] == id) {
+          return ranks[slot] - 1;
+        }
+      }
+      return -1;
+    }
+
+    private int rankOrCreate(final long id) {
+      final int existing = rank(id);
+      if (existing >= 0) {
+        return existing;
+      }
+      if (size == ids.length) {
+        final int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        totals = Arrays.copyOf(totals, capacity * FIELDS);
+        pending = Arrays.copyOf(pending, capacity * FIELDS);
+        dirty = Arrays.copyOf(dirty, capacity);
+        isDirty = Arrays.copyOf(isDirty, capacity);
+        rehash(capacity * 2);
+      }
+      final int rank = size++;
+      ids[rank] = id;
+      insert(id, rank);
+      return rank;
+    }
+
+    private void rehash(final int capacity) {
+      keys = new long[capacity];
+      ranks = new int[capacity];
+      for (int rank = 0; rank < size; rank++) {
+        insert(ids[rank], rank);
+      }
+    }
+
+    private void insert(final long id, final int rank) {
+      final int mask = keys.length - 1;
+      int slot = hash(id) & mask;
+      while (ranks[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = id;
+      ranks[slot] = rank + 1;
+    }
+
+    private static int hash(final long id) {
+      final long h = id * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.example.flashcards.service;
+
+import java.util.Locale;
+
+/**
+ * Construction des motifs {@code LIKE} utilisés par les recherches textuelles.
+ *
+ * <p>Les caractères spéciaux ({@code %}, {@code _} et le caractère d'échappement {@code \}) sont
+ * échappés pour être cherchés littéralement.
+ */
+final class LikePatterns {
+
+  /**
+   * Constructeur privé pour empêcher l'instanciation. Nécessaire pour respecter la règle Checkstyle
+   * "HideUtilityClassConstructorCheck".
+   */
+  private LikePatterns() {
+    // Constructeur vide intentionnellement.
+  }
+
+  /**
+   * Normalise un terme de recherche : espaces retirés, minuscules.
+   *
+   * @param text texte saisi, éventuellement {@code null}
+   * @return terme normalisé (vide si {@code null})
+   */
+  static String term(final String text) {
+    return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Motif « contient ».
+   *
+   * @param term terme normalisé
+   * @return motif {@code %term%} échappé
+   */
+  static String contains(final String term) {
+    return "%" + escape(term) + "%";
+  }
+
+  /**
+   * Motif « commence par ».
+   *
+   * @param term terme normalisé
+   * @return motif {@code term%} échappé
+   */
+  static String startsWith(final String term) {
+    return escape(term) + "%";
+  }
+
+  private static String escape(final String term) {
+    return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
@@ -0,0 +1,78 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.config.MetricsConfig;
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.dto.QuizQuestionDto;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.annotation.Timed;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Génération de quiz à choix multiples.
+ *
+ * <p>Les flashcards sont tirées par {@link FlashcardService#randomFlashcards(Long, int)} (une seule
+ * requête sur la table {@code flashcard}) et les mauvaises options viennent de {@link AnswerPools},
+ * en mémoire : la taille du quiz ne change pas le nombre de requêtes.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@RequiredArgsConstructor
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects singleton beans safely")
+public class QuizService {
+
+  /** Nombre de questions par défaut. */
+  public static final int DEFAULT_QUESTIONS = 10;
+
+  /** Nombre d'options par question par défaut. */
+  public static final int DEFAULT_OPTIONS = 4;
+
+  /** Nombre maximal d'options par question. */
+  public static final int MAX_OPTIONS = 8;
+
+  /** Tirage des flashcards interrogées. */
+  private final FlashcardService flashcardService;
+
+  /** Réponses de chaque catégorie, où puiser les distracteurs. */
+  private final AnswerPools answerPools;
+
+  /**
+   * Compose un quiz à choix multiples.
+   *
+   * @param categoryId catégorie interrogée (sans ses sous-catégories), ou {@code null} pour tout le
+   *     paquet ; les distracteurs viennent toujours de la catégorie de chaque flashcard
+   * @param questions nombre de questions, borné à [1, {@link FlashcardService#MAX_RANDOM_SIZE}]
+   * @param options nombre d'options par question, borné à [2, {@link #MAX_OPTIONS}] ; moins si la
+   *     catégorie n'a pas assez de réponses distinctes
+   * @return les questions, vide si la catégorie n'a pas de flashcard
+   * @throws IllegalStateException si les réserves sont en cours de chargement
+   */
+  @Transactional(readOnly = true)
+  public List<QuizQuestionDto> quiz(final Long categoryId, final int questions, final int options) {
+    if (!answerPools.isReady()) {
+      throw new IllegalStateException("Answer pools are not ready");
+    }
+    final int distractors = Math.max(2, Math.min(options, MAX_OPTIONS)) - 1;
+    final Random random = ThreadLocalRandom.current();
+    final List<QuizQuestionDto> quiz = new ArrayList<>();
+    for (FlashcardDto card : flashcardService.randomFlashcards(categoryId, questions)) {
+      final List<String> choices =
+          new ArrayList<>(
+              answerPools.distractors(card.getCategoryId(), card.getAnswer(), distractors, random));
+      choices.add(card.getAnswer());
+      Collections.shuffle(choices, random);
+      quiz.add(
+          new QuizQuestionDto(
+              card.getId(), card.getQuestion(), choices, choices.indexOf(card.getAnswer())));
+    }
+    return quiz;
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.flashcards.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Mises à jour reçues pendant la reconstruction d'une structure en mémoire.
+ *
+ * <p>La nouvelle structure est remplie à part, pendant que l'ancienne continue de servir les
+ * lectures et de recevoir les mises à jour validées. Chacune de ces mises à jour est aussi conservée
+ * ici, puis rejouée sur la nouvelle structure juste avant qu'elle ne remplace l'ancienne : une
+ * flashcard supprimée pendant la lecture de la table ne réapparaît pas, et une modification
+ * concurrente n'est pas écrasée par la ligne lue plus tôt.
+ *
+ * <p>Aucune méthode n'est synchronisée : la structure propriétaire les appelle sous le verrou qui
+ * protège ses mises à jour, et remplace son état sous ce même verrou.
+ *
+ * @param <S> état de la structure reconstruite
+ */
+final class RebuildBuffer<S> {
+
+  /** Mises à jour conservées, dans l'ordre, {@code null} hors reconstruction. */
+  private List<Consumer<S>> pending;
+
+  /** Commence à conserver les mises à jour ; celles d'une reconstruction abandonnée sont perdues. */
+  void start() {
+    pending = new ArrayList<>();
+  }
+
+  /**
+   * Applique une mise à jour à l'état en service, et la conserve si une reconstruction est en
+   * cours.
+   *
+   * @param current état en service
+   * @param update mise à jour, rejouable sur un autre état
+   */
+  void apply(final S current, final Consumer<S> update) {
+    update.accept(current);
+    if (pending != null) {
+      pending.add(update);
+    }
+  }
+
+  /**
+   * Rejoue sur le nouvel état les mises à jour conservées, puis cesse de les conserver.
+   *
+   * @param rebuilt état reconstruit, sur le point de remplacer l'état en service
+   */
+  void replay(final S rebuilt) {
+    if (pending != null) {
+      pending.forEach(update -> update.accept(rebuilt));
+    }
+    pending = null;
+  }
+
+  /** Abandonne la reconstruction en cours et les mises à jour conservées. */
+  void abort() {
+    pending = null;
+  }
+}
@@ -0,0 +1,338 @@
+package com.example.flashcards.service;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Journal des révisions : tampon circulaire borné en mémoire, vidé par lots dans la table {@code
+ * review_event} par un thread dédié.
+ *
+ * <p>Une révision validée est ajoutée au tampon sans toucher la base ; le thread d'écriture prend
+ * tout ce qui attend (au plus {@code flashcards.review-log.batch-size} révisions) et l'insère avec
+ * un seul {@code executeBatch}, dans une transaction, que le pilote PostgreSQL réécrit en {@code
+ * INSERT} multi-lignes ({@code reWriteBatchedInserts=true}). Sous faible charge chaque révision
+ * part aussitôt ; sous forte charge les lots grossissent d'eux-mêmes.
+ *
+ * <p>Quand le tampon est plein, {@link #hasCapacity()} le signale pour que les nouvelles révisions
+ * soient refusées (HTTP 503). Cette vérification précède la transaction de la révision : une
+ * révision validée entre-temps, ou pendant l'arrêt, ne trouve pas de place et est alors écrite
+ * directement par le thread de la requête, dans sa propre transaction. Une révision validée n'est
+ * donc jamais abandonnée faute de place ; seul un lot dont l'écriture échoue encore après quelques
+ * tentatives l'est. À l'arrêt, le tampon est vidé avant la fermeture de la base.
+ *
+ * <p>Métriques : {@code flashcards.review.events.queued} (révisions en attente), {@code
+ * flashcards.review.events.flush} (durée d'écriture d'un lot), {@code
+ * flashcards.review.events.batch} (taille des lots), {@code flashcards.review.events{result}}
+ * ({@code written}, {@code dropped}) et {@code flashcards.review.events.direct} (révisions écrites
+ * directement, tampon plein).
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects singleton beans safely")
+public class ReviewEventLog {
+
+  /** Requête d'insertion d'une révision. */
+  static final String INSERT =
+      "insert into review_event (flashcard_id, category_id, grade, lapse, response_ms,"
+          + " interval_days, ease, reviewed_at) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+  /** Nombre de tentatives d'écriture d'un lot avant de l'abandonner. */
+  private static final int MAX_ATTEMPTS = 3;
+
+  /** Attente entre deux tentatives, doublée à chaque échec. */
+  private static final long RETRY_BACKOFF_MS = 200;
+
+  /**
+   * Révision en attente d'écriture.
+   *
+   * @param flashcardId flashcard révisée
+   * @param categoryId catégorie de la flashcard
+   * @param grade note de la révision
+   * @param lapse {@code true} pour l'échec d'une flashcard déjà réussie
+   * @param responseMs temps de réponse en millisecondes, {@code null} s'il n'a pas été fourni
+   * @param intervalDays intervalle planifié, en jours
+   * @param ease facteur de facilité après la révision
+   * @param reviewedAt date de la révision
+   */
+  public record Event(
+      long flashcardId,
+      Long categoryId,
+      int grade,
+      boolean lapse,
+      Integer responseMs,
+      int intervalDays,
+      double ease,
+      Instant reviewedAt) {}
+
+  /** Accès JDBC pour les insertions par lot. */
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Une transaction par lot, toujours nouvelle : l'écriture directe a lieu après la validation de
+   * la transaction de la révision, dont les ressources sont encore liées au thread.
+   */
+  private final TransactionTemplate transactionTemplate;
+
+  /** Tampon circulaire des révisions en attente. */
+  private final BlockingQueue<Event> queue;
+
+  /** Nombre maximal de révisions par lot. */
+  private final int batchSize;
+
+  /** Attente maximale du vidage du tampon à l'arrêt. */
+  private final Duration shutdownTimeout;
+
+  /** Durée d'écriture des lots. */
+  private final Timer flushTimer;
+
+  /** Taille des lots écrits. */
+  private final DistributionSummary batchSizes;
+
+  /** Révisions écrites. */
+  private final Counter written;
+
+  /** Révisions abandonnées (lot en échec). */
+  private final Counter dropped;
+
+  /** Révisions écrites directement, faute de place dans le tampon. */
+  private final Counter direct;
+
+  /** Thread unique d'écriture. */
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          r -> {
+            final Thread thread = new Thread(r, "review-event-flush");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /** Passe à {@code false} à l'arrêt : le thread vide le tampon puis s'arrête. */
+  private volatile boolean running = true;
+
+  /**
+   * Constructeur avec injection des accès à la base et de la configuration.
+   *
+   * @param jdbcTemplate accès JDBC
+   * @param transactionManager gestionnaire de transactions
+   * @param meterRegistry registre Micrometer
+   * @param capacity nombre maximal de révisions en attente
+   * @param batchSize nombre maximal de révisions par lot
+   * @param shutdownTimeout attente maximale du vidage à l'arrêt
+   */
+  @Autowired
+  public ReviewEventLog(
+      final JdbcTemplate jdbcTemplate,
+      final PlatformTransactionManager transactionManager,
+      final MeterRegistry meterRegistry,
+      @Value("${flashcards.review-log.capacity:65536}") final int capacity,
+      @Value("${flashcards.review-log.batch-size:1000}") final int batchSize,
+      @Value("${flashcards.review-log.shutdown-timeout:10s}") final Duration shutdownTimeout) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+    this.batchSize = Math.max(1, batchSize);
+    this.shutdownTimeout = shutdownTimeout;
+    Gauge.builder("flashcards.review.events.queued", queue, BlockingQueue::size)
+        .description("Reviews waiting to be written to review_event")
+        .register(meterRegistry);
+    this.flushTimer =
+        Timer.builder("flashcards.review.events.flush")
+            .description("Time to write one batch of reviews")
+            .register(meterRegistry);
+    this.batchSizes =
+        DistributionSummary.builder("flashcards.review.events.batch")
+            .description("Reviews per written batch")
+            .register(meterRegistry);
+    this.written = counter(meterRegistry, "written");
+    this.dropped = counter(meterRegistry, "dropped");
+    this.direct =
+        Counter.builder("flashcards.review.events.direct")
+            .description("Reviews written by the request thread because the buffer was full")
+            .register(meterRegistry);
+  }
+
+  /** Démarre le thread d'écriture. */
+  @PostConstruct
+  public void start() {
+    executor.execute(this::drainLoop);
+  }
+
+  /**
+   * Indique si le tampon peut encore accepter une révision.
+   *
+   * @return {@code false} si le tampon est plein ou en cours d'arrêt
+   */
+  public boolean hasCapacity() {
+    return running && queue.remainingCapacity() > 0;
+  }
+
+  /**
+   * Ajoute une révision au tampon, sans attendre : si le tampon est plein ou en cours d'arrêt, la
+   * révision est écrite directement, dans une transaction à part.
+   *
+   * @param event révision validée
+   * @return {@code false} si la révision a été écrite directement
+   */
+  public boolean append(final Event event) {
+    if (running && queue.offer(event)) {
+      return true;
+    }
+    direct.increment();
+    log.debug("Review log full, review of flashcard {} written directly", event.flashcardId());
+    try {
+      flush(List.of(event));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      dropped.increment();
+      log.error("Interrupted, review of flashcard {} dropped", event.flashcardId());
+    }
+    return false;
+  }
+
+  /**
+   * Ajoute une révision au tampon après la validation de la transaction courante, ou immédiatement
+   * s'il n'y en a pas.
+   *
+   * @param event révision enregistrée
+   */
+  public void appendAfterCommit(final Event event) {
+    AfterCommit.run(() -> append(event));
+  }
+
+  /**
+   * Donne le nombre de révisions en attente d'écriture.
+   *
+   * @return taille du tampon
+   */
+  public int pending() {
+    return queue.size();
+  }
+
+  /**
+   * Arrête le thread d'écriture après avoir vidé le tampon, en attendant au plus {@code
+   * shutdown-timeout}.
+   */
+  @PreDestroy
+  public void shutdown() {
+    running = false;
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+        log.warn("Review log not drained at shutdown, {} reviews lost", queue.size());
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+    }
+  }
+
+  private void drainLoop() {
+    final List<Event> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        final Event first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        flush(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  /**
+   * Écrit un lot dans une transaction, avec quelques tentatives.
+   *
+   * @param batch révisions à écrire
+   * @throws InterruptedException si le thread est interrompu entre deux tentatives
+   */
+  void flush(final List<Event> batch) throws InterruptedException {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        flushTimer.record(() -> transactionTemplate.executeWithoutResult(s -> insert(batch)));
+        written.increment(batch.size());
+        batchSizes.record(batch.size());
+        return;
+      } catch (DataAccessException | TransactionException e) {
+        if (attempt >= MAX_ATTEMPTS) {
+          dropped.increment(batch.size());
+          log.error("Review log batch of {} reviews dropped", batch.size(), e);
+          return;
+        }
+        log.warn("Review log batch failed (attempt {}), retrying", attempt, e);
+        Thread.sleep(RETRY_BACKOFF_MS << (attempt - 1));
+      }
+    }
+  }
+
+  private void insert(final List<Event> batch) {
+    jdbcTemplate.batchUpdate(
+        INSERT,
+        batch,
+        batch.size(),
+        (ps, e) -> {
+          ps.setLong(1, e.flashcardId());
+          if (e.categoryId() == null) {
+            ps.setNull(2, Types.BIGINT);
+          } else {
+            ps.setLong(2, e.categoryId());
+          }
+          ps.setShort(3, (short) e.grade());
+          ps.setBoolean(4, e.lapse());
+          if (e.responseMs() == null) {
+            ps.setNull(5, Types.INTEGER);
+          } else {
+            ps.setInt(5, e.responseMs());
+          }
+          ps.setInt(6, e.intervalDays());
+          ps.setDouble(7, e.ease());
+          ps.setObject(8, e.reviewedAt().atOffset(ZoneOffset.UTC));
+        });
+  }
+
+  private static Counter counter(final MeterRegistry meterRegistry, final String result) {
+    return Counter.builder("flashcards.review.events")
+        .description("Reviews handled by the review log")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,354 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.dto.ReviewDueDto;
+import com.example.flashcards.repository.ReviewStateRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Files de révision en mémoire, une par catégorie, triées par échéance puis par identifiant.
+ *
+ * <p>Chaque file est un ensemble trié concurrent (skip list) : la prochaine flashcard due est lue
+ * en tête sans verrou, et replanifier une flashcard (retrait puis insertion) coûte O(log n). Une
+ * file globale, triée de la même façon, sert les demandes toutes catégories confondues sans
+ * parcourir les files de chaque catégorie. Les flashcards jamais révisées ont pour échéance {@link
+ * Instant#EPOCH} et passent donc en premier, dans l'ordre de création.
+ *
+ * <p>Une flashcard servie est réservée pendant {@code flashcards.review.lease} : les autres
+ * demandes passent à la suivante, si bien que plusieurs apprenants d'une même catégorie ne
+ * reçoivent pas la même flashcard. La réservation tombe quand la flashcard est notée (replanifiée),
+ * ou à son expiration, la flashcard reprenant alors sa place dans la file.
+ *
+ * <p>Les files sont construites au démarrage puis tenues à jour par {@link FlashcardService},
+ * {@link CategoryService} et {@link ReviewService}. Les mises à jour sont sérialisées entre elles,
+ * les lectures restent sans verrou. Une reconstruction remplit de nouvelles files à part et les
+ * substitue d'un bloc aux anciennes, après y avoir rejoué les mises à jour reçues entre temps
+ * ({@link RebuildBuffer}).
+ */
+@Slf4j
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects immutable repository beans safely")
+public class ReviewQueue {
+
+  /**
+   * Position d'une flashcard dans une file.
+   *
+   * @param dueAt échéance de révision
+   * @param flashcardId identifiant de la flashcard
+   */
+  private record Slot(Instant dueAt, long flashcardId) {}
+
+  /**
+   * Emplacement courant d'une flashcard.
+   *
+   * @param categoryId catégorie (donc file) de la flashcard
+   * @param slot position dans la file
+   */
+  private record Placement(long categoryId, Slot slot) {}
+
+  private static final Comparator<Slot> BY_DUE_DATE =
+      Comparator.comparing(Slot::dueAt).thenComparingLong(Slot::flashcardId);
+
+  /** Repository utilisé pour la construction initiale. */
+  private final ReviewStateRepository reviewStateRepository;
+
+  /** Verrou sérialisant les mises à jour des files ; les lectures n'en prennent pas. */
+  private final Lock writes = new ReentrantLock();
+
+  /** Mises à jour reçues pendant une reconstruction. */
+  private final RebuildBuffer<Queues> rebuilds = new RebuildBuffer<>();
+
+  /** Files en service. */
+  private volatile Queues queues = new Queues();
+
+  /** Fin de réservation des flashcards servies et pas encore notées. */
+  private final Map<Long, Instant> leases = new ConcurrentHashMap<>();
+
+  /** Durée de réservation d'une flashcard servie. */
+  @Value("${flashcards.review.lease:PT5M}")
+  private Duration lease = Duration.ofMinutes(5);
+
+  /** Indique si la construction initiale est terminée. */
+  private volatile boolean ready;
+
+  /**
+   * Construit les files à partir de la base une fois l'application démarrée. Les échéances sont
+   * lues sur le primaire : celles d'un réplica en retard resteraient en file jusqu'au redémarrage.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public synchronized void rebuild() {
+    final long start = System.nanoTime();
+    final Queues rebuilt = new Queues();
+    long count = 0;
+    // Les mises à jour sont conservées dès avant la requête : celles validées après sa lecture
+    // seront rejouées
+    update(rebuilds::start);
+    try (Stream<ReviewDueDto> rows = reviewStateRepository.streamDueDates()) {
+      final var it = rows.iterator();
+      while (it.hasNext()) {
+        final ReviewDueDto row = it.next();
+        if (row.getFlashcardId() != null && row.getCategoryId() != null) {
+          rebuilt.schedule(
+              row.getFlashcardId(),
+              row.getCategoryId(),
+              row.getDueAt() != null ? row.getDueAt() : Instant.EPOCH);
+        }
+        count++;
+      }
+      update(
+          () -> {
+            rebuilds.replay(rebuilt);
+            queues = rebuilt;
+          });
+    } finally {
+      update(rebuilds::abort);
+    }
+    ready = true;
+    log.info(
+        "Review queues built: {} cards in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Indique si les files peuvent servir les demandes.
+   *
+   * @return {@code true} une fois la construction initiale terminée
+   */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Place (ou replace) une flashcard dans la file de sa catégorie, et lève sa réservation.
+   *
+   * @param flashcardId identifiant de la flashcard
+   * @param categoryId identifiant de la catégorie
+   * @param dueAt échéance de révision
+   */
+  public void schedule(final Long flashcardId, final Long categoryId, final Instant dueAt) {
+    if (flashcardId == null || categoryId == null || dueAt == null) {
+      return;
+    }
+    update(
+        () -> {
+          rebuilds.apply(queues, q -> q.schedule(flashcardId, categoryId, dueAt));
+          leases.remove(flashcardId);
+        });
+  }
+
+  /**
+   * Ajoute une flashcard nouvelle ou modifiée : son échéance est conservée si elle est déjà connue,
+   * sinon elle est due immédiatement. Un changement de catégorie la déplace de file.
+   *
+   * @param dto flashcard créée ou modifiée
+   */
+  public void put(final FlashcardDto dto) {
+    if (dto == null || dto.getId() == null || dto.getCategoryId() == null) {
+      return;
+    }
+    final Long id = dto.getId();
+    final Long categoryId = dto.getCategoryId();
+    update(
+        () -> {
+          rebuilds.apply(queues, q -> q.put(id, categoryId));
+          leases.remove(id);
+        });
+  }
+
+  /**
+   * Ajoute des flashcards après la validation de la transaction courante, ou immédiatement s'il n'y
+   * en a pas.
+   *
+   * @param dtos flashcards créées
+   */
+  public void putAfterCommit(final Collection<FlashcardDto> dtos) {
+    final List<FlashcardDto> copy = List.copyOf(dtos);
+    AfterCommit.run(() -> copy.forEach(this::put));
+  }
+
+  /**
+   * Retire une flashcard de sa file.
+   *
+   * @param flashcardId identifiant de la flashcard
+   */
+  public void remove(final Long flashcardId) {
+    if (flashcardId == null) {
+      return;
+    }
+    update(
+        () -> {
+          rebuilds.apply(queues, q -> q.remove(flashcardId));
+          leases.remove(flashcardId);
+        });
+  }
+
+  /**
+   * Retire les files de catégories supprimées, sous une seule prise du verrou d'écriture.
+   *
+   * @param categoryIds identifiants des catégories
+   */
+  public void removeCategories(final Collection<Long> categoryIds) {
+    final List<Long> removed = List.copyOf(categoryIds);
+    update(
+        () ->
+            removed.forEach(
+                categoryId -> {
+                  final NavigableSet<Slot> queue = queues.byCategory.get(categoryId);
+                  if (queue != null) {
+                    queue.forEach(slot -> leases.remove(slot.flashcardId()));
+                  }
+                  rebuilds.apply(queues, q -> q.removeCategory(categoryId));
+                }));
+  }
+
+  /**
+   * Réserve la prochaine flashcard due qui n'est pas déjà réservée. Elle reste dans sa file : la
+   * file n'est parcourue au-delà de sa tête que pour sauter les flashcards en cours de révision.
+   *
+   * @param categoryId catégorie à réviser, ou {@code null} pour toutes les catégories
+   * @param now instant de référence
+   * @return identifiant de la flashcard due la plus ancienne et libre, s'il y en a une
+   */
+  public Optional<Long> nextDue(final Long categoryId, final Instant now) {
+    final Queues current = queues;
+    final NavigableSet<Slot> queue =
+        categoryId != null ? current.byCategory.get(categoryId) : current.all;
+    if (queue == null) {
+      return Optional.empty();
+    }
+    for (Slot slot : queue) {
+      if (slot.dueAt().isAfter(now)) {
+        return Optional.empty();
+      }
+      if (claim(slot.flashcardId(), now)) {
+        return Optional.of(slot.flashcardId());
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Nombre de flashcards présentes dans les files.
+   *
+   * @return nombre de flashcards planifiées
+   */
+  public int size() {
+    return queues.placements.size();
+  }
+
+  /** Vide toutes les files. */
+  public void clear() {
+    update(
+        () -> {
+          rebuilds.apply(queues, Queues::clear);
+          leases.clear();
+        });
+  }
+
+  private void update(final Runnable change) {
+    writes.lock();
+    try {
+      change.run();
+    } finally {
+      writes.unlock();
+    }
+  }
+
+  private boolean claim(final long flashcardId, final Instant now) {
+    final boolean[] claimed = {false};
+    leases.compute(
+        flashcardId,
+        (id, until) -> {
+          if (until != null && until.isAfter(now)) {
+            return until;
+          }
+          claimed[0] = true;
+          return now.plus(lease);
+        });
+    return claimed[0];
+  }
+
+  /** Files de chaque catégorie, file globale et emplacement de chaque flashcard. */
+  private static final class Queues {
+
+    /** File de révision de chaque catégorie. */
+    private final Map<Long, NavigableSet<Slot>> byCategory = new ConcurrentHashMap<>();
+
+    /** File de toutes les catégories confondues. */
+    private final NavigableSet<Slot> all = new ConcurrentSkipListSet<>(BY_DUE_DATE);
+
+    /** Emplacement de chaque flashcard, pour la retrouver dans sa file. */
+    private final Map<Long, Placement> placements = new ConcurrentHashMap<>();
+
+    void schedule(final long flashcardId, final long categoryId, final Instant dueAt) {
+      unlink(placements.get(flashcardId));
+      final Placement placement = new Placement(categoryId, new Slot(dueAt, flashcardId));
+      byCategory
+          .computeIfAbsent(categoryId, id -> new ConcurrentSkipListSet<>(BY_DUE_DATE))
+          .add(placement.slot());
+      all.add(placement.slot());
+      placements.put(flashcardId, placement);
+    }
+
+    void put(final long flashcardId, final long categoryId) {
+      final Placement current = placements.get(flashcardId);
+      schedule(flashcardId, categoryId, current != null ? current.slot().dueAt() : Instant.EPOCH);
+    }
+
+    void remove(final long flashcardId) {
+      unlink(placements.remove(flashcardId));
+    }
+
+    void removeCategory(final long categoryId) {
+      final NavigableSet<Slot> queue = byCategory.remove(categoryId);
+      if (queue != null) {
+        queue.forEach(
+            slot -> {
+              placements.remove(slot.flashcardId());
+              all.remove(slot);
+            });
+      }
+    }
+
+    void clear() {
+      placements.clear();
+      byCategory.clear();
+      all.clear();
+    }
+
+    private void unlink(final Placement placement) {
+      if (placement != null) {
+        all.remove(placement.slot());
+        final NavigableSet<Slot> queue = byCategory.get(placement.categoryId());
+        if (queue != null) {
+          queue.remove(placement.slot());
+        }
+      }
+    }
+  }
+}
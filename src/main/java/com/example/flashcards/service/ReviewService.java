@@ -0,0 +1,232 @@
+package com.example.flashcards.service;
+
+import com.example.flashcards.config.MetricsConfig;
+import com.example.flashcards.dto.LearningStatsDto;
+import com.example.flashcards.dto.ReviewCardDto;
+import com.example.flashcards.entity.ReviewState;
+import com.example.flashcards.repository.CategoryRepository;
+import com.example.flashcards.repository.FlashcardRepository;
+import com.example.flashcards.repository.ReviewStateRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.annotation.Timed;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service de révision par répétition espacée (algorithme SM-2).
+ *
+ * <p>La prochaine flashcard est choisie dans {@link ReviewQueue}, sans parcourir la table ; seule
+ * la flashcard retenue est lue en base, par clé primaire. Chaque note est aussi ajoutée au journal
+ * des révisions ({@link ReviewEventLog}), écrit par lots en dehors de la transaction, et comptée
+ * dans les statistiques en mémoire ({@link LearningStats}).
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@RequiredArgsConstructor
+@SuppressFBWarnings(
+    value = "EI_EXPOSE_REP2",
+    justification = "Spring injects singleton beans safely")
+public class ReviewService {
+
+  /** Note minimale. */
+  public static final int MIN_GRADE = 0;
+
+  /** Note maximale. */
+  public static final int MAX_GRADE = 5;
+
+  /** Note à partir de laquelle une révision est réussie. */
+  public static final int PASSING_GRADE = 3;
+
+  /** Facteur de facilité minimal. */
+  static final double MIN_EASE = 1.3;
+
+  /** Nombre de tentatives si la flashcard choisie vient d'être supprimée. */
+  private static final int MAX_PICK_ATTEMPTS = 3;
+
+  /** Repository des états de révision. */
+  private final ReviewStateRepository reviewStateRepository;
+
+  /** Repository des flashcards, pour verrouiller la flashcard notée et y rattacher un état. */
+  private final FlashcardRepository flashcardRepository;
+
+  /** Files de révision en mémoire. */
+  private final ReviewQueue reviewQueue;
+
+  /** Journal des révisions. */
+  private final ReviewEventLog reviewEventLog;
+
+  /** Statistiques de révision en mémoire. */
+  private final LearningStats learningStats;
+
+  /** Repository des catégories, pour l'existence d'une catégorie. */
+  private final CategoryRepository categoryRepository;
+
+  /**
+   * Donne la prochaine flashcard à réviser, celle dont l'échéance est la plus ancienne.
+   *
+   * <p>La flashcard est relue sur le primaire, pas sur le réplica : les files en mémoire reçoivent
+   * les flashcards dès la validation de leur création, et une flashcard encore absente d'un réplica
+   * en retard serait prise pour supprimée et retirée de sa file. La lecture est une seule requête
+   * par clé primaire.
+   *
+   * @param categoryId catégorie à réviser, ou {@code null} pour toutes les catégories
+   * @return la flashcard due, ou vide si aucune ne l'est
+   * @throws IllegalStateException si les files de révision sont en cours de construction
+   */
+  public Optional<ReviewCardDto> nextCard(final Long categoryId) {
+    if (!reviewQueue.isReady()) {
+      throw new IllegalStateException("Review queue is not ready");
+    }
+    final Instant now = Instant.now();
+    for (int attempt = 0; attempt < MAX_PICK_ATTEMPTS; attempt++) {
+      final Optional<Long> id = reviewQueue.nextDue(categoryId, now);
+      if (id.isEmpty()) {
+        return Optional.empty();
+      }
+      final Optional<ReviewCardDto> card = reviewStateRepository.findCard(id.get());
+      if (card.isPresent()) {
+        return card;
+      }
+      reviewQueue.remove(id.get());
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Enregistre la note d'une révision et replanifie la flashcard.
+   *
+   * <p>La ligne de la flashcard est d'abord verrouillée ({@code SELECT ... FOR UPDATE}) : deux
+   * notes simultanées d'une même flashcard sont appliquées l'une après l'autre, la seconde relisant
+   * l'état écrit par la première. Sans ce verrou, l'une des deux serait perdue, et lors d'une
+   * première révision les deux insèreraient le même état.
+   *
+   * @param flashcardId identifiant de la flashcard révisée
+   * @param grade note de la révision, entre {@link #MIN_GRADE} et {@link #MAX_GRADE}
+   * @param responseMs temps de réponse en millisecondes, ou {@code null} s'il n'est pas connu
+   * @return la flashcard et son nouvel état, ou vide si elle n'existe pas
+   * @throws IllegalArgumentException si la note est absente ou hors bornes, ou le temps négatif
+   * @throws IllegalStateException si le journal des révisions est plein
+   */
+  @Transactional
+  public Optional<ReviewCardDto> grade(
+      final Long flashcardId, final Integer grade, final Integer responseMs) {
+    if (grade == null || grade < MIN_GRADE || grade > MAX_GRADE) {
+      throw new IllegalArgumentException(
+          "Grade must be between " + MIN_GRADE + " and " + MAX_GRADE);
+    }
+    if (responseMs != null && responseMs < 0) {
+      throw new IllegalArgumentException("Response time must not be negative");
+    }
+    if (!reviewEventLog.hasCapacity()) {
+      throw new IllegalStateException("Review log is full");
+    }
+    if (flashcardRepository.findCategoryIdForUpdate(flashcardId).isEmpty()) {
+      return Optional.empty();
+    }
+    final Optional<ReviewCardDto> found = reviewStateRepository.findCard(flashcardId);
+    if (found.isEmpty()) {
+      return Optional.empty();
+    }
+    final ReviewState state =
+        reviewStateRepository
+            .findById(flashcardId)
+            .orElseGet(
+                () -> {
+                  final ReviewState created = new ReviewState();
+                  created.setFlashcard(flashcardRepository.getReferenceById(flashcardId));
+                  return created;
+                });
+    final boolean lapse = grade < PASSING_GRADE && state.getRepetitions() > 0;
+    final Instant now = Instant.now();
+    schedule(state, grade, now);
+    reviewStateRepository.save(state);
+
+    final ReviewCardDto card = found.get();
+    card.setRepetitions(state.getRepetitions());
+    card.setIntervalDays(state.getIntervalDays());
+    card.setEase(state.getEase());
+    card.setDueAt(state.getDueAt());
+    AfterCommit.run(() -> reviewQueue.schedule(flashcardId, card.getCategoryId(), card.getDueAt()));
+    final ReviewEventLog.Event event =
+        new ReviewEventLog.Event(
+            flashcardId,
+            card.getCategoryId(),
+            grade,
+            lapse,
+            responseMs,
+            state.getIntervalDays(),
+            state.getEase(),
+            now);
+    reviewEventLog.appendAfterCommit(event);
+    learningStats.recordAfterCommit(event);
+    return Optional.of(card);
+  }
+
+  /**
+   * Donne les statistiques de révision d'une flashcard, tenues en mémoire.
+   *
+   * @param flashcardId identifiant de la flashcard
+   * @return les statistiques, ou vide si la flashcard n'existe pas
+   * @throws IllegalStateException si les statistiques sont en cours de chargement
+   */
+  @Transactional(readOnly = true)
+  public Optional<LearningStatsDto> flashcardStats(final Long flashcardId) {
+    if (!learningStats.isReady()) {
+      throw new IllegalStateException("Learning stats are not ready");
+    }
+    return flashcardRepository.existsById(flashcardId)
+        ? Optional.of(learningStats.flashcard(flashcardId))
+        : Optional.empty();
+  }
+
+  /**
+   * Donne les statistiques de révision d'une catégorie (sans ses sous-catégories), tenues en
+   * mémoire.
+   *
+   * @param categoryId identifiant de la catégorie
+   * @return les statistiques, ou vide si la catégorie n'existe pas
+   * @throws IllegalStateException si les statistiques sont en cours de chargement
+   */
+  @Transactional(readOnly = true)
+  public Optional<LearningStatsDto> categoryStats(final Long categoryId) {
+    if (!learningStats.isReady()) {
+      throw new IllegalStateException("Learning stats are not ready");
+    }
+    return categoryRepository.findById(categoryId).map(c -> learningStats.category(categoryId));
+  }
+
+  /**
+   * Applique une note à un état de révision selon SM-2.
+   *
+   * <p>Une note inférieure à {@link #PASSING_GRADE} remet la flashcard en apprentissage (revue le
+   * lendemain) ; sinon l'intervalle passe à 1 jour, puis 6 jours, puis est multiplié par le facteur
+   * de facilité, lui-même ajusté selon la note.
+   *
+   * @param state état à mettre à jour
+   * @param grade note de la révision
+   * @param now instant de la révision
+   */
+  static void schedule(final ReviewState state, final int grade, final Instant now) {
+    if (grade < PASSING_GRADE) {
+      state.setRepetitions(0);
+      state.setIntervalDays(1);
+    } else {
+      final int interval =
+          switch (state.getRepetitions()) {
+            case 0 -> 1;
+            case 1 -> 6;
+            default -> (int) Math.round(state.getIntervalDays() * state.getEase());
+          };
+      state.setRepetitions(state.getRepetitions() + 1);
+      state.setIntervalDays(interval);
+    }
+    final int miss = MAX_GRADE - grade;
+    state.setEase(Math.max(MIN_EASE, state.getEase() + 0.1 - miss * (0.08 + miss * 0.02)));
+    state.setLastReviewedAt(now);
+    state.setDueAt(now.plus(Duration.ofDays(state.getIntervalDays())));
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.flashcards.service;
+
+/**
+ * Mode de recherche textuelle des catégories et des flashcards, choisi par profil via la propriété
+ * {@code flashcards.search.mode}.
+ */
+public enum SearchMode {
+
+  /** Index inversé en mémoire pour les flashcards ; requête LIKE classée pour les catégories. */
+  MEMORY,
+
+  /** Index GIN {@code pg_trgm} côté PostgreSQL, classement par similarité. */
+  POSTGRES,
+
+  /** Requête LIKE classée et limitée, portable (H2, PostgreSQL sans extension). */
+  LIKE
+}
@@ -69,7 +69,7 @@ function showCategories(data) {
 function loadFlashcards() {
     fetch(`${API}/flashcards`)
         .then(r => r.json())
-        .then(showFlashcards);
+        .then(page => showFlashcards(page.items));
 }
 
 function searchFlashcard() {
@@ -0,0 +1,43 @@
+package com.example.flashcards;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import jakarta.annotation.PostConstruct;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+class EagerBeansTest {
+
+  @Test
+  void componentsWithStartupOrScheduledWork_areNotLazy() throws ClassNotFoundException {
+    final ClassPathScanningCandidateComponentProvider scanner =
+        new ClassPathScanningCandidateComponentProvider(true);
+    final List<String> lazy = new ArrayList<>();
+    for (BeanDefinition candidate : scanner.findCandidateComponents("com.example.flashcards")) {
+      final Class<?> type = Class.forName(candidate.getBeanClassName());
+      final boolean startupWork =
+          Arrays.stream(type.getDeclaredMethods()).anyMatch(EagerBeansTest::runsOnItsOwn);
+      final Lazy annotation = type.getAnnotation(Lazy.class);
+      if (startupWork && (annotation == null || annotation.value())) {
+        lazy.add(type.getSimpleName());
+      }
+    }
+
+    // Avec spring.main.lazy-initialization=true, ces beans ne seraient jamais créés
+    assertEquals(List.of(), lazy);
+  }
+
+  private static boolean runsOnItsOwn(final Method method) {
+    return method.isAnnotationPresent(Scheduled.class)
+        || method.isAnnotationPresent(EventListener.class)
+        || method.isAnnotationPresent(PostConstruct.class);
+  }
+}
@@ -0,0 +1,111 @@
+package com.example.flashcards.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Routage primaire / réplica sur deux bases H2 embarquées. */
+class ReadReplicaRoutingDataSourceTest {
+
+  private JdbcDataSource primary;
+
+  private JdbcDataSource replica;
+
+  @BeforeEach
+  void setUp() {
+    primary = h2("routing-primary");
+    replica = h2("routing-replica");
+  }
+
+  @Test
+  void readOnlyTransactions_useReplica_othersUsePrimary() {
+    final ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "select 0", ofSeconds(5));
+    monitor.check();
+    final Routing routing = new Routing(primary, replica, monitor);
+
+    assertTrue(monitor.isAvailable());
+    assertEquals("ROUTING-REPLICA", routing.database(true));
+    assertEquals("ROUTING-PRIMARY", routing.database(false));
+    assertEquals("ROUTING-PRIMARY", routing.jdbc.queryForObject("select database()", String.class));
+  }
+
+  @Test
+  void laggingReplica_fallsBackToPrimary() {
+    final ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "select 12.5", ofSeconds(5));
+    monitor.check();
+
+    assertFalse(monitor.isAvailable());
+    assertEquals("ROUTING-PRIMARY", new Routing(primary, replica, monitor).database(true));
+  }
+
+  @Test
+  void replicaNotCheckedYet_usesPrimary() {
+    final ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, "", ofSeconds(5));
+
+    assertEquals("ROUTING-PRIMARY", new Routing(primary, replica, monitor).database(true));
+  }
+
+  @Test
+  void replicaDown_fallsBackToPrimary_untilNextCheck() throws SQLException {
+    final DataSource flaky = mock(DataSource.class);
+    when(flaky.getConnection())
+        .thenAnswer(inv -> replica.getConnection())
+        .thenThrow(new SQLException("Connection refused"))
+        .thenAnswer(inv -> replica.getConnection());
+    final ReplicaLagMonitor monitor = new ReplicaLagMonitor(flaky, "", ofSeconds(5));
+    monitor.check();
+    final Routing routing = new Routing(primary, flaky, monitor);
+
+    assertEquals("ROUTING-PRIMARY", routing.database(true));
+    assertFalse(monitor.isAvailable());
+
+    monitor.check();
+    assertEquals("ROUTING-REPLICA", routing.database(true));
+  }
+
+  private static Duration ofSeconds(final long seconds) {
+    return Duration.ofSeconds(seconds);
+  }
+
+  private static JdbcDataSource h2(final String name) {
+    final JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+    dataSource.setUser("sa");
+    return dataSource;
+  }
+
+  /** Source routée telle que l'application la monte, avec son gestionnaire de transactions. */
+  private static final class Routing {
+
+    private final JdbcTemplate jdbc;
+
+    private final DataSourceTransactionManager transactionManager;
+
+    Routing(
+        final DataSource primarySource,
+        final DataSource replicaSource,
+        final ReplicaLagMonitor monitor) {
+      final DataSource routed =
+          new LazyConnectionDataSourceProxy(
+              new ReadReplicaRoutingDataSource(primarySource, replicaSource, monitor));
+      jdbc = new JdbcTemplate(routed);
+      transactionManager = new DataSourceTransactionManager(routed);
+    }
+
+    String database(final boolean readOnly) {
+      final TransactionTemplate tx = new TransactionTemplate(transactionManager);
+      tx.setReadOnly(readOnly);
+      return tx.execute(status -> jdbc.queryForObject("select database()", String.class));
+    }
+  }
+}
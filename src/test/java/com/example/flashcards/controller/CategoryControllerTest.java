@@ -1,25 +1,48 @@
 package com.example.flashcards.controller;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.example.flashcards.dto.CategoryDeletionDto;
 import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.CategoryTreeDto;
+import com.example.flashcards.dto.DeckImportDto;
+import com.example.flashcards.dto.LearningStatsDto;
 import com.example.flashcards.entity.Category;
+import com.example.flashcards.service.CategoryDeletionJobs;
+import com.example.flashcards.service.CategoryListSnapshot;
 import com.example.flashcards.service.CategoryService;
+import com.example.flashcards.service.DataVersions;
+import com.example.flashcards.service.DeckService;
+import com.example.flashcards.service.ReviewService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(controllers = CategoryController.class)
+@Import({HttpCaching.class, DataVersions.class, CategoryListSnapshot.class})
 @AutoConfigureMockMvc(addFilters = false)
 @ActiveProfiles("test")
 class CategoryControllerTest {
@@ -30,14 +53,49 @@ class CategoryControllerTest {
 
   @MockitoBean private CategoryService categoryService;
 
+  @MockitoBean private CategoryDeletionJobs categoryDeletionJobs;
+
+  @MockitoBean private ReviewService reviewService;
+
+  @MockitoBean private DeckService deckService;
+
+  @TempDir private Path dir;
+
+  @Autowired private DataVersions dataVersions;
+
+  @Test
+  void getAll_returns304WithoutQueryingService_whenEtagMatches() throws Exception {
+    String etag =
+        Objects.requireNonNull(
+            mockMvc
+                .perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=0, stale-while-revalidate=30"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag"));
+    clearInvocations(categoryService);
+
+    mockMvc
+        .perform(get("/api/categories").header("If-None-Match", etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", etag));
+    verifyNoInteractions(categoryService);
+
+    dataVersions.categoriesChanged();
+    mockMvc
+        .perform(get("/api/categories").header("If-None-Match", etag))
+        .andExpect(status().isOk());
+    verify(categoryService).getAllCategories();
+  }
+
   @Test
   void shouldGetAllCategories() throws Exception {
 
-    Category c = new Category();
-    c.setId(1L);
-    c.setName("Test Category");
+    CategoryDto c = new CategoryDto(1L, "Test Category");
 
     when(categoryService.getAllCategories()).thenReturn(List.of(c));
+    dataVersions.categoriesChanged();
 
     mockMvc
         .perform(get("/api/categories").accept(MediaType.APPLICATION_JSON))
@@ -51,10 +109,76 @@ class CategoryControllerTest {
     verifyNoMoreInteractions(categoryService);
   }
 
+  @Test
+  void getAll_servesSameSnapshotUntilCategoriesChange() throws Exception {
+    when(categoryService.getAllCategories()).thenReturn(List.of(new CategoryDto(1L, "Java")));
+    dataVersions.categoriesChanged();
+
+    byte[] first =
+        mockMvc.perform(get("/api/categories")).andReturn().getResponse().getContentAsByteArray();
+    byte[] second =
+        mockMvc.perform(get("/api/categories")).andReturn().getResponse().getContentAsByteArray();
+    assertArrayEquals(first, second);
+    verify(categoryService, times(1)).getAllCategories();
+
+    when(categoryService.getAllCategories()).thenReturn(List.of(new CategoryDto(2L, "SQL")));
+    dataVersions.categoriesChanged();
+    mockMvc
+        .perform(get("/api/categories"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].name").value("SQL"));
+    verify(categoryService, times(2)).getAllCategories();
+  }
+
+  @Test
+  void getAll_returnsGzipVariant_whenAccepted() throws Exception {
+    when(categoryService.getAllCategories())
+        .thenReturn(List.of(new CategoryDto(1L, "Java", null, 3L)));
+    dataVersions.categoriesChanged();
+
+    String plainEtag =
+        Objects.requireNonNull(
+            mockMvc.perform(get("/api/categories")).andReturn().getResponse().getHeader("ETag"));
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/categories").header("Accept-Encoding", "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andExpect(header().string("Vary", "Accept-Encoding"))
+            .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andReturn();
+
+    String gzipEtag = Objects.requireNonNull(result.getResponse().getHeader("ETag"));
+    assertNotEquals(plainEtag, gzipEtag);
+    try (GZIPInputStream in =
+        new GZIPInputStream(
+            new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+      assertEquals(
+          "[{\"id\":1,\"name\":\"Java\",\"parentId\":null,\"flashcardCount\":3}]",
+          new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    mockMvc
+        .perform(
+            get("/api/categories")
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", gzipEtag))
+        .andExpect(status().isNotModified());
+  }
+
+  @Test
+  void acceptsGzip_honoursQualityZero() {
+    assertTrue(CategoryController.acceptsGzip("gzip"));
+    assertTrue(CategoryController.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+    assertTrue(CategoryController.acceptsGzip("*"));
+    assertFalse(CategoryController.acceptsGzip("gzip;q=0"));
+    assertFalse(CategoryController.acceptsGzip("identity"));
+    assertFalse(CategoryController.acceptsGzip(null));
+  }
+
   @Test
   void searchByName_returnsResults() throws Exception {
 
-    when(categoryService.searchByName("algo"))
+    when(categoryService.searchByName("algo", CategoryService.DEFAULT_SEARCH_LIMIT))
         .thenReturn(List.of(new CategoryDto(1L, "Algorithmes")));
 
     mockMvc
@@ -90,4 +214,223 @@ class CategoryControllerTest {
     verify(categoryService, times(1)).createCategory(any(Category.class));
     verifyNoMoreInteractions(categoryService);
   }
+
+  @Test
+  void getSubtree_returnsNestedCategories() throws Exception {
+    CategoryTreeDto root = new CategoryTreeDto(1L, "Informatique");
+    CategoryTreeDto child = new CategoryTreeDto(5L, "Langages");
+    child.addChild(new CategoryTreeDto(12L, "Java"));
+    root.addChild(child);
+    when(categoryService.getSubtree(1L)).thenReturn(Optional.of(root));
+
+    mockMvc
+        .perform(get("/api/categories/1/subtree"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.name").value("Informatique"))
+        .andExpect(jsonPath("$.children[0].name").value("Langages"))
+        .andExpect(jsonPath("$.children[0].children[0].id").value(12));
+  }
+
+  @Test
+  void getSubtree_returns404_whenCategoryIsUnknown() throws Exception {
+    when(categoryService.getSubtree(1L)).thenReturn(Optional.empty());
+
+    mockMvc.perform(get("/api/categories/1/subtree")).andExpect(status().isNotFound());
+  }
+
+  @Test
+  void stats_returnsCategoryStats_404_or503() throws Exception {
+    when(reviewService.categoryStats(1L))
+        .thenReturn(Optional.of(new LearningStatsDto(1L, 4, 0.75, 1800.0, 1)));
+    when(reviewService.categoryStats(2L)).thenReturn(Optional.empty());
+    when(reviewService.categoryStats(3L)).thenThrow(new IllegalStateException("not ready"));
+
+    mockMvc
+        .perform(get("/api/categories/1/stats"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.successRate").value(0.75))
+        .andExpect(jsonPath("$.averageResponseMs").value(1800.0))
+        .andExpect(jsonPath("$.lapses").value(1));
+    mockMvc.perform(get("/api/categories/2/stats")).andExpect(status().isNotFound());
+    mockMvc.perform(get("/api/categories/3/stats")).andExpect(status().isServiceUnavailable());
+  }
+
+  @Test
+  void exportDeck_sendsTheFile_thenDeletesIt_or404() throws Exception {
+    Path file = Files.write(dir.resolve("deck.fcdeck"), new byte[] {'F', 'C', 'D', 'K'});
+    when(deckService.exportDeck(1L, true)).thenReturn(Optional.of(file));
+    when(deckService.exportDeck(1L, false)).thenReturn(Optional.of(file));
+    when(deckService.exportDeck(2L, false)).thenReturn(Optional.empty());
+
+    mockMvc
+        .perform(get("/api/categories/1/deck").param("compress", "true"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/vnd.flashcards.deck"))
+        .andExpect(header().longValue("Content-Length", 4))
+        .andExpect(
+            header().string("Content-Disposition", "attachment; filename=\"category-1.fcdeck\""))
+        .andExpect(content().bytes(new byte[] {'F', 'C', 'D', 'K'}));
+    verify(deckService, times(1)).delete(file);
+
+    mockMvc
+        .perform(get("/api/categories/1/deck").header("Range", "bytes=1-2"))
+        .andExpect(status().isPartialContent())
+        .andExpect(content().bytes(new byte[] {'C', 'D'}));
+    verify(deckService, times(2)).delete(file);
+
+    mockMvc.perform(head("/api/categories/1/deck")).andExpect(status().isOk());
+    verify(deckService, times(3)).delete(file);
+
+    mockMvc.perform(get("/api/categories/2/deck")).andExpect(status().isNotFound());
+    verify(deckService, times(3)).delete(any(Path.class));
+  }
+
+  @Test
+  void importDeck_returns201_andDeletesTheReceivedFile() throws Exception {
+    Path file = dir.resolve("received.fcdeck");
+    when(deckService.receive(any(InputStream.class))).thenReturn(file);
+    when(deckService.importDeck(file, 3L)).thenReturn(new DeckImportDto(7L, "Pays", 2, 1));
+
+    mockMvc
+        .perform(
+            post("/api/categories/deck")
+                .param("parentId", "3")
+                .contentType("application/vnd.flashcards.deck")
+                .content(new byte[] {'F', 'C', 'D', 'K'}))
+        .andExpect(status().isCreated())
+        .andExpect(header().string("Location", "/api/categories/7"))
+        .andExpect(jsonPath("$.categoryId").value(7))
+        .andExpect(jsonPath("$.created").value(2))
+        .andExpect(jsonPath("$.failed").value(1));
+    verify(deckService).delete(file);
+  }
+
+  @Test
+  void importDeck_returns400_whenDeckIsInvalid() throws Exception {
+    Path file = dir.resolve("received.fcdeck");
+    when(deckService.receive(any(InputStream.class))).thenReturn(file);
+    when(deckService.importDeck(file, null))
+        .thenThrow(new IllegalArgumentException("Not a deck file"));
+
+    mockMvc
+        .perform(
+            post("/api/categories/deck")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content("{}".getBytes(StandardCharsets.UTF_8)))
+        .andExpect(status().isBadRequest());
+    verify(deckService).delete(file);
+  }
+
+  @Test
+  void create_returns400_whenParentIsUnknown() throws Exception {
+    when(categoryService.createCategory(any(Category.class)))
+        .thenThrow(new IllegalArgumentException("Parent category not found"));
+
+    mockMvc
+        .perform(
+            post("/api/categories")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Java\",\"parentId\":99}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void delete_deletesTheWholeSubtree() throws Exception {
+    mockMvc.perform(delete("/api/categories/1")).andExpect(status().isOk());
+
+    verify(categoryService).deleteCategory(1L);
+  }
+
+  @Test
+  void getThenPatch_etagFromReadIsAcceptedByIfMatch() throws Exception {
+    when(categoryService.getCategoryDto(1L))
+        .thenReturn(Optional.of(new CategoryDto(1L, "Physique", null, 12L, 2L)));
+    when(categoryService.patchCategory(eq(1L), any(CategoryDto.class), eq(2L)))
+        .thenReturn(Optional.of(new CategoryDto(1L, "Chimie", null, 12L, 3L)));
+
+    String etag =
+        mockMvc
+            .perform(get("/api/categories/1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"2.12\""))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+    // The patch answers with the ETag of the row it wrote, not with a separate read (replica)
+    mockMvc
+        .perform(
+            patch("/api/categories/1")
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Chimie\"}"))
+        .andExpect(status().isNoContent())
+        .andExpect(header().string("ETag", "\"3.12\""));
+    verify(categoryService, times(1)).getCategoryDto(1L);
+    when(categoryService.getCategoryDto(1L))
+        .thenReturn(Optional.of(new CategoryDto(1L, "Chimie", null, 12L, 3L)));
+    mockMvc
+        .perform(get("/api/categories/1").header("If-None-Match", "\"3.12\""))
+        .andExpect(status().isNotModified());
+
+    // A new flashcard changes the representation, not the version
+    when(categoryService.getCategoryDto(1L))
+        .thenReturn(Optional.of(new CategoryDto(1L, "Chimie", null, 13L, 3L)));
+    mockMvc
+        .perform(get("/api/categories/1").header("If-None-Match", "\"3.12\""))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"3.13\""));
+  }
+
+  @Test
+  void patch_returns412_onVersionConflict_and400_onMove() throws Exception {
+    when(categoryService.patchCategory(eq(1L), any(CategoryDto.class), eq(2L)))
+        .thenThrow(new OptimisticLockingFailureException("stale"));
+    when(categoryService.patchCategory(eq(1L), any(CategoryDto.class), eq(null)))
+        .thenThrow(new IllegalArgumentException("Moving a category requires PUT"));
+
+    mockMvc
+        .perform(
+            patch("/api/categories/1")
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Chimie\"}"))
+        .andExpect(status().isPreconditionFailed());
+    mockMvc
+        .perform(
+            patch("/api/categories/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Chimie\",\"parentId\":3}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void deleteAsync_returns202WithProgressLocation() throws Exception {
+    CategoryDeletionDto job =
+        new CategoryDeletionDto("job-1", 1L, CategoryDeletionDto.Status.RUNNING, 50_000, 0, null);
+    when(categoryDeletionJobs.start(1L)).thenReturn(Optional.of(job));
+    when(categoryDeletionJobs.get("job-1")).thenReturn(Optional.of(job));
+
+    mockMvc
+        .perform(delete("/api/categories/1").param("async", "true"))
+        .andExpect(status().isAccepted())
+        .andExpect(header().string("Location", "/api/categories/deletions/job-1"))
+        .andExpect(jsonPath("$.total").value(50_000));
+    mockMvc
+        .perform(get("/api/categories/deletions/job-1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("RUNNING"));
+
+    verify(categoryService, never()).deleteCategory(any());
+  }
+
+  @Test
+  void deleteAsync_returns404_whenCategoryIsUnknown() throws Exception {
+    when(categoryDeletionJobs.start(1L)).thenReturn(Optional.empty());
+
+    mockMvc
+        .perform(delete("/api/categories/1").param("async", "true"))
+        .andExpect(status().isNotFound());
+    mockMvc.perform(get("/api/categories/deletions/unknown")).andExpect(status().isNotFound());
+  }
 }
@@ -1,38 +1,59 @@
 package com.example.flashcards.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.example.flashcards.dto.FlashcardBatchItemDto;
+import com.example.flashcards.dto.FlashcardBatchResultDto;
 import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.dto.FlashcardPageDto;
+import com.example.flashcards.dto.LearningStatsDto;
 import com.example.flashcards.entity.Category;
 import com.example.flashcards.entity.Flashcard;
 import com.example.flashcards.service.CategoryService;
+import com.example.flashcards.service.DataVersions;
 import com.example.flashcards.service.FlashcardService;
+import com.example.flashcards.service.ReviewService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(controllers = FlashcardController.class)
+@Import({HttpCaching.class, DataVersions.class})
 @AutoConfigureMockMvc(addFilters = false)
 @ActiveProfiles("test")
 class FlashcardControllerTest {
@@ -45,22 +66,48 @@ class FlashcardControllerTest {
 
   @MockitoBean private CategoryService categoryService;
 
+  @MockitoBean private ReviewService reviewService;
+
+  @Autowired private DataVersions dataVersions;
+
   @Test
-  void shouldGetAllFlashcards() throws Exception {
-    Category cat = new Category();
-    cat.setId(1L);
-    cat.setName("Cat 1");
+  void getPage_returns304_untilFlashcardsChange() throws Exception {
+    when(flashcardService.getFlashcardPage(null, 50)).thenReturn(new FlashcardPageDto());
+    String etag =
+        Objects.requireNonNull(
+            mockMvc
+                .perform(get("/api/flashcards"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag"));
 
-    Flashcard f = new Flashcard();
-    f.setId(10L);
-    f.setQuestion("Quelle est la capitale de la France ?");
-    f.setAnswer("Paris");
-    f.setCategory(cat);
+    mockMvc
+        .perform(get("/api/flashcards").header("If-None-Match", etag))
+        .andExpect(status().isNotModified());
+    verify(flashcardService, times(1)).getFlashcardPage(null, 50);
+
+    // Category writes do not invalidate flashcard lists
+    dataVersions.categoriesChanged();
+    mockMvc
+        .perform(get("/api/flashcards/search").param("question", "x").header("If-None-Match", etag))
+        .andExpect(status().isNotModified());
+
+    dataVersions.flashcardsChanged();
+    mockMvc
+        .perform(get("/api/flashcards").header("If-None-Match", etag))
+        .andExpect(status().isOk());
+    verify(flashcardService, times(2)).getFlashcardPage(null, 50);
+  }
+
+  @Test
+  void shouldGetAllFlashcards() throws Exception {
+    FlashcardDto f = new FlashcardDto(10L, "Quelle est la capitale de la France ?", "Paris", 1L);
 
     when(flashcardService.getAllFlashcards()).thenReturn(List.of(f));
 
     mockMvc
-        .perform(get("/api/flashcards").accept(MediaType.APPLICATION_JSON))
+        .perform(get("/api/flashcards").param("all", "true").accept(MediaType.APPLICATION_JSON))
         .andExpect(status().isOk())
         .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
         .andExpect(jsonPath("$.length()").value(1))
@@ -75,7 +122,7 @@ class FlashcardControllerTest {
 
   @Test
   void searchByQuestion_returnsResults() throws Exception {
-    when(flashcardService.searchByQuestion("capital"))
+    when(flashcardService.searchByQuestion("capital", 20))
         .thenReturn(List.of(new FlashcardDto(1L, "Quelle est la capitale?", "Paris", 1L)));
 
     mockMvc
@@ -85,14 +132,164 @@ class FlashcardControllerTest {
         .andExpect(jsonPath("$.length()").value(1));
   }
 
+  @Test
+  void searchByQuestion_passesLimit() throws Exception {
+    when(flashcardService.searchByQuestion("git", 5)).thenReturn(List.of());
+
+    mockMvc
+        .perform(get("/api/flashcards/search").param("question", "git").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$").isEmpty());
+
+    verify(flashcardService).searchByQuestion("git", 5);
+  }
+
+  @Test
+  void random_passesCategoryAndSize() throws Exception {
+    when(flashcardService.randomFlashcards(4L, 3))
+        .thenReturn(List.of(new FlashcardDto(8L, "Q", "A", 4L)));
+
+    mockMvc
+        .perform(get("/api/flashcards/random").param("categoryId", "4").param("n", "3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value(8));
+  }
+
+  @Test
+  void random_returns503_whileSamplerLoads() throws Exception {
+    when(flashcardService.randomFlashcards(null, FlashcardService.DEFAULT_RANDOM_SIZE))
+        .thenThrow(new IllegalStateException("Flashcard sampler is not ready"));
+
+    mockMvc.perform(get("/api/flashcards/random")).andExpect(status().isServiceUnavailable());
+  }
+
+  @Test
+  void stats_returnsCardStats_or404() throws Exception {
+    when(reviewService.flashcardStats(7L))
+        .thenReturn(Optional.of(new LearningStatsDto(7L, 3, 2.0 / 3, null, 1)));
+    when(reviewService.flashcardStats(8L)).thenReturn(Optional.empty());
+
+    mockMvc
+        .perform(get("/api/flashcards/7/stats"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.reviews").value(3))
+        .andExpect(jsonPath("$.lapses").value(1))
+        .andExpect(jsonPath("$.averageResponseMs").doesNotExist());
+    mockMvc.perform(get("/api/flashcards/8/stats")).andExpect(status().isNotFound());
+  }
+
   @Test
   void shouldReturnAllFlashcards() throws Exception {
-    Flashcard flashcard = new Flashcard();
+    FlashcardDto flashcard = new FlashcardDto();
     flashcard.setId(1L);
 
     when(flashcardService.getAllFlashcards()).thenReturn(List.of(flashcard));
 
-    mockMvc.perform(get("/api/flashcards")).andExpect(status().isOk());
+    mockMvc.perform(get("/api/flashcards").param("all", "true")).andExpect(status().isOk());
+  }
+
+  @Test
+  void shouldGetFlashcardPage_byDefault() throws Exception {
+    FlashcardPageDto page = new FlashcardPageDto(List.of(new FlashcardDto(1L, "Q", "A", 2L)), "MQ");
+
+    when(flashcardService.getFlashcardPage(null, 50)).thenReturn(page);
+
+    mockMvc
+        .perform(get("/api/flashcards").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items.length()").value(1))
+        .andExpect(jsonPath("$.items[0].id").value(1))
+        .andExpect(jsonPath("$.next").value("MQ"));
+
+    verify(flashcardService).getFlashcardPage(null, 50);
+    verifyNoMoreInteractions(flashcardService);
+  }
+
+  @Test
+  void shouldPassCursorAndSize_toService() throws Exception {
+    when(flashcardService.getFlashcardPage("MQ", 10))
+        .thenReturn(new FlashcardPageDto(List.of(), null));
+
+    mockMvc
+        .perform(get("/api/flashcards").param("cursor", "MQ").param("size", "10"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items").isEmpty())
+        .andExpect(jsonPath("$.next").doesNotExist());
+  }
+
+  @Test
+  void getPage_filtersBySubtree_whenUnderCategoryIsGiven() throws Exception {
+    when(flashcardService.getFlashcardPageInSubtree(3L, null, 50))
+        .thenReturn(
+            Optional.of(new FlashcardPageDto(List.of(new FlashcardDto(1L, "Q", "A", 7L)), null)));
+
+    mockMvc
+        .perform(get("/api/flashcards").param("underCategory", "3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items[0].categoryId").value(7));
+    verify(flashcardService, never()).getFlashcardPage(any(), anyInt());
+  }
+
+  @Test
+  void getPage_returns404_whenUnderCategoryIsUnknown() throws Exception {
+    when(flashcardService.getFlashcardPageInSubtree(3L, null, 50)).thenReturn(Optional.empty());
+
+    mockMvc
+        .perform(get("/api/flashcards").param("underCategory", "3"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void getPage_returns400_whenCursorIsInvalid() throws Exception {
+    when(flashcardService.getFlashcardPage("bad", 50))
+        .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+    mockMvc
+        .perform(get("/api/flashcards").param("cursor", "bad"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldExportFlashcards_asNdjson() throws Exception {
+    doAnswer(
+            inv -> {
+              Consumer<FlashcardDto> consumer = inv.getArgument(0);
+              consumer.accept(new FlashcardDto(1L, "Q1", "A1", 2L));
+              consumer.accept(new FlashcardDto(2L, "Q2", "A2", 2L));
+              return 2L;
+            })
+        .when(flashcardService)
+        .forEachFlashcard(any(Consumer.class));
+
+    MvcResult result =
+        mockMvc
+            .perform(get("/api/flashcards/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+        .andExpect(
+            content()
+                .string(
+                    "{\"id\":1,\"question\":\"Q1\",\"answer\":\"A1\",\"categoryId\":2}\n"
+                        + "{\"id\":2,\"question\":\"Q2\",\"answer\":\"A2\",\"categoryId\":2}\n"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldExportNothing_whenNoFlashcards() throws Exception {
+    when(flashcardService.forEachFlashcard(any(Consumer.class))).thenReturn(0L);
+
+    MvcResult result = mockMvc.perform(get("/api/flashcards/export")).andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().string(""));
   }
 
   @Test
@@ -139,6 +336,45 @@ class FlashcardControllerTest {
     verifyNoMoreInteractions(categoryService, flashcardService);
   }
 
+  @Test
+  void shouldCreateFlashcardsInBatch() throws Exception {
+    List<FlashcardDto> batch =
+        List.of(new FlashcardDto(null, "Q1", "A1", 1L), new FlashcardDto(null, "Q2", "A2", 9L));
+    FlashcardBatchResultDto result =
+        new FlashcardBatchResultDto(
+            List.of(
+                new FlashcardBatchItemDto(0, 51L, true, null),
+                new FlashcardBatchItemDto(1, null, false, "Category not found")));
+
+    when(flashcardService.importFlashcards(batch)).thenReturn(result);
+
+    mockMvc
+        .perform(
+            post("/api/flashcards/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.created").value(1))
+        .andExpect(jsonPath("$.failed").value(1))
+        .andExpect(jsonPath("$.items[0].id").value(51))
+        .andExpect(jsonPath("$.items[1].success").value(false))
+        .andExpect(jsonPath("$.items[1].error").value("Category not found"));
+
+    verify(flashcardService).importFlashcards(batch);
+    verifyNoMoreInteractions(categoryService, flashcardService);
+  }
+
+  @Test
+  void shouldReturn400_whenBatchIsTooLarge() throws Exception {
+    when(flashcardService.importFlashcards(any()))
+        .thenThrow(new IllegalArgumentException("Batch too large"));
+
+    mockMvc
+        .perform(
+            post("/api/flashcards/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   void shouldDeleteFlashcard() throws Exception {
     doNothing().when(flashcardService).deleteFlashcard(10L);
@@ -225,4 +461,122 @@ class FlashcardControllerTest {
     verify(flashcardService).updateFlashcard(eq(1L), any(Flashcard.class));
     verifyNoMoreInteractions(categoryService, flashcardService);
   }
+
+  @Test
+  void patch_returns204_withNextVersionEtag() throws Exception {
+    when(flashcardService.patchFlashcard(eq(1L), any(FlashcardDto.class), eq(3L))).thenReturn(true);
+
+    mockMvc
+        .perform(
+            patch("/api/flashcards/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"question\":\"Q2\"}"))
+        .andExpect(status().isNoContent())
+        .andExpect(header().string("ETag", "\"4\""));
+
+    verify(flashcardService).patchFlashcard(1L, new FlashcardDto(null, "Q2", null, null), 3L);
+    verify(categoryService, never()).getCategoryById(any());
+  }
+
+  @Test
+  void getThenPatch_etagFromReadIsAcceptedByIfMatch() throws Exception {
+    when(flashcardService.getFlashcardById(1L))
+        .thenReturn(Optional.of(new FlashcardDto(1L, "Q", "A", 1L, 3L)));
+    when(flashcardService.patchFlashcard(eq(1L), any(FlashcardDto.class), eq(3L))).thenReturn(true);
+
+    String etag =
+        mockMvc
+            .perform(get("/api/flashcards/1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"3\""))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+    String patched =
+        mockMvc
+            .perform(
+                patch("/api/flashcards/1")
+                    .header("If-Match", etag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"question\":\"Q2\"}"))
+            .andExpect(status().isNoContent())
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+    // The ETag returned by the patch is the one the next read sends
+    when(flashcardService.getFlashcardById(1L))
+        .thenReturn(Optional.of(new FlashcardDto(1L, "Q2", "A", 1L, 4L)));
+    mockMvc
+        .perform(get("/api/flashcards/1").header("If-None-Match", patched))
+        .andExpect(status().isNotModified());
+    mockMvc
+        .perform(get("/api/flashcards/1").header("If-None-Match", etag))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.question").value("Q2"));
+  }
+
+  @Test
+  void patch_returns412_onVersionConflict_and404_whenUnknown() throws Exception {
+    when(flashcardService.patchFlashcard(eq(1L), any(FlashcardDto.class), eq(3L)))
+        .thenThrow(new OptimisticLockingFailureException("stale"));
+    when(flashcardService.patchFlashcard(eq(2L), any(FlashcardDto.class), eq(null)))
+        .thenReturn(false);
+
+    mockMvc
+        .perform(
+            patch("/api/flashcards/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"answer\":\"A2\"}"))
+        .andExpect(status().isPreconditionFailed());
+    mockMvc
+        .perform(
+            patch("/api/flashcards/2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"answer\":\"A2\"}"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void patch_returns412_onWeakIfMatch() throws Exception {
+    when(flashcardService.patchFlashcard(eq(1L), any(FlashcardDto.class), eq(-1L)))
+        .thenThrow(new OptimisticLockingFailureException("stale"));
+
+    mockMvc
+        .perform(
+            patch("/api/flashcards/1")
+                .header("If-Match", "W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"answer\":\"A2\"}"))
+        .andExpect(status().isPreconditionFailed());
+    verify(flashcardService, never()).patchFlashcard(any(), any(), eq(3L));
+  }
+
+  @Test
+  void patch_returns404_whenTargetCategoryIsUnknown() throws Exception {
+    when(categoryService.getCategoryById(99L)).thenReturn(Optional.empty());
+
+    mockMvc
+        .perform(
+            patch("/api/flashcards/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"categoryId\":99}"))
+        .andExpect(status().isNotFound());
+
+    verify(flashcardService, never()).patchFlashcard(any(), any(), any());
+  }
+
+  @Test
+  void expectedVersion_parsesIfMatch() {
+    assertNull(HttpCaching.expectedVersion(null));
+    assertNull(HttpCaching.expectedVersion("*"));
+    assertEquals(3L, HttpCaching.expectedVersion("\"3\""));
+    assertEquals(-1L, HttpCaching.expectedVersion("W/\"3\""));
+    assertEquals(3L, HttpCaching.expectedVersion("\"3.12\""));
+    assertEquals(-1L, HttpCaching.expectedVersion("\"3\", \"4\""));
+    assertEquals(-1L, HttpCaching.expectedVersion("\"3.1\", \"4.2\""));
+    assertEquals(-1L, HttpCaching.expectedVersion("\"v3\""));
+  }
 }
@@ -0,0 +1,50 @@
+package com.example.flashcards.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.flashcards.dto.QuizQuestionDto;
+import com.example.flashcards.service.QuizService;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(QuizController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class QuizControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockitoBean private QuizService quizService;
+
+  @Test
+  void quiz_returnsQuestionsWithOptions() throws Exception {
+    when(quizService.quiz(1L, 5, 3))
+        .thenReturn(List.of(new QuizQuestionDto(7L, "France ?", List.of("Rome", "Paris"), 1)));
+
+    mockMvc
+        .perform(get("/api/quiz").param("categoryId", "1").param("n", "5").param("k", "3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].flashcardId").value(7))
+        .andExpect(jsonPath("$[0].options[1]").value("Paris"))
+        .andExpect(jsonPath("$[0].answerIndex").value(1));
+  }
+
+  @Test
+  void quiz_returns503_whilePoolsAreBuilding() throws Exception {
+    when(quizService.quiz(any(), anyInt(), anyInt()))
+        .thenThrow(new IllegalStateException("not ready"));
+
+    mockMvc.perform(get("/api/quiz")).andExpect(status().isServiceUnavailable());
+  }
+}
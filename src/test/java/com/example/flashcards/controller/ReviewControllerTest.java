@@ -0,0 +1,103 @@
+package com.example.flashcards.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.flashcards.dto.ReviewCardDto;
+import com.example.flashcards.service.ReviewService;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(ReviewController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class ReviewControllerTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockitoBean private ReviewService reviewService;
+
+  @Test
+  void next_returnsDueCard_or204() throws Exception {
+    when(reviewService.nextCard(1L))
+        .thenReturn(Optional.of(new ReviewCardDto(7L, "Q", "A", 1L, null, null, null, null)));
+    when(reviewService.nextCard(2L)).thenReturn(Optional.empty());
+
+    mockMvc
+        .perform(get("/api/review/next").param("categoryId", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(7))
+        .andExpect(jsonPath("$.question").value("Q"));
+    mockMvc
+        .perform(get("/api/review/next").param("categoryId", "2"))
+        .andExpect(status().isNoContent());
+  }
+
+  @Test
+  void next_returns503_whileQueueIsBuilding() throws Exception {
+    when(reviewService.nextCard(any())).thenThrow(new IllegalStateException("not ready"));
+
+    mockMvc.perform(get("/api/review/next")).andExpect(status().isServiceUnavailable());
+  }
+
+  @Test
+  void grade_returnsNewSchedule_404_or400() throws Exception {
+    Instant due = Instant.parse("2026-01-11T12:00:00Z");
+    when(reviewService.grade(7L, 4, null))
+        .thenReturn(Optional.of(new ReviewCardDto(7L, "Q", "A", 1L, 1, 1, 2.5, due)));
+    when(reviewService.grade(eq(8L), any(), any())).thenReturn(Optional.empty());
+    when(reviewService.grade(7L, 9, null)).thenThrow(new IllegalArgumentException("bad grade"));
+
+    mockMvc
+        .perform(
+            post("/api/review/7").contentType(MediaType.APPLICATION_JSON).content("{\"grade\":4}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.intervalDays").value(1))
+        .andExpect(jsonPath("$.dueAt").value("2026-01-11T12:00:00Z"));
+    mockMvc
+        .perform(
+            post("/api/review/8").contentType(MediaType.APPLICATION_JSON).content("{\"grade\":4}"))
+        .andExpect(status().isNotFound());
+    mockMvc
+        .perform(
+            post("/api/review/7").contentType(MediaType.APPLICATION_JSON).content("{\"grade\":9}"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void grade_passesResponseTime() throws Exception {
+    when(reviewService.grade(7L, 2, 1200))
+        .thenReturn(Optional.of(new ReviewCardDto(7L, "Q", "A", 1L, 0, 1, 2.2, null)));
+
+    mockMvc
+        .perform(
+            post("/api/review/7")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"grade\":2,\"responseTimeMs\":1200}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.repetitions").value(0));
+  }
+
+  @Test
+  void grade_returns503_whenReviewLogIsFull() throws Exception {
+    when(reviewService.grade(any(), any(), any())).thenThrow(new IllegalStateException("full"));
+
+    mockMvc
+        .perform(
+            post("/api/review/7").contentType(MediaType.APPLICATION_JSON).content("{\"grade\":4}"))
+        .andExpect(status().isServiceUnavailable());
+  }
+}
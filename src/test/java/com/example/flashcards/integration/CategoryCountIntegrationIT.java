@@ -0,0 +1,101 @@
+package com.example.flashcards.integration;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.service.CategoryCountReconciler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+class CategoryCountIntegrationIT {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Autowired private CategoryCountReconciler reconciler;
+
+  @Test
+  void counts_followWrites_andReconcileFixesDrift() throws Exception {
+    long maths = create("Mathématiques");
+    long chimie = create("Chimie");
+    long first = card("2 + 2 ?", maths);
+    card("3 x 3 ?", maths);
+    assertCount(maths, 2);
+
+    // Moving a flashcard moves one unit between the two counters
+    mockMvc
+        .perform(
+            put("/api/flashcards/" + first)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new FlashcardDto(first, "H2O ?", "Eau", chimie))))
+        .andExpect(status().isOk());
+    assertCount(maths, 1);
+    assertCount(chimie, 1);
+
+    mockMvc.perform(delete("/api/flashcards/" + first)).andExpect(status().isOk());
+    assertCount(chimie, 0);
+    mockMvc
+        .perform(get("/api/categories/" + maths + "/subtree"))
+        .andExpect(jsonPath("$.flashcardCount").value(1));
+
+    // A write made outside the application is corrected by the reconciliation
+    jdbcTemplate.update("update category set flashcard_count = 42 where id = ?", maths);
+    assertCount(maths, 42);
+    reconciler.reconcile();
+    assertCount(maths, 1);
+  }
+
+  private void assertCount(final long categoryId, final long expected) throws Exception {
+    mockMvc
+        .perform(get("/api/categories/" + categoryId))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.flashcardCount").value(expected));
+  }
+
+  private long create(final String name) throws Exception {
+    String json =
+        mockMvc
+            .perform(
+                post("/api/categories")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new CategoryDto(null, name))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(json, CategoryDto.class).getId();
+  }
+
+  private long card(final String question, final long categoryId) throws Exception {
+    String json =
+        mockMvc
+            .perform(
+                post("/api/flashcards")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new FlashcardDto(null, question, "Réponse", categoryId))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(json, FlashcardDto.class).getId();
+  }
+}
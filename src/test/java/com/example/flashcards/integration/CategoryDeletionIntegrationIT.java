@@ -0,0 +1,130 @@
+package com.example.flashcards.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.flashcards.dto.CategoryDeletionDto;
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.FlashcardDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+class CategoryDeletionIntegrationIT {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void delete_removesFlashcardsAndReviews_inOneTransaction() throws Exception {
+    long id = createWithCards("Géographie", 30);
+    mockMvc
+        .perform(
+            post("/api/review/" + firstCard(id))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"grade\":4}"))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(delete("/api/categories/" + id)).andExpect(status().isOk());
+
+    mockMvc.perform(get("/api/categories/" + id)).andExpect(status().isNotFound());
+    assertNoRows(id);
+  }
+
+  @Test
+  void deleteAsync_deletesInChunks_andReportsProgress() throws Exception {
+    long id = createWithCards("Histoire", 30);
+
+    String json =
+        mockMvc
+            .perform(delete("/api/categories/" + id).param("async", "true"))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.total").value(30))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String location =
+        "/api/categories/deletions/"
+            + objectMapper.readValue(json, CategoryDeletionDto.class).getId();
+
+    CategoryDeletionDto progress = poll(location);
+    for (long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        progress.getStatus() == CategoryDeletionDto.Status.RUNNING && System.nanoTime() < deadline;
+        progress = poll(location)) {
+      Thread.sleep(50);
+    }
+    assertEquals(CategoryDeletionDto.Status.DONE, progress.getStatus());
+    assertEquals(30, progress.getDeleted());
+    mockMvc.perform(get("/api/categories/" + id)).andExpect(status().isNotFound());
+    assertNoRows(id);
+  }
+
+  private void assertNoRows(final long categoryId) {
+    Integer cards =
+        jdbcTemplate.queryForObject(
+            "select count(*) from flashcard where category_id = ?", Integer.class, categoryId);
+    Integer reviews =
+        jdbcTemplate.queryForObject("select count(*) from review_state", Integer.class);
+    assertEquals(0, cards);
+    assertEquals(0, reviews);
+  }
+
+  private CategoryDeletionDto poll(final String location) throws Exception {
+    String json =
+        mockMvc
+            .perform(get(location))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(json, CategoryDeletionDto.class);
+  }
+
+  private long firstCard(final long categoryId) {
+    return jdbcTemplate
+        .queryForList(
+            "select id from flashcard where category_id = ? order by id", Long.class, categoryId)
+        .get(0);
+  }
+
+  private long createWithCards(final String name, final int count) throws Exception {
+    String json =
+        mockMvc
+            .perform(
+                post("/api/categories")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new CategoryDto(null, name))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    long id = objectMapper.readValue(json, CategoryDto.class).getId();
+    List<FlashcardDto> cards = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      cards.add(new FlashcardDto(null, name + " " + i + " ?", "Réponse", id));
+    }
+    mockMvc
+        .perform(
+            post("/api/flashcards/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cards)))
+        .andExpect(status().isOk());
+    return id;
+  }
+}
@@ -1,5 +1,6 @@
 package com.example.flashcards.integration;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -45,10 +46,20 @@ class CategoryIntegrationIT {
     CategoryDto created = objectMapper.readValue(response, CategoryDto.class);
 
     // Read Category
+    String etag =
+        mockMvc
+            .perform(get("/api/categories/" + created.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.name").value("Science"))
+            .andExpect(header().string("Cache-Control", containsString("stale-while-revalidate")))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+
+    // Conditional read: unchanged collection -> 304
     mockMvc
-        .perform(get("/api/categories/" + created.getId()))
-        .andExpect(status().isOk())
-        .andExpect(jsonPath("$.name").value("Science"));
+        .perform(get("/api/categories/" + created.getId()).header("If-None-Match", etag))
+        .andExpect(status().isNotModified());
 
     // 3. Update Category
     CategoryDto updatedCategory = new CategoryDto(created.getId(), "Biology");
@@ -62,6 +73,12 @@ class CategoryIntegrationIT {
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.name").value("Biology"));
 
+    // The update bumped the version: the old ETag no longer matches
+    mockMvc
+        .perform(get("/api/categories/" + created.getId()).header("If-None-Match", etag))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.name").value("Biology"));
+
     // Delete Category
     mockMvc.perform(delete("/api/categories/" + created.getId())).andExpect(status().isOk());
 
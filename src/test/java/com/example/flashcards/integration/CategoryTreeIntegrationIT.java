@@ -0,0 +1,154 @@
+package com.example.flashcards.integration;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.service.CategoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+class CategoryTreeIntegrationIT {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private CategoryService categoryService;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void subtreeQueries_followCreatesAndMoves() throws Exception {
+    long root = create("Informatique", null);
+    long languages = create("Langages", root);
+    long java = create("Java", languages);
+    long other = create("Cuisine", null);
+    long jvm = card("Qu'est-ce qu'une JVM ?", java);
+    long language = card("Qu'est-ce qu'un langage ?", languages);
+    long recipe = card("Recette ?", other);
+
+    mockMvc
+        .perform(get("/api/categories/" + root + "/subtree"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.children[0].name").value("Langages"))
+        .andExpect(jsonPath("$.children[0].children[0].name").value("Java"));
+
+    mockMvc
+        .perform(get("/api/flashcards").param("underCategory", String.valueOf(root)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.items", hasSize(2)))
+        .andExpect(
+            jsonPath("$.items[*].categoryId")
+                .value(containsInAnyOrder((int) java, (int) languages)));
+
+    // Moving "Langages" under "Cuisine" carries "Java" along
+    mockMvc
+        .perform(
+            put("/api/categories/" + languages)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(new CategoryDto(languages, "Langages", other))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.parentId").value(other));
+
+    mockMvc
+        .perform(get("/api/categories/" + root + "/subtree"))
+        .andExpect(jsonPath("$.children").isEmpty());
+    mockMvc
+        .perform(get("/api/flashcards").param("underCategory", String.valueOf(other)))
+        .andExpect(jsonPath("$.items", hasSize(3)));
+
+    // A category cannot move under its own descendant
+    mockMvc
+        .perform(
+            put("/api/categories/" + languages)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(new CategoryDto(languages, "Langages", java))))
+        .andExpect(status().isBadRequest());
+
+    // Deleting "Langages" takes "Java", their flashcards, review states and stats along
+    mockMvc
+        .perform(
+            post("/api/review/" + jvm)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"grade\":4}"))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/api/categories/" + java + "/stats")).andExpect(status().isOk());
+
+    mockMvc.perform(delete("/api/categories/" + languages)).andExpect(status().isOk());
+
+    for (long id : List.of(languages, java)) {
+      mockMvc.perform(get("/api/categories/" + id)).andExpect(status().isNotFound());
+      mockMvc.perform(get("/api/categories/" + id + "/stats")).andExpect(status().isNotFound());
+      assertEquals(0, categoryService.countFlashcards(id));
+    }
+    for (long id : List.of(jvm, language)) {
+      mockMvc.perform(get("/api/flashcards/" + id)).andExpect(status().isNotFound());
+      mockMvc.perform(get("/api/flashcards/" + id + "/stats")).andExpect(status().isNotFound());
+    }
+    assertEquals(
+        0, jdbcTemplate.queryForObject("select count(*) from review_state", Integer.class));
+    assertEquals(
+        0,
+        jdbcTemplate.queryForObject(
+            "select count(*) from review_stats where target_id in (?, ?, ?, ?)",
+            Integer.class,
+            languages,
+            java,
+            jvm,
+            language));
+    mockMvc.perform(get("/api/categories/" + other)).andExpect(status().isOk());
+    mockMvc
+        .perform(get("/api/flashcards").param("underCategory", String.valueOf(other)))
+        .andExpect(jsonPath("$.items", hasSize(1)))
+        .andExpect(jsonPath("$.items[0].id").value(recipe));
+  }
+
+  private long create(final String name, final Long parentId) throws Exception {
+    String json =
+        mockMvc
+            .perform(
+                post("/api/categories")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(new CategoryDto(null, name, parentId))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(json, CategoryDto.class).getId();
+  }
+
+  private long card(final String question, final long categoryId) throws Exception {
+    String json =
+        mockMvc
+            .perform(
+            post("/api/flashcards")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new FlashcardDto(null, question, "Réponse", categoryId))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(json, FlashcardDto.class).getId();
+  }
+}
@@ -0,0 +1,178 @@
+package com.example.flashcards.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.DeckImportDto;
+import com.example.flashcards.dto.FlashcardDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+class DeckIntegrationIT {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Value("${flashcards.deck.work-dir}")
+  private Path workDir;
+
+  @Test
+  void exportedDeck_isImportedUnderAnotherParent() throws Exception {
+    long source = create("Vocabulaire", null);
+    List<FlashcardDto> cards = new ArrayList<>();
+    for (int i = 0; i < 1200; i++) {
+      cards.add(new FlashcardDto(null, "mot " + i + " ?", "wort " + i + " — ü", source));
+    }
+    mockMvc
+        .perform(
+            post("/api/flashcards/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cards)))
+        .andExpect(status().isOk());
+
+    byte[] plain = export(source, false);
+    byte[] compressed = export(source, true);
+    assertTrue(compressed.length < plain.length, compressed.length + " / " + plain.length);
+
+    long parent = create("Allemand", null);
+    String json =
+        mockMvc
+            .perform(
+                post("/api/categories/deck")
+                    .param("parentId", Long.toString(parent))
+                    .contentType("application/vnd.flashcards.deck")
+                    .content(compressed))
+            .andExpect(status().isCreated())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    DeckImportDto result = objectMapper.readValue(json, DeckImportDto.class);
+    assertEquals("Vocabulaire", result.getName());
+    assertEquals(1200, result.getCreated());
+    assertEquals(0, result.getFailed());
+
+    mockMvc
+        .perform(get("/api/categories/" + result.getCategoryId()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.parentId").value(parent));
+    // Same name and cards in the same order: the re-exported deck is identical
+    assertArrayEquals(plain, export(result.getCategoryId(), false));
+  }
+
+  @Test
+  void invalidDeck_isRejected_withoutCreatingTheCategory() throws Exception {
+    long before = categoryCount();
+
+    mockMvc
+        .perform(
+            post("/api/categories/deck")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content("{\"name\":\"pas un paquet\"}".getBytes(StandardCharsets.UTF_8)))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/categories/999999/deck")).andExpect(status().isNotFound());
+
+    assertEquals(before, categoryCount());
+  }
+
+  @Test
+  void export_servesRanges_andDeletesTheTemporaryFile() throws Exception {
+    long source = create("Capitales", null);
+    mockMvc
+        .perform(
+            post("/api/flashcards")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(
+                    objectMapper.writeValueAsString(
+                        new FlashcardDto(null, "France ?", "Paris", source))))
+        .andExpect(status().isOk());
+    byte[] deck = export(source, false);
+    Set<Path> before = deckFiles();
+
+    mockMvc
+        .perform(get("/api/categories/" + source + "/deck").header("Range", "bytes=0-3"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string("Content-Range", "bytes 0-3/" + deck.length))
+        .andExpect(content().bytes(Arrays.copyOf(deck, 4)));
+    mockMvc
+        .perform(head("/api/categories/" + source + "/deck"))
+        .andExpect(status().isOk())
+        .andExpect(header().longValue("Content-Length", deck.length));
+
+    assertEquals(before, deckFiles());
+  }
+
+  private byte[] export(final long categoryId, final boolean compress) throws Exception {
+    Set<Path> before = deckFiles();
+    MockHttpServletResponse response =
+        mockMvc
+            .perform(
+                get("/api/categories/" + categoryId + "/deck")
+                    .param("compress", Boolean.toString(compress)))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse();
+    byte[] deck = response.getContentAsByteArray();
+    assertEquals(deck.length, Long.parseLong(response.getHeader("Content-Length")));
+    // The temporary file is gone once the request has completed
+    assertEquals(before, deckFiles());
+    return deck;
+  }
+
+  private Set<Path> deckFiles() throws IOException {
+    try (Stream<Path> files = Files.list(workDir)) {
+      return files
+          .filter(f -> f.getFileName().toString().startsWith("deck-"))
+          .collect(Collectors.toSet());
+    }
+  }
+
+  private long categoryCount() throws Exception {
+    String json =
+        mockMvc
+            .perform(get("/api/categories"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readTree(json).size();
+  }
+
+  private long create(final String name, final Long parentId) throws Exception {
+    String json =
+        mockMvc
+            .perform(
+                post("/api/categories")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(new CategoryDto(null, name, parentId))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(json, CategoryDto.class).getId();
+  }
+}
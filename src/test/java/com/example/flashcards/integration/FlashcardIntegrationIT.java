@@ -1,16 +1,26 @@
 package com.example.flashcards.integration;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.example.flashcards.dto.CategoryDto;
 import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.dto.FlashcardPageDto;
+import com.example.flashcards.service.FlashcardService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -23,6 +33,10 @@ class FlashcardIntegrationIT {
 
   @Autowired private ObjectMapper objectMapper;
 
+  @Autowired private FlashcardService flashcardService;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
   @Test
   void testCRUDFLashcard() throws Exception {
     // Create Category for Flashcard
@@ -102,4 +116,90 @@ class FlashcardIntegrationIT {
                 .content(objectMapper.writeValueAsString(invalid)))
         .andExpect(status().is4xxClientError()); // ou ce que tu veux
   }
+
+  @Test
+  void testBatchImport() throws Exception {
+    String categoryResponse =
+        mockMvc
+            .perform(
+                post("/api/categories")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new CategoryDto(null, "Batch"))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    Long categoryId = objectMapper.readValue(categoryResponse, CategoryDto.class).getId();
+
+    List<FlashcardDto> batch = new ArrayList<>();
+    for (int i = 0; i < 120; i++) {
+      batch.add(new FlashcardDto(null, "Q" + i, "A" + i, categoryId));
+    }
+    batch.add(new FlashcardDto(null, "Q?", "A", 999_999L));
+
+    mockMvc
+        .perform(
+            post("/api/flashcards/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.created").value(120))
+        .andExpect(jsonPath("$.failed").value(1))
+        .andExpect(jsonPath("$.items[0].id").isNumber())
+        .andExpect(jsonPath("$.items[120].error").value("Category not found"));
+
+    // Imported cards are searchable right after the batch commits
+    mockMvc
+        .perform(get("/api/flashcards/search").param("question", "q11").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(5))
+        .andExpect(jsonPath("$[0].question").value("Q11"));
+
+    // Random draws come from the imported category only, without duplicates
+    String quiz =
+        mockMvc
+            .perform(
+                get("/api/flashcards/random")
+                    .param("categoryId", categoryId.toString())
+                    .param("n", "30"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(30))
+            .andExpect(jsonPath("$[0].categoryId").value(categoryId))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    FlashcardDto[] drawn = objectMapper.readValue(quiz, FlashcardDto[].class);
+    assertEquals(30, Arrays.stream(drawn).map(FlashcardDto::getId).distinct().count());
+    assertTrue(Arrays.stream(drawn).allMatch(f -> categoryId.equals(f.getCategoryId())));
+  }
+
+  @Test
+  void fullListPagesAndExport_returnTheSameCards_includingUncategorizedOnes() {
+    final long id = 900_000_001L;
+    jdbcTemplate.update(
+        "insert into flashcard (id, question, answer, category_id, version) values (?, ?, ?, null, 0)",
+        id,
+        "Sans catégorie ?",
+        "Oui");
+    try {
+      final Set<Long> all = new TreeSet<>();
+      flashcardService.getAllFlashcards().forEach(f -> all.add(f.getId()));
+      final Set<Long> paged = new TreeSet<>();
+      String cursor = null;
+      do {
+        final FlashcardPageDto page =
+            flashcardService.getFlashcardPage(cursor, FlashcardService.MAX_PAGE_SIZE);
+        page.getItems().forEach(f -> paged.add(f.getId()));
+        cursor = page.getNext();
+      } while (cursor != null);
+      final Set<Long> exported = new TreeSet<>();
+      flashcardService.forEachFlashcard(f -> exported.add(f.getId()));
+
+      assertTrue(all.contains(id));
+      assertEquals(all, paged);
+      assertEquals(all, exported);
+    } finally {
+      jdbcTemplate.update("delete from flashcard where id = ?", id);
+    }
+  }
 }
@@ -0,0 +1,101 @@
+package com.example.flashcards.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.entity.Category;
+import com.example.flashcards.entity.Flashcard;
+import com.example.flashcards.repository.CategoryRepository;
+import com.example.flashcards.service.CategoryCountReconciler;
+import com.example.flashcards.service.CategoryService;
+import com.example.flashcards.service.FlashcardService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+class HibernateCacheIntegrationIT {
+
+  @Autowired private CategoryRepository categoryRepository;
+
+  @Autowired private CategoryService categoryService;
+
+  @Autowired private FlashcardService flashcardService;
+
+  @Autowired private CategoryCountReconciler categoryCountReconciler;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Test
+  void categoryReads_areServedFromSecondLevelAndQueryCaches() {
+    Long id = categoryService.createCategory(new Category(null, "Astronomie", null)).getId();
+    Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    // Entity reads in separate sessions: the second one issues no SQL
+    categoryRepository.findById(id).orElseThrow();
+    long statements = stats.getPrepareStatementCount();
+    assertEquals("Astronomie", categoryRepository.findById(id).orElseThrow().getName());
+    assertEquals(statements, stats.getPrepareStatementCount());
+    assertTrue(stats.getDomainDataRegionStatistics(Category.CACHE_REGION).getHitCount() > 0);
+
+    // Same search twice: the second result comes from the query cache
+    List<CategoryDto> first = search("astro");
+    statements = stats.getPrepareStatementCount();
+    assertEquals(first, search("astro"));
+    assertEquals(statements, stats.getPrepareStatementCount());
+
+    // A flashcard write moves the count: the search results are refreshed, and only the
+    // modified category leaves the second-level cache
+    Long other = categoryService.createCategory(new Category(null, "Botanique", null)).getId();
+    categoryRepository.findById(other).orElseThrow();
+    flashcardService.createFlashcard(
+        new Flashcard(null, "Q", "A", categoryService.getCategoryById(id).orElseThrow()));
+    statements = stats.getPrepareStatementCount();
+    assertEquals("Botanique", categoryRepository.findById(other).orElseThrow().getName());
+    assertEquals(statements, stats.getPrepareStatementCount());
+    assertEquals(1L, search("astro").get(0).getFlashcardCount());
+    assertEquals(1L, categoryRepository.findById(id).orElseThrow().getFlashcardCount());
+
+    // Same for the periodic reconciliation, which may touch any category
+    new TransactionTemplate(transactionManager)
+        .executeWithoutResult(status -> categoryRepository.addToFlashcardCount(id, 5));
+    categoryCountReconciler.reconcile();
+    assertEquals(1L, search("astro").get(0).getFlashcardCount());
+
+    assertTrue(
+        meterRegistry
+                .get("hibernate.cache.requests")
+                .tag("region", Category.CACHE_REGION)
+                .tag("result", "hit")
+                .functionCounter()
+                .count()
+            > 0);
+    assertTrue(
+        meterRegistry
+                .get("hibernate.query.cache.requests")
+                .tag("result", "hit")
+                .functionCounter()
+                .count()
+            > 0);
+  }
+
+  private List<CategoryDto> search(final String term) {
+    return categoryRepository.searchRanked(term, "%" + term + "%", term + "%", Limit.of(10));
+  }
+}
@@ -0,0 +1,76 @@
+package com.example.flashcards.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.flashcards.config.MetricsConfig;
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.entity.Category;
+import com.example.flashcards.service.CategoryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@ActiveProfiles("it")
+@AutoConfigureMockMvc
+class MetricsIntegrationIT {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Autowired private CategoryService categoryService;
+
+  @Test
+  void serviceAndRepositoryCalls_areTimedAndRowsCounted() throws Exception {
+    categoryService.createCategory(new Category(null, "Metrics", null));
+
+    mockMvc
+        .perform(get("/api/categories/search").param("name", "metr"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].name").value("Metrics"));
+
+    Timer service =
+        meterRegistry
+            .find(MetricsConfig.SERVICE_TIMER)
+            .tags("class", CategoryService.class.getName(), "method", "searchByName")
+            .timer();
+    assertNotNull(service);
+    assertTrue(service.count() >= 1);
+    assertNotNull(
+        meterRegistry
+            .find("spring.data.repository.invocations")
+            .tags("repository", "CategoryRepository", "method", "searchRanked")
+            .timer());
+
+    Counter rows =
+        meterRegistry
+            .find(MetricsConfig.ROWS_COUNTER)
+            .tags("source", "CategoryRepository", "method", "searchRanked")
+            .counter();
+    assertNotNull(rows);
+    assertTrue(rows.count() >= 1);
+
+    double before = rowCount("findAllAsDto");
+    List<CategoryDto> all = categoryService.getAllCategories();
+    assertEquals(before + all.size(), rowCount("findAllAsDto"), 0.0);
+  }
+
+  private double rowCount(final String method) {
+    Counter counter =
+        meterRegistry
+            .find(MetricsConfig.ROWS_COUNTER)
+            .tags("source", "CategoryRepository", "method", method)
+            .counter();
+    return counter != null ? counter.count() : 0.0;
+  }
+}
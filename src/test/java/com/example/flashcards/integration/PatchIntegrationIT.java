@@ -0,0 +1,124 @@
+package com.example.flashcards.integration;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.FlashcardDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+class PatchIntegrationIT {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  void patch_updatesSentFields_andChecksVersion() throws Exception {
+    CategoryDto algebreDto = create("Algèbre");
+    long algebre = algebreDto.getId();
+    long geometrie = create("Géométrie").getId();
+    String json =
+        mockMvc
+            .perform(
+                post("/api/flashcards")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(
+                        objectMapper.writeValueAsString(
+                            new FlashcardDto(null, "x² = 4 ?", "x = ±2", algebre))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    long id = objectMapper.readValue(json, FlashcardDto.class).getId();
+
+    mockMvc.perform(get("/api/flashcards/" + id)).andExpect(jsonPath("$.version").value(0));
+    mockMvc
+        .perform(
+            patch("/api/flashcards/" + id)
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"answer\":\"x = 2 ou x = -2\",\"categoryId\":" + geometrie + "}"))
+        .andExpect(status().isNoContent())
+        .andExpect(header().string("ETag", "\"1\""));
+
+    mockMvc
+        .perform(get("/api/flashcards/" + id))
+        .andExpect(jsonPath("$.question").value("x² = 4 ?"))
+        .andExpect(jsonPath("$.answer").value("x = 2 ou x = -2"))
+        .andExpect(jsonPath("$.categoryId").value(geometrie))
+        .andExpect(jsonPath("$.version").value(1));
+    mockMvc
+        .perform(get("/api/categories/" + algebre))
+        .andExpect(jsonPath("$.flashcardCount").value(0));
+    mockMvc
+        .perform(get("/api/categories/" + geometrie))
+        .andExpect(jsonPath("$.flashcardCount").value(1));
+
+    // The version read before the first patch is now stale
+    mockMvc
+        .perform(
+            patch("/api/flashcards/" + id)
+                .header("If-Match", "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"question\":\"x² = 9 ?\"}"))
+        .andExpect(status().isPreconditionFailed());
+    mockMvc
+        .perform(
+            patch("/api/flashcards/" + id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"question\":\"x² = 9 ?\"}"))
+        .andExpect(status().isNoContent());
+    mockMvc
+        .perform(get("/api/flashcards/search").param("question", "x² = 9"))
+        .andExpect(jsonPath("$[0].id").value(id));
+
+    // The version returned on creation is the one stored
+    long version = algebreDto.getVersion();
+    mockMvc
+        .perform(get("/api/categories/" + algebre))
+        .andExpect(jsonPath("$.version").value(version));
+    mockMvc
+        .perform(
+            patch("/api/categories/" + algebre)
+                .header("If-Match", "\"" + version + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Algèbre linéaire\"}"))
+        .andExpect(status().isNoContent());
+    mockMvc
+        .perform(get("/api/categories/" + algebre))
+        .andExpect(jsonPath("$.name").value("Algèbre linéaire"))
+        .andExpect(jsonPath("$.version").value(version + 1));
+    mockMvc
+        .perform(
+            patch("/api/categories/" + algebre)
+                .header("If-Match", "\"" + version + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Algèbre\"}"))
+        .andExpect(status().isPreconditionFailed());
+  }
+
+  private CategoryDto create(final String name) throws Exception {
+    String json =
+        mockMvc
+            .perform(
+                post("/api/categories")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new CategoryDto(null, name))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(json, CategoryDto.class);
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.flashcards.integration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.dto.QuizQuestionDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+class QuizIntegrationIT {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void quiz_drawsOptionsFromTheCategory_withOneQuery() throws Exception {
+    long capitals = create("Capitales");
+    List<FlashcardDto> cards = new ArrayList<>();
+    for (String[] pair :
+        new String[][] {
+          {"France ?", "Paris"}, {"Italie ?", "Rome"}, {"Espagne ?", "Madrid"},
+          {"Allemagne ?", "Berlin"}, {"Portugal ?", "Lisbonne"}, {"Autriche ?", "Vienne"},
+          {"Belgique ?", "Bruxelles"}, {"Pays-Bas ?", "Amsterdam"}, {"Suède ?", "Stockholm"},
+          {"Norvège ?", "Oslo"}, {"Paris (bis) ?", "paris"}
+        }) {
+      cards.add(new FlashcardDto(null, pair[0], pair[1], capitals));
+    }
+    mockMvc
+        .perform(
+            post("/api/flashcards/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cards)))
+        .andExpect(status().isOk());
+
+    Statistics stats = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    long statements = stats.getPrepareStatementCount();
+    String json =
+        mockMvc
+            .perform(
+                get("/api/quiz")
+                    .param("categoryId", Long.toString(capitals))
+                    .param("n", "50")
+                    .param("k", "4"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(11))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    assertEquals(statements + 1, stats.getPrepareStatementCount());
+
+    for (QuizQuestionDto q : objectMapper.readValue(json, QuizQuestionDto[].class)) {
+      List<String> options = q.getOptions();
+      assertEquals(4, options.size());
+      assertEquals(4, new HashSet<>(options).size());
+      String answer = options.get(q.getAnswerIndex());
+      // "Paris" and "paris" never show up as two options of the same question
+      assertFalse(options.contains("Paris") && options.contains("paris"), options.toString());
+      assertTrue(cards.stream().anyMatch(c -> c.getAnswer().equals(answer)));
+    }
+  }
+
+  private long create(final String name) throws Exception {
+    String json =
+        mockMvc
+            .perform(
+                post("/api/categories")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(new CategoryDto(null, name))))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(json, CategoryDto.class).getId();
+  }
+}
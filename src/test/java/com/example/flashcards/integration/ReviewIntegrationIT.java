@@ -0,0 +1,113 @@
+package com.example.flashcards.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.FlashcardDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@ActiveProfiles("it")
+@AutoConfigureMockMvc
+class ReviewIntegrationIT {
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void testReviewCycle() throws Exception {
+    CategoryDto category = create("/api/categories", new CategoryDto(null, "Review"));
+    Long categoryId = category.getId();
+    FlashcardDto first = create("/api/flashcards", new FlashcardDto(null, "R1", "A1", categoryId));
+    FlashcardDto second = create("/api/flashcards", new FlashcardDto(null, "R2", "A2", categoryId));
+
+    // New cards are due immediately, oldest first
+    mockMvc
+        .perform(get("/api/review/next").param("categoryId", categoryId.toString()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(first.getId()))
+        .andExpect(jsonPath("$.repetitions").doesNotExist());
+
+    // A successful review pushes the card one day ahead
+    mockMvc
+        .perform(
+            post("/api/review/" + first.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"grade\":5,\"responseTimeMs\":1200}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.repetitions").value(1))
+        .andExpect(jsonPath("$.intervalDays").value(1));
+
+    // Learning stats are updated as soon as the review commits
+    mockMvc
+        .perform(get("/api/categories/" + categoryId + "/stats"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.reviews").value(1))
+        .andExpect(jsonPath("$.successRate").value(1.0))
+        .andExpect(jsonPath("$.averageResponseMs").value(1200.0));
+    mockMvc
+        .perform(get("/api/flashcards/" + second.getId() + "/stats"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.reviews").value(0))
+        .andExpect(jsonPath("$.successRate").doesNotExist());
+
+    // The review reaches the review log asynchronously
+    assertEquals(1, awaitReviewEvents(first.getId(), 1));
+
+    mockMvc
+        .perform(get("/api/review/next").param("categoryId", categoryId.toString()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(second.getId()));
+
+    // Deleting the card removes it (and its review state) from the queue
+    mockMvc.perform(delete("/api/flashcards/" + second.getId())).andExpect(status().isOk());
+    mockMvc.perform(delete("/api/flashcards/" + first.getId())).andExpect(status().isOk());
+    mockMvc
+        .perform(get("/api/review/next").param("categoryId", categoryId.toString()))
+        .andExpect(status().isNoContent());
+  }
+
+  private int awaitReviewEvents(final Long flashcardId, final int expected)
+      throws InterruptedException {
+    int count = 0;
+    for (int i = 0; i < 50 && count < expected; i++) {
+      Thread.sleep(100);
+      final Integer rows =
+          jdbcTemplate.queryForObject(
+              "select count(*) from review_event where flashcard_id = ?",
+              Integer.class,
+              flashcardId);
+      count = rows == null ? 0 : rows;
+    }
+    return count;
+  }
+
+  private <T> T create(final String url, final T body) throws Exception {
+    String response =
+        mockMvc
+            .perform(
+                post(url)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(body)))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    @SuppressWarnings("unchecked")
+    T created = (T) objectMapper.readValue(response, body.getClass());
+    return created;
+  }
+}
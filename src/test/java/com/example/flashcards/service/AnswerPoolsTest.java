@@ -0,0 +1,114 @@
+package com.example.flashcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.repository.FlashcardRepository;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AnswerPoolsTest {
+
+  private final Random random = new Random(42);
+
+  private FlashcardRepository flashcardRepository;
+
+  private AnswerPools pools;
+
+  @BeforeEach
+  void setUp() {
+    flashcardRepository = mock(FlashcardRepository.class);
+    pools = new AnswerPools(flashcardRepository);
+  }
+
+  @Test
+  void rebuild_groupsAnswersByCategory() {
+    when(flashcardRepository.streamAllAsDto())
+        .thenReturn(
+            Stream.of(
+                new FlashcardDto(1L, "Q1", "Paris", 1L),
+                new FlashcardDto(2L, "Q2", "Rome", 1L),
+                new FlashcardDto(3L, "Q3", "H2O", 2L)));
+
+    pools.rebuild();
+
+    assertTrue(pools.isReady());
+    assertEquals(List.of("Rome"), pools.distractors(1L, "Paris", 3, random));
+    assertEquals(List.of(), pools.distractors(2L, "H2O", 3, random));
+  }
+
+  @Test
+  void rebuild_replaysWritesReceivedWhileReadingTheTable() {
+    when(flashcardRepository.streamAllAsDto())
+        .thenReturn(
+            Stream.of(
+                    new FlashcardDto(1L, "Q1", "Paris", 1L),
+                    new FlashcardDto(2L, "Q2", "Rome", 1L),
+                    new FlashcardDto(3L, "Q3", "Madrid", 1L))
+                .peek(
+                    row -> {
+                      if (row.getId() == 1L) {
+                        pools.remove(2L);
+                        pools.put(new FlashcardDto(3L, null, "Lisbonne", null));
+                      }
+                    }));
+
+    pools.rebuild();
+
+    assertEquals(List.of("Lisbonne"), pools.distractors(1L, "Paris", 3, random));
+  }
+
+  @Test
+  void distractors_skipDuplicatesAndNearlyIdenticalAnswers() {
+    pools.put(new FlashcardDto(1L, "Q", "Mitochondrie", 1L));
+    pools.put(new FlashcardDto(2L, "Q", "mitochondries", 1L));
+    pools.put(new FlashcardDto(3L, "Q", "Ribosome", 1L));
+    pools.put(new FlashcardDto(4L, "Q", "ribosome !", 1L));
+    pools.put(new FlashcardDto(5L, "Q", "Noyau", 1L));
+
+    for (int i = 0; i < 20; i++) {
+      final List<String> drawn = pools.distractors(1L, "Mitochondrie", 5, random);
+      assertEquals(2, drawn.size(), drawn.toString());
+      assertEquals(
+          Set.of("ribosome", "noyau"),
+          new HashSet<>(drawn.stream().map(AnswerPools::key).toList()));
+    }
+  }
+
+  @Test
+  void nearlyIdentical_toleratesSmallTyposOnLongAnswersOnly() {
+    assertTrue(AnswerPools.nearlyIdentical("paris", "paris"));
+    assertFalse(AnswerPools.nearlyIdentical("4", "5"));
+    assertFalse(AnswerPools.nearlyIdentical("rome", "home"));
+    assertTrue(AnswerPools.nearlyIdentical("photosynthese", "photosinthese"));
+    assertFalse(AnswerPools.nearlyIdentical("photosynthese", "respiration"));
+    assertEquals("ca marche", AnswerPools.key("Ça  marche !"));
+  }
+
+  @Test
+  void writes_keepPoolsInSync() {
+    pools.put(new FlashcardDto(1L, "Q", "Paris", 1L));
+    pools.put(new FlashcardDto(2L, "Q", "Rome", 1L));
+    pools.put(new FlashcardDto(3L, "Q", "Rome", 1L));
+
+    // One of two "Rome" cards removed: the answer stays
+    pools.remove(2L);
+    assertEquals(List.of("Rome"), pools.distractors(1L, "Paris", 3, random));
+
+    // Partial update of the answer only, then a move to another category
+    pools.put(new FlashcardDto(3L, null, "Madrid", null));
+    assertEquals(List.of("Madrid"), pools.distractors(1L, "Paris", 3, random));
+    pools.put(new FlashcardDto(3L, "Q", "Madrid", 2L));
+    assertEquals(List.of(), pools.distractors(1L, "Paris", 3, random));
+    assertEquals(List.of("Madrid"), pools.distractors(2L, "Lisbonne", 3, random));
+
+    pools.removeCategories(List.of(2L));
+    assertEquals(List.of(), pools.distractors(2L, "Lisbonne", 3, random));
+  }
+}
@@ -0,0 +1,237 @@
+package com.example.flashcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.repository.FlashcardRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+/** Instantané local du catalogue sur une base H2 embarquée. */
+class CatalogSnapshotTest {
+
+  @TempDir private Path dir;
+
+  private JdbcTemplate jdbc;
+
+  private DataSourceTransactionManager transactionManager;
+
+  private FlashcardRepository flashcardRepository;
+
+  private FlashcardSearchIndex searchIndex;
+
+  private FlashcardSampler sampler;
+
+  private AnswerPools answerPools;
+
+  private DataVersions dataVersions;
+
+  @BeforeEach
+  void setUp() {
+    final JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:catalog-snapshot;DB_CLOSE_DELAY=-1");
+    dataSource.setUser("sa");
+    jdbc = new JdbcTemplate(dataSource);
+    transactionManager = new DataSourceTransactionManager(dataSource);
+    jdbc.execute("drop table if exists flashcard");
+    jdbc.execute(
+        "create table flashcard (id bigint primary key, question varchar(255),"
+            + " answer varchar(255), category_id bigint, version bigint default 0 not null)");
+    for (long id = 1; id <= 20; id++) {
+      jdbc.update(
+          "insert into flashcard (id, question, answer, category_id) values (?, ?, ?, ?)",
+          id,
+          "Question " + id,
+          "Réponse " + id,
+          id % 2 == 0 ? 2L : null);
+    }
+    components();
+  }
+
+  /** Structures en mémoire d'une nouvelle instance. */
+  private void components() {
+    flashcardRepository = mock(FlashcardRepository.class);
+    searchIndex = new FlashcardSearchIndex(flashcardRepository);
+    sampler = new FlashcardSampler(flashcardRepository);
+    answerPools = new AnswerPools(flashcardRepository);
+    dataVersions = new DataVersions();
+  }
+
+  @Test
+  void load_writesTheSnapshot_thenNextStartReadsOnlyTheDelta() throws IOException {
+    final Path file = dir.resolve("catalog.snap");
+    snapshot(file.toString()).load();
+    assertTrue(Files.exists(file));
+    assertEquals(20, sampler.size());
+
+    jdbc.update("update flashcard set question = 'Capitale ?', version = version + 1 where id = 3");
+    jdbc.update("delete from flashcard where id = 5");
+    jdbc.update("insert into flashcard (id, question, answer) values (21, 'Nouvelle ?', 'Oui')");
+    components();
+    final CatalogSnapshot restarted = snapshot(file.toString());
+
+    assertEquals(new CatalogSnapshot.Refresh(20, 2, 1, false), restarted.refresh());
+    restarted.load();
+
+    verify(flashcardRepository, never()).streamAllAsDto();
+    assertTrue(searchIndex.isReady() && sampler.isReady() && answerPools.isReady());
+    assertEquals(20, searchIndex.size());
+    assertEquals(20, sampler.size());
+    assertEquals(
+        List.of(new FlashcardDto(3L, "Capitale ?", "Réponse 3", null)),
+        searchIndex.search("capitale", 10));
+    assertEquals(
+        List.of(21L), searchIndex.search("nouvelle", 10).stream().map(d -> d.getId()).toList());
+    assertTrue(searchIndex.search("question 5", 10).isEmpty());
+    assertEquals(10, sampler.sample(2L, 50).size());
+  }
+
+  @Test
+  void invalidOrLargelyStaleSnapshot_isRewrittenFromAFullScan() throws IOException {
+    final Path file = dir.resolve("catalog.snap");
+    final CatalogSnapshot snapshot = snapshot(file.toString());
+    assertTrue(snapshot.refresh().full());
+    assertFalse(snapshot.refresh().full());
+
+    jdbc.update("update flashcard set version = version + 1 where id <= 6");
+    assertEquals(new CatalogSnapshot.Refresh(20, 20, 0, true), snapshot.refresh());
+
+    final byte[] bytes = Files.readAllBytes(file);
+    bytes[bytes.length - 1] ^= 1;
+    Files.write(file, bytes);
+    assertThrows(IllegalArgumentException.class, () -> CatalogSnapshot.open(file));
+    assertTrue(snapshot.refresh().full());
+    assertEquals(20, CatalogSnapshot.open(file).count());
+  }
+
+  @Test
+  void refresh_keepsTheFile_whenTheWatermarkHasNotMoved() throws IOException {
+    final Path file = dir.resolve("catalog.snap");
+    final CatalogSnapshot snapshot = snapshot(file.toString());
+    snapshot.refresh();
+    final Object written = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+
+    assertEquals(new CatalogSnapshot.Refresh(20, 0, 0, false), snapshot.refresh());
+    assertEquals(written, Files.readAttributes(file, BasicFileAttributes.class).fileKey());
+    assertEquals(
+        new CatalogSnapshot.Watermark(20, 20, 0), CatalogSnapshot.open(file).watermark());
+
+    // Même nombre et même plus grand identifiant : seule la somme des versions a bougé
+    jdbc.update("update flashcard set question = 'Capitale ?', version = version + 1 where id = 3");
+    assertEquals(new CatalogSnapshot.Refresh(20, 1, 0, false), snapshot.refresh());
+    assertEquals(
+        new CatalogSnapshot.Watermark(20, 20, 1), CatalogSnapshot.open(file).watermark());
+  }
+
+  @Test
+  void load_catchesUpWritesCommittedDuringTheRebuild() {
+    sampler =
+        new FlashcardSampler(flashcardRepository) {
+          @Override
+          public void rebuild(final Iterator<FlashcardDto> rows) {
+            jdbc.update(
+                "update flashcard set question = 'Pendant ?', version = version + 1 where id = 3");
+            jdbc.update("delete from flashcard where id = 4");
+            super.rebuild(rows);
+          }
+        };
+
+    snapshot(dir.resolve("catalog.snap").toString()).load();
+
+    assertEquals(
+        List.of(3L), searchIndex.search("pendant", 10).stream().map(d -> d.getId()).toList());
+    assertEquals(19, searchIndex.size());
+    assertEquals(19, sampler.size());
+  }
+
+  @Test
+  void update_appliesWritesOfOtherInstancesToTheLiveStructures() throws IOException {
+    final CatalogSnapshot snapshot = snapshot(dir.resolve("catalog.snap").toString());
+    snapshot.load();
+    final String etag = dataVersions.flashcardsEtag();
+
+    jdbc.update(
+        "update flashcard set question = 'Capitale ?', category_id = null, version = version + 1"
+            + " where id = 4");
+    jdbc.update("delete from flashcard where id = 5");
+    jdbc.update("insert into flashcard (id, question, answer) values (21, 'Nouvelle ?', 'Oui')");
+
+    assertEquals(new CatalogSnapshot.Refresh(20, 2, 1, false), snapshot.update());
+
+    assertNotEquals(etag, dataVersions.flashcardsEtag());
+    assertEquals(
+        List.of(new FlashcardDto(4L, "Capitale ?", "Réponse 4", null)),
+        searchIndex.search("capitale", 10));
+    assertEquals(
+        List.of(21L), searchIndex.search("nouvelle", 10).stream().map(d -> d.getId()).toList());
+    assertTrue(searchIndex.search("question 5", 10).isEmpty());
+    assertEquals(20, sampler.size());
+    assertEquals(9, sampler.sample(2L, 50).size());
+
+    final String unchanged = dataVersions.flashcardsEtag();
+    snapshot.update();
+    assertEquals(unchanged, dataVersions.flashcardsEtag());
+  }
+
+  @Test
+  void update_doesNotOverwriteALocalWriteCommittedWhileApplying() throws IOException {
+    final CatalogSnapshot snapshot = snapshot(dir.resolve("catalog.snap").toString());
+    snapshot.load();
+    jdbc.update("update flashcard set question = 'Distante ?', version = version + 1 where id = 3");
+    // Écriture locale validée pendant l'application : sa mise à jour en mémoire passe avant la
+    // ligne plus ancienne relue par la réécriture
+    final AtomicBoolean armed = new AtomicBoolean();
+    searchIndex =
+        new FlashcardSearchIndex(flashcardRepository) {
+          @Override
+          public void put(final FlashcardDto dto) {
+            if (dto.getId() == 3L && armed.getAndSet(false)) {
+              jdbc.update(
+                  "update flashcard set question = 'Locale ?', version = version + 1 where id = 3");
+              super.put(new FlashcardDto(3L, "Locale ?", "Réponse 3", null));
+            }
+            super.put(dto);
+          }
+        };
+    searchIndex.rebuild(CatalogSnapshot.open(dir.resolve("catalog.snap")).iterator());
+    armed.set(true);
+
+    snapshot(dir.resolve("catalog.snap").toString()).update();
+
+    assertTrue(searchIndex.search("distante", 10).isEmpty());
+    assertEquals(
+        List.of(3L), searchIndex.search("locale", 10).stream().map(d -> d.getId()).toList());
+  }
+
+  @Test
+  void withoutPath_structuresAreBuiltFromTheDatabase() {
+    when(flashcardRepository.streamAllAsDto())
+        .thenAnswer(i -> Stream.of(new FlashcardDto(1L, "Q1", "A1", 1L)));
+    final CatalogSnapshot snapshot = snapshot("");
+
+    snapshot.load();
+
+    assertFalse(snapshot.isEnabled());
+    verify(flashcardRepository, times(3)).streamAllAsDto();
+    assertEquals(1, sampler.size());
+    assertEquals(1, searchIndex.size());
+  }
+
+  private CatalogSnapshot snapshot(final String path) {
+    return new CatalogSnapshot(
+        jdbc, transactionManager, searchIndex, sampler, answerPools, dataVersions, path);
+  }
+}
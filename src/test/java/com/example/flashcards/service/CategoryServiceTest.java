@@ -2,41 +2,85 @@ package com.example.flashcards.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 import com.example.flashcards.dto.CategoryDto;
+import com.example.flashcards.dto.CategoryTreeDto;
 import com.example.flashcards.entity.Category;
 import com.example.flashcards.mapper.CategoryMapper;
 import com.example.flashcards.repository.CategoryRepository;
+import com.example.flashcards.repository.FlashcardRepository;
+import com.example.flashcards.repository.ReviewStateRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 class CategoryServiceTest {
 
   @Mock private CategoryRepository categoryRepository;
 
-  @InjectMocks private CategoryService categoryService;
+  @Mock private FlashcardSearchIndex searchIndex;
+
+  @Mock private ReviewQueue reviewQueue;
+
+  @Mock private DataVersions dataVersions;
+
+  @Mock private FlashcardRepository flashcardRepository;
+
+  @Mock private ReviewStateRepository reviewStateRepository;
+
+  @Mock private FlashcardSampler sampler;
+
+  @Mock private AnswerPools answerPools;
+
+  @Mock private CategoryCaches categoryCaches;
+
+  @Mock private LearningStats learningStats;
+
+  private Cache<Long, CategoryDto> cache;
+
+  private CategoryService categoryService;
 
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
+    cache = Caffeine.newBuilder().maximumSize(10).build();
+    categoryService =
+        new CategoryService(
+            categoryRepository,
+            searchIndex,
+            cache,
+            reviewQueue,
+            dataVersions,
+            flashcardRepository,
+            reviewStateRepository,
+            sampler,
+            answerPools,
+            categoryCaches,
+            learningStats);
   }
 
   @Test
   void testGetAllCategories() {
-    Category cat1 = new Category(1L, "Math", null);
-    Category cat2 = new Category(2L, "Science", null);
+    CategoryDto cat1 = new CategoryDto(1L, "Math");
+    CategoryDto cat2 = new CategoryDto(2L, "Science");
 
-    when(categoryRepository.findAll()).thenReturn(Arrays.asList(cat1, cat2));
+    when(categoryRepository.findAllAsDto()).thenReturn(Arrays.asList(cat1, cat2));
 
-    List<Category> categories = categoryService.getAllCategories();
-    List<CategoryDto> dtoList = categories.stream().map(CategoryMapper::toDto).toList();
+    List<CategoryDto> dtoList = categoryService.getAllCategories();
 
     assertEquals(2, dtoList.size());
     assertEquals("Math", dtoList.get(0).getName());
@@ -45,7 +89,8 @@ class CategoryServiceTest {
   @Test
   void testGetCategoryById() {
     Category category = new Category(1L, "History", null);
-    when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+    when(categoryRepository.findDtoById(1L))
+        .thenReturn(Optional.of(CategoryMapper.toDto(category)));
 
     Optional<Category> found = categoryService.getCategoryById(1L);
 
@@ -54,6 +99,83 @@ class CategoryServiceTest {
     assertEquals("History", dto.getName());
   }
 
+  @Test
+  void testGetCategoryById_servesRepeatedLookupsFromCache() {
+    when(categoryRepository.findDtoById(1L))
+        .thenReturn(Optional.of(new CategoryDto(1L, "History", null)));
+
+    categoryService.getCategoryById(1L);
+    Optional<Category> second = categoryService.getCategoryById(1L);
+
+    assertEquals("History", second.orElseThrow().getName());
+    verify(categoryRepository, times(1)).findDtoById(1L);
+    verify(categoryRepository, never()).findById(any());
+  }
+
+  @Test
+  void testGetCategoryById_doesNotCacheUnknownIds() {
+    when(categoryRepository.findDtoById(7L))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(new CategoryDto(7L, "Nouvelle", null)));
+
+    assertTrue(categoryService.getCategoryById(7L).isEmpty());
+    assertTrue(categoryService.getCategoryById(7L).isPresent());
+    assertTrue(categoryService.getCategoryById(null).isEmpty());
+  }
+
+  @Test
+  void testUpdateAndDelete_invalidateCachedCategory() {
+    Category existing = new Category(1L, "Math", null);
+    when(categoryRepository.findById(1L)).thenReturn(Optional.of(existing));
+    when(categoryRepository.findDtoById(1L))
+        .thenAnswer(inv -> Optional.of(CategoryMapper.toDto(existing)));
+    when(categoryRepository.save(any(Category.class))).thenAnswer(inv -> inv.getArgument(0));
+
+    categoryService.getCategoryById(1L);
+    categoryService.updateCategory(1L, new Category(null, "Physique", null));
+    assertEquals("Physique", categoryService.getCategoryById(1L).orElseThrow().getName());
+
+    when(categoryRepository.findPathById(1L)).thenReturn(Optional.of("/1/"));
+    when(categoryRepository.findIdsInSubtree("/1/%")).thenReturn(List.of(1L));
+    categoryService.deleteCategory(1L);
+    assertNull(cache.getIfPresent(1L));
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void cacheChanges_insideTransaction_applyOnlyAfterCommit() {
+    when(categoryRepository.save(any(Category.class)))
+        .thenAnswer(
+            inv -> {
+              Category saved = inv.getArgument(0);
+              saved.setId(5L);
+              return saved;
+            });
+    TransactionSynchronizationManager.initSynchronization();
+    categoryService.createCategory(new Category(null, "Fantôme", null));
+    // Rollback: the synchronizations are discarded without afterCommit
+    TransactionSynchronizationManager.clearSynchronization();
+    assertNull(cache.getIfPresent(5L));
+
+    when(categoryRepository.findDtoById(1L)).thenReturn(Optional.of(new CategoryDto(1L, "Math")));
+    categoryService.getCategoryById(1L);
+    when(categoryRepository.findPathById(1L)).thenReturn(Optional.of("/1/"));
+    when(categoryRepository.findIdsInSubtree("/1/%")).thenReturn(List.of(1L));
+    TransactionSynchronizationManager.initSynchronization();
+    categoryService.deleteCategory(1L);
+    assertNotNull(cache.getIfPresent(1L));
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    assertNull(cache.getIfPresent(1L));
+  }
+
   @Test
   void testCreateCategory() {
     CategoryDto dto = new CategoryDto(null, "Histoire");
@@ -76,14 +198,35 @@ class CategoryServiceTest {
 
   @Test
   void testSearchByName() {
-    Category cat = new Category(1L, "Math", null);
-    when(categoryRepository.findByNameContainingIgnoreCase("ma")).thenReturn(List.of(cat));
+    CategoryDto cat = new CategoryDto(1L, "Math");
+    when(categoryRepository.searchRanked("ma", "%ma%", "ma%", Limit.of(20)))
+        .thenReturn(List.of(cat));
 
-    List<CategoryDto> result = categoryService.searchByName("ma");
+    List<CategoryDto> result = categoryService.searchByName(" Ma ", 20);
 
     assertEquals(1, result.size());
     assertEquals("Math", result.get(0).getName());
-    verify(categoryRepository).findByNameContainingIgnoreCase("ma");
+    verify(categoryRepository).searchRanked("ma", "%ma%", "ma%", Limit.of(20));
+  }
+
+  @Test
+  void testSearchByName_postgresMode_usesTrigramQuery_andEscapesWildcards() {
+    ReflectionTestUtils.setField(categoryService, "searchMode", SearchMode.POSTGRES);
+    CategoryDto cat = new CategoryDto(1L, "100%_sure");
+    when(categoryRepository.searchTrigram(
+            "100%_", "%100\\%\\_%", Limit.of(CategoryService.MAX_SEARCH_LIMIT)))
+        .thenReturn(List.of(cat));
+
+    List<CategoryDto> result = categoryService.searchByName("100%_", 1_000);
+
+    assertEquals(1, result.size());
+    verify(categoryRepository, never()).searchRanked(any(), any(), any(), any());
+  }
+
+  @Test
+  void testSearchByName_blank_returnsEmpty() {
+    assertTrue(categoryService.searchByName("  ", 20).isEmpty());
+    verifyNoInteractions(categoryRepository);
   }
 
   @Test
@@ -113,11 +256,181 @@ class CategoryServiceTest {
   }
 
   @Test
-  void testDeleteCategory() {
-    doNothing().when(categoryRepository).deleteById(1L);
+  void testDeleteCategory_deletesTheSubtreeWithSetBasedStatements() {
+    when(categoryRepository.findPathById(1L)).thenReturn(Optional.of("/1/"));
+    when(categoryRepository.findIdsInSubtree("/1/%")).thenReturn(List.of(1L, 4L));
+    when(flashcardRepository.findIdsInSubtree("/1/%")).thenReturn(List.of(10L, 40L));
 
     categoryService.deleteCategory(1L);
 
-    verify(categoryRepository, times(1)).deleteById(1L);
+    final var inOrder =
+        inOrder(learningStats, reviewStateRepository, flashcardRepository, categoryRepository);
+    inOrder.verify(learningStats).deleteSubtree("/1/%", List.of(1L, 4L), List.of(10L, 40L));
+    inOrder.verify(reviewStateRepository).deleteAllInSubtree("/1/%");
+    inOrder.verify(flashcardRepository).deleteAllInSubtree("/1/%");
+    inOrder.verify(categoryRepository).detachSubtree("/1/%");
+    inOrder.verify(categoryRepository).deleteSubtree("/1/%");
+    verify(categoryRepository, never()).deleteById(any());
+    verify(flashcardRepository, never()).delete(any());
+    verify(searchIndex).removeCategories(List.of(1L, 4L));
+    verify(reviewQueue).removeCategories(List.of(1L, 4L));
+    verify(sampler).removeCategories(List.of(1L, 4L));
+    verify(answerPools).removeCategories(List.of(1L, 4L));
+    verify(dataVersions).flashcardsChanged();
+  }
+
+  @Test
+  void testCreateCategory_underParent_buildsPathFromParent() {
+    Category parent = new Category(5L, "Langages", null);
+    parent.setPath("/1/5/");
+    when(categoryRepository.findById(5L)).thenReturn(Optional.of(parent));
+    when(categoryRepository.save(any(Category.class)))
+        .thenAnswer(
+            inv -> {
+              Category saved = inv.getArgument(0);
+              saved.setId(12L);
+              return saved;
+            });
+
+    Category saved =
+        categoryService.createCategory(CategoryMapper.toEntity(new CategoryDto(null, "Java", 5L)));
+
+    assertEquals("/1/5/12/", saved.getPath());
+    assertSame(parent, saved.getParentCategory());
+  }
+
+  @Test
+  void testCreateCategory_unknownParent_throws() {
+    when(categoryRepository.findById(9L)).thenReturn(Optional.empty());
+
+    Category category = CategoryMapper.toEntity(new CategoryDto(null, "Java", 9L));
+    assertThrows(IllegalArgumentException.class, () -> categoryService.createCategory(category));
+    verify(categoryRepository, never()).save(any());
+  }
+
+  @Test
+  void testUpdateCategory_newParent_movesWholeSubtreeInOneStatement() {
+    Category moved = new Category(5L, "Langages", null);
+    moved.setPath("/1/5/");
+    Category target = new Category(2L, "Informatique", null);
+    target.setPath("/2/");
+    when(categoryRepository.findById(5L)).thenReturn(Optional.of(moved));
+    when(categoryRepository.findById(2L)).thenReturn(Optional.of(target));
+    when(categoryRepository.save(moved)).thenReturn(moved);
+
+    categoryService.updateCategory(
+        5L, CategoryMapper.toEntity(new CategoryDto(5L, "Langages", 2L)));
+
+    verify(categoryRepository).movePaths("/1/5/%", "/2/5/", 6);
+    assertEquals("/2/5/", moved.getPath());
+    assertSame(target, moved.getParentCategory());
+  }
+
+  @Test
+  void testUpdateCategory_underOwnDescendant_throws() {
+    Category moved = new Category(5L, "Langages", null);
+    moved.setPath("/1/5/");
+    Category descendant = new Category(12L, "Java", null);
+    descendant.setPath("/1/5/12/");
+    when(categoryRepository.findById(5L)).thenReturn(Optional.of(moved));
+    when(categoryRepository.findById(12L)).thenReturn(Optional.of(descendant));
+
+    Category update = CategoryMapper.toEntity(new CategoryDto(5L, "Langages", 12L));
+    assertThrows(IllegalArgumentException.class, () -> categoryService.updateCategory(5L, update));
+    verify(categoryRepository, never()).movePaths(any(), any(), anyInt());
+  }
+
+  @Test
+  void testGetSubtree_nestsRowsByParent() {
+    when(categoryRepository.findPathById(1L)).thenReturn(Optional.of("/1/"));
+    when(categoryRepository.findSubtree("/1/%"))
+        .thenReturn(
+            List.of(
+                new CategoryDto(1L, "Informatique", null),
+                new CategoryDto(5L, "Langages", 1L),
+                new CategoryDto(12L, "Java", 5L),
+                new CategoryDto(7L, "Réseau", 1L)));
+
+    CategoryTreeDto tree = categoryService.getSubtree(1L).orElseThrow();
+
+    assertEquals("Informatique", tree.getName());
+    assertEquals(2, tree.getChildren().size());
+    CategoryTreeDto languages = tree.getChildren().get(0);
+    assertEquals("Langages", languages.getName());
+    assertEquals("Java", languages.getChildren().get(0).getName());
+    assertTrue(tree.getChildren().get(1).getChildren().isEmpty());
+  }
+
+  @Test
+  void testGetSubtree_unknownCategory_isEmpty() {
+    when(categoryRepository.findPathById(1L)).thenReturn(Optional.empty());
+
+    assertTrue(categoryService.getSubtree(1L).isEmpty());
+    verify(categoryRepository, never()).findSubtree(any());
+  }
+
+  @Test
+  void testDeleteCategory_unknown_deletesNothing() {
+    when(categoryRepository.findPathById(1L)).thenReturn(Optional.empty());
+
+    categoryService.deleteCategory(1L);
+
+    verify(categoryRepository, never()).deleteSubtree(any());
+    verify(flashcardRepository, never()).deleteAllInSubtree(any());
+    verifyNoInteractions(learningStats);
+  }
+
+  @Test
+  void testPatchCategory_renamesInOneUpdate_andEvictsLookup() {
+    when(categoryRepository.findDtoById(1L))
+        .thenReturn(Optional.of(new CategoryDto(1L, "Physique", null)));
+    categoryService.getCategoryById(1L);
+    when(categoryRepository.patch(1L, "Chimie", 2L)).thenReturn(1);
+    CategoryDto renamed = new CategoryDto(1L, "Chimie", null, 12L, 3L);
+    when(categoryRepository.findDtoById(1L)).thenReturn(Optional.of(renamed));
+
+    assertEquals(
+        Optional.of(renamed),
+        categoryService.patchCategory(1L, new CategoryDto(null, "Chimie"), 2L));
+
+    assertNull(cache.getIfPresent(1L));
+    verify(categoryRepository, never()).save(any());
+    verify(dataVersions).categoriesChanged();
+  }
+
+  @Test
+  void testPatchCategory_conflict_notFound_andInvalidChanges() {
+    when(categoryRepository.patch(1L, "Chimie", 2L)).thenReturn(0);
+    when(categoryRepository.existsById(1L)).thenReturn(true, false);
+
+    assertThrows(
+        OptimisticLockingFailureException.class,
+        () -> categoryService.patchCategory(1L, new CategoryDto(null, "Chimie"), 2L));
+    assertTrue(categoryService.patchCategory(1L, new CategoryDto(null, "Chimie"), 2L).isEmpty());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> categoryService.patchCategory(1L, new CategoryDto(null, " "), null));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> categoryService.patchCategory(1L, new CategoryDto(null, "Chimie", 3L), null));
+  }
+
+  @Test
+  void testDeleteFlashcardChunk_deletesOneBatch_andAdjustsCount() {
+    when(flashcardRepository.findIdsByCategoryId(1L, Limit.of(2))).thenReturn(List.of(10L, 11L));
+    when(flashcardRepository.deleteByIds(List.of(10L, 11L))).thenReturn(2);
+
+    assertEquals(2, categoryService.deleteFlashcardChunk(1L, 2));
+
+    verify(learningStats).deleteFlashcards(List.of(10L, 11L));
+    verify(reviewStateRepository).deleteByFlashcardIds(List.of(10L, 11L));
+    verify(categoryRepository).addToFlashcardCount(1L, -2L);
+    verify(categoryCaches).countsChanged(List.of(1L));
+    verify(searchIndex).remove(10L);
+    verify(reviewQueue).remove(11L);
+
+    when(flashcardRepository.findIdsByCategoryId(1L, Limit.of(2))).thenReturn(List.of());
+    assertEquals(0, categoryService.deleteFlashcardChunk(1L, 2));
+    verify(flashcardRepository, times(1)).deleteByIds(any());
   }
 }
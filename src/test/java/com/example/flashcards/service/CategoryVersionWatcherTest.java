@@ -0,0 +1,62 @@
+package com.example.flashcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Détection des écritures de catégories d'une autre instance, sur une base H2 embarquée. */
+class CategoryVersionWatcherTest {
+
+  private JdbcTemplate jdbc;
+
+  private final DataVersions dataVersions = new DataVersions();
+
+  private CategoryVersionWatcher watcher;
+
+  @BeforeEach
+  void setUp() {
+    final JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:category-version-watcher;DB_CLOSE_DELAY=-1");
+    dataSource.setUser("sa");
+    jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("drop table if exists category");
+    jdbc.execute(
+        "create table category (id bigint primary key, name varchar(255),"
+            + " flashcard_count bigint default 0 not null, version bigint default 0 not null)");
+    jdbc.update("insert into category (id, name) values (1, 'Histoire'), (2, 'Géographie')");
+    watcher = new CategoryVersionWatcher(jdbc, dataVersions);
+    watcher.check();
+  }
+
+  @Test
+  void unchangedTable_keepsTheCategoriesVersion() {
+    final String etag = dataVersions.categoriesEtag();
+
+    watcher.check();
+
+    assertEquals(etag, dataVersions.categoriesEtag());
+  }
+
+  @Test
+  void rename_countChangeOrDeleteThenInsert_bumpTheCategoriesVersion() {
+    String etag = dataVersions.categoriesEtag();
+    jdbc.update(
+        "update category set name = 'Histoire ancienne', version = version + 1 where id = 1");
+    watcher.check();
+    assertNotEquals(etag, dataVersions.categoriesEtag());
+
+    etag = dataVersions.categoriesEtag();
+    jdbc.update("update category set flashcard_count = flashcard_count + 1 where id = 2");
+    watcher.check();
+    assertNotEquals(etag, dataVersions.categoriesEtag());
+
+    etag = dataVersions.categoriesEtag();
+    jdbc.update("delete from category where id = 2");
+    jdbc.update("insert into category (id, name) values (3, 'Sciences')");
+    watcher.check();
+    assertNotEquals(etag, dataVersions.categoriesEtag());
+  }
+}
@@ -0,0 +1,49 @@
+package com.example.flashcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class DataVersionsTest {
+
+  private final DataVersions versions = new DataVersions();
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void changes_bumpOnlyTheirCollection() {
+    String categories = versions.categoriesEtag();
+    String flashcards = versions.flashcardsEtag();
+
+    versions.flashcardsChanged();
+
+    assertEquals(categories, versions.categoriesEtag());
+    assertNotEquals(flashcards, versions.flashcardsEtag());
+  }
+
+  @Test
+  void changes_insideTransaction_areVisibleOnlyAfterCommit() {
+    String before = versions.categoriesEtag();
+    TransactionSynchronizationManager.initSynchronization();
+
+    versions.categoriesChanged();
+    assertEquals(before, versions.categoriesEtag());
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    assertNotEquals(before, versions.categoriesEtag());
+  }
+
+  @Test
+  void etags_differBetweenInstances() {
+    assertNotEquals(new DataVersions().categoriesEtag(), versions.categoriesEtag());
+  }
+}
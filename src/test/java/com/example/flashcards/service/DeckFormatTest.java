@@ -0,0 +1,116 @@
+package com.example.flashcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** Écriture et relecture des paquets binaires. */
+class DeckFormatTest {
+
+  @TempDir private Path dir;
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void writtenDeck_isReadBack(final boolean compress) throws IOException {
+    final byte[] deck =
+        write("Capitales européennes", compress, "France ?", "Paris", "Île ? ✓", null, "", "x");
+
+    try (DeckFormat.Reader reader = DeckFormat.reader(ByteBuffer.wrap(deck))) {
+      assertEquals("Capitales européennes", reader.categoryName());
+      assertEquals(3, reader.count());
+      final List<DeckFormat.Card> cards = new ArrayList<>();
+      while (reader.hasNext()) {
+        cards.add(reader.next());
+      }
+      assertEquals(
+          List.of(
+              new DeckFormat.Card("France ?", "Paris"),
+              new DeckFormat.Card("Île ? ✓", null),
+              new DeckFormat.Card("", "x")),
+          cards);
+      assertThrows(IllegalStateException.class, reader::next);
+    }
+  }
+
+  @Test
+  void compressedDeck_isSmaller_forRepetitiveCards() throws IOException {
+    final String[] cards = new String[2000];
+    for (int i = 0; i < cards.length; i += 2) {
+      cards[i] = "Quelle est la capitale du pays numéro " + i + " ?";
+      cards[i + 1] = "La capitale numéro " + i;
+    }
+
+    final byte[] plain = write("Pays", false, cards);
+    final byte[] compressed = write("Pays", true, cards);
+
+    assertTrue(compressed.length * 3 < plain.length, compressed.length + " / " + plain.length);
+  }
+
+  @Test
+  void invalidHeader_isRejected() throws IOException {
+    final byte[] deck = write("Pays", false, "Q", "A");
+
+    assertThrows(
+        IllegalArgumentException.class, () -> DeckFormat.reader(ByteBuffer.wrap(new byte[10])));
+    final byte[] badMagic = deck.clone();
+    badMagic[0] = '{';
+    assertThrows(
+        IllegalArgumentException.class, () -> DeckFormat.reader(ByteBuffer.wrap(badMagic)));
+    final byte[] badVersion = deck.clone();
+    badVersion[4] = 99;
+    final IllegalArgumentException e =
+        assertThrows(
+            IllegalArgumentException.class, () -> DeckFormat.reader(ByteBuffer.wrap(badVersion)));
+    assertEquals("Unsupported deck version 99", e.getMessage());
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void corruptedOrTruncatedBody_isRejected(final boolean compress) throws IOException {
+    final byte[] deck = write("Pays", compress, "France ?", "Paris", "Italie ?", "Rome");
+
+    final byte[] truncated = Arrays.copyOf(deck, deck.length - 3);
+    assertThrows(IllegalArgumentException.class, () -> readAll(truncated));
+    final byte[] trailing = Arrays.copyOf(deck, deck.length + 1);
+    assertThrows(IllegalArgumentException.class, () -> readAll(trailing));
+    if (!compress) {
+      final byte[] corrupted = deck.clone();
+      corrupted[corrupted.length - 1] = 'X';
+      final IllegalArgumentException e =
+          assertThrows(IllegalArgumentException.class, () -> readAll(corrupted));
+      assertEquals("Invalid deck file: checksum mismatch", e.getMessage());
+    }
+  }
+
+  private byte[] write(final String name, final boolean compress, final String... cards)
+      throws IOException {
+    final Path file = Files.createTempFile(dir, "deck-", DeckFormat.EXTENSION);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        DeckFormat.Writer writer = DeckFormat.writer(channel, name, compress)) {
+      for (int i = 0; i < cards.length; i += 2) {
+        writer.write(cards[i], cards[i + 1]);
+      }
+    }
+    return Files.readAllBytes(file);
+  }
+
+  private static void readAll(final byte[] deck) {
+    try (DeckFormat.Reader reader = DeckFormat.reader(ByteBuffer.wrap(deck))) {
+      while (reader.hasNext()) {
+        reader.next();
+      }
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package com.example.flashcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.repository.FlashcardRepository;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FlashcardSamplerTest {
+
+  private FlashcardRepository flashcardRepository;
+
+  private FlashcardSampler sampler;
+
+  @BeforeEach
+  void setUp() {
+    flashcardRepository = mock(FlashcardRepository.class);
+    sampler = new FlashcardSampler(flashcardRepository);
+  }
+
+  @Test
+  void rebuild_loadsEveryCard() {
+    when(flashcardRepository.streamAllAsDto())
+        .thenReturn(
+            Stream.of(
+                new FlashcardDto(1L, "Q1", "A1", 1L),
+                new FlashcardDto(2L, "Q2", "A2", 2L),
+                new FlashcardDto(3L, "Q3", "A3", null)));
+
+    sampler.rebuild();
+
+    assertTrue(sampler.isReady());
+    assertEquals(3, sampler.size());
+    assertEquals(List.of(2L), sampler.sample(2L, 5));
+    assertEquals(Set.of(1L, 2L, 3L), new HashSet<>(sampler.sample(null, 5)));
+  }
+
+  @Test
+  void rebuild_replaysWritesReceivedWhileReadingTheTable() {
+    when(flashcardRepository.streamAllAsDto())
+        .thenReturn(
+            Stream.of(card(1L, 1L), card(2L, 1L))
+                .peek(
+                    row -> {
+                      if (row.getId() == 1L) {
+                        sampler.remove(2L);
+                        sampler.put(card(1L, 2L));
+                        sampler.put(card(3L, 1L));
+                      }
+                    }));
+
+    sampler.rebuild();
+
+    assertEquals(2, sampler.size());
+    assertEquals(List.of(3L), sampler.sample(1L, 10));
+    assertEquals(List.of(1L), sampler.sample(2L, 10));
+  }
+
+  @Test
+  void sample_returnsDistinctIdsOfTheCategory() {
+    LongStream.rangeClosed(1, 100).forEach(id -> sampler.put(card(id, id % 2 == 0 ? 2L : 1L)));
+
+    final List<Long> drawn = sampler.sample(2L, 20);
+
+    assertEquals(20, drawn.size());
+    assertEquals(20, new HashSet<>(drawn).size());
+    assertTrue(drawn.stream().allMatch(id -> id % 2 == 0));
+    assertEquals(50, sampler.sample(2L, 500).size());
+    assertEquals(List.of(), sampler.sample(3L, 5));
+  }
+
+  @Test
+  void sample_coversTheWholeCategory() {
+    LongStream.rangeClosed(1, 10).forEach(id -> sampler.put(card(id, 1L)));
+    final Set<Long> seen = new HashSet<>();
+
+    for (int i = 0; i < 200; i++) {
+      seen.addAll(sampler.sample(1L, 1));
+    }
+
+    assertEquals(10, seen.size());
+  }
+
+  @Test
+  void writes_keepArraysInSync() {
+    LongStream.rangeClosed(1, 5).forEach(id -> sampler.put(card(id, 1L)));
+
+    sampler.remove(1L);
+    sampler.put(card(2L, 2L));
+    sampler.put(new FlashcardDto(3L, "Q", null, null));
+
+    assertEquals(Set.of(3L, 4L, 5L), new HashSet<>(sampler.sample(1L, 10)));
+    assertEquals(List.of(2L), sampler.sample(2L, 10));
+    assertEquals(4, sampler.size());
+
+    sampler.removeCategories(List.of(1L));
+    assertEquals(List.of(2L), sampler.sample(null, 10));
+    assertEquals(List.of(), sampler.sample(1L, 10));
+  }
+
+  private static FlashcardDto card(final long id, final Long categoryId) {
+    return new FlashcardDto(id, "Q" + id, "A" + id, categoryId);
+  }
+}
@@ -0,0 +1,143 @@
+package com.example.flashcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.repository.FlashcardRepository;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class FlashcardSearchIndexTest {
+
+  private FlashcardRepository flashcardRepository;
+
+  private FlashcardSearchIndex index;
+
+  @BeforeEach
+  void setUp() {
+    flashcardRepository = mock(FlashcardRepository.class);
+    index = new FlashcardSearchIndex(flashcardRepository);
+    index.put(new FlashcardDto(1L, "Create branche and switch on it", "git checkout -b x", 3L));
+    index.put(new FlashcardDto(2L, "Remove a local branch", "git branch -d x", 3L));
+    index.put(new FlashcardDto(3L, "View pod and node info", "kubectl get pods -o wide", 2L));
+    index.put(new FlashcardDto(4L, "Qu'est-ce qu'une Énumération ?", "Un type enum", 1L));
+  }
+
+  @Test
+  void rebuild_loadsAllRows_andMarksReady() {
+    when(flashcardRepository.streamAllAsDto())
+        .thenReturn(Stream.of(new FlashcardDto(9L, "Restart the VM", "vagrant reload", 5L)));
+    assertFalse(index.isReady());
+
+    index.rebuild();
+
+    assertTrue(index.isReady());
+    assertEquals(1, index.size());
+    assertEquals(9L, index.search("vm", 10).get(0).getId());
+  }
+
+  @Test
+  void rebuild_replaysWritesReceivedWhileReadingTheTable() {
+    // Lignes lues avant la suppression de la 2 et la modification de la 1
+    when(flashcardRepository.streamAllAsDto())
+        .thenReturn(
+            Stream.of(
+                    new FlashcardDto(1L, "Create branche and switch on it", "git checkout", 3L),
+                    new FlashcardDto(2L, "Remove a local branch", "git branch -d x", 3L))
+                .peek(
+                    row -> {
+                      if (row.getId() == 1L) {
+                        // L'ancien index sert encore les recherches pendant la reconstruction
+                        assertEquals(List.of(3L), ids(index.search("pod", 10)));
+                        index.remove(2L);
+                        index.patch(new FlashcardDto(1L, "Rename a branch", null, null));
+                      }
+                    }));
+
+    index.rebuild();
+
+    assertEquals(1, index.size());
+    assertTrue(index.search("remove", 10).isEmpty());
+    assertEquals(List.of(1L), ids(index.search("rename", 10)));
+    assertTrue(index.search("switch", 10).isEmpty());
+  }
+
+  @Test
+  void postgresMode_keepsIndexEmpty() {
+    FlashcardSearchIndex disabled = new FlashcardSearchIndex(flashcardRepository);
+    ReflectionTestUtils.setField(disabled, "searchMode", SearchMode.POSTGRES);
+
+    disabled.rebuild();
+    disabled.put(new FlashcardDto(1L, "Restart the VM", "vagrant reload", 5L));
+
+    assertFalse(disabled.isReady());
+    assertEquals(0, disabled.size());
+    verifyNoInteractions(flashcardRepository);
+  }
+
+  @Test
+  void search_matchesSubstrings_caseAndAccentInsensitive() {
+    assertEquals(List.of(4L), ids(index.search("ENUMER", 10)));
+    assertEquals(List.of(3L), ids(index.search("ubect", 10)));
+  }
+
+  @Test
+  void search_ranksQuestionMatchesBeforeAnswerMatches() {
+    // "branch" : mot entier dans la question 2, préfixe dans la question 1
+    assertEquals(List.of(2L, 1L), ids(index.search("branch", 10)));
+    // "git" n'apparaît que dans les réponses
+    assertEquals(List.of(1L, 2L), ids(index.search("git", 10)));
+  }
+
+  @Test
+  void search_requiresAllTerms_andAppliesLimit() {
+    assertEquals(List.of(2L), ids(index.search("local branch", 10)));
+    assertEquals(1, index.search("branch", 1).size());
+    assertTrue(index.search("branch kubectl", 10).isEmpty());
+    assertTrue(index.search("  ", 10).isEmpty());
+  }
+
+  @Test
+  void search_shortTerms_matchWordPrefixes() {
+    assertEquals(List.of(3L), ids(index.search("po", 10)));
+    assertEquals(List.of(1L), ids(index.search("sw", 10)));
+    assertTrue(index.search("xz", 10).isEmpty());
+  }
+
+  @Test
+  void put_replacesPreviousVersion() {
+    index.put(new FlashcardDto(3L, "Restart a deployment", "kubectl rollout restart", 2L));
+
+    assertTrue(index.search("pod", 10).isEmpty());
+    assertEquals(List.of(3L), ids(index.search("deploy", 10)));
+    assertEquals(4, index.size());
+  }
+
+  @Test
+  void remove_andRemoveCategories_dropEntries() {
+    index.remove(1L);
+    assertEquals(List.of(2L), ids(index.search("branch", 10)));
+
+    index.removeCategories(List.of(3L));
+    assertTrue(index.search("branch", 10).isEmpty());
+    assertEquals(2, index.size());
+
+    index.removeCategories(List.of(1L, 2L));
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  void putAfterCommit_withoutTransaction_appliesImmediately() {
+    index.putAfterCommit(List.of(new FlashcardDto(10L, "Start VM(s)", "vagrant up", 5L)));
+
+    assertEquals(List.of(10L), ids(index.search("vagrant", 10)));
+  }
+
+  private static List<Long> ids(final List<FlashcardDto> dtos) {
+    return dtos.stream().map(FlashcardDto::getId).toList();
+  }
+}
@@ -2,25 +2,58 @@ package com.example.flashcards.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import com.example.flashcards.dto.FlashcardBatchResultDto;
 import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.dto.FlashcardPageDto;
 import com.example.flashcards.entity.Category;
 import com.example.flashcards.entity.Flashcard;
 import com.example.flashcards.mapper.FlashcardMapper;
+import com.example.flashcards.repository.CategoryRepository;
 import com.example.flashcards.repository.FlashcardRepository;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 class FlashcardServiceTest {
 
   @Mock private FlashcardRepository flashcardRepository;
 
+  @Mock private CategoryRepository categoryRepository;
+
+  @Mock private EntityManager entityManager;
+
+  @Mock private FlashcardSearchIndex searchIndex;
+
+  @Mock private ReviewQueue reviewQueue;
+
+  @Mock private FlashcardSampler sampler;
+
+  @Mock private AnswerPools answerPools;
+
+  @Mock private DataVersions dataVersions;
+
+  @Mock private CategoryCaches categoryCaches;
+
   @InjectMocks private FlashcardService flashcardService;
 
   private Category category;
@@ -33,40 +66,220 @@ class FlashcardServiceTest {
 
   @Test
   void testGetAllFlashcards() {
-    Flashcard f1 = new Flashcard(1L, "Q1", "A1", category);
-    Flashcard f2 = new Flashcard(2L, "Q2", "A2", category);
+    FlashcardDto f1 = new FlashcardDto(1L, "Q1", "A1", 1L);
+    FlashcardDto f2 = new FlashcardDto(2L, "Q2", "A2", 1L);
 
-    when(flashcardRepository.findAllWithCategory()).thenReturn(List.of(f1, f2));
+    when(flashcardRepository.findAllAsDto()).thenReturn(List.of(f1, f2));
 
-    List<Flashcard> flashcards = flashcardService.getAllFlashcards();
-    List<FlashcardDto> dtoList = flashcards.stream().map(FlashcardMapper::toDto).toList();
+    List<FlashcardDto> dtoList = flashcardService.getAllFlashcards();
 
     assertEquals(2, dtoList.size());
     assertEquals("Q1", dtoList.get(0).getQuestion());
   }
 
+  @Test
+  void testGetFlashcardPage_firstPage_hasNext() {
+    FlashcardDto f1 = new FlashcardDto(1L, "Q1", "A1", 1L);
+    FlashcardDto f2 = new FlashcardDto(2L, "Q2", "A2", 1L);
+    FlashcardDto f3 = new FlashcardDto(3L, "Q3", "A3", 1L);
+
+    when(flashcardRepository.findPageAfter(0L, Limit.of(3))).thenReturn(List.of(f1, f2, f3));
+
+    FlashcardPageDto page = flashcardService.getFlashcardPage(null, 2);
+
+    assertEquals(2, page.getItems().size());
+    assertEquals(2L, page.getItems().get(1).getId());
+    assertNotNull(page.getNext());
+    assertEquals(2L, FlashcardService.decodeCursor(page.getNext()));
+  }
+
+  @Test
+  void testGetFlashcardPage_lastPage_hasNoNext() {
+    FlashcardDto f3 = new FlashcardDto(3L, "Q3", "A3", 1L);
+    String cursor = FlashcardService.encodeCursor(2L);
+
+    when(flashcardRepository.findPageAfter(2L, Limit.of(3))).thenReturn(List.of(f3));
+
+    FlashcardPageDto page = flashcardService.getFlashcardPage(cursor, 2);
+
+    assertEquals(1, page.getItems().size());
+    assertNull(page.getNext());
+  }
+
+  @Test
+  void testGetFlashcardPage_sizeIsBounded() {
+    when(flashcardRepository.findPageAfter(eq(0L), any(Limit.class))).thenReturn(List.of());
+
+    flashcardService.getFlashcardPage(null, 100_000);
+    flashcardService.getFlashcardPage(null, 0);
+
+    verify(flashcardRepository).findPageAfter(0L, Limit.of(FlashcardService.MAX_PAGE_SIZE + 1));
+    verify(flashcardRepository).findPageAfter(0L, Limit.of(2));
+  }
+
+  @Test
+  void testGetFlashcardPage_invalidCursor() {
+    assertThrows(
+        IllegalArgumentException.class, () -> flashcardService.getFlashcardPage("@@not-b64", 10));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> flashcardService.getFlashcardPage(FlashcardService.encodeCursor(-1L), 10));
+  }
+
+  @Test
+  void testForEachFlashcard_streamsAndClosesCursor() {
+    AtomicBoolean closed = new AtomicBoolean(false);
+    Stream<FlashcardDto> rows =
+        Stream.of(new FlashcardDto(1L, "Q1", "A1", 1L), new FlashcardDto(2L, "Q2", "A2", 1L))
+            .onClose(() -> closed.set(true));
+    when(flashcardRepository.streamAllAsDto()).thenReturn(rows);
+
+    List<Long> seen = new ArrayList<>();
+    long count = flashcardService.forEachFlashcard(dto -> seen.add(dto.getId()));
+
+    assertEquals(2L, count);
+    assertEquals(List.of(1L, 2L), seen);
+    assertTrue(closed.get());
+  }
+
   @Test
   void testGetFlashcardById() {
-    Flashcard flashcard = new Flashcard(1L, "What?", "Answer", category);
-    when(flashcardRepository.findById(1L)).thenReturn(Optional.of(flashcard));
+    when(flashcardRepository.findDtoById(1L))
+        .thenReturn(Optional.of(new FlashcardDto(1L, "What?", "Answer", 1L)));
 
-    Optional<Flashcard> found = flashcardService.getFlashcardById(1L);
+    Optional<FlashcardDto> found = flashcardService.getFlashcardById(1L);
 
     assertTrue(found.isPresent());
-    FlashcardDto dto = FlashcardMapper.toDto(found.get());
-    assertEquals("What?", dto.getQuestion());
+    assertEquals("What?", found.get().getQuestion());
+    verify(flashcardRepository, never()).findById(any());
   }
 
   @Test
-  void testSearchByQuestion() {
+  void testSearchByQuestion_fallsBackToDatabase_whileIndexIsBuilding() {
     Flashcard f = new Flashcard(1L, "What is Java?", "A language", category);
-    when(flashcardRepository.findByQuestionContainingIgnoreCase("java")).thenReturn(List.of(f));
+    when(searchIndex.isReady()).thenReturn(false);
+    when(flashcardRepository.searchRanked("java", "%java%", "java%", Limit.of(20)))
+        .thenReturn(List.of(FlashcardMapper.toDto(f)));
 
-    List<FlashcardDto> result = flashcardService.searchByQuestion("java");
+    List<FlashcardDto> result = flashcardService.searchByQuestion("Java", 20);
 
     assertEquals(1, result.size());
     assertEquals("What is Java?", result.get(0).getQuestion());
-    verify(flashcardRepository).findByQuestionContainingIgnoreCase("java");
+    verify(searchIndex, never()).search(any(), anyInt());
+  }
+
+  @Test
+  void testSearchByQuestion_postgresMode_usesTrigramQuery() {
+    ReflectionTestUtils.setField(flashcardService, "searchMode", SearchMode.POSTGRES);
+    when(flashcardRepository.searchTrigram("java", "%java%", Limit.of(5)))
+        .thenReturn(List.of(new FlashcardDto(1L, "What is Java?", "A language", 1L)));
+
+    List<FlashcardDto> result = flashcardService.searchByQuestion("java", 5);
+
+    assertEquals(1, result.size());
+    assertEquals(1L, result.get(0).getId());
+    verify(searchIndex, never()).search(any(), anyInt());
+  }
+
+  @Test
+  void testSearchByQuestion_usesIndex_withBoundedLimit() {
+    List<FlashcardDto> hits = List.of(new FlashcardDto(1L, "What is Java?", "A language", 1L));
+    when(searchIndex.isReady()).thenReturn(true);
+    when(searchIndex.search("java", FlashcardService.MAX_SEARCH_LIMIT)).thenReturn(hits);
+
+    assertEquals(hits, flashcardService.searchByQuestion("java", 10_000));
+    verifyNoInteractions(flashcardRepository);
+  }
+
+  @Test
+  void testImportFlashcards_reportsEachItem_andResolvesCategoriesOnce() {
+    AtomicLong ids = new AtomicLong(100);
+    doAnswer(
+            inv -> {
+              inv.<Flashcard>getArgument(0).setId(ids.incrementAndGet());
+              return null;
+            })
+        .when(entityManager)
+        .persist(any(Flashcard.class));
+    when(categoryRepository.findAllById(Set.of(1L, 99L))).thenReturn(List.of(category));
+
+    List<FlashcardDto> batch =
+        Arrays.asList(
+            new FlashcardDto(null, "Q1", "A1", 1L),
+            new FlashcardDto(null, "Q2", "A2", 99L),
+            new FlashcardDto(null, " ", "A3", 1L),
+            null,
+            new FlashcardDto(null, "Q5", "A5", 1L));
+
+    FlashcardBatchResultDto result = flashcardService.importFlashcards(batch);
+
+    assertEquals(2, result.getCreated());
+    assertEquals(3, result.getFailed());
+    assertEquals(5, result.getItems().size());
+    assertTrue(result.getItems().get(0).isSuccess());
+    assertEquals(101L, result.getItems().get(0).getId());
+    assertEquals("Category not found", result.getItems().get(1).getError());
+    assertEquals("Question is required", result.getItems().get(2).getError());
+    assertFalse(result.getItems().get(3).isSuccess());
+    assertEquals(4, result.getItems().get(4).getIndex());
+    assertEquals(102L, result.getItems().get(4).getId());
+
+    verify(categoryRepository, times(1)).findAllById(any());
+    verify(entityManager, times(2)).persist(any(Flashcard.class));
+    verify(entityManager).flush();
+    verify(searchIndex)
+        .putAfterCommit(
+            List.of(
+                new FlashcardDto(101L, "Q1", "A1", 1L), new FlashcardDto(102L, "Q5", "A5", 1L)));
+  }
+
+  @Test
+  void testImportFlashcards_flushesEveryBatch() {
+    when(categoryRepository.findAllById(Set.of(1L))).thenReturn(List.of(category));
+    List<FlashcardDto> batch = new ArrayList<>();
+    for (int i = 0; i < FlashcardService.BATCH_FLUSH_SIZE * 2 + 1; i++) {
+      batch.add(new FlashcardDto(null, "Q" + i, "A" + i, 1L));
+    }
+
+    FlashcardBatchResultDto result = flashcardService.importFlashcards(batch);
+
+    assertEquals(batch.size(), result.getCreated());
+    verify(entityManager, times(3)).flush();
+    verify(entityManager, times(batch.size())).detach(any(Flashcard.class));
+    verify(entityManager, never()).clear();
+  }
+
+  @Test
+  void testImportFlashcards_emptyOrTooLarge() {
+    assertEquals(0, flashcardService.importFlashcards(List.of()).getItems().size());
+
+    List<FlashcardDto> tooLarge =
+        Collections.nCopies(
+            FlashcardService.MAX_BATCH_SIZE + 1, new FlashcardDto(null, "Q", "A", 1L));
+    assertThrows(IllegalArgumentException.class, () -> flashcardService.importFlashcards(tooLarge));
+    verifyNoInteractions(categoryRepository, entityManager);
+  }
+
+  @Test
+  void testRandomFlashcards_hydratesSampleInDrawOrder() {
+    when(sampler.isReady()).thenReturn(true);
+    when(sampler.sample(1L, FlashcardService.MAX_RANDOM_SIZE)).thenReturn(List.of(7L, 3L, 9L));
+    when(flashcardRepository.findAllDtoByIdIn(List.of(7L, 3L, 9L)))
+        .thenReturn(
+            List.of(new FlashcardDto(3L, "Q3", "A3", 1L), new FlashcardDto(7L, "Q7", "A7", 1L)));
+
+    List<FlashcardDto> quiz = flashcardService.randomFlashcards(1L, 1_000);
+
+    assertEquals(List.of(7L, 3L), quiz.stream().map(FlashcardDto::getId).toList());
+    verify(flashcardRepository, never()).findAll();
+  }
+
+  @Test
+  void testRandomFlashcards_notReady() {
+    when(sampler.isReady()).thenReturn(false);
+
+    assertThrows(IllegalStateException.class, () -> flashcardService.randomFlashcards(null, 5));
+    verifyNoInteractions(flashcardRepository);
   }
 
   @Test
@@ -96,6 +309,9 @@ class FlashcardServiceTest {
 
     assertNotNull(savedDTO.getId());
     assertEquals("Q?", savedDTO.getQuestion());
+    verify(searchIndex).put(savedDTO);
+    verify(reviewQueue).put(savedDTO);
+    verify(categoryRepository).addToFlashcardCount(1L, 1L);
   }
 
   @Test
@@ -113,14 +329,110 @@ class FlashcardServiceTest {
 
     assertEquals("New Q", updatedDTO.getQuestion());
     assertEquals("New A", updatedDTO.getAnswer());
+    verify(searchIndex).put(any(FlashcardDto.class));
+    verify(reviewQueue).put(any(FlashcardDto.class));
+  }
+
+  @Test
+  void testUpdateFlashcard_categoryChange_movesCount() {
+    Category other = new Category(2L, "Histoire", null);
+    when(flashcardRepository.findById(1L))
+        .thenReturn(Optional.of(new Flashcard(1L, "Q", "A", category)));
+    Flashcard moved = new Flashcard(1L, "Q", "A", other);
+    when(flashcardRepository.save(any(Flashcard.class))).thenReturn(moved);
+
+    flashcardService.updateFlashcard(1L, moved);
+
+    verify(categoryRepository).addToFlashcardCount(1L, -1L);
+    verify(categoryCaches).countsChanged(Set.of(1L, 2L));
+    verify(categoryRepository).addToFlashcardCount(2L, 1L);
+    verify(dataVersions).categoriesChanged();
+  }
+
+  @Test
+  void testUpdateFlashcard_sameCategory_keepsCount() {
+    when(flashcardRepository.findById(1L))
+        .thenReturn(Optional.of(new Flashcard(1L, "Q", "A", category)));
+    Flashcard updated = new Flashcard(1L, "Q2", "A2", category);
+    when(flashcardRepository.save(any(Flashcard.class))).thenReturn(updated);
+
+    flashcardService.updateFlashcard(1L, updated);
+
+    verify(categoryRepository, never()).addToFlashcardCount(any(), anyLong());
   }
 
   @Test
   void testDeleteFlashcard() {
-    doNothing().when(flashcardRepository).deleteById(1L);
+    Flashcard existing = new Flashcard(1L, "Q", "A", category);
+    when(flashcardRepository.findById(1L)).thenReturn(Optional.of(existing));
 
     flashcardService.deleteFlashcard(1L);
 
-    verify(flashcardRepository, times(1)).deleteById(1L);
+    verify(flashcardRepository, times(1)).delete(existing);
+    verify(categoryRepository).addToFlashcardCount(1L, -1L);
+    verify(searchIndex).remove(1L);
+    verify(reviewQueue).remove(1L);
+    verify(dataVersions).flashcardsChanged();
+  }
+
+  @Test
+  void testDeleteFlashcard_unknownId_keepsCollectionVersion() {
+    when(flashcardRepository.findById(1L)).thenReturn(Optional.empty());
+
+    flashcardService.deleteFlashcard(1L);
+
+    verify(flashcardRepository, never()).delete(any());
+    verify(categoryRepository, never()).addToFlashcardCount(any(), anyLong());
+    verify(dataVersions, never()).flashcardsChanged();
+  }
+
+  @Test
+  void testPatchFlashcard_changesCategory_inOneUpdate() {
+    when(flashcardRepository.findCategoryIdForUpdate(1L)).thenReturn(Optional.of(1L));
+    when(flashcardRepository.patch(1L, "Q2", null, 2L, 3L)).thenReturn(1);
+
+    assertTrue(flashcardService.patchFlashcard(1L, new FlashcardDto(null, "Q2", null, 2L), 3L));
+
+    verify(flashcardRepository, never()).findById(any());
+    verify(flashcardRepository, never()).save(any());
+    verify(categoryRepository).addToFlashcardCount(1L, -1L);
+    verify(categoryRepository).addToFlashcardCount(2L, 1L);
+    verify(searchIndex).patch(new FlashcardDto(1L, "Q2", null, 2L));
+    verify(dataVersions).flashcardsChanged();
+  }
+
+  @Test
+  void testPatchFlashcard_textOnly_skipsCategoryRead() {
+    when(flashcardRepository.patch(1L, null, "A2", null, null)).thenReturn(1);
+
+    assertTrue(flashcardService.patchFlashcard(1L, new FlashcardDto(null, null, "A2", null), null));
+
+    verify(flashcardRepository, never()).findCategoryIdForUpdate(any());
+    verify(categoryRepository, never()).addToFlashcardCount(any(), anyLong());
+  }
+
+  @Test
+  void testPatchFlashcard_versionConflict_orNotFound() {
+    FlashcardDto changes = new FlashcardDto(null, "Q2", null, null);
+    when(flashcardRepository.patch(1L, "Q2", null, null, 3L)).thenReturn(0);
+    when(flashcardRepository.existsById(1L)).thenReturn(true);
+    assertThrows(
+        OptimisticLockingFailureException.class,
+        () -> flashcardService.patchFlashcard(1L, changes, 3L));
+
+    when(flashcardRepository.existsById(1L)).thenReturn(false);
+    assertFalse(flashcardService.patchFlashcard(1L, changes, 3L));
+    verify(dataVersions, never()).flashcardsChanged();
+  }
+
+  @Test
+  void testPatchFlashcard_rejectsEmptyOrBlankChanges() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> flashcardService.patchFlashcard(1L, new FlashcardDto(), null));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> flashcardService.patchFlashcard(1L, new FlashcardDto(null, " ", null, null), null));
+    verify(flashcardRepository, never()).patch(any(), any(), any(), any(), any());
   }
 }
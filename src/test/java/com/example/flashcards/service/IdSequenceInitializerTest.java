@@ -0,0 +1,49 @@
+package com.example.flashcards.service;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Alignement des séquences d'identifiants au démarrage. */
+class IdSequenceInitializerTest {
+
+  private JdbcTemplate jdbcTemplate;
+
+  private IdSequenceInitializer initializer;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    initializer = new IdSequenceInitializer(jdbcTemplate, true);
+  }
+
+  @Test
+  void onPostgres_eachSequenceIsAlignedOnItsTable() {
+    when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<String>>any()))
+        .thenReturn("PostgreSQL");
+    when(jdbcTemplate.queryForList(contains("from category"), eq(Long.class)))
+        .thenReturn(List.of(120L));
+    when(jdbcTemplate.queryForList(contains("from flashcard"), eq(Long.class)))
+        .thenReturn(List.of());
+
+    initializer.alignSequences();
+
+    verify(jdbcTemplate).queryForList(contains("setval('category_seq'"), eq(Long.class));
+    verify(jdbcTemplate).queryForList(contains("setval('flashcard_seq'"), eq(Long.class));
+  }
+
+  @Test
+  void onOtherDatabases_nothingIsExecuted() {
+    when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<String>>any())).thenReturn("H2");
+
+    initializer.alignSequences();
+
+    verify(jdbcTemplate, never()).queryForList(anyString(), eq(Long.class));
+  }
+}
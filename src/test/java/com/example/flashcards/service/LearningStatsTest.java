@@ -0,0 +1,169 @@
+package com.example.flashcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.example.flashcards.dto.LearningStatsDto;
+import java.time.Instant;
+import java.util.List;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+/** Statistiques de révision sur une base H2 embarquée. */
+class LearningStatsTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+
+  private JdbcTemplate jdbc;
+
+  private DataSourceTransactionManager transactionManager;
+
+  @BeforeEach
+  void setUp() {
+    final JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:learning-stats;DB_CLOSE_DELAY=-1");
+    dataSource.setUser("sa");
+    jdbc = new JdbcTemplate(dataSource);
+    transactionManager = new DataSourceTransactionManager(dataSource);
+    jdbc.execute("drop table if exists review_stats");
+    createTable();
+  }
+
+  @Test
+  void record_updatesCardAndCategoryAggregates() {
+    final LearningStats stats = loaded();
+
+    stats.record(event(7L, 1L, 5, false, 1000));
+    stats.record(event(7L, 1L, 1, true, null));
+    stats.record(event(8L, 1L, 4, false, 3000));
+
+    final LearningStatsDto card = stats.flashcard(7L);
+    assertEquals(2, card.getReviews());
+    assertEquals(0.5, card.getSuccessRate());
+    assertEquals(1000.0, card.getAverageResponseMs());
+    assertEquals(1, card.getLapses());
+    final LearningStatsDto category = stats.category(1L);
+    assertEquals(3, category.getReviews());
+    assertEquals(2.0 / 3, category.getSuccessRate(), 1e-9);
+    assertEquals(2000.0, category.getAverageResponseMs());
+    // Never reviewed: zeros, no rate
+    assertEquals(new LearningStatsDto(9L, 0, null, null, 0), stats.flashcard(9L));
+  }
+
+  @Test
+  void checkpoint_isAdditive_andReloaded() {
+    final LearningStats first = loaded();
+    final LearningStats second = loaded();
+    first.record(event(7L, 1L, 5, false, 1000));
+    first.checkpoint();
+    first.record(event(7L, 1L, 2, true, 500));
+    first.checkpoint();
+    second.record(event(8L, 1L, 4, false, null));
+    second.checkpoint();
+
+    // The second instance sees the category reviews of the first one after its checkpoint
+    assertEquals(3, second.category(1L).getReviews());
+    assertEquals(1, second.flashcard(8L).getReviews());
+    assertEquals(0, second.flashcard(7L).getReviews());
+
+    final LearningStats restarted = loaded();
+    assertEquals(new LearningStatsDto(7L, 2, 0.5, 750.0, 1), restarted.flashcard(7L));
+    assertEquals(3, restarted.category(1L).getReviews());
+    assertEquals(
+        3L, jdbc.queryForObject("select reviews from review_stats where scope = 1", Long.class));
+  }
+
+  @Test
+  void failedCheckpoint_keepsReviewsForTheNextOne() {
+    final LearningStats stats = loaded();
+    stats.record(event(7L, 1L, 5, false, null));
+    jdbc.execute("drop table review_stats");
+
+    stats.checkpoint();
+    assertEquals(1, stats.flashcard(7L).getReviews());
+
+    createTable();
+    stats.checkpoint();
+    assertEquals(1, loaded().flashcard(7L).getReviews());
+  }
+
+  @Test
+  void deleteSubtree_purgesRowsAndCountersOfItsCardsAndCategories() {
+    jdbc.execute("drop table if exists flashcard");
+    jdbc.execute("drop table if exists category");
+    jdbc.execute("create table category (id bigint primary key, path varchar(255))");
+    jdbc.execute("create table flashcard (id bigint primary key, category_id bigint)");
+    jdbc.execute("insert into category values (1, '/1/'), (4, '/1/4/'), (2, '/2/')");
+    jdbc.execute("insert into flashcard values (10, 1), (40, 4), (20, 2)");
+    final LearningStats stats = loaded();
+    stats.record(event(10L, 1L, 5, false, null));
+    stats.record(event(40L, 4L, 5, false, null));
+    stats.record(event(20L, 2L, 5, false, null));
+    stats.checkpoint();
+    stats.record(event(40L, 4L, 2, true, null));
+
+    stats.deleteSubtree("/1/%", List.of(1L, 4L), List.of(10L, 40L));
+    stats.checkpoint();
+
+    assertEquals(0, stats.flashcard(40L).getReviews());
+    assertEquals(0, stats.category(1L).getReviews());
+    assertEquals(1, stats.flashcard(20L).getReviews());
+    assertEquals(
+        2, jdbc.queryForObject("select count(*) from review_stats", Integer.class).intValue());
+    assertEquals(0, loaded().category(4L).getReviews());
+  }
+
+  @Test
+  void counters_remove_compactsTheTable() {
+    final LearningStats.Counters counters = new LearningStats.Counters();
+    for (long id = 1; id <= 100; id++) {
+      counters.add(id, new long[] {id, 0, 0, 0, 0}, id % 2 == 0);
+    }
+
+    counters.remove(List.of(2L, 3L, 50L));
+
+    assertEquals(97, counters.size());
+    assertEquals(0, counters.get(50L)[LearningStats.Counters.REVIEWS]);
+    assertEquals(100, counters.get(100L)[LearningStats.Counters.REVIEWS]);
+    counters.add(50L, new long[] {1, 0, 0, 0, 0}, false);
+    assertEquals(98, counters.size());
+    assertEquals(1, counters.get(50L)[LearningStats.Counters.REVIEWS]);
+  }
+
+  @Test
+  void counters_growPastInitialCapacity() {
+    final LearningStats.Counters counters = new LearningStats.Counters();
+    for (long id = 1; id <= 10_000; id++) {
+      counters.add(id * 1_000_003L, new long[] {id, 0, 0, 0, 0}, false);
+    }
+
+    assertEquals(10_000, counters.size());
+    assertEquals(1234, counters.get(1234 * 1_000_003L)[LearningStats.Counters.REVIEWS]);
+    assertEquals(0, counters.get(42L)[LearningStats.Counters.REVIEWS]);
+  }
+
+  private LearningStats loaded() {
+    final LearningStats stats = new LearningStats(jdbc, transactionManager);
+    stats.load();
+    return stats;
+  }
+
+  private void createTable() {
+    jdbc.execute(
+        "create table review_stats (scope smallint not null, target_id bigint not null,"
+            + " reviews bigint not null, passed bigint not null, lapses bigint not null,"
+            + " timed_reviews bigint not null, response_ms bigint not null,"
+            + " primary key (scope, target_id))");
+  }
+
+  private static ReviewEventLog.Event event(
+      final long flashcardId,
+      final Long categoryId,
+      final int grade,
+      final boolean lapse,
+      final Integer responseMs) {
+    return new ReviewEventLog.Event(flashcardId, categoryId, grade, lapse, responseMs, 1, 2.5, NOW);
+  }
+}
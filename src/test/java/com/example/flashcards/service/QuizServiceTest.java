@@ -0,0 +1,72 @@
+package com.example.flashcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.dto.QuizQuestionDto;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class QuizServiceTest {
+
+  @Mock private FlashcardService flashcardService;
+
+  @Mock private AnswerPools answerPools;
+
+  @InjectMocks private QuizService quizService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+  }
+
+  @Test
+  void quiz_mixesAnswerWithDistractors() {
+    when(answerPools.isReady()).thenReturn(true);
+    when(flashcardService.randomFlashcards(1L, 2))
+        .thenReturn(
+            List.of(
+                new FlashcardDto(7L, "France ?", "Paris", 1L),
+                new FlashcardDto(8L, "Italie ?", "Rome", 1L)));
+    when(answerPools.distractors(eq(1L), eq("Paris"), eq(3), any()))
+        .thenReturn(List.of("Rome", "Madrid", "Berlin"));
+    when(answerPools.distractors(eq(1L), eq("Rome"), eq(3), any())).thenReturn(List.of("Paris"));
+
+    List<QuizQuestionDto> quiz = quizService.quiz(1L, 2, 4);
+
+    assertEquals(2, quiz.size());
+    QuizQuestionDto first = quiz.get(0);
+    assertEquals(7L, first.getFlashcardId());
+    assertEquals(4, first.getOptions().size());
+    assertEquals("Paris", first.getOptions().get(first.getAnswerIndex()));
+    // Not enough distinct answers in the category: fewer options
+    assertEquals(2, quiz.get(1).getOptions().size());
+    assertEquals("Rome", quiz.get(1).getOptions().get(quiz.get(1).getAnswerIndex()));
+  }
+
+  @Test
+  void quiz_boundsOptions() {
+    when(answerPools.isReady()).thenReturn(true);
+    when(flashcardService.randomFlashcards(null, 1))
+        .thenReturn(List.of(new FlashcardDto(7L, "Q", "A", 1L)));
+
+    quizService.quiz(null, 1, 100);
+    verify(answerPools).distractors(eq(1L), eq("A"), eq(QuizService.MAX_OPTIONS - 1), any());
+  }
+
+  @Test
+  void quiz_notReady() {
+    when(answerPools.isReady()).thenReturn(false);
+
+    assertThrows(IllegalStateException.class, () -> quizService.quiz(1L, 5, 4));
+    verify(flashcardService, never()).randomFlashcards(any(), anyInt());
+  }
+}
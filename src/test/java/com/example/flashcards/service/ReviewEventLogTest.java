@@ -0,0 +1,113 @@
+package com.example.flashcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+/** Journal des révisions sur une base H2 embarquée. */
+class ReviewEventLogTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+
+  private JdbcTemplate jdbc;
+
+  private DataSourceTransactionManager transactionManager;
+
+  @BeforeEach
+  void setUp() {
+    final JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:review-log;DB_CLOSE_DELAY=-1");
+    dataSource.setUser("sa");
+    jdbc = new JdbcTemplate(dataSource);
+    transactionManager = new DataSourceTransactionManager(dataSource);
+    jdbc.execute("drop table if exists review_event");
+    jdbc.execute(
+        "create table review_event (id bigint generated by default as identity primary key,"
+            + " flashcard_id bigint not null, category_id bigint, grade smallint not null,"
+            + " lapse boolean default false not null, response_ms int, interval_days int not null, ease double precision not null,"
+            + " reviewed_at timestamp(6) with time zone not null)");
+  }
+
+  @Test
+  void appendedReviews_areWrittenInBatches_andDrainedAtShutdown() {
+    final ReviewEventLog log = log(1000, 10);
+    log.start();
+    for (long i = 1; i <= 25; i++) {
+      assertTrue(log.append(event(i)));
+    }
+
+    log.shutdown();
+
+    assertEquals(0, log.pending());
+    assertEquals(25, jdbc.queryForObject("select count(*) from review_event", Integer.class));
+    assertEquals(1L, jdbc.queryForObject("select min(flashcard_id) from review_event", Long.class));
+    assertEquals(
+        25.0, registry.get("flashcards.review.events").tag("result", "written").counter().count());
+    assertTrue(registry.get("flashcards.review.events.batch").summary().max() <= 10);
+    assertTrue(registry.get("flashcards.review.events.flush").timer().count() >= 3);
+  }
+
+  @Test
+  void fullBuffer_reportsNoCapacity_andWritesCommittedReviewsDirectly() {
+    final ReviewEventLog log = log(2, 10);
+
+    assertTrue(log.append(event(1)));
+    assertTrue(log.hasCapacity());
+    assertTrue(log.append(event(2)));
+
+    assertFalse(log.hasCapacity());
+    assertEquals(2.0, registry.get("flashcards.review.events.queued").gauge().value());
+    assertFalse(log.append(event(3)));
+    assertEquals(
+        3L,
+        jdbc.queryForObject(
+            "select flashcard_id from review_event where flashcard_id = 3", Long.class));
+    assertEquals(1.0, registry.get("flashcards.review.events.direct").counter().count());
+    assertEquals(
+        0.0, registry.get("flashcards.review.events").tag("result", "dropped").counter().count());
+  }
+
+  @Test
+  void reviewsAppendedAfterShutdown_areWrittenDirectly() {
+    final ReviewEventLog log = log(10, 10);
+    log.start();
+    log.shutdown();
+
+    assertFalse(log.append(event(1)));
+
+    assertEquals(1, jdbc.queryForObject("select count(*) from review_event", Integer.class));
+  }
+
+  @Test
+  void failingBatch_isRetried_thenDropped() throws InterruptedException {
+    jdbc.execute("drop table review_event");
+    final ReviewEventLog log = log(10, 10);
+
+    log.flush(List.of(event(1), event(2)));
+
+    assertEquals(
+        2.0, registry.get("flashcards.review.events").tag("result", "dropped").counter().count());
+    assertEquals(
+        0.0, registry.get("flashcards.review.events").tag("result", "written").counter().count());
+  }
+
+  private ReviewEventLog log(final int capacity, final int batchSize) {
+    return new ReviewEventLog(
+        jdbc, transactionManager, registry, capacity, batchSize, Duration.ofSeconds(10));
+  }
+
+  private static ReviewEventLog.Event event(final long flashcardId) {
+    return new ReviewEventLog.Event(flashcardId, 1L, 4, false, 1500, 1, 2.5, NOW);
+  }
+}
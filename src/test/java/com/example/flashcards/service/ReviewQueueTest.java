@@ -0,0 +1,141 @@
+package com.example.flashcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.example.flashcards.dto.FlashcardDto;
+import com.example.flashcards.dto.ReviewDueDto;
+import com.example.flashcards.repository.ReviewStateRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReviewQueueTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+
+  private ReviewStateRepository reviewStateRepository;
+
+  private ReviewQueue queue;
+
+  @BeforeEach
+  void setUp() {
+    reviewStateRepository = mock(ReviewStateRepository.class);
+    queue = new ReviewQueue(reviewStateRepository);
+  }
+
+  @Test
+  void rebuild_treatsNeverReviewedCardsAsDueFirst() {
+    when(reviewStateRepository.streamDueDates())
+        .thenReturn(
+            Stream.of(
+                new ReviewDueDto(1L, 1L, NOW.minusSeconds(60)),
+                new ReviewDueDto(2L, 1L, null),
+                new ReviewDueDto(3L, 1L, NOW.plusSeconds(60))));
+
+    queue.rebuild();
+
+    assertTrue(queue.isReady());
+    assertEquals(3, queue.size());
+    assertEquals(Optional.of(2L), queue.nextDue(1L, NOW));
+  }
+
+  @Test
+  void rebuild_replaysWritesReceivedWhileReadingTheTable() {
+    queue.schedule(1L, 1L, NOW.minusSeconds(60));
+    when(reviewStateRepository.streamDueDates())
+        .thenReturn(
+            Stream.of(
+                    new ReviewDueDto(1L, 1L, NOW.minusSeconds(60)),
+                    new ReviewDueDto(2L, 1L, null),
+                    new ReviewDueDto(3L, 1L, null))
+                .peek(
+                    row -> {
+                      if (row.getFlashcardId() == 1L) {
+                        // Notée puis supprimée pendant la lecture de la table
+                        queue.schedule(1L, 1L, NOW.plusSeconds(3600));
+                        queue.remove(2L);
+                      }
+                    }));
+
+    queue.rebuild();
+
+    assertEquals(2, queue.size());
+    assertEquals(Optional.of(3L), queue.nextDue(1L, NOW));
+    assertEquals(Optional.empty(), queue.nextDue(1L, NOW));
+  }
+
+  @Test
+  void nextDue_ignoresCardsNotYetDue_andReflectsRescheduling() {
+    queue.schedule(1L, 1L, NOW.minusSeconds(10));
+    queue.schedule(2L, 1L, NOW.plusSeconds(10));
+
+    assertEquals(Optional.of(1L), queue.nextDue(1L, NOW));
+
+    queue.schedule(1L, 1L, NOW.plusSeconds(3600));
+    assertEquals(Optional.empty(), queue.nextDue(1L, NOW));
+    assertEquals(Optional.of(2L), queue.nextDue(1L, NOW.plusSeconds(10)));
+    assertEquals(2, queue.size());
+  }
+
+  @Test
+  void nextDue_withoutCategory_picksOldestAcrossCategories() {
+    queue.schedule(1L, 1L, NOW.minusSeconds(10));
+    queue.schedule(2L, 2L, NOW.minusSeconds(20));
+
+    assertEquals(Optional.of(2L), queue.nextDue(null, NOW));
+    assertEquals(Optional.empty(), queue.nextDue(3L, NOW));
+
+    queue.schedule(2L, 2L, NOW.plusSeconds(60));
+    assertEquals(Optional.of(1L), queue.nextDue(null, NOW));
+    queue.remove(1L);
+    assertEquals(Optional.empty(), queue.nextDue(null, NOW));
+    assertEquals(Optional.of(2L), queue.nextDue(null, NOW.plusSeconds(60)));
+  }
+
+  @Test
+  void nextDue_leasesTheServedCard_untilItIsRescheduledOrTheLeaseExpires() {
+    queue.schedule(1L, 1L, NOW.minusSeconds(20));
+    queue.schedule(2L, 1L, NOW.minusSeconds(10));
+
+    assertEquals(Optional.of(1L), queue.nextDue(1L, NOW));
+    assertEquals(Optional.of(2L), queue.nextDue(null, NOW));
+    assertEquals(Optional.empty(), queue.nextDue(1L, NOW));
+
+    queue.schedule(2L, 1L, NOW.minusSeconds(10));
+    assertEquals(Optional.of(2L), queue.nextDue(1L, NOW));
+
+    Instant expired = NOW.plus(Duration.ofMinutes(5)).plusSeconds(1);
+    assertEquals(Optional.of(1L), queue.nextDue(1L, expired));
+    assertEquals(2, queue.size());
+  }
+
+  @Test
+  void put_keepsDueDate_andMovesCardToItsNewCategory() {
+    queue.schedule(1L, 1L, NOW.minusSeconds(10));
+
+    queue.put(new FlashcardDto(1L, "Q", "A", 2L));
+    queue.put(new FlashcardDto(5L, "Q5", "A5", 2L));
+
+    assertEquals(Optional.empty(), queue.nextDue(1L, NOW));
+    assertEquals(Optional.of(5L), queue.nextDue(2L, NOW));
+    queue.remove(5L);
+    assertEquals(Optional.of(1L), queue.nextDue(2L, NOW));
+  }
+
+  @Test
+  void removeCategories_dropsTheirCards() {
+    queue.schedule(1L, 1L, NOW);
+    queue.schedule(2L, 2L, NOW);
+    queue.schedule(3L, 3L, NOW);
+
+    queue.removeCategories(List.of(1L, 3L));
+
+    assertEquals(1, queue.size());
+    assertEquals(Optional.of(2L), queue.nextDue(null, NOW));
+  }
+}
@@ -0,0 +1,193 @@
+package com.example.flashcards.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.example.flashcards.dto.LearningStatsDto;
+import com.example.flashcards.dto.ReviewCardDto;
+import com.example.flashcards.entity.Category;
+import com.example.flashcards.entity.Flashcard;
+import com.example.flashcards.entity.ReviewState;
+import com.example.flashcards.repository.CategoryRepository;
+import com.example.flashcards.repository.FlashcardRepository;
+import com.example.flashcards.repository.ReviewStateRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class ReviewServiceTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+
+  @Mock private ReviewStateRepository reviewStateRepository;
+
+  @Mock private FlashcardRepository flashcardRepository;
+
+  @Mock private ReviewQueue reviewQueue;
+
+  @Mock private ReviewEventLog reviewEventLog;
+
+  @Mock private LearningStats learningStats;
+
+  @Mock private CategoryRepository categoryRepository;
+
+  @InjectMocks private ReviewService reviewService;
+
+  @BeforeEach
+  void setUp() {
+    MockitoAnnotations.openMocks(this);
+    when(reviewEventLog.hasCapacity()).thenReturn(true);
+  }
+
+  @Test
+  void schedule_followsSm2Intervals() {
+    ReviewState state = new ReviewState();
+
+    ReviewService.schedule(state, 5, NOW);
+    assertEquals(1, state.getIntervalDays());
+    ReviewService.schedule(state, 5, NOW);
+    assertEquals(6, state.getIntervalDays());
+    ReviewService.schedule(state, 4, NOW);
+
+    assertEquals(3, state.getRepetitions());
+    assertEquals(16, state.getIntervalDays());
+    assertEquals(2.7, state.getEase(), 1e-9);
+    assertEquals(NOW.plus(Duration.ofDays(16)), state.getDueAt());
+  }
+
+  @Test
+  void schedule_failedReview_resetsRepetitions_andLowersEaseDownToFloor() {
+    ReviewState state = new ReviewState();
+    state.setRepetitions(4);
+    state.setIntervalDays(30);
+
+    for (int i = 0; i < 10; i++) {
+      ReviewService.schedule(state, 0, NOW);
+    }
+
+    assertEquals(0, state.getRepetitions());
+    assertEquals(1, state.getIntervalDays());
+    assertEquals(ReviewService.MIN_EASE, state.getEase(), 1e-9);
+    assertEquals(NOW.plus(Duration.ofDays(1)), state.getDueAt());
+  }
+
+  @Test
+  void nextCard_loadsOnlyTheCardPickedByTheQueue() {
+    ReviewCardDto card = new ReviewCardDto(7L, "Q", "A", 1L, null, null, null, null);
+    when(reviewQueue.isReady()).thenReturn(true);
+    when(reviewQueue.nextDue(eq(1L), any())).thenReturn(Optional.of(7L));
+    when(reviewStateRepository.findCard(7L)).thenReturn(Optional.of(card));
+
+    assertEquals(Optional.of(card), reviewService.nextCard(1L));
+    verify(reviewStateRepository, never()).findAll();
+  }
+
+  @Test
+  void nextCard_dropsCardsDeletedMeanwhile() {
+    when(reviewQueue.isReady()).thenReturn(true);
+    when(reviewQueue.nextDue(any(), any()))
+        .thenReturn(Optional.of(7L))
+        .thenReturn(Optional.empty());
+    when(reviewStateRepository.findCard(7L)).thenReturn(Optional.empty());
+
+    assertTrue(reviewService.nextCard(null).isEmpty());
+    verify(reviewQueue).remove(7L);
+  }
+
+  @Test
+  void nextCard_whileQueueIsBuilding_throws() {
+    assertThrows(IllegalStateException.class, () -> reviewService.nextCard(1L));
+  }
+
+  @Test
+  void grade_createsStateOnFirstReview_andReschedulesCard() {
+    when(flashcardRepository.findCategoryIdForUpdate(7L)).thenReturn(Optional.of(1L));
+    when(reviewStateRepository.findCard(7L))
+        .thenReturn(Optional.of(new ReviewCardDto(7L, "Q", "A", 1L, null, null, null, null)));
+    when(reviewStateRepository.findById(7L)).thenReturn(Optional.empty());
+    when(flashcardRepository.getReferenceById(7L)).thenReturn(new Flashcard());
+
+    ReviewCardDto result = reviewService.grade(7L, 4, null).orElseThrow();
+
+    assertEquals(1, result.getRepetitions());
+    assertEquals(1, result.getIntervalDays());
+    assertNotNull(result.getDueAt());
+    InOrder order = inOrder(flashcardRepository, reviewStateRepository);
+    order.verify(flashcardRepository).findCategoryIdForUpdate(7L);
+    order.verify(reviewStateRepository).findById(7L);
+    order.verify(reviewStateRepository).save(any(ReviewState.class));
+    verify(reviewQueue).schedule(7L, 1L, result.getDueAt());
+    verify(reviewEventLog)
+        .appendAfterCommit(
+            argThat(e -> e.flashcardId() == 7L && e.grade() == 4 && e.intervalDays() == 1));
+    verify(learningStats).recordAfterCommit(argThat(e -> !e.lapse() && e.responseMs() == null));
+  }
+
+  @Test
+  void grade_failingALearnedCard_isALapse() {
+    ReviewState learned = new ReviewState();
+    learned.setRepetitions(2);
+    learned.setIntervalDays(6);
+    when(flashcardRepository.findCategoryIdForUpdate(7L)).thenReturn(Optional.of(1L));
+    when(reviewStateRepository.findCard(7L))
+        .thenReturn(Optional.of(new ReviewCardDto(7L, "Q", "A", 1L, 2, 6, 2.5, NOW)));
+    when(reviewStateRepository.findById(7L)).thenReturn(Optional.of(learned));
+
+    reviewService.grade(7L, 1, 2500);
+
+    verify(learningStats)
+        .recordAfterCommit(argThat(e -> e.lapse() && e.responseMs() == 2500 && e.grade() == 1));
+  }
+
+  @Test
+  void grade_rejectsNegativeResponseTime() {
+    assertThrows(IllegalArgumentException.class, () -> reviewService.grade(7L, 4, -1));
+    verify(reviewStateRepository, never()).findCard(any());
+  }
+
+  @Test
+  void stats_servedFromMemory_onlyForExistingTargets() {
+    LearningStatsDto stats = new LearningStatsDto(1L, 4, 0.75, 1800.0, 1);
+    when(learningStats.isReady()).thenReturn(true);
+    when(learningStats.category(1L)).thenReturn(stats);
+    when(categoryRepository.findById(1L)).thenReturn(Optional.of(new Category()));
+    when(categoryRepository.findById(2L)).thenReturn(Optional.empty());
+    when(flashcardRepository.existsById(7L)).thenReturn(false);
+
+    assertEquals(Optional.of(stats), reviewService.categoryStats(1L));
+    assertTrue(reviewService.categoryStats(2L).isEmpty());
+    assertTrue(reviewService.flashcardStats(7L).isEmpty());
+  }
+
+  @Test
+  void stats_whileLoading_throws() {
+    assertThrows(IllegalStateException.class, () -> reviewService.categoryStats(1L));
+    assertThrows(IllegalStateException.class, () -> reviewService.flashcardStats(7L));
+  }
+
+  @Test
+  void grade_whenReviewLogIsFull_throwsBeforeWriting() {
+    when(reviewEventLog.hasCapacity()).thenReturn(false);
+
+    assertThrows(IllegalStateException.class, () -> reviewService.grade(7L, 4, null));
+    verify(reviewStateRepository, never()).findCard(any());
+    verify(reviewStateRepository, never()).save(any());
+  }
+
+  @Test
+  void grade_rejectsOutOfRangeGrades_andUnknownCards() {
+    assertThrows(IllegalArgumentException.class, () -> reviewService.grade(7L, 6, null));
+    assertThrows(IllegalArgumentException.class, () -> reviewService.grade(7L, null, null));
+
+    when(flashcardRepository.findCategoryIdForUpdate(8L)).thenReturn(Optional.empty());
+    assertTrue(reviewService.grade(8L, 3, null).isEmpty());
+    verify(reviewStateRepository, never()).save(any());
+  }
+}